@@ -1,5 +1,6 @@
 package com.scccy.common.base.aspect;
 
+import com.scccy.common.base.service.AuthorityResolver;
 import com.scccy.common.modules.annotation.CurrentUser;
 import com.scccy.common.modules.constant.UserHeaderConstants;
 import com.scccy.common.modules.dto.CurrentUserInfo;
@@ -15,9 +16,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
 
 /**
  * 当前用户切面
@@ -40,6 +38,12 @@ import java.util.List;
 @Aspect
 @Component
 public class CurrentUserAspect {
+
+    private final AuthorityResolver authorityResolver;
+
+    public CurrentUserAspect(AuthorityResolver authorityResolver) {
+        this.authorityResolver = authorityResolver;
+    }
     
     /**
      * 切点：匹配标注了 @CurrentUser 注解的方法
@@ -100,7 +104,6 @@ public class CurrentUserAspect {
             // 从请求头提取用户信息（Gateway 内部添加的请求头，前端不会获取到）
             String userIdStr = request.getHeader(UserHeaderConstants.HEADER_USER_ID);
             String username = request.getHeader(UserHeaderConstants.HEADER_USERNAME);
-            String authoritiesStr = request.getHeader(UserHeaderConstants.HEADER_AUTHORITIES);
             
             // 如果必需且没有用户信息，返回 null
             if (required && (userIdStr == null || username == null)) {
@@ -123,12 +126,8 @@ public class CurrentUserAspect {
             // 设置用户名
             userInfo.setUsername(username);
             
-            // 解析权限列表
-            List<String> authorities = Collections.emptyList();
-            if (authoritiesStr != null && !authoritiesStr.trim().isEmpty()) {
-                authorities = Arrays.asList(authoritiesStr.split(","));
-            }
-            userInfo.setAuthorities(authorities);
+            // 解析权限列表（位图 + 明文，请求内只解码一次）
+            userInfo.setAuthorities(authorityResolver.current().toList());
             
             log.debug("提取用户信息成功: userId={}, username={}, authorities={}",
                 userInfo.getUserId(), userInfo.getUsername(), userInfo.getAuthorities());
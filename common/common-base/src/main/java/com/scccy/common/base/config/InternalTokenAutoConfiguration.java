@@ -2,11 +2,13 @@ package com.scccy.common.base.config;
 
 import com.scccy.common.base.config.properties.InternalTokenFeignProperties;
 import com.scccy.common.base.config.properties.InternalTokenProperties;
+import com.scccy.common.base.config.properties.InternalTokenWebClientProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
-@EnableConfigurationProperties({InternalTokenProperties.class, InternalTokenFeignProperties.class})
+@EnableConfigurationProperties({InternalTokenProperties.class, InternalTokenFeignProperties.class,
+    InternalTokenWebClientProperties.class})
 public class InternalTokenAutoConfiguration {
 }
 
@@ -1,49 +1,81 @@
 package com.scccy.common.base.config;
 
+import com.scccy.common.base.config.properties.OkHttpProperties;
+import com.scccy.common.base.manager.HostConcurrencyInterceptor;
 import com.scccy.common.base.manager.OkHttpManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.okhttp3.OkHttpConnectionPoolMetrics;
+import io.micrometer.core.instrument.binder.okhttp3.OkHttpMetricsEventListener;
 import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 /**
  * OkHttp3配置类
- * 
+ * <p>
+ * 连接池、并发上限、超时与日志级别见 {@link OkHttpProperties}（{@code scccy.okhttp.*}）；
+ * 存在 {@link MeterRegistry} 时发布 {@code okhttp.requests}（按主机、路径、状态码）与连接池指标
+ *
  * @author scccy
  */
 @Configuration
+@EnableConfigurationProperties(OkHttpProperties.class)
 public class OkHttpConfig {
-    
+
     /**
      * 创建OkHttpClient Bean
      */
     @Bean
-    public OkHttpClient okHttpClient() {
-        // 创建日志拦截器
-        HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor();
-        loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BASIC);
-        
-        // 创建连接池
+    public OkHttpClient okHttpClient(OkHttpProperties properties, ObjectProvider<MeterRegistry> meterRegistryProvider) {
         ConnectionPool connectionPool = new ConnectionPool(
-            5, // 最大空闲连接数
-            5, // 保持连接时间（分钟）
-            TimeUnit.MINUTES
+            properties.getMaxIdleConnections(),
+            properties.getKeepAlive().toMillis(),
+            TimeUnit.MILLISECONDS
         );
-        
-        return new OkHttpClient.Builder()
-                .connectTimeout(Duration.ofSeconds(10)) // 连接超时
-                .readTimeout(Duration.ofSeconds(30))    // 读取超时
-                .writeTimeout(Duration.ofSeconds(30))   // 写入超时
-                .connectionPool(connectionPool)         // 连接池
-                .addInterceptor(loggingInterceptor)     // 日志拦截器
-                .retryOnConnectionFailure(true)         // 连接失败时重试
-                .build();
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(properties.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(properties.getMaxRequestsPerHost());
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectTimeout(properties.getConnectTimeout())
+                .readTimeout(properties.getReadTimeout())
+                .writeTimeout(properties.getWriteTimeout())
+                .connectionPool(connectionPool)
+                .dispatcher(dispatcher)
+                .retryOnConnectionFailure(true);
+
+        if (!properties.getHostMaxConcurrent().isEmpty()) {
+            builder.addInterceptor(new HostConcurrencyInterceptor(properties.getHostMaxConcurrent()));
+        }
+
+        HttpLoggingInterceptor.Level level = HttpLoggingInterceptor.Level.valueOf(properties.getLoggingLevel().toUpperCase());
+        if (level != HttpLoggingInterceptor.Level.NONE) {
+            HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor();
+            loggingInterceptor.setLevel(level);
+            builder.addInterceptor(loggingInterceptor);
+        }
+
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
+        if (meterRegistry != null && Boolean.TRUE.equals(properties.getMetricsEnabled())) {
+            // 第三方接口的路径是固定的（参数在查询串与请求体中），直接用路径作为 uri 标签
+            builder.eventListener(OkHttpMetricsEventListener.builder(meterRegistry, "okhttp.requests")
+                    .uriMapper(request -> request.url().encodedPath())
+                    .includeHostTag(true)
+                    .build());
+            new OkHttpConnectionPoolMetrics(connectionPool).bindTo(meterRegistry);
+        }
+
+        return builder.build();
     }
-    
+
     /**
      * 创建OkHttpManager Bean
      */
@@ -51,4 +83,4 @@ public class OkHttpConfig {
     public OkHttpManager okHttpManager(OkHttpClient okHttpClient) {
         return new OkHttpManager(okHttpClient);
     }
-} 
\ No newline at end of file
+}
@@ -1,5 +1,9 @@
 package com.scccy.common.base.config;
 
+import com.scccy.common.base.config.properties.InternalTokenWebClientProperties;
+import com.scccy.common.base.service.ReactiveAuthTokenService;
+import com.scccy.common.base.webclient.InternalTokenExchangeFilterFunction;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,11 +17,15 @@ public class WebClientConfig {
 
     /**
      * 提供一个 LoadBalanced WebClient.Builder，支持使用服务名（lb://service-id）访问
+     * <p>
+     * 默认挂载 {@link InternalTokenExchangeFilterFunction}，非阻塞地注入内部令牌
      */
     @Bean
     @LoadBalanced
-    public WebClient.Builder loadBalancedWebClientBuilder() {
-        return WebClient.builder();
+    public WebClient.Builder loadBalancedWebClientBuilder(ObjectProvider<ReactiveAuthTokenService> reactiveAuthTokenService,
+                                                          ObjectProvider<InternalTokenWebClientProperties> webClientProperties) {
+        return WebClient.builder()
+            .filter(new InternalTokenExchangeFilterFunction(reactiveAuthTokenService, webClientProperties));
     }
 }
 
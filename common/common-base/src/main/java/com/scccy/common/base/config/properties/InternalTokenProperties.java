@@ -65,4 +65,22 @@ public class InternalTokenProperties {
      * 默认: 60（1分钟）
      */
     private Long refreshAheadSeconds = 60L;
+
+    /**
+     * 跨实例刷新锁的持有时间（秒），应大于一次 token 请求的超时时间
+     * 默认: 15
+     */
+    private Long refreshLockSeconds = 15L;
+
+    /**
+     * 未抢到刷新锁时，等待其他实例写入 Redis 的最长时间（毫秒），超时后自行获取
+     * 默认: 3000
+     */
+    private Long refreshLockWaitMillis = 3000L;
+
+    /**
+     * 后台刷新失败后的重试间隔（秒），仅在旧 token 仍可用时生效
+     * 默认: 5
+     */
+    private Long refreshRetrySeconds = 5L;
 }
@@ -0,0 +1,27 @@
+package com.scccy.common.base.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * WebClient 内部令牌注入相关配置
+ * <p>
+ * 控制 {@code loadBalancedWebClientBuilder} 构建的 WebClient 是否自动注入内部令牌，以及跳过的目标服务列表。
+ */
+@Data
+@ConfigurationProperties(prefix = "scccy.internal-token.webclient")
+public class InternalTokenWebClientProperties {
+
+    /**
+     * 是否启用 WebClient 过滤器自动注入 Authorization 头
+     */
+    private boolean enabled = true;
+
+    /**
+     * 需要跳过内部令牌注入的目标服务（lb://service-id 中的 service-id，即请求 URI 的 host）
+     */
+    private List<String> skipServices = new ArrayList<>();
+}
@@ -0,0 +1,80 @@
+package com.scccy.common.base.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * OkHttp 客户端配置属性
+ * <p>
+ * 所有第三方平台（企业微信、飞书等）的 HTTP 调用都经过 {@code OkHttpManager}，
+ * 连接池与并发上限按实际调用量配置，而不是固定值
+ *
+ * @author scccy
+ */
+@Data
+@ConfigurationProperties(prefix = "scccy.okhttp")
+public class OkHttpProperties {
+
+    /**
+     * 连接超时
+     * 默认: 10s
+     */
+    private Duration connectTimeout = Duration.ofSeconds(10);
+
+    /**
+     * 读取超时
+     * 默认: 30s
+     */
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    /**
+     * 写入超时
+     * 默认: 30s
+     */
+    private Duration writeTimeout = Duration.ofSeconds(30);
+
+    /**
+     * 连接池最大空闲连接数
+     * 默认: 32
+     */
+    private Integer maxIdleConnections = 32;
+
+    /**
+     * 空闲连接保持时间
+     * 默认: 5m
+     */
+    private Duration keepAlive = Duration.ofMinutes(5);
+
+    /**
+     * 异步调用的最大并发请求数
+     * 默认: 128
+     */
+    private Integer maxRequests = 128;
+
+    /**
+     * 异步调用对单个主机的最大并发请求数
+     * 默认: 32
+     */
+    private Integer maxRequestsPerHost = 32;
+
+    /**
+     * 按主机覆盖的并发上限（同步与异步调用都生效），如 {@code qyapi.weixin.qq.com: 16}
+     */
+    private Map<String, Integer> hostMaxConcurrent = new LinkedHashMap<>();
+
+    /**
+     * 请求日志级别：NONE / BASIC / HEADERS / BODY
+     * 默认: NONE（排查问题时再打开）
+     */
+    private String loggingLevel = "NONE";
+
+    /**
+     * 是否发布请求耗时与连接池指标
+     * 默认: true
+     */
+    private Boolean metricsEnabled = true;
+}
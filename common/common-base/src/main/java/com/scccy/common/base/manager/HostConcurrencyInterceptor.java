@@ -0,0 +1,52 @@
+package com.scccy.common.base.manager;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 按主机限制并发请求数
+ * <p>
+ * OkHttp 的 {@code Dispatcher} 只有一个全局的单主机上限，且只约束异步调用；
+ * 这里按配置为指定主机各维护一个信号量，同步与异步调用都生效，未配置的主机不受限
+ *
+ * @author scccy
+ */
+public class HostConcurrencyInterceptor implements Interceptor {
+
+    private final Map<String, Semaphore> permits;
+
+    public HostConcurrencyInterceptor(Map<String, Integer> hostMaxConcurrent) {
+        Map<String, Semaphore> map = new HashMap<>();
+        hostMaxConcurrent.forEach((host, limit) -> {
+            if (limit != null && limit > 0) {
+                map.put(host, new Semaphore(limit));
+            }
+        });
+        this.permits = Map.copyOf(map);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Semaphore semaphore = permits.get(chain.request().url().host());
+        if (semaphore == null) {
+            return chain.proceed(chain.request());
+        }
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待主机并发许可被中断: " + chain.request().url().host());
+        }
+        try {
+            return chain.proceed(chain.request());
+        } finally {
+            semaphore.release();
+        }
+    }
+}
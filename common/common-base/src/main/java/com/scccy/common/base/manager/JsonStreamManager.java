@@ -0,0 +1,148 @@
+package com.scccy.common.base.manager;
+
+import com.alibaba.fastjson2.JSONWriter;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.scccy.common.modules.domain.ErrorCode;
+import com.scccy.common.modules.exception.BusinessException;
+import com.scccy.common.modules.utils.KeysetPagination;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 大结果集流式输出
+ * <p>
+ * 按排序键（keyset）分批查询，每批用 fastjson2 {@link JSONWriter} 序列化后立即写入响应并 flush，
+ * 响应以 chunked 方式传输。服务端只保留一批数据和一批的序列化缓冲，内存占用与总行数无关；
+ * 客户端读取慢时 Servlet 写操作阻塞，下一批查询随之推迟，形成背压；
+ * 批与批之间不占用数据库连接。
+ * <p>
+ * 支持两种格式：
+ * <ul>
+ *     <li>{@code array}（默认）：与 {@code ResultData} 相同的外层结构，data 为数组，末尾追加 {@code truncated} 表示是否因行数上限被截断</li>
+ *     <li>{@code ndjson}：每行一个 JSON 对象，不包含外层结构，读取到 {@code X-Row-Limit} 行即可能被截断</li>
+ * </ul>
+ * 开始输出后响应已提交，中途失败只能中断连接，客户端据此判断结果不完整
+ *
+ * @author scccy
+ */
+@Slf4j
+@Component
+public class JsonStreamManager {
+
+    public static final String FORMAT_ARRAY = "array";
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String ROW_LIMIT_HEADER = "X-Row-Limit";
+
+    private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson;charset=UTF-8";
+    private static final String JSON_CONTENT_TYPE = "application/json;charset=UTF-8";
+    private static final String DATE_FORMAT = "yyyy-MM-dd HH:mm:ss";
+
+    private final long maxRows;
+    private final int batchSize;
+
+    public JsonStreamManager(@Value("${scccy.stream.max-rows:100000}") long maxRows,
+                             @Value("${scccy.stream.batch-size:500}") int batchSize) {
+        this.maxRows = maxRows;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 无条件流式输出全表
+     *
+     * @param response 响应
+     * @param format   {@code array} 或 {@code ndjson}，为空时按 array
+     * @param limit    请求的最大行数，为空或超过 {@code scccy.stream.max-rows} 时取配置上限
+     * @param service  实体服务
+     * @param keys     唯一排序键，按优先级排列
+     */
+    @SafeVarargs
+    public final <T> void streamAll(HttpServletResponse response, String format, Long limit,
+                                    IService<T> service, KeysetPagination.SortKey<T>... keys) throws IOException {
+        stream(response, format, limit, service, QueryWrapper::new, keys);
+    }
+
+    /**
+     * 按条件流式输出
+     *
+     * @param wrapperFactory 查询条件工厂，每批查询都会调用一次
+     */
+    @SafeVarargs
+    public final <T> void stream(HttpServletResponse response, String format, Long limit, IService<T> service,
+                                 Supplier<QueryWrapper<T>> wrapperFactory,
+                                 KeysetPagination.SortKey<T>... keys) throws IOException {
+        boolean ndjson = resolveFormat(format);
+        long rowLimit = limit == null || limit <= 0 ? maxRows : Math.min(limit, maxRows);
+
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(ndjson ? NDJSON_CONTENT_TYPE : JSON_CONTENT_TYPE);
+        response.setHeader(ROW_LIMIT_HEADER, String.valueOf(rowLimit));
+        // 禁止反向代理缓冲整个响应
+        response.setHeader("X-Accel-Buffering", "no");
+
+        OutputStream out = response.getOutputStream();
+        long started = System.currentTimeMillis();
+        long[] rows = {0L};
+        try (JSONWriter writer = JSONWriter.ofUTF8(new JSONWriter.Context(DATE_FORMAT,
+                JSONWriter.Feature.WriteEnumsUsingName,
+                JSONWriter.Feature.WriteBigDecimalAsPlain))) {
+            if (!ndjson) {
+                writer.writeRaw("{\"code\":200,\"message\":\"SUCCESS\",\"data\":[");
+            }
+            boolean truncated = KeysetPagination.forEachBatch(service, wrapperFactory, batchSize, rowLimit,
+                    batch -> writeBatch(writer, out, batch, ndjson, rows), keys);
+            if (!ndjson) {
+                writer.writeRaw("],\"truncated\":" + truncated + "}");
+            }
+            writer.flushTo(out);
+            out.flush();
+            log.debug("流式输出完成: entity={}, rows={}, truncated={}, cost={}ms",
+                    service.getEntityClass().getSimpleName(), rows[0], truncated, System.currentTimeMillis() - started);
+        } catch (UncheckedIOException e) {
+            // 客户端断开等写出失败，响应已提交，不再交给全局异常处理写错误体
+            log.warn("流式输出中断: entity={}, rows={}, error={}",
+                    service.getEntityClass().getSimpleName(), rows[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+    }
+
+    private static <T> void writeBatch(JSONWriter writer, OutputStream out, List<T> batch, boolean ndjson, long[] rows) {
+        for (T row : batch) {
+            if (ndjson) {
+                writer.writeAny(row);
+                writer.writeRaw('\n');
+            } else {
+                if (rows[0] > 0) {
+                    writer.writeRaw(',');
+                }
+                writer.writeAny(row);
+            }
+            rows[0]++;
+        }
+        try {
+            writer.flushTo(out);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean resolveFormat(String format) {
+        if (format == null || format.isEmpty() || FORMAT_ARRAY.equalsIgnoreCase(format)) {
+            return false;
+        }
+        if (FORMAT_NDJSON.equalsIgnoreCase(format)) {
+            return true;
+        }
+        throw new BusinessException(ErrorCode.PARAM_ERROR, "不支持的输出格式: " + format);
+    }
+}
@@ -2,24 +2,39 @@ package com.scccy.common.base.manager;
 
 import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.JSONReader;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
+import okio.BufferedSource;
 
 import java.io.IOException;
+import java.lang.reflect.Type;
 import java.net.URLEncoder;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
- * OkHttp3管理器 - 简化版本
- * 提供简洁的GET和POST方法，统一返回JSONObject
+ * OkHttp3管理器
+ * <p>
+ * 提供同步与异步（{@link CompletableFuture}，基于 {@code enqueue}）的 GET / POST：
+ * <ul>
+ *     <li>请求体由 fastjson2 直接序列化为字节，不经过中间字符串</li>
+ *     <li>响应体从 {@link BufferedSource} 流式交给 {@link JSONReader} 解码为目标类型，不再先读成完整的 String</li>
+ *     <li>返回 {@link JSONObject} 的方法保留原有行为：空响应返回空对象，非 JSON 响应放入 {@code raw_response}</li>
+ * </ul>
+ * 异步调用在 OkHttp 调度线程上完成解码，取消返回的 Future 会同时取消请求
  *
  * @author scccy
  */
 @Slf4j
 public class OkHttpManager {
 
+    private static final MediaType JSON_MEDIA_TYPE = MediaType.get("application/json; charset=utf-8");
+
     private final OkHttpClient okHttpClient;
 
     public OkHttpManager(OkHttpClient okHttpClient) {
@@ -45,6 +60,66 @@ public class OkHttpManager {
      * GET请求 - 返回JSONObject（带请求头和参数）
      */
     public JSONObject get(String url, Map<String, Object> headers, Map<String, Object> params) throws IOException {
+        return execute(buildGet(url, headers, params), OkHttpManager::decodeJsonObject);
+    }
+
+    /**
+     * GET请求 - 解码为指定类型
+     */
+    public <T> T get(String url, Map<String, Object> headers, Map<String, Object> params, Type type) throws IOException {
+        return execute(buildGet(url, headers, params), body -> decode(body, type));
+    }
+
+    /**
+     * POST请求 - JSON数据，返回JSONObject
+     */
+    public JSONObject post(String url, Map<String, Object> param) throws IOException {
+        return post(url,null,param);
+    }
+
+    /**
+     * POST请求 - JSON数据，返回JSONObject（带请求头）
+     */
+    public JSONObject post(String url,  Map<String, Object> headers,Map<String, Object> param) throws IOException {
+        return execute(buildPost(url, headers, param), OkHttpManager::decodeJsonObject);
+    }
+
+    /**
+     * POST请求 - JSON数据，解码为指定类型
+     */
+    public <T> T post(String url, Map<String, Object> headers, Object body, Type type) throws IOException {
+        return execute(buildPost(url, headers, body), responseBody -> decode(responseBody, type));
+    }
+
+    /**
+     * 异步GET请求 - 返回JSONObject
+     */
+    public CompletableFuture<JSONObject> getAsync(String url, Map<String, Object> headers, Map<String, Object> params) {
+        return enqueue(() -> buildGet(url, headers, params), OkHttpManager::decodeJsonObject);
+    }
+
+    /**
+     * 异步GET请求 - 解码为指定类型
+     */
+    public <T> CompletableFuture<T> getAsync(String url, Map<String, Object> headers, Map<String, Object> params, Type type) {
+        return enqueue(() -> buildGet(url, headers, params), body -> decode(body, type));
+    }
+
+    /**
+     * 异步POST请求 - JSON数据，返回JSONObject
+     */
+    public CompletableFuture<JSONObject> postAsync(String url, Map<String, Object> headers, Object body) {
+        return enqueue(() -> buildPost(url, headers, body), OkHttpManager::decodeJsonObject);
+    }
+
+    /**
+     * 异步POST请求 - JSON数据，解码为指定类型
+     */
+    public <T> CompletableFuture<T> postAsync(String url, Map<String, Object> headers, Object body, Type type) {
+        return enqueue(() -> buildPost(url, headers, body), responseBody -> decode(responseBody, type));
+    }
+
+    private Request buildGet(String url, Map<String, Object> headers, Map<String, Object> params) {
         // 拼接URL参数
         if (params != null && !params.isEmpty()) {
             StringBuilder sb = new StringBuilder(url);
@@ -60,81 +135,125 @@ public class OkHttpManager {
             url = sb.toString();
         }
 
-        // 构建请求
         Request.Builder requestBuilder = new Request.Builder().url(url);
+        addHeaders(requestBuilder, headers);
+        return requestBuilder.build();
+    }
 
-        // 添加请求头
+    private Request buildPost(String url, Map<String, Object> headers, Object body) {
+        RequestBody requestBody = RequestBody.create(JSON.toJSONBytes(body), JSON_MEDIA_TYPE);
+        Request.Builder requestBuilder = new Request.Builder()
+                .url(url)
+                .post(requestBody);
+        addHeaders(requestBuilder, headers);
+        return requestBuilder.build();
+    }
+
+    private static void addHeaders(Request.Builder requestBuilder, Map<String, Object> headers) {
         if (headers != null) {
             headers.forEach((key, value) -> requestBuilder.addHeader(key, String.valueOf(value)));
         }
-
-        Request request = requestBuilder.build();
-
-        // 执行请求
-        String responseBody = executeRequest(request);
-
-        // 解析返回
-        return parseResponse(responseBody);
     }
 
     /**
-     * POST请求 - JSON数据，返回JSONObject
+     * 执行HTTP请求
      */
-    public JSONObject post(String url, Map<String, Object> param) throws IOException {
-        return post(url,null,param);
+    private <T> T execute(Request request, BodyDecoder<T> decoder) throws IOException {
+        try (Response response = okHttpClient.newCall(request).execute()) {
+            return decoder.decode(successfulBody(response));
+        }
     }
 
     /**
-     * POST请求 - JSON数据，返回JSONObject（带请求头）
+     * 异步执行HTTP请求
      */
-    public JSONObject post(String url,  Map<String, Object> headers,Map<String, Object> param) throws IOException {
-        String jsonData = JSON.toJSONString(param);
-        RequestBody requestBody = RequestBody.create(jsonData, MediaType.get("application/json; charset=utf-8"));
-
-        Request.Builder requestBuilder = new Request.Builder()
-                .url(url)
-                .post(requestBody);
-
-        if (headers != null) {
-            headers.forEach((key, value) -> requestBuilder.addHeader(key, String.valueOf(value)));
+    private <T> CompletableFuture<T> enqueue(Supplier<Request> requestSupplier, BodyDecoder<T> decoder) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Call call;
+        try {
+            call = okHttpClient.newCall(requestSupplier.get());
+        } catch (RuntimeException e) {
+            // URL 非法等构建错误
+            future.completeExceptionally(e);
+            return future;
         }
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(e);
+            }
 
-        Request request = requestBuilder.build();
-        String responseBody = executeRequest(request);
-
-        return parseResponse(responseBody);
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (response) {
+                    future.complete(decoder.decode(successfulBody(response)));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return future;
     }
 
+    private static ResponseBody successfulBody(Response response) throws IOException {
+        if (!response.isSuccessful()) {
+            throw new IOException("HTTP请求失败，状态码: " + response.code() + ", 消息: " + response.message());
+        }
+        return response.body();
+    }
 
     /**
-     * 执行HTTP请求
+     * 流式解码为指定类型，空响应返回 null
      */
-    private String executeRequest(Request request) throws IOException {
-        try (Response response = okHttpClient.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                throw new IOException("HTTP请求失败，状态码: " + response.code() + ", 消息: " + response.message());
-            }
-
-            ResponseBody responseBody = response.body();
-            return responseBody != null ? responseBody.string() : "";
+    private static <T> T decode(ResponseBody body, Type type) throws IOException {
+        if (body == null || body.source().exhausted()) {
+            return null;
+        }
+        try (JSONReader reader = JSONReader.of(body.byteStream(), charset(body))) {
+            return reader.read(type);
+        } catch (RuntimeException e) {
+            throw new IOException("响应解码失败: " + e.getMessage(), e);
         }
     }
 
     /**
      * 解析响应数据为JSONObject
+     * <p>
+     * 通过 {@link BufferedSource#peek()} 流式解析，解析失败时仍可从原始数据中读出字符串放入 {@code raw_response}
      */
-    private JSONObject parseResponse(String responseBody) {
-        if (responseBody == null || responseBody.trim().isEmpty()) {
+    private static JSONObject decodeJsonObject(ResponseBody body) throws IOException {
+        if (body == null) {
             return new JSONObject();
         }
-
-        try {
-            return JSON.parseObject(responseBody);
-        } catch (Exception e) {
+        BufferedSource source = body.source();
+        if (source.exhausted()) {
+            return new JSONObject();
+        }
+        Charset charset = charset(body);
+        try (JSONReader reader = JSONReader.of(source.peek().inputStream(), charset)) {
+            JSONObject result = reader.read(JSONObject.class);
+            return result != null ? result : new JSONObject();
+        } catch (RuntimeException e) {
             log.warn("JSON解析失败，返回原始字符串: {}", e.getMessage());
             JSONObject result = new JSONObject();
-            result.put("raw_response", responseBody);
+            result.put("raw_response", source.readString(charset));
             return result;
         }
     }
-} 
\ No newline at end of file
+
+    private static Charset charset(ResponseBody body) {
+        MediaType contentType = body.contentType();
+        return contentType != null ? contentType.charset(StandardCharsets.UTF_8) : StandardCharsets.UTF_8;
+    }
+
+    @FunctionalInterface
+    private interface BodyDecoder<T> {
+
+        T decode(ResponseBody body) throws IOException;
+    }
+}
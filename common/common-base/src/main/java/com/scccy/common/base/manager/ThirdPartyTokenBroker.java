@@ -0,0 +1,448 @@
+package com.scccy.common.base.manager;
+
+import com.alibaba.fastjson2.JSONObject;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 第三方平台 access token 管理（企业微信、飞书等）
+ * <p>
+ * 与 {@code AuthTokenService} 相同的思路，按 {@link TokenSource} 插拔不同厂商：
+ * <ul>
+ *     <li>每个令牌在内存中持有值与过期时间，热路径不访问 Redis</li>
+ *     <li>到达刷新时间点前由后台线程主动刷新；同一令牌同时只有一个刷新在进行（single-flight）</li>
+ *     <li>多实例之间通过 Redis 锁协调刷新，Redis 中的令牌作为共享兜底，未抢到锁的实例等待并直接采用</li>
+ *     <li>厂商返回"令牌无效/过期"错误码时立即淘汰内存与 Redis 中的该令牌，{@link #call} 会换新令牌重试一次</li>
+ * </ul>
+ * Redis 不可用时退化为实例内 single-flight
+ *
+ * @author scccy
+ */
+@Slf4j
+@Component
+public class ThirdPartyTokenBroker {
+
+    private static final long MIN_TTL_SECONDS = 5L;
+    private static final long LOCK_POLL_MILLIS = 100L;
+    private static final String LOCK_SUFFIX = ":lock";
+
+    /**
+     * 仅当值与传入值一致时才删除，用于释放锁与淘汰令牌
+     */
+    private static final RedisScript<Long> DELETE_IF_EQUALS_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+        Long.class);
+
+    private final ObjectProvider<StringRedisTemplate> stringRedisTemplateProvider;
+
+    private final Map<String, TokenHolder> holders = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refreshExecutor;
+
+    private final long refreshAheadSeconds;
+    private final long lockSeconds;
+    private final long lockWaitMillis;
+    private final long retrySeconds;
+
+    public ThirdPartyTokenBroker(ObjectProvider<StringRedisTemplate> stringRedisTemplateProvider,
+                                 @Value("${scccy.third-party-token.refresh-ahead-seconds:300}") long refreshAheadSeconds,
+                                 @Value("${scccy.third-party-token.refresh-lock-seconds:15}") long lockSeconds,
+                                 @Value("${scccy.third-party-token.refresh-lock-wait-millis:3000}") long lockWaitMillis,
+                                 @Value("${scccy.third-party-token.refresh-retry-seconds:5}") long retrySeconds) {
+        this.stringRedisTemplateProvider = stringRedisTemplateProvider;
+        this.refreshAheadSeconds = refreshAheadSeconds;
+        this.lockSeconds = lockSeconds;
+        this.lockWaitMillis = lockWaitMillis;
+        this.retrySeconds = retrySeconds;
+
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+            Thread.ofPlatform().name("third-party-token-refresh-", 1).daemon(true).factory());
+        executor.setRemoveOnCancelPolicy(true);
+        this.refreshExecutor = executor;
+    }
+
+    /**
+     * 获取令牌
+     * <p>
+     * 内存中有未过期的令牌时直接返回（到达刷新时间点则顺带触发后台刷新），否则等待 single-flight 刷新完成
+     *
+     * @param source 令牌来源
+     * @return access token
+     * @throws IOException 获取失败
+     */
+    public String getToken(TokenSource source) throws IOException {
+        TokenHolder holder = holders.computeIfAbsent(source.cacheKey(), key -> new TokenHolder(source));
+        CachedToken current = holder.current;
+        long now = System.currentTimeMillis();
+        if (current != null && current.isUsable(now)) {
+            if (current.shouldRefresh(now)) {
+                refresh(holder);
+            }
+            return current.token();
+        }
+        return awaitRefresh(holder);
+    }
+
+    /**
+     * 携带令牌调用厂商接口；响应表示令牌失效时淘汰并换新令牌重试一次
+     *
+     * @param source 令牌来源
+     * @param call   接口调用
+     * @return 接口响应
+     * @throws IOException 调用失败
+     */
+    public JSONObject call(TokenSource source, TokenCall call) throws IOException {
+        String token = getToken(source);
+        JSONObject response = call.apply(token);
+        if (evictIfRejected(source, token, response)) {
+            response = call.apply(getToken(source));
+        }
+        return response;
+    }
+
+    /**
+     * 响应表示令牌失效时淘汰该令牌
+     *
+     * @param source   令牌来源
+     * @param token    本次调用使用的令牌
+     * @param response 接口响应
+     * @return 是否已淘汰
+     */
+    public boolean evictIfRejected(TokenSource source, String token, JSONObject response) {
+        if (response == null || !source.isTokenRejected(response)) {
+            return false;
+        }
+        log.warn("第三方令牌被拒绝，淘汰后重新获取（key={}）：{}", source.cacheKey(), response);
+        evict(source, token);
+        return true;
+    }
+
+    /**
+     * 淘汰令牌（内存与 Redis）；只淘汰与传入值相同的令牌，避免误删其他线程/实例刚刷新的新令牌
+     *
+     * @param source 令牌来源
+     * @param token  要淘汰的令牌，为 null 时无条件淘汰
+     */
+    public void evict(TokenSource source, String token) {
+        TokenHolder holder = holders.get(source.cacheKey());
+        if (holder != null) {
+            holder.lastRejected = token;
+            CachedToken current = holder.current;
+            if (current != null && (token == null || token.equals(current.token()))) {
+                holder.current = null;
+            }
+        }
+        StringRedisTemplate redis = stringRedisTemplateProvider.getIfAvailable();
+        if (redis == null) {
+            return;
+        }
+        try {
+            if (token == null) {
+                redis.delete(source.cacheKey());
+            } else {
+                redis.execute(DELETE_IF_EQUALS_SCRIPT, Collections.singletonList(source.cacheKey()), token);
+            }
+        } catch (Exception e) {
+            log.warn("淘汰 Redis 共享第三方令牌失败（key={}）：{}", source.cacheKey(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private String awaitRefresh(TokenHolder holder) throws IOException {
+        try {
+            return refresh(holder).get(lockWaitMillis + TimeUnit.SECONDS.toMillis(30), TimeUnit.MILLISECONDS).token();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioe) {
+                throw ioe;
+            }
+            throw new IOException("获取第三方令牌异常（key=" + holder.source.cacheKey() + "）：" + cause.getMessage(), cause);
+        } catch (TimeoutException e) {
+            throw new IOException("获取第三方令牌超时（key=" + holder.source.cacheKey() + "）", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("获取第三方令牌被中断");
+        }
+    }
+
+    /**
+     * 触发刷新；同一令牌已有刷新在进行时复用同一个 Future，返回值不为空
+     */
+    private CompletableFuture<CachedToken> refresh(TokenHolder holder) {
+        CompletableFuture<CachedToken> existing = holder.inflight.get();
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture<CachedToken> future = new CompletableFuture<>();
+        while (!holder.inflight.compareAndSet(null, future)) {
+            // 竞争失败后对方的刷新可能已完成并清空 inflight，此时重新竞争，不返回 null
+            CompletableFuture<CachedToken> winner = holder.inflight.get();
+            if (winner != null) {
+                return winner;
+            }
+        }
+        try {
+            refreshExecutor.execute(() -> runRefresh(holder, future));
+        } catch (Exception e) {
+            holder.inflight.compareAndSet(future, null);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void runRefresh(TokenHolder holder, CompletableFuture<CachedToken> future) {
+        try {
+            CachedToken token = loadToken(holder);
+            holder.current = token;
+            scheduleRefresh(holder, token.refreshAt() - System.currentTimeMillis());
+            future.complete(token);
+        } catch (Throwable e) {
+            CachedToken current = holder.current;
+            if (current != null && current.isUsable(System.currentTimeMillis())) {
+                // 旧令牌仍可用：稍后重试，调用方不受影响
+                log.warn("刷新第三方令牌失败，{}s 后重试（key={}）：{}", retrySeconds, holder.source.cacheKey(), e.getMessage());
+                scheduleRefresh(holder, TimeUnit.SECONDS.toMillis(retrySeconds));
+            }
+            future.completeExceptionally(e);
+        } finally {
+            holder.inflight.compareAndSet(future, null);
+        }
+    }
+
+    private void scheduleRefresh(TokenHolder holder, long delayMillis) {
+        try {
+            ScheduledFuture<?> next = refreshExecutor.schedule(() -> {
+                CachedToken current = holder.current;
+                if (current == null || current.shouldRefresh(System.currentTimeMillis())) {
+                    refresh(holder);
+                }
+            }, Math.max(0L, delayMillis), TimeUnit.MILLISECONDS);
+            // 每个令牌只保留一个待执行的刷新任务
+            ScheduledFuture<?> previous = holder.scheduled.getAndSet(next);
+            if (previous != null) {
+                previous.cancel(false);
+            }
+        } catch (Exception e) {
+            // 执行器已关闭（应用停止中），忽略
+            log.debug("调度第三方令牌刷新失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 获取新令牌：优先采用 Redis 中其他实例刚刷新的令牌，其次持有 Redis 锁后请求厂商接口
+     */
+    private CachedToken loadToken(TokenHolder holder) throws IOException {
+        StringRedisTemplate redis = stringRedisTemplateProvider.getIfAvailable();
+        if (redis == null) {
+            return fetchToken(holder, null);
+        }
+        CachedToken shared = readShared(redis, holder);
+        if (shared != null) {
+            return shared;
+        }
+
+        String lockKey = holder.source.cacheKey() + LOCK_SUFFIX;
+        String lockValue = UUID.randomUUID().toString();
+        boolean locked = tryLock(redis, lockKey, lockValue);
+        if (!locked) {
+            // 其他实例正在刷新：等待其写入 Redis，超时后自行获取（可用性优先）
+            long deadline = System.currentTimeMillis() + lockWaitMillis;
+            while (System.currentTimeMillis() < deadline) {
+                try {
+                    Thread.sleep(LOCK_POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("等待第三方令牌刷新被中断");
+                }
+                shared = readShared(redis, holder);
+                if (shared != null) {
+                    return shared;
+                }
+            }
+            log.warn("等待其他实例刷新第三方令牌超时，自行获取（key={}）", holder.source.cacheKey());
+        }
+
+        try {
+            if (locked) {
+                // 获得锁后再检查一次，避免重复刷新
+                shared = readShared(redis, holder);
+                if (shared != null) {
+                    return shared;
+                }
+            }
+            return fetchToken(holder, redis);
+        } finally {
+            if (locked) {
+                unlock(redis, lockKey, lockValue);
+            }
+        }
+    }
+
+    /**
+     * 读取 Redis 中的共享令牌，剩余时间不足刷新提前量时视为不可用
+     */
+    private CachedToken readShared(StringRedisTemplate redis, TokenHolder holder) {
+        String key = holder.source.cacheKey();
+        try {
+            String token = redis.opsForValue().get(key);
+            if (token == null || token.isEmpty()) {
+                return null;
+            }
+            // 刚被厂商判定失效的令牌不再采用（Redis 淘汰失败时的保护）
+            if (token.equals(holder.lastRejected)) {
+                return null;
+            }
+            Long ttl = redis.getExpire(key, TimeUnit.SECONDS);
+            if (ttl == null || ttl < 0 || ttl <= refreshAheadSeconds) {
+                return null;
+            }
+            log.debug("采用 Redis 中的共享第三方令牌（key={}），剩余 {}s", key, ttl);
+            return CachedToken.of(token, ttl, refreshAheadSeconds);
+        } catch (Exception e) {
+            log.warn("读取 Redis 共享第三方令牌失败（key={}）：{}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean tryLock(StringRedisTemplate redis, String lockKey, String lockValue) {
+        try {
+            Boolean acquired = redis.opsForValue().setIfAbsent(lockKey, lockValue, Duration.ofSeconds(lockSeconds));
+            return Boolean.TRUE.equals(acquired);
+        } catch (Exception e) {
+            log.warn("获取第三方令牌刷新锁失败，退化为本实例刷新：{}", e.getMessage());
+            return true;
+        }
+    }
+
+    private void unlock(StringRedisTemplate redis, String lockKey, String lockValue) {
+        try {
+            redis.execute(DELETE_IF_EQUALS_SCRIPT, Collections.singletonList(lockKey), lockValue);
+        } catch (Exception e) {
+            log.warn("释放第三方令牌刷新锁失败（key={}）：{}", lockKey, e.getMessage());
+        }
+    }
+
+    private CachedToken fetchToken(TokenHolder holder, StringRedisTemplate redis) throws IOException {
+        IssuedToken issued = holder.source.fetch();
+        if (issued == null || issued.token() == null || issued.token().isEmpty()) {
+            throw new IOException("获取第三方令牌失败：响应缺少令牌（key=" + holder.source.cacheKey() + "）");
+        }
+        long ttl = Math.max(MIN_TTL_SECONDS, issued.expiresInSeconds());
+        if (redis != null) {
+            try {
+                redis.opsForValue().set(holder.source.cacheKey(), issued.token(), ttl, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                log.warn("写入 Redis 共享第三方令牌失败（key={}）：{}", holder.source.cacheKey(), e.getMessage());
+            }
+        }
+        log.info("成功获取第三方令牌（key={}），ttl={}s", holder.source.cacheKey(), ttl);
+        return CachedToken.of(issued.token(), ttl, refreshAheadSeconds);
+    }
+
+    /**
+     * 令牌来源（每个厂商 / 每个 secret 一个）
+     */
+    public interface TokenSource {
+
+        /**
+         * Redis 共享键，同时作为本地缓存键
+         */
+        String cacheKey();
+
+        /**
+         * 请求厂商接口获取新令牌
+         */
+        IssuedToken fetch() throws IOException;
+
+        /**
+         * 接口响应是否表示令牌无效或已过期
+         */
+        default boolean isTokenRejected(JSONObject response) {
+            return false;
+        }
+    }
+
+    /**
+     * 携带令牌的接口调用
+     */
+    @FunctionalInterface
+    public interface TokenCall {
+
+        JSONObject apply(String token) throws IOException;
+    }
+
+    /**
+     * 厂商签发的令牌
+     *
+     * @param token            access token
+     * @param expiresInSeconds 有效期（秒）
+     */
+    public record IssuedToken(String token, long expiresInSeconds) {
+    }
+
+    /**
+     * 单个令牌的持有者
+     */
+    private static final class TokenHolder {
+        private final TokenSource source;
+        private final AtomicReference<CompletableFuture<CachedToken>> inflight = new AtomicReference<>();
+        private final AtomicReference<ScheduledFuture<?>> scheduled = new AtomicReference<>();
+        private volatile CachedToken current;
+        private volatile String lastRejected;
+
+        private TokenHolder(TokenSource source) {
+            this.source = source;
+        }
+    }
+
+    /**
+     * 内存中的令牌副本
+     *
+     * @param token     access token
+     * @param expiresAt 过期时间（毫秒）
+     * @param refreshAt 后台刷新时间点（毫秒）
+     */
+    private record CachedToken(String token, long expiresAt, long refreshAt) {
+
+        private static CachedToken of(String token, long ttlSeconds, long refreshAheadSeconds) {
+            long now = System.currentTimeMillis();
+            long ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+            // 在剩余时间不足刷新提前量（且至少过半）时开始刷新
+            long refreshIn = Math.max(ttlMillis / 2, ttlMillis - TimeUnit.SECONDS.toMillis(refreshAheadSeconds));
+            return new CachedToken(token, now + ttlMillis, now + refreshIn);
+        }
+
+        private boolean isUsable(long now) {
+            return now < expiresAt;
+        }
+
+        private boolean shouldRefresh(long now) {
+            return now >= refreshAt;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.scccy.common.base.resolver;
 
+import com.scccy.common.base.service.AuthorityResolver;
 import com.scccy.common.modules.annotation.CurrentUser;
 import com.scccy.common.modules.constant.UserHeaderConstants;
 import com.scccy.common.modules.dto.CurrentUserInfo;
@@ -11,10 +12,6 @@ import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.method.support.ModelAndViewContainer;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
-
 /**
  * 当前用户参数解析器
  * <p>
@@ -24,13 +21,21 @@ import java.util.List;
  * <ul>
  *     <li>X-User-Id: 用户ID</li>
  *     <li>X-Username: 用户名</li>
- *     <li>X-Authorities: 权限列表（逗号分隔）</li>
+ *     <li>X-Authorities-Bits: 权限位图（字典中已登记的权限）</li>
+ *     <li>X-Authorities: 字典中未登记的权限（逗号分隔）</li>
  * </ul>
+ * 权限经 {@link AuthorityResolver} 合并位图与明文后得到，与 {@code PermissionService} 的判断结果一致
  *
  * @author scccy
  */
 @Component
 public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final AuthorityResolver authorityResolver;
+
+    public CurrentUserArgumentResolver(AuthorityResolver authorityResolver) {
+        this.authorityResolver = authorityResolver;
+    }
     
     @Override
     public boolean supportsParameter(MethodParameter parameter) {
@@ -56,7 +61,6 @@ public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolve
         // 从请求头提取用户信息（Gateway 内部添加的请求头，前端不会获取到）
         String userIdStr = request.getHeader(UserHeaderConstants.HEADER_USER_ID);
         String username = request.getHeader(UserHeaderConstants.HEADER_USERNAME);
-        String authoritiesStr = request.getHeader(UserHeaderConstants.HEADER_AUTHORITIES);
         
         // 如果必需且没有用户信息，返回 null（框架会处理）
         if (required && (userIdStr == null || username == null)) {
@@ -78,12 +82,8 @@ public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolve
         // 设置用户名
         userInfo.setUsername(username);
         
-        // 解析权限列表
-        List<String> authorities = Collections.emptyList();
-        if (authoritiesStr != null && !authoritiesStr.trim().isEmpty()) {
-            authorities = Arrays.asList(authoritiesStr.split(","));
-        }
-        userInfo.setAuthorities(authorities);
+        // 解析权限列表（位图 + 明文）
+        userInfo.setAuthorities(authorityResolver.current(request).toList());
         
         return userInfo;
     }
@@ -4,11 +4,19 @@ import com.alibaba.fastjson2.JSON;
 import com.alibaba.fastjson2.JSONObject;
 import com.scccy.common.base.config.properties.InternalTokenProperties;
 import com.scccy.common.redis.cache.InternalTokenCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
@@ -22,11 +30,20 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 内部服务间调用的 JWT 管理服务。
@@ -34,9 +51,13 @@ import java.util.concurrent.locks.ReentrantLock;
  * <p>职责：
  * <ul>
  *     <li>根据 {@code scccy.internal-token.*} 配置获取 access token</li>
- *     <li>使用 Redis 缓存（通过 {@link InternalTokenCache}）共享 token</li>
- *     <li>在 token 即将过期时自动刷新</li>
+ *     <li>每个 (scope, audience) 在内存中持有 token 及其过期时间，热路径不访问 Redis</li>
+ *     <li>在刷新时间点到达前由后台线程主动刷新，同一 key 同时只有一个刷新在进行（single-flight）</li>
+ *     <li>多实例之间通过 Redis 锁协调刷新，Redis（{@link InternalTokenCache}）作为共享兜底</li>
  * </ul>
+ *
+ * <p>只有在内存中没有可用 token（首次调用、刷新持续失败导致过期）时调用方才需要等待，
+ * 等待次数与耗时通过 {@code internal.token.caller.wait} 指标暴露。
  */
 @Slf4j
 @Service
@@ -44,24 +65,67 @@ import java.util.concurrent.locks.ReentrantLock;
 public class AuthTokenService {
 
     private static final long MIN_TTL_SECONDS = 5L;
+    private static final long LOCK_POLL_MILLIS = 100L;
+    static final String LOCK_KEY_PREFIX = "internal:token:lock:";
+
+    /**
+     * 仅当锁的值与自己写入的值一致时才删除，避免误删其他实例的锁
+     */
+    static final RedisScript<Long> RELEASE_LOCK_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+        Long.class);
 
     private final InternalTokenProperties properties;
     private final InternalTokenCache tokenCache;
+    private final StringRedisTemplate stringRedisTemplate;
     private final WebClient webClient;
 
-    private final ReentrantLock refreshLock = new ReentrantLock();
-    private final ExecutorService asyncRefreshPool = Executors.newSingleThreadExecutor(r -> {
-        Thread t = new Thread(r, "internal-token-refresh");
-        t.setDaemon(true);
-        return t;
-    });
+    private final Map<String, TokenHolder> holders = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refreshExecutor;
+
+    private final Timer refreshSuccessTimer;
+    private final Timer refreshFailureTimer;
+    private final Counter sharedAdoptedCounter;
+    private final Counter callerWaitCounter;
+    private final Timer callerWaitTimer;
 
     public AuthTokenService(InternalTokenProperties properties,
                             InternalTokenCache tokenCache,
-                            @Qualifier("loadBalancedWebClientBuilder") WebClient.Builder webClientBuilder) {
+                            StringRedisTemplate stringRedisTemplate,
+                            @Qualifier("loadBalancedWebClientBuilder") WebClient.Builder webClientBuilder,
+                            ObjectProvider<MeterRegistry> meterRegistryProvider) {
         this.properties = properties;
         this.tokenCache = tokenCache;
+        this.stringRedisTemplate = stringRedisTemplate;
         this.webClient = webClientBuilder.clone().build();
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(2, r -> {
+            Thread t = new Thread(r, "internal-token-refresh-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.refreshExecutor = executor;
+
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        this.refreshSuccessTimer = Timer.builder("internal.token.refresh")
+            .description("内部令牌刷新耗时")
+            .tag("outcome", "success")
+            .register(meterRegistry);
+        this.refreshFailureTimer = Timer.builder("internal.token.refresh")
+            .description("内部令牌刷新耗时")
+            .tag("outcome", "failure")
+            .register(meterRegistry);
+        this.sharedAdoptedCounter = Counter.builder("internal.token.refresh.shared")
+            .description("刷新时直接采用其他实例写入 Redis 的令牌次数")
+            .register(meterRegistry);
+        this.callerWaitCounter = Counter.builder("internal.token.caller.wait")
+            .description("内存中无可用令牌、调用方需要等待刷新的次数")
+            .register(meterRegistry);
+        this.callerWaitTimer = Timer.builder("internal.token.caller.wait.duration")
+            .description("调用方等待令牌刷新的耗时")
+            .register(meterRegistry);
     }
 
     @PostConstruct
@@ -79,30 +143,62 @@ public class AuthTokenService {
 
     /**
      * 获取指定 audience/scope 的内部 token。
+     * <p>
+     * 内存中有未过期的 token 时直接返回（到达刷新时间点则顺带触发后台刷新），
+     * 否则等待 single-flight 刷新完成。
      *
      * @param audience 目标服务，可为空
      * @param scope    授权范围，若为空则使用默认 scope
      */
     public String getServiceToken(String audience, String scope) {
-        validateClientConfig();
-        String resolvedScope = StringUtils.hasText(scope) ? scope : properties.getScope();
-        String resolvedAudience = StringUtils.hasText(audience) ? audience : properties.getAudience();
-        String cacheKey = buildCacheKey(resolvedScope, resolvedAudience);
-
-        String cached = tokenCache.getToken(cacheKey);
-        if (cached != null && !shouldRefresh(cacheKey)) {
-            return cached;
+        TokenHolder holder = resolveHolder(audience, scope);
+        CachedToken current = holder.current;
+        long now = System.currentTimeMillis();
+        if (current != null && current.isUsable(now)) {
+            if (current.shouldRefresh(now)) {
+                refresh(holder);
+            }
+            return current.token();
         }
-
-        return refreshToken(cacheKey, resolvedScope, resolvedAudience);
+        return awaitRefresh(holder);
     }
 
     /**
-     * 主动清理默认 token 缓存。
+     * 主动清理默认 token 缓存（内存与 Redis）。
      */
     public void evictDefaultToken() {
-        String cacheKey = buildCacheKey(properties.getScope(), properties.getAudience());
-        tokenCache.evict(cacheKey);
+        TokenHolder holder = resolveHolder(properties.getAudience(), properties.getScope());
+        holder.current = null;
+        tokenCache.evict(holder.cacheKey);
+    }
+
+    /**
+     * 异步刷新，用于外部在检测到即将过期时调用。
+     */
+    public void refreshAsync() {
+        try {
+            refresh(resolveHolder(properties.getAudience(), properties.getScope()));
+        } catch (Exception e) {
+            log.warn("异步刷新内部令牌失败", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+        try {
+            refreshExecutor.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private TokenHolder resolveHolder(String audience, String scope) {
+        validateClientConfig();
+        String resolvedScope = StringUtils.hasText(scope) ? scope : properties.getScope();
+        String resolvedAudience = StringUtils.hasText(audience) ? audience : properties.getAudience();
+        String cacheKey = buildCacheKey(properties.getClientId(), resolvedScope, resolvedAudience);
+        return holders.computeIfAbsent(cacheKey, key -> new TokenHolder(key, resolvedScope, resolvedAudience));
     }
 
     private void validateClientConfig() {
@@ -111,39 +207,194 @@ public class AuthTokenService {
         }
     }
 
-    private String buildCacheKey(String scope, String audience) {
-        String clientId = properties.getClientId();
+    /**
+     * 构建 token 缓存 key，同步与响应式实现共用，保证跨实例、跨实现可互相复用
+     */
+    static String buildCacheKey(String clientId, String scope, String audience) {
         String scopePart = StringUtils.hasText(scope) ? scope : "default";
         String audiencePart = StringUtils.hasText(audience) ? audience : "default";
         return "internal:token:" + clientId + ":" + scopePart + ":" + audiencePart;
     }
 
-    private boolean shouldRefresh(String cacheKey) {
-        Long ttl = tokenCache.getExpireSeconds(cacheKey);
-        if (ttl == null) {
-            return true;
+    private String awaitRefresh(TokenHolder holder) {
+        callerWaitCounter.increment();
+        long start = System.nanoTime();
+        try {
+            return refresh(holder).get(waitTimeoutMillis(), TimeUnit.MILLISECONDS).token();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IllegalStateException ise) {
+                throw ise;
+            }
+            throw new IllegalStateException("获取内部令牌异常：" + cause.getMessage(), cause);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("获取内部令牌超时", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("获取内部令牌被中断", e);
+        } finally {
+            callerWaitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 触发刷新；同一 key 已有刷新在进行时复用同一个 Future，返回值不为空
+     */
+    private CompletableFuture<CachedToken> refresh(TokenHolder holder) {
+        CompletableFuture<CachedToken> existing = holder.inflight.get();
+        if (existing != null) {
+            return existing;
         }
-        long refreshAhead = Objects.requireNonNullElse(properties.getRefreshAheadSeconds(), 60L);
-        if (ttl < 0) {
-            return false;
+        CompletableFuture<CachedToken> future = new CompletableFuture<>();
+        while (!holder.inflight.compareAndSet(null, future)) {
+            // 竞争失败后对方的刷新可能已完成并清空 inflight，此时重新竞争，不返回 null
+            CompletableFuture<CachedToken> winner = holder.inflight.get();
+            if (winner != null) {
+                return winner;
+            }
+        }
+        try {
+            refreshExecutor.execute(() -> runRefresh(holder, future));
+        } catch (Exception e) {
+            holder.inflight.compareAndSet(future, null);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void runRefresh(TokenHolder holder, CompletableFuture<CachedToken> future) {
+        long start = System.nanoTime();
+        try {
+            CachedToken token = loadToken(holder);
+            holder.current = token;
+            refreshSuccessTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            scheduleRefresh(holder, token.refreshAt() - System.currentTimeMillis());
+            future.complete(token);
+        } catch (Throwable e) {
+            refreshFailureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            CachedToken current = holder.current;
+            if (current != null && current.isUsable(System.currentTimeMillis())) {
+                // 旧 token 仍可用：稍后重试，调用方不受影响
+                log.warn("刷新内部令牌失败，{}s 后重试（key={}）：{}", retrySeconds(), holder.cacheKey, e.getMessage());
+                scheduleRefresh(holder, TimeUnit.SECONDS.toMillis(retrySeconds()));
+            }
+            future.completeExceptionally(e);
+        } finally {
+            holder.inflight.compareAndSet(future, null);
+        }
+    }
+
+    private void scheduleRefresh(TokenHolder holder, long delayMillis) {
+        try {
+            ScheduledFuture<?> next = refreshExecutor.schedule(() -> {
+                CachedToken current = holder.current;
+                if (current == null || current.shouldRefresh(System.currentTimeMillis())) {
+                    refresh(holder);
+                }
+            }, Math.max(0L, delayMillis), TimeUnit.MILLISECONDS);
+            // 每个 key 只保留一个待执行的刷新任务
+            ScheduledFuture<?> previous = holder.scheduled.getAndSet(next);
+            if (previous != null) {
+                previous.cancel(false);
+            }
+        } catch (Exception e) {
+            // 执行器已关闭（应用停止中），忽略
+            log.debug("调度内部令牌刷新失败: {}", e.getMessage());
         }
-        return ttl <= refreshAhead;
     }
 
-    private String refreshToken(String cacheKey, String scope, String audience) {
-        refreshLock.lock();
+    /**
+     * 获取新 token：优先采用 Redis 中其他实例刚刷新的 token，其次持有 Redis 锁后请求授权服务
+     */
+    private CachedToken loadToken(TokenHolder holder) {
+        CachedToken shared = readShared(holder);
+        if (shared != null) {
+            return shared;
+        }
+
+        String lockKey = LOCK_KEY_PREFIX + holder.cacheKey;
+        String lockValue = UUID.randomUUID().toString();
+        boolean locked = tryLock(lockKey, lockValue);
+        if (!locked) {
+            // 其他实例正在刷新：等待其写入 Redis，超时后自行获取（可用性优先）
+            long deadline = System.currentTimeMillis() + lockWaitMillis();
+            while (System.currentTimeMillis() < deadline) {
+                try {
+                    Thread.sleep(LOCK_POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("等待内部令牌刷新被中断", e);
+                }
+                shared = readShared(holder);
+                if (shared != null) {
+                    return shared;
+                }
+            }
+            log.warn("等待其他实例刷新内部令牌超时，自行获取（key={}）", holder.cacheKey);
+        }
+
         try {
-            String cached = tokenCache.getToken(cacheKey);
-            if (cached != null && !shouldRefresh(cacheKey)) {
-                return cached;
+            if (locked) {
+                // 获得锁后再检查一次，避免重复刷新
+                shared = readShared(holder);
+                if (shared != null) {
+                    return shared;
+                }
             }
-            return fetchToken(cacheKey, scope, audience);
+            return fetchToken(holder);
         } finally {
-            refreshLock.unlock();
+            if (locked) {
+                unlock(lockKey, lockValue);
+            }
+        }
+    }
+
+    /**
+     * 读取 Redis 中的共享 token，剩余时间不足刷新提前量时视为不可用
+     */
+    private CachedToken readShared(TokenHolder holder) {
+        try {
+            String token = tokenCache.getToken(holder.cacheKey);
+            if (token == null) {
+                return null;
+            }
+            Long ttl = tokenCache.getExpireSeconds(holder.cacheKey);
+            if (ttl == null || ttl == -2L || (ttl >= 0 && ttl <= refreshAheadSeconds())) {
+                return null;
+            }
+            long ttlSeconds = ttl < 0 ? Objects.requireNonNullElse(properties.getCacheExpireSeconds(), 540L) : ttl;
+            sharedAdoptedCounter.increment();
+            log.debug("采用 Redis 中的共享内部令牌（key={}），剩余 {}s", holder.cacheKey, ttlSeconds);
+            return CachedToken.of(token, ttlSeconds, refreshAheadSeconds());
+        } catch (Exception e) {
+            log.warn("读取 Redis 共享内部令牌失败（key={}）：{}", holder.cacheKey, e.getMessage());
+            return null;
         }
     }
 
-    private String fetchToken(String cacheKey, String scope, String audience) {
+    private boolean tryLock(String lockKey, String lockValue) {
+        try {
+            Boolean acquired = stringRedisTemplate.opsForValue()
+                .setIfAbsent(lockKey, lockValue, Duration.ofSeconds(lockSeconds()));
+            return Boolean.TRUE.equals(acquired);
+        } catch (Exception e) {
+            // Redis 不可用时退化为实例内 single-flight
+            log.warn("获取内部令牌刷新锁失败，退化为本实例刷新：{}", e.getMessage());
+            return true;
+        }
+    }
+
+    private void unlock(String lockKey, String lockValue) {
+        try {
+            stringRedisTemplate.execute(RELEASE_LOCK_SCRIPT, Collections.singletonList(lockKey), lockValue);
+        } catch (Exception e) {
+            log.warn("释放内部令牌刷新锁失败（key={}）：{}", lockKey, e.getMessage());
+        }
+    }
+
+    private CachedToken fetchToken(TokenHolder holder) {
+        String scope = holder.scope;
+        String audience = holder.audience;
         String credentials = properties.getClientId() + ":" + properties.getClientSecret();
         String basicAuth = "Basic " + Base64.getEncoder()
             .encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
@@ -181,13 +432,19 @@ public class AuthTokenService {
             Long expiresIn = json.getLong("expires_in");
             long ttl = resolveTtl(expiresIn);
 
-            tokenCache.putToken(cacheKey, accessToken, ttl);
+            try {
+                tokenCache.putToken(holder.cacheKey, accessToken, ttl);
+            } catch (Exception e) {
+                log.warn("写入 Redis 共享内部令牌失败（key={}）：{}", holder.cacheKey, e.getMessage());
+            }
             log.info("成功获取内部令牌（scope={} audience={}），ttl={}s", scope, audience, ttl);
-            return accessToken;
+            return CachedToken.of(accessToken, ttl, refreshAheadSeconds());
         } catch (WebClientResponseException e) {
             String body = e.getResponseBodyAsString();
             log.error("获取内部令牌失败，状态码={}，响应={}", e.getRawStatusCode(), body);
             throw new IllegalStateException("获取内部令牌失败：" + e.getRawStatusCode() + " - " + body, e);
+        } catch (IllegalStateException e) {
+            throw e;
         } catch (Exception e) {
             log.error("获取内部令牌异常", e);
             throw new IllegalStateException("获取内部令牌异常：" + e.getMessage(), e);
@@ -196,7 +453,7 @@ public class AuthTokenService {
 
     private long resolveTtl(Long expiresIn) {
         long defaultCache = Objects.requireNonNullElse(properties.getCacheExpireSeconds(), 540L);
-        long refreshAhead = Objects.requireNonNullElse(properties.getRefreshAheadSeconds(), 60L);
+        long refreshAhead = refreshAheadSeconds();
         long ttl = defaultCache;
         if (expiresIn != null && expiresIn > 0) {
             long safeTtl = expiresIn - refreshAhead;
@@ -209,30 +466,68 @@ public class AuthTokenService {
         return Math.max(MIN_TTL_SECONDS, ttl);
     }
 
+    private long refreshAheadSeconds() {
+        return Objects.requireNonNullElse(properties.getRefreshAheadSeconds(), 60L);
+    }
+
+    private long lockSeconds() {
+        return Objects.requireNonNullElse(properties.getRefreshLockSeconds(), 15L);
+    }
+
+    private long lockWaitMillis() {
+        return Objects.requireNonNullElse(properties.getRefreshLockWaitMillis(), 3000L);
+    }
+
+    private long retrySeconds() {
+        return Objects.requireNonNullElse(properties.getRefreshRetrySeconds(), 5L);
+    }
+
+    private long waitTimeoutMillis() {
+        // 锁等待 + 一次 HTTP 请求超时，再留少量余量
+        return lockWaitMillis() + TimeUnit.SECONDS.toMillis(12);
+    }
+
     /**
-     * 异步刷新，用于外部在检测到即将过期时调用。
+     * 单个 (scope, audience) 的 token 持有者
      */
-    public void refreshAsync() {
-        asyncRefreshPool.submit(() -> {
-            try {
-                getServiceToken();
-            } catch (Exception e) {
-                log.warn("异步刷新内部令牌失败", e);
-            }
-        });
-    }
+    private static final class TokenHolder {
+        private final String cacheKey;
+        private final String scope;
+        private final String audience;
+        private final AtomicReference<CompletableFuture<CachedToken>> inflight = new AtomicReference<>();
+        private final AtomicReference<ScheduledFuture<?>> scheduled = new AtomicReference<>();
+        private volatile CachedToken current;
 
-    @PreDestroy
-    public void shutdown() {
-        asyncRefreshPool.shutdown();
-        try {
-            if (!asyncRefreshPool.awaitTermination(2, TimeUnit.SECONDS)) {
-                asyncRefreshPool.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        private TokenHolder(String cacheKey, String scope, String audience) {
+            this.cacheKey = cacheKey;
+            this.scope = scope;
+            this.audience = audience;
         }
     }
-}
 
+    /**
+     * 内存中的 token 副本
+     *
+     * @param token     access token
+     * @param expiresAt 可用截止时间（毫秒），已扣除刷新提前量
+     * @param refreshAt 后台刷新时间点（毫秒）
+     */
+    private record CachedToken(String token, long expiresAt, long refreshAt) {
+
+        private static CachedToken of(String token, long ttlSeconds, long refreshAheadSeconds) {
+            long now = System.currentTimeMillis();
+            long ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+            // 在剩余时间不足刷新提前量（且至少过半）时开始刷新
+            long refreshIn = Math.max(ttlMillis / 2, ttlMillis - TimeUnit.SECONDS.toMillis(refreshAheadSeconds));
+            return new CachedToken(token, now + ttlMillis, now + refreshIn);
+        }
+
+        private boolean isUsable(long now) {
+            return now < expiresAt;
+        }
 
+        private boolean shouldRefresh(long now) {
+            return now >= refreshAt;
+        }
+    }
+}
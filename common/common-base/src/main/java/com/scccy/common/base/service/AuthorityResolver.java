@@ -0,0 +1,141 @@
+package com.scccy.common.base.service;
+
+import com.scccy.common.modules.constant.UserHeaderConstants;
+import com.scccy.common.modules.permission.AuthoritySet;
+import com.scccy.common.modules.permission.PermissionCodec;
+import com.scccy.common.modules.permission.PermissionDictionary;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 当前请求权限解析器
+ * <p>
+ * 解析 Gateway 传递的 {@code X-Authorities-Bits}（权限位图）与 {@code X-Authorities}（明文权限），
+ * 合并为 {@link AuthoritySet} 并缓存到请求属性中，同一请求内只解码一次。
+ * <p>
+ * 权限字典按需从 Redis 增量加载：请求头中的字典长度大于本地字典时才拉取尾部新增元素；
+ * 纪元不一致（字典被重建）时全量重新加载，仍不一致则忽略位图（安全优先）
+ *
+ * @author scccy
+ */
+@Slf4j
+@Component
+public class AuthorityResolver {
+
+    private static final String REQUEST_ATTRIBUTE = AuthorityResolver.class.getName() + ".AUTHORITIES";
+
+    private final ObjectProvider<StringRedisTemplate> stringRedisTemplateProvider;
+
+    private volatile PermissionDictionary dictionary = PermissionDictionary.EMPTY;
+
+    public AuthorityResolver(ObjectProvider<StringRedisTemplate> stringRedisTemplateProvider) {
+        this.stringRedisTemplateProvider = stringRedisTemplateProvider;
+    }
+
+    /**
+     * 获取当前请求的权限集合
+     *
+     * @return 权限集合；无请求上下文时返回 {@link AuthoritySet#EMPTY}
+     */
+    public AuthoritySet current() {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return AuthoritySet.EMPTY;
+        }
+        return current(attributes.getRequest());
+    }
+
+    /**
+     * 获取指定请求的权限集合，结果缓存在请求属性中，与 {@link #current()} 共用
+     *
+     * @param request 当前请求
+     * @return 权限集合
+     */
+    public AuthoritySet current(HttpServletRequest request) {
+        Object cached = request.getAttribute(REQUEST_ATTRIBUTE);
+        if (cached instanceof AuthoritySet authoritySet) {
+            return authoritySet;
+        }
+        AuthoritySet authoritySet = resolve(
+            request.getHeader(UserHeaderConstants.HEADER_AUTHORITIES_BITS),
+            request.getHeader(UserHeaderConstants.HEADER_AUTHORITIES));
+        request.setAttribute(REQUEST_ATTRIBUTE, authoritySet);
+        return authoritySet;
+    }
+
+    /**
+     * 解析权限请求头
+     *
+     * @param bitsHeader  位图请求头值
+     * @param plainHeader 明文权限请求头值
+     * @return 权限集合
+     */
+    public AuthoritySet resolve(String bitsHeader, String plainHeader) {
+        Set<String> plain = Collections.emptySet();
+        if (plainHeader != null && !plainHeader.isBlank()) {
+            plain = new HashSet<>(List.of(plainHeader.split(",")));
+        }
+
+        PermissionCodec.Encoded encoded = PermissionCodec.parse(bitsHeader);
+        if (encoded == null) {
+            if (bitsHeader != null && !bitsHeader.isEmpty()) {
+                log.warn("无法解析权限位图请求头，已忽略");
+            }
+            return plain.isEmpty() ? AuthoritySet.EMPTY : new AuthoritySet(PermissionDictionary.EMPTY, new BitSet(), plain);
+        }
+
+        PermissionDictionary dict = ensureDictionary(encoded.epoch(), encoded.dictionarySize());
+        if (dict == null) {
+            log.warn("权限字典与请求头不一致，已忽略权限位图: epoch={}, size={}", encoded.epoch(), encoded.dictionarySize());
+            return new AuthoritySet(PermissionDictionary.EMPTY, new BitSet(), plain);
+        }
+        return new AuthoritySet(dict, encoded.bits(), plain);
+    }
+
+    /**
+     * 确保本地字典覆盖请求头中的纪元与长度
+     *
+     * @return 可用于解码的字典；无法满足时返回 null
+     */
+    private PermissionDictionary ensureDictionary(String epoch, int size) {
+        PermissionDictionary current = dictionary;
+        if (epoch.equals(current.epoch()) && current.size() >= size) {
+            return current;
+        }
+        synchronized (this) {
+            current = dictionary;
+            if (epoch.equals(current.epoch()) && current.size() >= size) {
+                return current;
+            }
+            StringRedisTemplate redis = stringRedisTemplateProvider.getIfAvailable();
+            if (redis == null) {
+                return null;
+            }
+            try {
+                PermissionDictionary next;
+                if (epoch.equals(current.epoch())) {
+                    next = current.extend(redis.opsForList().range(PermissionCodec.DICTIONARY_KEY, current.size(), -1));
+                } else {
+                    next = PermissionDictionary.of(redis.opsForList().range(PermissionCodec.DICTIONARY_KEY, 0, -1));
+                }
+                dictionary = next;
+                log.debug("权限字典已加载: epoch={}, size={}", next.epoch(), next.size());
+                return epoch.equals(next.epoch()) && next.size() >= size ? next : null;
+            } catch (Exception e) {
+                log.warn("加载权限字典失败: {}", e.getMessage());
+                return null;
+            }
+        }
+    }
+}
@@ -1,31 +1,31 @@
 package com.scccy.common.base.service;
 
-import jakarta.servlet.http.HttpServletRequest;
+import com.scccy.common.modules.permission.AuthoritySet;
 import org.springframework.stereotype.Component;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
-
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
 
 /**
  * 权限服务类
  * <p>
  * 用于 @PreAuthorize("@ss.hasPermi('system:activity:add')") 注解
  * Bean 名称必须是 "ss"，这样 @PreAuthorize("@ss.hasPermi(...)") 才能工作
+ * <p>
+ * 权限来自 Gateway 传递的请求头（位图 X-Authorities-Bits + 明文 X-Authorities），
+ * 由 {@link AuthorityResolver} 在每个请求内解码一次并缓存，权限判断为 O(1)
  *
  * @author scccy
  */
 @Component("ss")
 public class PermissionService {
-    
-    private static final String HEADER_AUTHORITIES = "X-Authorities";
+
+    private final AuthorityResolver authorityResolver;
+
+    public PermissionService(AuthorityResolver authorityResolver) {
+        this.authorityResolver = authorityResolver;
+    }
     
     /**
      * 检查当前用户是否有指定权限
      * <p>
-     * 从请求头 X-Authorities 中获取权限列表，检查是否包含指定权限
      * 权限格式：ROLE_ADMIN,ROLE_USER,system:user:list,system:user:add
      *
      * @param permission 权限标识，如：system:activity:add
@@ -37,11 +37,7 @@ public class PermissionService {
         }
         
         try {
-            // 从请求头获取权限列表
-            List<String> authorities = getAuthorities();
-            
-            // 检查是否包含指定权限
-            return authorities.contains(permission);
+            return getAuthorities().contains(permission);
         } catch (Exception e) {
             // 如果无法获取权限，返回 false（安全优先）
             return false;
@@ -60,9 +56,7 @@ public class PermissionService {
         }
         
         try {
-            List<String> authorities = getAuthorities();
-            return Arrays.stream(permissions)
-                    .anyMatch(authorities::contains);
+            return getAuthorities().containsAny(permissions);
         } catch (Exception e) {
             return false;
         }
@@ -79,27 +73,16 @@ public class PermissionService {
     }
     
     /**
-     * 从请求头获取权限列表
+     * 获取当前请求的权限集合（请求内缓存）
      *
-     * @return 权限列表
+     * @return 权限集合
      */
-    private List<String> getAuthorities() {
+    private AuthoritySet getAuthorities() {
         try {
-            ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-            if (attributes == null) {
-                return Collections.emptyList();
-            }
-            
-            HttpServletRequest request = attributes.getRequest();
-            String authoritiesStr = request.getHeader(HEADER_AUTHORITIES);
-            
-            if (authoritiesStr != null && !authoritiesStr.trim().isEmpty()) {
-                return Arrays.asList(authoritiesStr.split(","));
-            }
+            return authorityResolver.current();
         } catch (Exception e) {
-            // 忽略异常，返回空列表
+            // 忽略异常，返回空集合
+            return AuthoritySet.EMPTY;
         }
-        return Collections.emptyList();
     }
 }
-
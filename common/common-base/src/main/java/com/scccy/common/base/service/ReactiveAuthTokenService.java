@@ -0,0 +1,414 @@
+package com.scccy.common.base.service;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.scccy.common.base.config.properties.InternalTokenProperties;
+import com.scccy.common.redis.cache.ReactiveInternalTokenCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 内部服务间调用 JWT 的响应式（非阻塞）管理服务。
+ *
+ * <p>与 {@link AuthTokenService} 语义一致，供 WebClient / WebFlux 调用链使用：
+ * <ul>
+ *     <li>每个 (scope, audience) 在内存中持有 token，热路径直接返回 {@code Mono.just(token)}</li>
+ *     <li>刷新为 single-flight 的 {@link Mono}，到达刷新时间点由定时任务在后台触发</li>
+ *     <li>跨实例刷新锁、Redis 共享 token 均通过 Lettuce 响应式命令访问</li>
+ *     <li>与 {@link AuthTokenService} 共用 Redis key，同步与响应式调用方可复用对方刷新的 token</li>
+ * </ul>
+ *
+ * <p>整个链路不调用 {@code block()}，可以安全地在 Netty event loop 上订阅。
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "scccy.internal-token", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveAuthTokenService {
+
+    private static final long MIN_TTL_SECONDS = 5L;
+    private static final Duration LOCK_POLL_INTERVAL = Duration.ofMillis(100);
+    private static final Duration TOKEN_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final InternalTokenProperties properties;
+    private final ReactiveInternalTokenCache tokenCache;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final WebClient webClient;
+
+    private final Map<String, TokenHolder> holders = new ConcurrentHashMap<>();
+
+    private final Timer refreshSuccessTimer;
+    private final Timer refreshFailureTimer;
+    private final Counter sharedAdoptedCounter;
+    private final Counter callerWaitCounter;
+
+    public ReactiveAuthTokenService(InternalTokenProperties properties,
+                                    ReactiveInternalTokenCache tokenCache,
+                                    ReactiveStringRedisTemplate redisTemplate,
+                                    @Qualifier("loadBalancedWebClientBuilder") WebClient.Builder webClientBuilder,
+                                    ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.properties = properties;
+        this.tokenCache = tokenCache;
+        this.redisTemplate = redisTemplate;
+        this.webClient = webClientBuilder.clone().build();
+
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        this.refreshSuccessTimer = Timer.builder("internal.token.reactive.refresh")
+            .description("内部令牌（响应式）刷新耗时")
+            .tag("outcome", "success")
+            .register(meterRegistry);
+        this.refreshFailureTimer = Timer.builder("internal.token.reactive.refresh")
+            .description("内部令牌（响应式）刷新耗时")
+            .tag("outcome", "failure")
+            .register(meterRegistry);
+        this.sharedAdoptedCounter = Counter.builder("internal.token.reactive.refresh.shared")
+            .description("刷新时直接采用 Redis 中共享令牌的次数")
+            .register(meterRegistry);
+        this.callerWaitCounter = Counter.builder("internal.token.reactive.caller.wait")
+            .description("内存中无可用令牌、订阅方需要等待刷新的次数")
+            .register(meterRegistry);
+    }
+
+    /**
+     * 使用默认配置获取内部 token。
+     */
+    public Mono<String> getServiceToken() {
+        return getServiceToken(properties.getAudience(), properties.getScope());
+    }
+
+    /**
+     * 获取指定 audience/scope 的内部 token。
+     *
+     * @param audience 目标服务，可为空
+     * @param scope    授权范围，若为空则使用默认 scope
+     */
+    public Mono<String> getServiceToken(String audience, String scope) {
+        return Mono.defer(() -> {
+            TokenHolder holder = resolveHolder(audience, scope);
+            CachedToken current = holder.current;
+            long now = System.currentTimeMillis();
+            if (current != null && current.isUsable(now)) {
+                if (current.shouldRefresh(now)) {
+                    refresh(holder);
+                }
+                return Mono.just(current.token());
+            }
+            callerWaitCounter.increment();
+            return refresh(holder)
+                .timeout(waitTimeout())
+                .map(CachedToken::token);
+        });
+    }
+
+    /**
+     * 主动清理默认 token 缓存（内存与 Redis）。
+     */
+    public Mono<Void> evictDefaultToken() {
+        return Mono.defer(() -> {
+            TokenHolder holder = resolveHolder(properties.getAudience(), properties.getScope());
+            holder.current = null;
+            return tokenCache.evict(holder.cacheKey);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        holders.values().forEach(holder -> {
+            Disposable scheduled = holder.scheduled.getAndSet(null);
+            if (scheduled != null) {
+                scheduled.dispose();
+            }
+        });
+    }
+
+    private TokenHolder resolveHolder(String audience, String scope) {
+        if (!StringUtils.hasText(properties.getClientId()) || !StringUtils.hasText(properties.getClientSecret())) {
+            throw new IllegalStateException("内部令牌 clientId/clientSecret 未配置，无法获取 token");
+        }
+        String resolvedScope = StringUtils.hasText(scope) ? scope : properties.getScope();
+        String resolvedAudience = StringUtils.hasText(audience) ? audience : properties.getAudience();
+        String cacheKey = AuthTokenService.buildCacheKey(properties.getClientId(), resolvedScope, resolvedAudience);
+        return holders.computeIfAbsent(cacheKey, key -> new TokenHolder(key, resolvedScope, resolvedAudience));
+    }
+
+    /**
+     * 触发刷新；同一 key 已有刷新在进行时复用同一个 Mono
+     */
+    private Mono<CachedToken> refresh(TokenHolder holder) {
+        Mono<CachedToken> existing = holder.inflight.get();
+        if (existing != null) {
+            return existing;
+        }
+        long start = System.nanoTime();
+        Mono<CachedToken> flight = loadToken(holder)
+            .doOnNext(token -> {
+                holder.current = token;
+                refreshSuccessTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                scheduleRefresh(holder, token.refreshAt() - System.currentTimeMillis());
+            })
+            .doOnError(e -> {
+                refreshFailureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                CachedToken current = holder.current;
+                if (current != null && current.isUsable(System.currentTimeMillis())) {
+                    log.warn("刷新内部令牌失败，{}s 后重试（key={}）：{}", retrySeconds(), holder.cacheKey, e.getMessage());
+                    scheduleRefresh(holder, TimeUnit.SECONDS.toMillis(retrySeconds()));
+                }
+            })
+            .doFinally(signal -> holder.inflight.set(null))
+            .cache();
+        if (!holder.inflight.compareAndSet(null, flight)) {
+            Mono<CachedToken> winner = holder.inflight.get();
+            return winner != null ? winner : refresh(holder);
+        }
+        // 立即启动刷新，与是否有订阅方无关；错误已在 doOnError 中处理
+        flight.subscribe(token -> { }, e -> { });
+        return flight;
+    }
+
+    private void scheduleRefresh(TokenHolder holder, long delayMillis) {
+        Disposable next = Mono.delay(Duration.ofMillis(Math.max(0L, delayMillis)))
+            .subscribe(tick -> {
+                CachedToken current = holder.current;
+                if (current == null || current.shouldRefresh(System.currentTimeMillis())) {
+                    refresh(holder);
+                }
+            });
+        // 每个 key 只保留一个待执行的刷新任务
+        Disposable previous = holder.scheduled.getAndSet(next);
+        if (previous != null) {
+            previous.dispose();
+        }
+    }
+
+    /**
+     * 获取新 token：优先采用 Redis 中的共享 token，其次持有 Redis 锁后请求授权服务
+     */
+    private Mono<CachedToken> loadToken(TokenHolder holder) {
+        return readShared(holder)
+            .switchIfEmpty(Mono.defer(() -> {
+                String lockKey = AuthTokenService.LOCK_KEY_PREFIX + holder.cacheKey;
+                String lockValue = UUID.randomUUID().toString();
+                return tryLock(lockKey, lockValue).flatMap(locked -> locked
+                    ? readShared(holder)
+                        .switchIfEmpty(Mono.defer(() -> fetchToken(holder)))
+                        .flatMap(token -> unlock(lockKey, lockValue).thenReturn(token))
+                        .onErrorResume(e -> unlock(lockKey, lockValue).then(Mono.error(e)))
+                    : awaitShared(holder)
+                        .switchIfEmpty(Mono.defer(() -> {
+                            log.warn("等待其他实例刷新内部令牌超时，自行获取（key={}）", holder.cacheKey);
+                            return fetchToken(holder);
+                        })));
+            }));
+    }
+
+    /**
+     * 其他实例持有刷新锁时，轮询 Redis 等待其写入
+     */
+    private Mono<CachedToken> awaitShared(TokenHolder holder) {
+        long attempts = Math.max(1L, lockWaitMillis() / LOCK_POLL_INTERVAL.toMillis());
+        return Flux.interval(LOCK_POLL_INTERVAL)
+            .take(attempts)
+            .concatMap(tick -> readShared(holder))
+            .next();
+    }
+
+    /**
+     * 读取 Redis 中的共享 token，剩余时间不足刷新提前量时视为不可用
+     */
+    private Mono<CachedToken> readShared(TokenHolder holder) {
+        return tokenCache.getToken(holder.cacheKey)
+            .zipWith(tokenCache.getExpireSeconds(holder.cacheKey))
+            .filter(tuple -> tuple.getT2() < 0 || tuple.getT2() > refreshAheadSeconds())
+            .map(tuple -> {
+                long ttl = tuple.getT2() < 0
+                    ? Objects.requireNonNullElse(properties.getCacheExpireSeconds(), 540L)
+                    : tuple.getT2();
+                sharedAdoptedCounter.increment();
+                log.debug("采用 Redis 中的共享内部令牌（key={}），剩余 {}s", holder.cacheKey, ttl);
+                return CachedToken.of(tuple.getT1(), ttl, refreshAheadSeconds());
+            })
+            .onErrorResume(e -> {
+                log.warn("读取 Redis 共享内部令牌失败（key={}）：{}", holder.cacheKey, e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private Mono<Boolean> tryLock(String lockKey, String lockValue) {
+        return redisTemplate.opsForValue()
+            .setIfAbsent(lockKey, lockValue, Duration.ofSeconds(lockSeconds()))
+            .map(Boolean.TRUE::equals)
+            .onErrorResume(e -> {
+                // Redis 不可用时退化为实例内 single-flight
+                log.warn("获取内部令牌刷新锁失败，退化为本实例刷新：{}", e.getMessage());
+                return Mono.just(true);
+            });
+    }
+
+    private Mono<Void> unlock(String lockKey, String lockValue) {
+        return redisTemplate.execute(AuthTokenService.RELEASE_LOCK_SCRIPT,
+                Collections.singletonList(lockKey), Collections.singletonList(lockValue))
+            .then()
+            .onErrorResume(e -> {
+                log.warn("释放内部令牌刷新锁失败（key={}）：{}", lockKey, e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private Mono<CachedToken> fetchToken(TokenHolder holder) {
+        String scope = holder.scope;
+        String audience = holder.audience;
+        String credentials = properties.getClientId() + ":" + properties.getClientSecret();
+        String basicAuth = "Basic " + Base64.getEncoder()
+            .encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+
+        MultiValueMap<String, String> formData = new LinkedMultiValueMap<>();
+        formData.add("grant_type", properties.getGrantType());
+        if (StringUtils.hasText(scope)) {
+            formData.add("scope", scope);
+        }
+        if (StringUtils.hasText(audience)) {
+            formData.add("audience", audience);
+        }
+
+        return webClient.post()
+            .uri(properties.getTokenUrl())
+            .header(HttpHeaders.AUTHORIZATION, basicAuth)
+            .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+            .body(BodyInserters.fromFormData(formData))
+            .retrieve()
+            .bodyToMono(String.class)
+            .timeout(TOKEN_REQUEST_TIMEOUT)
+            .switchIfEmpty(Mono.error(() -> new IllegalStateException("获取内部令牌失败：响应为空")))
+            .flatMap(response -> {
+                JSONObject json = JSON.parseObject(response);
+                String accessToken = json.getString("access_token");
+                if (!StringUtils.hasText(accessToken)) {
+                    return Mono.error(new IllegalStateException("获取内部令牌失败：响应缺少 access_token"));
+                }
+                long ttl = resolveTtl(json.getLong("expires_in"));
+                log.info("成功获取内部令牌（scope={} audience={}），ttl={}s", scope, audience, ttl);
+                return tokenCache.putToken(holder.cacheKey, accessToken, ttl)
+                    .onErrorResume(e -> {
+                        log.warn("写入 Redis 共享内部令牌失败（key={}）：{}", holder.cacheKey, e.getMessage());
+                        return Mono.empty();
+                    })
+                    .thenReturn(CachedToken.of(accessToken, ttl, refreshAheadSeconds()));
+            })
+            .onErrorMap(WebClientResponseException.class, e -> {
+                String body = e.getResponseBodyAsString();
+                log.error("获取内部令牌失败，状态码={}，响应={}", e.getRawStatusCode(), body);
+                return new IllegalStateException("获取内部令牌失败：" + e.getRawStatusCode() + " - " + body, e);
+            })
+            .onErrorMap(e -> !(e instanceof IllegalStateException),
+                e -> new IllegalStateException("获取内部令牌异常：" + e.getMessage(), e));
+    }
+
+    private long resolveTtl(Long expiresIn) {
+        long defaultCache = Objects.requireNonNullElse(properties.getCacheExpireSeconds(), 540L);
+        long refreshAhead = refreshAheadSeconds();
+        long ttl = defaultCache;
+        if (expiresIn != null && expiresIn > 0) {
+            long safeTtl = expiresIn - refreshAhead;
+            if (safeTtl > 0) {
+                ttl = Math.min(defaultCache, safeTtl);
+            } else {
+                ttl = Math.max(MIN_TTL_SECONDS, expiresIn / 2);
+            }
+        }
+        return Math.max(MIN_TTL_SECONDS, ttl);
+    }
+
+    private long refreshAheadSeconds() {
+        return Objects.requireNonNullElse(properties.getRefreshAheadSeconds(), 60L);
+    }
+
+    private long lockSeconds() {
+        return Objects.requireNonNullElse(properties.getRefreshLockSeconds(), 15L);
+    }
+
+    private long lockWaitMillis() {
+        return Objects.requireNonNullElse(properties.getRefreshLockWaitMillis(), 3000L);
+    }
+
+    private long retrySeconds() {
+        return Objects.requireNonNullElse(properties.getRefreshRetrySeconds(), 5L);
+    }
+
+    private Duration waitTimeout() {
+        // 锁等待 + 一次 HTTP 请求超时，再留少量余量
+        return Duration.ofMillis(lockWaitMillis()).plus(TOKEN_REQUEST_TIMEOUT).plusSeconds(2);
+    }
+
+    /**
+     * 单个 (scope, audience) 的 token 持有者
+     */
+    private static final class TokenHolder {
+        private final String cacheKey;
+        private final String scope;
+        private final String audience;
+        private final AtomicReference<Mono<CachedToken>> inflight = new AtomicReference<>();
+        private final AtomicReference<Disposable> scheduled = new AtomicReference<>();
+        private volatile CachedToken current;
+
+        private TokenHolder(String cacheKey, String scope, String audience) {
+            this.cacheKey = cacheKey;
+            this.scope = scope;
+            this.audience = audience;
+        }
+    }
+
+    /**
+     * 内存中的 token 副本
+     *
+     * @param token     access token
+     * @param expiresAt 可用截止时间（毫秒），已扣除刷新提前量
+     * @param refreshAt 后台刷新时间点（毫秒）
+     */
+    private record CachedToken(String token, long expiresAt, long refreshAt) {
+
+        private static CachedToken of(String token, long ttlSeconds, long refreshAheadSeconds) {
+            long now = System.currentTimeMillis();
+            long ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+            long refreshIn = Math.max(ttlMillis / 2, ttlMillis - TimeUnit.SECONDS.toMillis(refreshAheadSeconds));
+            return new CachedToken(token, now + ttlMillis, now + refreshIn);
+        }
+
+        private boolean isUsable(long now) {
+            return now < expiresAt;
+        }
+
+        private boolean shouldRefresh(long now) {
+            return now >= refreshAt;
+        }
+    }
+}
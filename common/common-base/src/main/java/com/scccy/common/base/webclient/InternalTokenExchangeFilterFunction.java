@@ -0,0 +1,81 @@
+package com.scccy.common.base.webclient;
+
+import com.scccy.common.base.config.properties.InternalTokenWebClientProperties;
+import com.scccy.common.base.service.ReactiveAuthTokenService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebClient 调用自动注入内部 JWT 的过滤器（非阻塞）。
+ * <p>
+ * 与 {@code FeignAuthRequestInterceptor} 对应，token 通过 {@link ReactiveAuthTokenService} 获取，
+ * 整个过程不阻塞 event loop。以下情况不注入：
+ * <ul>
+ *     <li>请求已携带 Authorization 头（包括获取 token 本身的 Basic 认证请求）</li>
+ *     <li>请求属性 {@link #SKIP_ATTRIBUTE} 为 true</li>
+ *     <li>目标服务在 {@code scccy.internal-token.webclient.skip-services} 中</li>
+ *     <li>内部令牌功能未启用（容器中没有 {@link ReactiveAuthTokenService}）</li>
+ * </ul>
+ */
+@Slf4j
+public class InternalTokenExchangeFilterFunction implements ExchangeFilterFunction {
+
+    /**
+     * 请求属性：设置为 true 时跳过内部令牌注入
+     */
+    public static final String SKIP_ATTRIBUTE = InternalTokenExchangeFilterFunction.class.getName() + ".SKIP";
+
+    private final ObjectProvider<ReactiveAuthTokenService> tokenServiceProvider;
+    private final ObjectProvider<InternalTokenWebClientProperties> propertiesProvider;
+
+    /**
+     * 通过 ObjectProvider 延迟获取依赖，避免与 WebClient.Builder 形成循环依赖
+     * （{@link ReactiveAuthTokenService} 自身也使用该 Builder 请求授权服务）
+     */
+    public InternalTokenExchangeFilterFunction(ObjectProvider<ReactiveAuthTokenService> tokenServiceProvider,
+                                               ObjectProvider<InternalTokenWebClientProperties> propertiesProvider) {
+        this.tokenServiceProvider = tokenServiceProvider;
+        this.propertiesProvider = propertiesProvider;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (shouldSkip(request)) {
+            return next.exchange(request);
+        }
+        ReactiveAuthTokenService tokenService = tokenServiceProvider.getIfAvailable();
+        if (tokenService == null) {
+            return next.exchange(request);
+        }
+        return tokenService.getServiceToken()
+            .map(token -> ClientRequest.from(request)
+                .headers(headers -> headers.setBearerAuth(token))
+                .build())
+            .flatMap(next::exchange);
+    }
+
+    private boolean shouldSkip(ClientRequest request) {
+        if (request.headers().containsKey(HttpHeaders.AUTHORIZATION)) {
+            return true;
+        }
+        if (Boolean.TRUE.equals(request.attribute(SKIP_ATTRIBUTE).orElse(null))) {
+            return true;
+        }
+        InternalTokenWebClientProperties properties = propertiesProvider.getIfAvailable();
+        if (properties == null || !properties.isEnabled()) {
+            return true;
+        }
+        String service = request.url().getHost();
+        if (service != null && properties.getSkipServices().contains(service)) {
+            log.debug("WebClient 目标服务 {} 配置跳过内部 token 注入", service);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,93 @@
+package com.scccy.common.base.resolver;
+
+import com.scccy.common.base.service.AuthorityResolver;
+import com.scccy.common.modules.annotation.CurrentUser;
+import com.scccy.common.modules.constant.UserHeaderConstants;
+import com.scccy.common.modules.dto.CurrentUserInfo;
+import com.scccy.common.modules.permission.PermissionCodec;
+import com.scccy.common.modules.permission.PermissionDictionary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.MethodParameter;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * {@link CurrentUserArgumentResolver} 权限解析测试
+ * <p>
+ * Gateway 只把字典中未登记的权限写入 {@code X-Authorities}，其余经 {@code X-Authorities-Bits} 传递
+ *
+ * @author scccy
+ */
+class CurrentUserArgumentResolverTest {
+
+    private static final List<String> DICTIONARY = List.of("#epoch-1", "user:read", "user:write", "order:read");
+
+    private CurrentUserArgumentResolver resolver;
+    private MethodParameter parameter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws NoSuchMethodException {
+        StringRedisTemplate redis = mock(StringRedisTemplate.class);
+        ListOperations<String, String> listOperations = mock(ListOperations.class);
+        doReturn(listOperations).when(redis).opsForList();
+        doReturn(DICTIONARY).when(listOperations).range(PermissionCodec.DICTIONARY_KEY, 0, -1);
+        ObjectProvider<StringRedisTemplate> redisProvider = mock(ObjectProvider.class);
+        doReturn(redis).when(redisProvider).getIfAvailable();
+
+        resolver = new CurrentUserArgumentResolver(new AuthorityResolver(redisProvider));
+        parameter = new MethodParameter(
+            CurrentUserArgumentResolverTest.class.getDeclaredMethod("handle", CurrentUserInfo.class), 0);
+    }
+
+    @Test
+    void resolvesAuthoritiesFromBitsOnlyHeader() throws Exception {
+        MockHttpServletRequest request = userRequest();
+        request.addHeader(UserHeaderConstants.HEADER_AUTHORITIES_BITS, encode("user:read", "order:read"));
+
+        CurrentUserInfo user = (CurrentUserInfo) resolver.resolveArgument(parameter, null, new ServletWebRequest(request), null);
+
+        assertThat(user.getUserId()).isEqualTo(42L);
+        assertThat(user.getAuthorities()).containsExactlyInAnyOrder("user:read", "order:read");
+    }
+
+    @Test
+    void mergesBitsWithPlainAuthorities() throws Exception {
+        MockHttpServletRequest request = userRequest();
+        request.addHeader(UserHeaderConstants.HEADER_AUTHORITIES_BITS, encode("user:write"));
+        request.addHeader(UserHeaderConstants.HEADER_AUTHORITIES, "report:export");
+
+        CurrentUserInfo user = (CurrentUserInfo) resolver.resolveArgument(parameter, null, new ServletWebRequest(request), null);
+
+        assertThat(user.getAuthorities()).containsExactlyInAnyOrder("user:write", "report:export");
+    }
+
+    private static MockHttpServletRequest userRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(UserHeaderConstants.HEADER_USER_ID, "42");
+        request.addHeader(UserHeaderConstants.HEADER_USERNAME, "alice");
+        return request;
+    }
+
+    private static String encode(String... authorities) {
+        List<String> unknown = new ArrayList<>();
+        String header = PermissionCodec.encode(List.of(authorities), PermissionDictionary.of(DICTIONARY), unknown);
+        assertThat(unknown).isEmpty();
+        return header;
+    }
+
+    @SuppressWarnings("unused")
+    private void handle(@CurrentUser CurrentUserInfo user) {
+    }
+}
@@ -0,0 +1,180 @@
+package com.scccy.common.base.webclient;
+
+import com.scccy.common.base.config.properties.InternalTokenProperties;
+import com.scccy.common.base.config.properties.InternalTokenWebClientProperties;
+import com.scccy.common.base.service.ReactiveAuthTokenService;
+import com.scccy.common.redis.cache.ReactiveInternalTokenCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * {@link InternalTokenExchangeFilterFunction} + {@link ReactiveAuthTokenService} 负载测试
+ * <p>
+ * 全部调用方、授权服务响应、Redis 与下游响应都运行在同一个单线程的 Reactor NonBlocking 调度器上，模拟 Netty event loop：
+ * <ul>
+ *     <li>链路中任何一处阻塞等待都会占住唯一的线程，授权服务的延迟响应无法送达，测试超时失败</li>
+ *     <li>NonBlocking 线程上调用 {@code block()} 会直接抛出异常</li>
+ *     <li>所有回调记录所在线程，确认没有切换到弹性线程池上执行</li>
+ * </ul>
+ *
+ * @author scccy
+ */
+class InternalTokenExchangeFilterLoadTest {
+
+    private static final int CALLERS = 2_000;
+
+    private static final String TOKEN = "internal-token";
+
+    private static final Duration TOKEN_ENDPOINT_LATENCY = Duration.ofMillis(200);
+
+    private final AtomicInteger tokenRequests = new AtomicInteger();
+    private final AtomicInteger redisCalls = new AtomicInteger();
+    private final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+    private Scheduler eventLoop;
+    private ReactiveAuthTokenService tokenService;
+    private WebClient webClient;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        eventLoop = Schedulers.newParallel("event-loop", 1);
+
+        InternalTokenProperties properties = new InternalTokenProperties();
+        properties.setClientId("internal-service-client");
+        properties.setClientSecret("secret");
+        properties.setTokenUrl("http://service-auth/oauth2/token");
+
+        ReactiveInternalTokenCache tokenCache = mock(ReactiveInternalTokenCache.class);
+        doAnswer(invocation -> recorded(Mono.empty())).when(tokenCache).getToken(anyString());
+        doAnswer(invocation -> recorded(Mono.empty())).when(tokenCache).getExpireSeconds(anyString());
+        doAnswer(invocation -> recorded(Mono.empty())).when(tokenCache).putToken(anyString(), anyString(), anyLong());
+
+        ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        ReactiveValueOperations<String, String> valueOperations = mock(ReactiveValueOperations.class);
+        doReturn(valueOperations).when(redisTemplate).opsForValue();
+        doAnswer(invocation -> recorded(Mono.just(true)))
+            .when(valueOperations).setIfAbsent(anyString(), anyString(), any(Duration.class));
+        doAnswer(invocation -> {
+            recordThread();
+            redisCalls.incrementAndGet();
+            return Flux.just(1L);
+        }).when(redisTemplate).execute(any(RedisScript.class), anyList(), anyList());
+
+        // 授权服务：在 event loop 上延迟响应
+        WebClient.Builder authClientBuilder = WebClient.builder().exchangeFunction(request -> {
+            recordThread();
+            tokenRequests.incrementAndGet();
+            return Mono.delay(TOKEN_ENDPOINT_LATENCY, eventLoop)
+                .map(tick -> ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body("{\"access_token\":\"" + TOKEN + "\",\"expires_in\":600}")
+                    .build());
+        });
+        ObjectProvider<MeterRegistry> meterRegistryProvider = mock(ObjectProvider.class);
+        doReturn(new SimpleMeterRegistry()).when(meterRegistryProvider).getIfAvailable(any(Supplier.class));
+        tokenService = new ReactiveAuthTokenService(properties, tokenCache, redisTemplate, authClientBuilder,
+            meterRegistryProvider);
+
+        ObjectProvider<ReactiveAuthTokenService> tokenServiceProvider = mock(ObjectProvider.class);
+        doReturn(tokenService).when(tokenServiceProvider).getIfAvailable();
+        ObjectProvider<InternalTokenWebClientProperties> webClientPropertiesProvider = mock(ObjectProvider.class);
+        doReturn(new InternalTokenWebClientProperties()).when(webClientPropertiesProvider).getIfAvailable();
+
+        // 下游服务：把收到的 Authorization 头原样返回
+        webClient = WebClient.builder()
+            .filter(new InternalTokenExchangeFilterFunction(tokenServiceProvider, webClientPropertiesProvider))
+            .exchangeFunction(request -> {
+                recordThread();
+                return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .body(String.valueOf(request.headers().getFirst(HttpHeaders.AUTHORIZATION)))
+                    .build());
+            })
+            .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        tokenService.shutdown();
+        eventLoop.dispose();
+    }
+
+    @Test
+    void concurrentCallersOnOneEventLoopShareOneTokenRequest() {
+        List<String> authorizations = callConcurrently(CALLERS);
+
+        assertThat(authorizations).hasSize(CALLERS).containsOnly("Bearer " + TOKEN);
+        assertThat(tokenRequests).hasValue(1);
+        assertThat(threads).containsOnly("event-loop-1");
+    }
+
+    @Test
+    void cachedTokenIsServedWithoutAnyIo() {
+        callConcurrently(1);
+        redisCalls.set(0);
+
+        List<String> authorizations = callConcurrently(CALLERS * 5);
+
+        assertThat(authorizations).hasSize(CALLERS * 5).containsOnly("Bearer " + TOKEN);
+        // 热路径直接返回内存中的 token，没有 Redis 与授权服务访问
+        assertThat(tokenRequests).hasValue(1);
+        assertThat(redisCalls).hasValue(0);
+    }
+
+    /**
+     * 在 event loop 上同时发起多个调用，测试线程只等待最终结果
+     */
+    private List<String> callConcurrently(int callers) {
+        return Flux.range(0, callers)
+            .flatMap(i -> webClient.get()
+                .uri("http://service-system/api/ping")
+                .retrieve()
+                .bodyToMono(String.class)
+                .subscribeOn(eventLoop), callers)
+            .collectList()
+            .block(TOKEN_ENDPOINT_LATENCY.plusSeconds(10));
+    }
+
+    private <T> Mono<T> recorded(Mono<T> result) {
+        recordThread();
+        redisCalls.incrementAndGet();
+        return result;
+    }
+
+    private void recordThread() {
+        assertThat(Schedulers.isInNonBlockingThread()).isTrue();
+        threads.add(Thread.currentThread().getName());
+    }
+}
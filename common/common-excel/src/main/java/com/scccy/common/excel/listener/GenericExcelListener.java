@@ -9,31 +9,61 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
 
+/**
+ * 通用导入监听器
+ * <p>
+ * 未指定批大小时读完整张表后一次性交给 {@code batchConsumer}；指定批大小后每读满一批即同步处理并释放。
+ * 大文件请使用 {@link StreamingExcelListener}
+ */
 @Slf4j
 public class GenericExcelListener<T> extends AnalysisEventListener<T> {
 
-    private final List<T> list = new ArrayList<>();
+    private final int batchSize;
     private final Consumer<List<T>> batchConsumer; // 用于处理读取完的数据
+    private List<T> list = new ArrayList<>();
 
     /**
      * 构造方法
      * @param batchConsumer 数据读取完成后的处理逻辑，比如保存到数据库
      */
     public GenericExcelListener(Consumer<List<T>> batchConsumer) {
+        this(batchConsumer, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 构造方法
+     * @param batchConsumer 每批数据的处理逻辑
+     * @param batchSize 每批行数，读满即处理
+     */
+    public GenericExcelListener(Consumer<List<T>> batchConsumer, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize 必须大于 0");
+        }
         this.batchConsumer = batchConsumer;
+        this.batchSize = batchSize;
     }
 
     @Override
     public void invoke(T data, AnalysisContext context) {
-        log.info("读取到一条数据: {}", JSON.toJSONString(data));
+        if (log.isDebugEnabled()) {
+            log.debug("读取到一条数据: {}", JSON.toJSONString(data));
+        }
         list.add(data);
+        if (list.size() >= batchSize) {
+            flush();
+        }
     }
 
     @Override
     public void doAfterAllAnalysed(AnalysisContext context) {
         log.info("所有数据读取完成！");
+        flush();
+    }
+
+    private void flush() {
         if (batchConsumer != null && !list.isEmpty()) {
             batchConsumer.accept(list); // 调用外部传入的处理逻辑
         }
+        list = new ArrayList<>();
     }
-}
\ No newline at end of file
+}
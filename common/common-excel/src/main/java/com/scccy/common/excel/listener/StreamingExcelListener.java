@@ -0,0 +1,202 @@
+package com.scccy.common.excel.listener;
+
+import cn.idev.excel.context.AnalysisContext;
+import cn.idev.excel.event.AnalysisEventListener;
+import cn.idev.excel.exception.ExcelDataConvertException;
+import com.scccy.common.excel.model.ExcelImportOptions;
+import com.scccy.common.excel.model.ExcelImportProgress;
+import com.scccy.common.excel.model.ExcelImportResult;
+import com.scccy.common.excel.model.ExcelImportResult.RowError;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 流式导入监听器
+ * <p>
+ * 读满 {@code batchSize} 行即把该批交给有界写入线程池，解析与写库并行进行；
+ * 等待队列满时由读取线程自己执行写入，读取速度自动降到写入速度，堆内存占用与文件大小无关。
+ * <ul>
+ *     <li>校验失败、类型转换失败的行记录错误后跳过，不中断读取</li>
+ *     <li>某一批写入失败时，该批全部行计为失败，继续处理后续批次</li>
+ *     <li>每 {@code progressInterval} 行报告一次进度与吞吐</li>
+ * </ul>
+ * 读取结束（包括异常结束）后必须调用 {@link #awaitResult()} 等待写入完成并释放线程池
+ *
+ * @param <T> 行数据类型
+ * @author scccy
+ */
+@Slf4j
+public class StreamingExcelListener<T> extends AnalysisEventListener<T> {
+
+    private static final AtomicInteger POOL_SEQ = new AtomicInteger();
+
+    private final Consumer<List<T>> batchConsumer;
+
+    private final ExcelImportOptions<T> options;
+
+    private final ThreadPoolExecutor writer;
+
+    private final long startNanos = System.nanoTime();
+
+    private final AtomicLong writtenRows = new AtomicLong();
+
+    private final AtomicLong failedRows = new AtomicLong();
+
+    private final List<RowError> errors = Collections.synchronizedList(new ArrayList<>());
+
+    private long readRows;
+
+    private List<T> batch;
+
+    private int batchFirstRow;
+
+    public StreamingExcelListener(Consumer<List<T>> batchConsumer, ExcelImportOptions<T> options) {
+        if (options.getBatchSize() <= 0 || options.getWriterThreads() <= 0 || options.getMaxPendingBatches() <= 0
+                || options.getProgressInterval() <= 0) {
+            throw new IllegalArgumentException("batchSize、writerThreads、maxPendingBatches、progressInterval 必须大于 0");
+        }
+        this.batchConsumer = batchConsumer;
+        this.options = options;
+        this.batch = new ArrayList<>(options.getBatchSize());
+        int poolId = POOL_SEQ.incrementAndGet();
+        AtomicInteger threadSeq = new AtomicInteger();
+        this.writer = new ThreadPoolExecutor(
+                options.getWriterThreads(), options.getWriterThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(options.getMaxPendingBatches()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "excel-import-" + poolId + "-writer-" + threadSeq.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Override
+    public void invoke(T data, AnalysisContext context) {
+        readRows++;
+        int rowNumber = rowNumber(context);
+        String error = options.getValidator() != null ? options.getValidator().apply(data) : null;
+        if (error != null) {
+            recordError(rowNumber, error, 1);
+        } else {
+            if (batch.isEmpty()) {
+                batchFirstRow = rowNumber;
+            }
+            batch.add(data);
+            if (batch.size() >= options.getBatchSize()) {
+                flush();
+            }
+        }
+        if (readRows % options.getProgressInterval() == 0) {
+            reportProgress();
+        }
+    }
+
+    /**
+     * 类型转换失败的行记录错误后继续读取，其他异常照常中断
+     */
+    @Override
+    public void onException(Exception exception, AnalysisContext context) throws Exception {
+        if (exception instanceof ExcelDataConvertException convertException) {
+            readRows++;
+            recordError(convertException.getRowIndex() + 1,
+                    "第 " + (convertException.getColumnIndex() + 1) + " 列数据格式错误: " + convertException.getMessage(), 1);
+            return;
+        }
+        throw exception;
+    }
+
+    @Override
+    public void doAfterAllAnalysed(AnalysisContext context) {
+        flush();
+        log.info("Excel 读取完成，共 {} 行，等待写入完成", readRows);
+    }
+
+    /**
+     * 等待已提交的批次写完并关闭线程池
+     *
+     * @return 导入结果
+     */
+    public ExcelImportResult awaitResult() throws InterruptedException {
+        writer.shutdown();
+        try {
+            while (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.info("等待 Excel 写入完成，队列中剩余 {} 批", writer.getQueue().size());
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            throw e;
+        }
+        long elapsedMillis = elapsedMillis();
+        ExcelImportResult result = new ExcelImportResult(readRows, writtenRows.get(), failedRows.get(),
+                List.copyOf(errors), elapsedMillis, rate(readRows, elapsedMillis));
+        log.info("Excel 导入完成: 读取 {} 行，写入 {} 行，失败 {} 行，耗时 {} ms，{} 行/秒",
+                result.totalRows(), result.writtenRows(), result.failedRows(),
+                result.elapsedMillis(), String.format("%.1f", result.rowsPerSecond()));
+        return result;
+    }
+
+    private void flush() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<T> rows = batch;
+        int firstRow = batchFirstRow;
+        batch = new ArrayList<>(options.getBatchSize());
+        writer.execute(() -> write(rows, firstRow));
+    }
+
+    private void write(List<T> rows, int firstRow) {
+        try {
+            batchConsumer.accept(rows);
+            writtenRows.addAndGet(rows.size());
+        } catch (Exception e) {
+            log.error("Excel 批量写入失败，起始行 {}，共 {} 行", firstRow, rows.size(), e);
+            recordError(firstRow, "批量写入失败（共 " + rows.size() + " 行）: " + e.getMessage(), rows.size());
+        }
+    }
+
+    private void recordError(int rowNumber, String message, int rows) {
+        failedRows.addAndGet(rows);
+        if (errors.size() < options.getMaxErrors()) {
+            errors.add(new RowError(rowNumber, message));
+        }
+    }
+
+    private void reportProgress() {
+        long elapsedMillis = elapsedMillis();
+        ExcelImportProgress progress = new ExcelImportProgress(readRows, writtenRows.get(), failedRows.get(),
+                elapsedMillis, rate(readRows, elapsedMillis));
+        log.info("Excel 导入进度: 读取 {} 行，写入 {} 行，失败 {} 行，{} 行/秒",
+                progress.readRows(), progress.writtenRows(), progress.failedRows(),
+                String.format("%.1f", progress.rowsPerSecond()));
+        if (options.getProgressListener() != null) {
+            options.getProgressListener().accept(progress);
+        }
+    }
+
+    /**
+     * 与 Excel 中显示一致的行号（从 1 开始，含表头）
+     */
+    private static int rowNumber(AnalysisContext context) {
+        return context.readRowHolder().getRowIndex() + 1;
+    }
+
+    private long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static double rate(long rows, long elapsedMillis) {
+        return elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,64 @@
+package com.scccy.common.excel.model;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 流式导入参数
+ * <p>
+ * 内存中最多同时存在 {@code (writerThreads + maxPendingBatches + 1) * batchSize} 行，与文件大小无关
+ *
+ * @param <T> 行数据类型
+ * @author scccy
+ */
+@Data
+@Accessors(chain = true)
+public class ExcelImportOptions<T> {
+
+    /**
+     * 每批行数，读满即交给写入线程
+     * 默认: 1000
+     */
+    private int batchSize = 1000;
+
+    /**
+     * 写入线程数；大于 1 时批次之间不保证写入顺序
+     * 默认: 2
+     */
+    private int writerThreads = 2;
+
+    /**
+     * 排队等待写入的最大批次数，队列满时由读取线程自己写入（反压）
+     * 默认: 4
+     */
+    private int maxPendingBatches = 4;
+
+    /**
+     * 行校验，返回错误信息，校验通过返回 null；校验失败的行记录错误后跳过，不中断读取
+     */
+    private Function<T, String> validator;
+
+    /**
+     * 结果中保留的错误明细上限，超出后只计数
+     * 默认: 1000
+     */
+    private int maxErrors = 1000;
+
+    /**
+     * 每读取多少行报告一次进度
+     * 默认: 10000
+     */
+    private int progressInterval = 10_000;
+
+    /**
+     * 进度回调（在读取线程上调用），为空时只打印日志
+     */
+    private Consumer<ExcelImportProgress> progressListener;
+
+    public static <T> ExcelImportOptions<T> defaults() {
+        return new ExcelImportOptions<>();
+    }
+}
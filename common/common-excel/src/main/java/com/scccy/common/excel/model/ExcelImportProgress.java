@@ -0,0 +1,18 @@
+package com.scccy.common.excel.model;
+
+/**
+ * 流式导入进度
+ *
+ * @param readRows      已读取行数
+ * @param writtenRows   已写入行数
+ * @param failedRows    校验或写入失败行数
+ * @param elapsedMillis 已耗时（毫秒）
+ * @param rowsPerSecond 读取速率（行/秒）
+ * @author scccy
+ */
+public record ExcelImportProgress(long readRows,
+                                  long writtenRows,
+                                  long failedRows,
+                                  long elapsedMillis,
+                                  double rowsPerSecond) {
+}
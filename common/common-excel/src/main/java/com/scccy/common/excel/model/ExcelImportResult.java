@@ -0,0 +1,35 @@
+package com.scccy.common.excel.model;
+
+import java.util.List;
+
+/**
+ * 流式导入结果
+ *
+ * @param totalRows     读取的数据行数（不含表头）
+ * @param writtenRows   成功写入行数
+ * @param failedRows    校验或写入失败行数
+ * @param errors        错误明细（最多 {@link ExcelImportOptions#getMaxErrors()} 条）
+ * @param elapsedMillis 总耗时（毫秒）
+ * @param rowsPerSecond 整体吞吐（行/秒）
+ * @author scccy
+ */
+public record ExcelImportResult(long totalRows,
+                                long writtenRows,
+                                long failedRows,
+                                List<RowError> errors,
+                                long elapsedMillis,
+                                double rowsPerSecond) {
+
+    public boolean success() {
+        return failedRows == 0;
+    }
+
+    /**
+     * 行错误
+     *
+     * @param rowIndex 行号（从 1 开始，与 Excel 中显示的行号一致）；批量写入失败时为该批第一行
+     * @param message  错误信息
+     */
+    public record RowError(int rowIndex, String message) {
+    }
+}
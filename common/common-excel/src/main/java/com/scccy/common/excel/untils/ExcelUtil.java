@@ -1,28 +1,36 @@
 package com.scccy.common.excel.untils;
 
 import cn.idev.excel.FastExcel;
-import cn.idev.excel.annotation.ExcelProperty;
-import com.scccy.common.excel.annotation.ExcelSchemaProperty;
 import com.scccy.common.excel.listener.GenericExcelListener;
-import io.swagger.v3.oas.annotations.media.Schema;
+import com.scccy.common.excel.listener.StreamingExcelListener;
+import com.scccy.common.excel.model.ExcelImportOptions;
+import com.scccy.common.excel.model.ExcelImportResult;
+import com.scccy.common.excel.writer.StreamingExcelWriter;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.lang.reflect.Field;
+import java.io.InputStream;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 
 /**
  * Excel 工具类（基于 FastExcel）
+ * <p>
+ * 大数据量导出请使用 {@link #exportPaged} / {@link #exportStream}，数据按批写入，不需要一次性加载到内存
  */
 public class ExcelUtil {
 
+    /**
+     * 流式导出时每批写入的行数
+     */
+    private static final int EXPORT_BATCH_SIZE = 1000;
+
     /**
      * 导出 Excel 文件
      * @param response HttpServletResponse
@@ -33,119 +41,80 @@ public class ExcelUtil {
      * @throws IOException 文件输出异常
      */
     public static <T> void export(HttpServletResponse response, String fileName, List<T> data, Class<T> clazz) throws IOException {
-        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
-        response.setCharacterEncoding("utf-8");
-        fileName = URLEncoder.encode(fileName, "UTF-8").replaceAll("\\+", "%20");
-        response.setHeader("Content-disposition", "attachment;filename*=utf-8''" + fileName + ".xlsx");
-
-        // 检查是否使用了 @ExcelSchemaProperty，如果是，使用自定义导出逻辑
-        if (clazz.isAnnotationPresent(ExcelSchemaProperty.class) || hasFieldWithExcelSchemaProperty(clazz)) {
-            exportWithSchemaProperty(response.getOutputStream(), data, clazz);
-        } else {
-            // 使用 FastExcel 标准导出
-            FastExcel.write(response.getOutputStream(), clazz)
-                    .sheet("Sheet1")
-                    .doWrite(data);
-        }
-    }
-
-    /**
-     * 检查类中是否有字段使用了 @ExcelSchemaProperty
-     */
-    private static <T> boolean hasFieldWithExcelSchemaProperty(Class<T> clazz) {
-        Field[] fields = clazz.getDeclaredFields();
-        for (Field field : fields) {
-            if (field.isAnnotationPresent(ExcelSchemaProperty.class)) {
-                return true;
-            }
+        prepareResponse(response, fileName);
+        // 使用 @ExcelSchemaProperty 时自动从 @Schema 读取 description 作为表头，否则按 FastExcel 标准导出
+        try (StreamingExcelWriter<T> writer = new StreamingExcelWriter<>(response.getOutputStream(), clazz)) {
+            writer.write(data);
         }
-        return false;
     }
 
     /**
-     * 使用 @ExcelSchemaProperty 导出 Excel（自动从 @Schema 读取 description）
+     * 分页导出 Excel 文件
+     * <p>
+     * 逐页查询并写出，内存中只保留当前一页；返回条数小于 {@code pageSize} 时结束。
+     * 例如 {@code (pageNum, pageSize) -> sysUserMpService.pageEq(pageNum, pageSize, query).getRecords()}
+     * @param response HttpServletResponse
+     * @param fileName 导出的文件名（不带扩展名）
+     * @param clazz 导出实体类类型
+     * @param pageSize 每页条数
+     * @param pageLoader 分页查询，参数为页码（从 1 开始）与每页条数
+     * @param <T> 实体类类型
+     * @throws IOException 文件输出异常
      */
-    private static <T> void exportWithSchemaProperty(java.io.OutputStream outputStream, List<T> data, Class<T> clazz)  {
-        // 获取字段映射（字段 -> 列名）
-        Map<Field, String> fieldColumnMap = getFieldColumnMapping(clazz);
-        
-        if (fieldColumnMap.isEmpty()) {
-            // 如果没有字段需要导出，使用 FastExcel 标准导出
-            FastExcel.write(outputStream, clazz)
-                    .sheet("Sheet1")
-                    .doWrite(data);
-            return;
-        }
-
-        // 构建表头（需要是 List<List<String>> 格式）
-        List<List<String>> headers = new ArrayList<>();
-        List<Field> exportFields = new ArrayList<>();
-        for (Map.Entry<Field, String> entry : fieldColumnMap.entrySet()) {
-            headers.add(Collections.singletonList(entry.getValue()));
-            exportFields.add(entry.getKey());
+    public static <T> void exportPaged(HttpServletResponse response, String fileName, Class<T> clazz, int pageSize,
+                                       BiFunction<Integer, Integer, List<T>> pageLoader) throws IOException {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize 必须大于 0");
         }
-
-        // 构建数据行
-        List<List<Object>> rows = new ArrayList<>();
-        for (T item : data) {
-            List<Object> row = new ArrayList<>();
-            for (Field field : exportFields) {
-                try {
-                    field.setAccessible(true);
-                    Object value = field.get(item);
-                    row.add(value != null ? value : "");
-                } catch (IllegalAccessException e) {
-                    row.add("");
+        prepareResponse(response, fileName);
+        try (StreamingExcelWriter<T> writer = new StreamingExcelWriter<>(response.getOutputStream(), clazz)) {
+            for (int pageNum = 1; ; pageNum++) {
+                List<T> records = pageLoader.apply(pageNum, pageSize);
+                if (records == null || records.isEmpty()) {
+                    break;
+                }
+                writer.write(records);
+                if (records.size() < pageSize) {
+                    break;
                 }
             }
-            rows.add(row);
         }
-
-        // 使用 FastExcel 写入数据
-        FastExcel.write(outputStream)
-                .head(headers)
-                .sheet("Sheet1")
-                .doWrite(rows);
     }
 
     /**
-     * 获取字段到列名的映射
+     * 游标导出 Excel 文件
+     * <p>
+     * 适用于 MyBatis {@code Cursor} 等逐行迭代的数据源，每 {@value #EXPORT_BATCH_SIZE} 行写出一次。
+     * 使用 {@code Cursor} 时需在事务（连接）保持打开的范围内调用，本方法不负责关闭数据源
+     * @param response HttpServletResponse
+     * @param fileName 导出的文件名（不带扩展名）
+     * @param clazz 导出实体类类型
+     * @param rows 数据源
+     * @param <T> 实体类类型
+     * @throws IOException 文件输出异常
      */
-    private static <T> Map<Field, String> getFieldColumnMapping(Class<T> clazz) {
-        Map<Field, String> mapping = new LinkedHashMap<>();
-        boolean hasClassLevelAnnotation = clazz.isAnnotationPresent(ExcelSchemaProperty.class);
-
-        Field[] fields = clazz.getDeclaredFields();
-        for (Field field : fields) {
-            field.setAccessible(true);
-
-            // 先检查是否有 @ExcelProperty（优先使用）
-            ExcelProperty excelProperty = field.getAnnotation(ExcelProperty.class);
-            if (excelProperty != null && excelProperty.value() != null && excelProperty.value().length > 0) {
-                mapping.put(field, excelProperty.value()[0]);
-                continue;
-            }
-
-            // 检查字段上是否有 @ExcelSchemaProperty
-            if (field.isAnnotationPresent(ExcelSchemaProperty.class)) {
-                Schema schema = field.getAnnotation(Schema.class);
-                if (schema != null && schema.description() != null && !schema.description().isEmpty()) {
-                    mapping.put(field, schema.description());
-                    continue;
-                }
-            }
-
-            // 检查类上是否有 @ExcelSchemaProperty
-            if (hasClassLevelAnnotation) {
-                Schema schema = field.getAnnotation(Schema.class);
-                if (schema != null && schema.description() != null && !schema.description().isEmpty()) {
-                    mapping.put(field, schema.description());
-                    continue;
+    public static <T> void exportStream(HttpServletResponse response, String fileName, Class<T> clazz,
+                                        Iterable<? extends T> rows) throws IOException {
+        prepareResponse(response, fileName);
+        try (StreamingExcelWriter<T> writer = new StreamingExcelWriter<>(response.getOutputStream(), clazz)) {
+            List<T> batch = new ArrayList<>(EXPORT_BATCH_SIZE);
+            Iterator<? extends T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() >= EXPORT_BATCH_SIZE) {
+                    writer.write(batch);
+                    batch.clear();
                 }
             }
+            writer.write(batch);
         }
+    }
 
-        return mapping;
+    private static void prepareResponse(HttpServletResponse response, String fileName) {
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setCharacterEncoding("utf-8");
+        fileName = URLEncoder.encode(fileName, StandardCharsets.UTF_8).replaceAll("\\+", "%20");
+        response.setHeader("Content-disposition", "attachment;filename*=utf-8''" + fileName + ".xlsx");
     }
 
     /**
@@ -165,4 +134,35 @@ public class ExcelUtil {
                 .sheet()
                 .doRead();
     }
+
+    /**
+     * 流式导入 Excel 文件
+     * <p>
+     * 按 {@link ExcelImportOptions#getBatchSize()} 分批交给有界写入线程池，读取与写入并行，
+     * 堆内存占用与文件大小无关；校验失败的行记录在结果中，不中断导入
+     * @param file 上传的 Excel 文件
+     * @param clazz 目标实体类
+     * @param batchConsumer 批量处理函数（如保存数据库），会在写入线程上并发调用，需线程安全
+     * @param options 导入参数
+     * @param <T> 数据类型
+     * @return 导入结果（行数、失败明细、耗时与吞吐）
+     * @throws Exception 读取异常
+     */
+    public static <T> ExcelImportResult importData(MultipartFile file, Class<T> clazz, Consumer<List<T>> batchConsumer,
+                                                   ExcelImportOptions<T> options) throws Exception {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("请选择一个文件上传！");
+        }
+        StreamingExcelListener<T> listener = new StreamingExcelListener<>(batchConsumer, options);
+        try (InputStream inputStream = file.getInputStream()) {
+            FastExcel.read(inputStream, clazz, listener)
+                    .sheet()
+                    .doRead();
+        } catch (Exception e) {
+            // 读取中断时同样等待已提交的批次写完，避免线程池泄漏
+            listener.awaitResult();
+            throw e;
+        }
+        return listener.awaitResult();
+    }
 }
\ No newline at end of file
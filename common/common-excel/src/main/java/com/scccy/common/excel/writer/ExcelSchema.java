@@ -0,0 +1,188 @@
+package com.scccy.common.excel.writer;
+
+import cn.idev.excel.annotation.ExcelProperty;
+import com.scccy.common.excel.annotation.ExcelSchemaProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 导出类的列定义缓存
+ * <p>
+ * 每个类只扫描一次注解：列名优先取 {@code @ExcelProperty}，其次取 {@code @Schema(description)}（字段或类上标注
+ * {@link ExcelSchemaProperty} 时生效）。取值器优先用 {@link LambdaMetafactory} 把 getter 生成为 {@link Function}，
+ * 无法生成时退回 {@link MethodHandle}，导出时不再逐格反射
+ *
+ * @author scccy
+ */
+public final class ExcelSchema {
+
+    private static final ClassValue<ExcelSchema> CACHE = new ClassValue<>() {
+        @Override
+        protected ExcelSchema computeValue(Class<?> type) {
+            return build(type);
+        }
+    };
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    /**
+     * 是否按 {@link ExcelSchemaProperty} 自定义表头导出；为 false 时交给 FastExcel 按类导出
+     */
+    private final boolean schemaProperty;
+
+    private final List<List<String>> heads;
+
+    private final List<Function<Object, Object>> getters;
+
+    private ExcelSchema(boolean schemaProperty, List<List<String>> heads, List<Function<Object, Object>> getters) {
+        this.schemaProperty = schemaProperty;
+        this.heads = heads;
+        this.getters = getters;
+    }
+
+    public static ExcelSchema of(Class<?> clazz) {
+        return CACHE.get(clazz);
+    }
+
+    public boolean isSchemaProperty() {
+        return schemaProperty;
+    }
+
+    public List<List<String>> heads() {
+        return heads;
+    }
+
+    /**
+     * 转换为按列排列的行数据，空值写为空字符串
+     */
+    public List<List<Object>> toRows(List<?> items) {
+        List<List<Object>> rows = new ArrayList<>(items.size());
+        for (Object item : items) {
+            List<Object> row = new ArrayList<>(getters.size());
+            for (Function<Object, Object> getter : getters) {
+                Object value = getter.apply(item);
+                row.add(value != null ? value : "");
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static ExcelSchema build(Class<?> clazz) {
+        boolean hasClassLevelAnnotation = clazz.isAnnotationPresent(ExcelSchemaProperty.class);
+        boolean hasFieldLevelAnnotation = false;
+        List<List<String>> heads = new ArrayList<>();
+        List<Function<Object, Object>> getters = new ArrayList<>();
+
+        for (Field field : clazz.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            boolean fieldAnnotated = field.isAnnotationPresent(ExcelSchemaProperty.class);
+            hasFieldLevelAnnotation |= fieldAnnotated;
+            String column = columnName(field, fieldAnnotated || hasClassLevelAnnotation);
+            if (column != null) {
+                heads.add(Collections.singletonList(column));
+                getters.add(getter(clazz, field));
+            }
+        }
+
+        // 未使用 @ExcelSchemaProperty，或没有可导出的列时，使用 FastExcel 标准导出
+        boolean schemaProperty = (hasClassLevelAnnotation || hasFieldLevelAnnotation) && !heads.isEmpty();
+        return new ExcelSchema(schemaProperty, List.copyOf(heads), List.copyOf(getters));
+    }
+
+    private static String columnName(Field field, boolean useSchema) {
+        // 先检查是否有 @ExcelProperty（优先使用）
+        ExcelProperty excelProperty = field.getAnnotation(ExcelProperty.class);
+        if (excelProperty != null && excelProperty.value() != null && excelProperty.value().length > 0) {
+            return excelProperty.value()[0];
+        }
+        if (useSchema) {
+            Schema schema = field.getAnnotation(Schema.class);
+            if (schema != null && schema.description() != null && !schema.description().isEmpty()) {
+                return schema.description();
+            }
+        }
+        return null;
+    }
+
+    private static Function<Object, Object> getter(Class<?> clazz, Field field) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
+            Method method = findGetter(clazz, field);
+            if (method != null) {
+                MethodHandle handle = lookup.unreflect(method);
+                try {
+                    return lambdaGetter(lookup, handle);
+                } catch (Throwable e) {
+                    // 跨类加载器等情况无法生成 lambda，退回 MethodHandle
+                    return handleGetter(handle);
+                }
+            }
+            return handleGetter(lookup.unreflectGetter(field));
+        } catch (IllegalAccessException e) {
+            field.setAccessible(true);
+            return item -> {
+                try {
+                    return field.get(item);
+                } catch (IllegalAccessException ex) {
+                    return "";
+                }
+            };
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> lambdaGetter(MethodHandles.Lookup lookup, MethodHandle handle) throws Throwable {
+        CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                MethodType.methodType(Function.class),
+                GETTER_TYPE.erase(),
+                handle,
+                handle.type().wrap());
+        return (Function<Object, Object>) site.getTarget().invokeExact();
+    }
+
+    private static Function<Object, Object> handleGetter(MethodHandle handle) {
+        MethodHandle generic = handle.asType(GETTER_TYPE);
+        return item -> {
+            try {
+                return generic.invokeExact(item);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    /**
+     * 查找与字段对应的 public getter（getXxx / isXxx）
+     */
+    private static Method findGetter(Class<?> clazz, Field field) {
+        String suffix = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+        for (String name : new String[]{"get" + suffix, "is" + suffix}) {
+            try {
+                Method method = clazz.getMethod(name);
+                if (!Modifier.isStatic(method.getModifiers()) && method.getReturnType() == field.getType()) {
+                    return method;
+                }
+            } catch (NoSuchMethodException ignored) {
+                // 尝试下一个命名
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,107 @@
+package com.scccy.common.excel.writer;
+
+import cn.idev.excel.ExcelWriter;
+import cn.idev.excel.FastExcel;
+import cn.idev.excel.write.metadata.WriteSheet;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 流式 Excel 写入器
+ * <p>
+ * 整个导出过程只持有一个 {@link ExcelWriter}（xlsx 下为 SXSSF 滑动窗口），调用方按批 {@link #write(List)}，
+ * 内存中只保留当前一批数据。单个工作表写满 {@link #MAX_ROWS_PER_SHEET} 行后自动续写到下一个工作表（Sheet2、Sheet3…）。
+ * 使用完毕必须 {@link #close()}，否则文件不完整
+ *
+ * @param <T> 行数据类型
+ * @author scccy
+ */
+@Slf4j
+public class StreamingExcelWriter<T> implements Closeable {
+
+    /**
+     * xlsx 单个工作表最多 1048576 行，扣除一行表头
+     */
+    public static final int MAX_ROWS_PER_SHEET = 1_048_575;
+
+    private final ExcelWriter excelWriter;
+
+    private final ExcelSchema schema;
+
+    private final String sheetNamePrefix;
+
+    private final int maxRowsPerSheet;
+
+    private WriteSheet sheet;
+
+    private int sheetCount;
+
+    private int sheetRows;
+
+    private long totalRows;
+
+    public StreamingExcelWriter(OutputStream outputStream, Class<T> clazz) {
+        this(outputStream, clazz, "Sheet", MAX_ROWS_PER_SHEET);
+    }
+
+    /**
+     * @param outputStream    输出流，{@link #close()} 时一并关闭
+     * @param clazz           导出实体类类型
+     * @param sheetNamePrefix 工作表名前缀，实际名称为前缀加序号（从 1 开始）
+     * @param maxRowsPerSheet 单个工作表最多数据行数，不能超过 {@link #MAX_ROWS_PER_SHEET}
+     */
+    public StreamingExcelWriter(OutputStream outputStream, Class<T> clazz, String sheetNamePrefix, int maxRowsPerSheet) {
+        if (maxRowsPerSheet <= 0 || maxRowsPerSheet > MAX_ROWS_PER_SHEET) {
+            throw new IllegalArgumentException("maxRowsPerSheet 必须在 1 到 " + MAX_ROWS_PER_SHEET + " 之间");
+        }
+        this.schema = ExcelSchema.of(clazz);
+        this.sheetNamePrefix = sheetNamePrefix;
+        this.maxRowsPerSheet = maxRowsPerSheet;
+        this.excelWriter = schema.isSchemaProperty()
+                ? FastExcel.write(outputStream).head(schema.heads()).build()
+                : FastExcel.write(outputStream, clazz).build();
+    }
+
+    /**
+     * 写入一批数据，超出当前工作表容量的部分写入新的工作表
+     */
+    public void write(List<T> rows) {
+        int offset = 0;
+        while (offset < rows.size()) {
+            if (sheet == null || sheetRows >= maxRowsPerSheet) {
+                nextSheet();
+            }
+            int end = Math.min(rows.size(), offset + maxRowsPerSheet - sheetRows);
+            List<T> chunk = rows.subList(offset, end);
+            excelWriter.write(schema.isSchemaProperty() ? schema.toRows(chunk) : chunk, sheet);
+            sheetRows += chunk.size();
+            totalRows += chunk.size();
+            offset = end;
+        }
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    @Override
+    public void close() {
+        if (sheet == null) {
+            // 没有数据时仍输出带表头的空表
+            nextSheet();
+            excelWriter.write(Collections.emptyList(), sheet);
+        }
+        excelWriter.finish();
+        log.debug("Excel 导出完成，共 {} 行，{} 个工作表", totalRows, sheetCount);
+    }
+
+    private void nextSheet() {
+        sheet = FastExcel.writerSheet(sheetCount, sheetNamePrefix + (sheetCount + 1)).build();
+        sheetCount++;
+        sheetRows = 0;
+    }
+}
@@ -0,0 +1,70 @@
+package com.scccy.common.modules.constant;
+
+/**
+ * 角色权限变更相关常量
+ * <p>
+ * service-system 修改角色或角色菜单后，通过 Redis Pub/Sub 广播变更事件：
+ * <ul>
+ *     <li>service-system 各实例据此增量重建内存中的角色权限索引</li>
+ *     <li>Auth 服务据此使缓存的用户权限失效</li>
+ *     <li>Gateway 据此立即刷新权限字典</li>
+ * </ul>
+ * 消息格式：{@code <indexVersion>:<roleId,roleId,...>}，角色列表为 {@link #ALL_ROLES} 时表示全量重建。
+ * 索引版本由 {@link #INDEX_VERSION_KEY} 自增生成，发布方在本实例重建完成后才广播；
+ * service-system 返回用户权限时附带所用索引的版本，Auth 据此拒绝由旧索引生成的权限
+ *
+ * @author scccy
+ */
+public class AuthorityConstants {
+
+    /**
+     * 角色权限变更广播频道
+     */
+    public static final String AUTHORITY_CHANGED_CHANNEL = "system:authority:changed";
+
+    /**
+     * 角色权限索引版本号（Redis 自增计数器），每次角色权限变更加一
+     */
+    public static final String INDEX_VERSION_KEY = "system:authority:version";
+
+    /**
+     * 全量变更标记
+     */
+    public static final String ALL_ROLES = "*";
+
+    /**
+     * 消息中索引版本与角色列表的分隔符
+     */
+    public static final char MESSAGE_SEPARATOR = ':';
+
+    /**
+     * 升级前的消息首段为毫秒时间戳，不小于此值的首段不视为索引版本
+     */
+    private static final long LEGACY_TIMESTAMP_LIMIT = 100_000_000_000L;
+
+    /**
+     * 解析广播消息中的索引版本
+     *
+     * @param message 广播消息
+     * @return 索引版本；无法解析或为旧格式（首段为毫秒时间戳）时为 -1
+     */
+    public static long parseVersion(String message) {
+        int separator = message == null ? -1 : message.indexOf(MESSAGE_SEPARATOR);
+        if (separator <= 0) {
+            return -1L;
+        }
+        try {
+            long version = Long.parseLong(message.substring(0, separator).trim());
+            return version < LEGACY_TIMESTAMP_LIMIT ? version : -1L;
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * 私有构造函数，防止实例化
+     */
+    private AuthorityConstants() {
+        throw new UnsupportedOperationException("常量类不能被实例化");
+    }
+}
@@ -0,0 +1,84 @@
+package com.scccy.common.modules.constant;
+
+/**
+ * Token 撤销（黑名单）相关常量
+ * <p>
+ * Auth 服务写入黑名单后，通过 Redis Pub/Sub 广播撤销事件，
+ * Gateway 据此维护本地的撤销索引，只有索引命中时才回源 Redis 确认
+ * <p>
+ * 撤销事件消息格式：{@code <revokedAtEpochMillis>:<jti 或 token 整串>}
+ * <p>
+ * 按用户批量撤销（改密、封禁等）不逐个写黑名单，而是写入用户级水位线
+ * {@code jwt:revoked-before:<userId>}（值为 epoch 毫秒），凡签发时间早于水位线的 Token 均视为已撤销；
+ * 签发时间优先取毫秒精度的 {@link #ISSUED_AT_MILLIS_CLAIM}，撤销后同一秒内重新登录签发的 Token 不受影响；
+ * 水位线事件消息格式：{@code <revokedAtEpochMillis>:<userId>}
+ *
+ * @author scccy
+ */
+public class TokenRevocationConstants {
+
+    /**
+     * 黑名单 Key 前缀（不含 JetCache 区域前缀）
+     */
+    public static final String BLACKLIST_KEY_PREFIX = "jwt:blacklist:";
+
+    /**
+     * 黑名单 JetCache 远程缓存名称；远程缓存以缓存名称作为 Key 前缀，
+     * 因此黑名单在 Redis 中的实际 Key 为 {@code <缓存名称><BLACKLIST_KEY_PREFIX><id>}
+     */
+    public static final String BLACKLIST_CACHE_NAME = "remote_";
+
+    /**
+     * 撤销事件广播频道
+     */
+    public static final String REVOCATION_CHANNEL = "jwt:blacklist:events";
+
+    /**
+     * 用户级撤销水位线 Key 前缀
+     */
+    public static final String REVOKED_BEFORE_KEY_PREFIX = "jwt:revoked-before:";
+
+    /**
+     * 毫秒精度的签发时间 claim；标准 iat 只有秒精度，无法区分撤销前后同一秒内签发的 Token
+     */
+    public static final String ISSUED_AT_MILLIS_CLAIM = "iat_ms";
+
+    /**
+     * 早于该值的水位线按 epoch 秒解析（兼容改为毫秒之前写入的水位线）
+     */
+    private static final long SECONDS_WATERMARK_LIMIT = 100_000_000_000L;
+
+    /**
+     * 用户级撤销水位线广播频道
+     */
+    public static final String REVOKED_BEFORE_CHANNEL = "jwt:revoked-before:events";
+
+    /**
+     * JWK 轮换广播频道，签名密钥变更后各实例需丢弃基于旧密钥的验签缓存
+     */
+    public static final String JWK_ROTATION_CHANNEL = "jwt:jwk:rotated";
+
+    /**
+     * 撤销事件消息中时间戳与 id 的分隔符
+     */
+    public static final char MESSAGE_SEPARATOR = ':';
+
+    /**
+     * 解析 Redis 中的水位线为 epoch 毫秒
+     *
+     * @param value 水位线字符串
+     * @return epoch 毫秒
+     * @throws NumberFormatException 无法解析时
+     */
+    public static long parseWatermarkMillis(String value) {
+        long watermark = Long.parseLong(value);
+        return watermark < SECONDS_WATERMARK_LIMIT ? watermark * 1000 : watermark;
+    }
+
+    /**
+     * 私有构造函数，防止实例化
+     */
+    private TokenRevocationConstants() {
+        throw new UnsupportedOperationException("常量类不能被实例化");
+    }
+}
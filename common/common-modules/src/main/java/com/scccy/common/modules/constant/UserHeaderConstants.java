@@ -41,6 +41,15 @@ public class UserHeaderConstants {
      * 格式：ROLE_ADMIN,ROLE_USER,system:user:list,system:user:add
      */
     public static final String HEADER_AUTHORITIES = "X-Authorities";
+
+    /**
+     * 权限位图请求头
+     * <p>
+     * Gateway 按共享权限字典将权限编码为位图后写入此请求头，字典中不存在的权限仍写入 {@link #HEADER_AUTHORITIES}
+     * <p>
+     * 格式：{@code <epoch>.<dictionarySize>.<base64url(bitset)>}，编解码见 {@code PermissionCodec}
+     */
+    public static final String HEADER_AUTHORITIES_BITS = "X-Authorities-Bits";
     
     /**
      * 私有构造函数，防止实例化
@@ -0,0 +1,41 @@
+package com.scccy.common.modules.domain;
+
+import com.scccy.common.modules.enums.CountMode;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 游标分页（keyset）请求参数
+ * <p>
+ * 首次请求不传 cursor，后续请求传入上一页返回的 {@code nextCursor}；
+ * 游标只与排序键和排序方向绑定，翻页期间查询条件应保持不变
+ *
+ * @author scccy
+ */
+@Data
+@Schema(description = "游标分页参数")
+public class CursorPageQuery implements Serializable {
+
+    /**
+     * 单页最大条数
+     */
+    public static final int MAX_SIZE = 500;
+
+    @Schema(description = "上一页返回的 nextCursor，首页为空")
+    private String cursor;
+
+    @Schema(description = "每页条数，最大 500", example = "10")
+    private Integer size = 10;
+
+    @Schema(description = "总数统计方式：NONE 不统计，EXACT 精确统计，ESTIMATED 无条件时按表统计信息估算；仅首页统计",
+            example = "NONE")
+    private CountMode countMode = CountMode.NONE;
+
+    @Schema(description = "字符串条件是否按前缀匹配（LIKE 'x%'，可使用索引），否则等值匹配", example = "false")
+    private Boolean prefixLike = false;
+
+    @Schema(description = "是否按排序键倒序", example = "false")
+    private Boolean desc = false;
+}
@@ -0,0 +1,46 @@
+package com.scccy.common.modules.dto;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+import java.util.List;
+
+/**
+ * 游标分页（keyset）结果
+ *
+ * @author scccy
+ */
+@Data
+@Accessors(chain = true)
+public class CursorPage<T> {
+
+    /**
+     * 当前页数据
+     */
+    private List<T> records;
+
+    /**
+     * 请求的每页条数
+     */
+    private Integer size;
+
+    /**
+     * 是否还有下一页
+     */
+    private Boolean hasNext;
+
+    /**
+     * 下一页游标，没有下一页时为 null
+     */
+    private String nextCursor;
+
+    /**
+     * 总数，未统计时为 null
+     */
+    private Long total;
+
+    /**
+     * 总数是否为估算值
+     */
+    private Boolean totalEstimated;
+}
@@ -0,0 +1,24 @@
+package com.scccy.common.modules.enums;
+
+/**
+ * 游标分页的总数统计方式
+ *
+ * @author scccy
+ */
+public enum CountMode {
+
+    /**
+     * 不统计总数
+     */
+    NONE,
+
+    /**
+     * 首页执行 {@code COUNT(*)} 精确统计
+     */
+    EXACT,
+
+    /**
+     * 首页且无查询条件时读取 {@code information_schema.TABLES.TABLE_ROWS} 估算，有查询条件时不统计
+     */
+    ESTIMATED
+}
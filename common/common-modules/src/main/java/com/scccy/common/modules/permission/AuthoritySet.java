@@ -0,0 +1,85 @@
+package com.scccy.common.modules.permission;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 已解码的权限集合
+ * <p>
+ * 由权限位图与明文权限两部分组成，{@link #contains(String)} 为一次哈希查找加一次位运算，
+ * 同一请求内解码一次后复用
+ *
+ * @author scccy
+ */
+public final class AuthoritySet {
+
+    public static final AuthoritySet EMPTY = new AuthoritySet(PermissionDictionary.EMPTY, new BitSet(), Collections.emptySet());
+
+    private final PermissionDictionary dictionary;
+    private final BitSet bits;
+    private final Set<String> plain;
+    private volatile List<String> list;
+
+    public AuthoritySet(PermissionDictionary dictionary, BitSet bits, Set<String> plain) {
+        this.dictionary = dictionary;
+        this.bits = bits;
+        this.plain = plain;
+    }
+
+    /**
+     * 是否拥有指定权限
+     */
+    public boolean contains(String authority) {
+        if (authority == null) {
+            return false;
+        }
+        int id = dictionary.idOf(authority);
+        return (id > 0 && bits.get(id)) || plain.contains(authority);
+    }
+
+    /**
+     * 是否拥有任意一个权限
+     */
+    public boolean containsAny(String... authorities) {
+        if (authorities == null) {
+            return false;
+        }
+        for (String authority : authorities) {
+            if (contains(authority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isEmpty() {
+        return bits.isEmpty() && plain.isEmpty();
+    }
+
+    /**
+     * 展开为权限列表（首次调用时构建并缓存）
+     */
+    public List<String> toList() {
+        List<String> result = list;
+        if (result == null) {
+            List<String> expanded = new ArrayList<>(bits.cardinality() + plain.size());
+            for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+                String name = dictionary.nameOf(id);
+                if (name != null) {
+                    expanded.add(name);
+                }
+            }
+            for (String authority : plain) {
+                if (!expanded.contains(authority)) {
+                    expanded.add(authority);
+                }
+            }
+            result = Collections.unmodifiableList(expanded);
+            list = result;
+        }
+        return result;
+    }
+}
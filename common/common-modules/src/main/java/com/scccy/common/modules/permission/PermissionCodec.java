@@ -0,0 +1,97 @@
+package com.scccy.common.modules.permission;
+
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * 权限位图编解码
+ * <p>
+ * Gateway 将用户权限按 {@link PermissionDictionary} 编码为位图，写入请求头
+ * {@code X-Authorities-Bits}，格式：{@code <epoch>.<dictionarySize>.<base64url(bitset)>}；
+ * 字典中尚不存在的权限仍以逗号分隔的明文写入 {@code X-Authorities}。
+ * 后端服务解码后得到 {@link AuthoritySet}，权限判断为 O(1) 且不分配对象
+ *
+ * @author scccy
+ */
+public final class PermissionCodec {
+
+    /**
+     * Redis 中权限字典 List 的 Key
+     */
+    public static final String DICTIONARY_KEY = "sys_permission_dict";
+
+    private static final char SEPARATOR = '.';
+
+    private PermissionCodec() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * 编码权限列表
+     *
+     * @param authorities 权限列表
+     * @param dictionary  权限字典
+     * @param unknown     输出参数：字典中不存在的权限，需以明文传递
+     * @return 位图请求头值；字典为空或没有可编码的权限时返回 null
+     */
+    public static String encode(Collection<String> authorities, PermissionDictionary dictionary,
+                                Collection<String> unknown) {
+        if (authorities == null || authorities.isEmpty()) {
+            return null;
+        }
+        if (dictionary == null || dictionary.isEmpty()) {
+            unknown.addAll(authorities);
+            return null;
+        }
+        BitSet bits = new BitSet(dictionary.size());
+        for (String authority : authorities) {
+            int id = dictionary.idOf(authority);
+            if (id > 0) {
+                bits.set(id);
+            } else {
+                unknown.add(authority);
+            }
+        }
+        if (bits.isEmpty()) {
+            return null;
+        }
+        return dictionary.epoch() + SEPARATOR + dictionary.size() + SEPARATOR
+            + Base64.getUrlEncoder().withoutPadding().encodeToString(bits.toByteArray());
+    }
+
+    /**
+     * 解析位图请求头
+     *
+     * @param header 位图请求头值
+     * @return 解析结果；格式错误返回 null
+     */
+    public static Encoded parse(String header) {
+        if (header == null || header.isEmpty()) {
+            return null;
+        }
+        int first = header.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : header.indexOf(SEPARATOR, first + 1);
+        if (first <= 0 || second < 0) {
+            return null;
+        }
+        try {
+            String epoch = header.substring(0, first);
+            int dictionarySize = Integer.parseInt(header, first + 1, second, 10);
+            BitSet bits = BitSet.valueOf(Base64.getUrlDecoder().decode(header.substring(second + 1)));
+            return new Encoded(epoch, dictionarySize, bits);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 位图请求头解析结果
+     *
+     * @param epoch          字典纪元
+     * @param dictionarySize 编码时的字典长度，解码方字典长度不得小于该值
+     * @param bits           权限位图
+     */
+    public record Encoded(String epoch, int dictionarySize, BitSet bits) {
+    }
+}
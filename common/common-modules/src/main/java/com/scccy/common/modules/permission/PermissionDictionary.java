@@ -0,0 +1,120 @@
+package com.scccy.common.modules.permission;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 权限字典快照
+ * <p>
+ * 将 {@code system:user:list} 形式的权限标识映射为整数 ID，供 {@link PermissionCodec} 编码为位图。
+ * 字典在 Redis 中以只追加的 List 存储（{@link PermissionCodec#DICTIONARY_KEY}）：
+ * <ul>
+ *     <li>下标即 ID，已分配的 ID 永不改变，因此任意较长的字典都能解码较短字典编码的位图</li>
+ *     <li>下标 0 为纪元标记（以 {@code #} 开头），字典被清空重建后纪元变化，旧编码将被拒绝解码</li>
+ *     <li>并发追加可能产生重复名称，按首次出现的 ID 编码，解码结果不受影响</li>
+ * </ul>
+ * 实例不可变，扩展时返回新实例
+ *
+ * @author scccy
+ */
+public final class PermissionDictionary {
+
+    /**
+     * 纪元标记前缀
+     */
+    public static final String EPOCH_PREFIX = "#";
+
+    public static final PermissionDictionary EMPTY = new PermissionDictionary(new String[0]);
+
+    private final String[] names;
+    private final Map<String, Integer> ids;
+
+    private PermissionDictionary(String[] names) {
+        this.names = names;
+        Map<String, Integer> map = new HashMap<>(Math.max(16, names.length * 2));
+        for (int i = 1; i < names.length; i++) {
+            map.putIfAbsent(names[i], i);
+        }
+        this.ids = map;
+    }
+
+    /**
+     * 由 Redis 中读取的完整列表构建字典
+     *
+     * @param names 列表内容（下标 0 为纪元标记）
+     * @return 字典；列表为空或首元素不是纪元标记时返回 {@link #EMPTY}
+     */
+    public static PermissionDictionary of(List<String> names) {
+        if (names == null || names.isEmpty() || !names.get(0).startsWith(EPOCH_PREFIX)) {
+            return EMPTY;
+        }
+        return new PermissionDictionary(names.toArray(new String[0]));
+    }
+
+    /**
+     * 追加新读取到的尾部元素
+     *
+     * @param tail 从当前 size 开始读取到的元素
+     * @return 新字典；tail 为空时返回自身
+     */
+    public PermissionDictionary extend(List<String> tail) {
+        if (tail == null || tail.isEmpty()) {
+            return this;
+        }
+        if (names.length == 0) {
+            return of(tail);
+        }
+        String[] merged = new String[names.length + tail.size()];
+        System.arraycopy(names, 0, merged, 0, names.length);
+        for (int i = 0; i < tail.size(); i++) {
+            merged[names.length + i] = tail.get(i);
+        }
+        return new PermissionDictionary(merged);
+    }
+
+    /**
+     * 纪元标记，空字典返回 null
+     */
+    public String epoch() {
+        return names.length == 0 ? null : names[0].substring(EPOCH_PREFIX.length());
+    }
+
+    /**
+     * 字典长度（含纪元标记）
+     */
+    public int size() {
+        return names.length;
+    }
+
+    public boolean isEmpty() {
+        return names.length == 0;
+    }
+
+    /**
+     * 权限标识对应的 ID
+     *
+     * @return ID；不在字典中返回 -1
+     */
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * ID 对应的权限标识
+     *
+     * @return 权限标识；越界返回 null
+     */
+    public String nameOf(int id) {
+        return id > 0 && id < names.length ? names[id] : null;
+    }
+
+    /**
+     * 所有已分配的权限标识（不含纪元标记）
+     */
+    public List<String> names() {
+        return names.length <= 1 ? Collections.emptyList() : List.of(names).subList(1, names.length);
+    }
+}
@@ -1,5 +1,6 @@
 package com.scccy.common.modules.utils;
 
+import com.scccy.common.modules.constant.TokenRevocationConstants;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.oauth2.jwt.Jwt;
 
@@ -61,6 +62,26 @@ public class JwtUtils {
         return null;
     }
 
+    /**
+     * 提取签发时间（epoch 毫秒）
+     * <p>
+     * 优先使用毫秒精度的 {@link TokenRevocationConstants#ISSUED_AT_MILLIS_CLAIM}，
+     * 没有时按 iat 所在秒的起点计算（同一秒内无法区分先后，按更早处理）
+     *
+     * @param jwt Jwt 对象
+     * @return 签发时间，没有 iat 时返回 null
+     */
+    public static Long getIssuedAtMillis(Jwt jwt) {
+        if (jwt == null) {
+            return null;
+        }
+        Long issuedAtMillis = getClaimAsLong(jwt, TokenRevocationConstants.ISSUED_AT_MILLIS_CLAIM);
+        if (issuedAtMillis != null) {
+            return issuedAtMillis;
+        }
+        return jwt.getIssuedAt() == null ? null : jwt.getIssuedAt().getEpochSecond() * 1000;
+    }
+
     /**
      * 从 Jwt 对象提取用户名
      *
@@ -0,0 +1,255 @@
+package com.scccy.common.modules.utils;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.domain.ErrorCode;
+import com.scccy.common.modules.dto.CursorPage;
+import com.scccy.common.modules.enums.CountMode;
+import com.scccy.common.modules.exception.BusinessException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 游标分页（keyset / seek）工具
+ * <p>
+ * 按唯一的排序键（通常是主键，联合主键按列顺序）翻页：下一页条件为
+ * {@code (k1 > v1) OR (k1 = v1 AND k2 > v2) ...}，配合 {@code ORDER BY k1, k2 LIMIT size + 1}，
+ * 无论翻到第几页都只读取 size + 1 行，不使用 OFFSET，也不执行额外的 COUNT。
+ * <p>
+ * 游标为上一页最后一行排序键值的二进制编码（Base64 URL），对调用方不透明，
+ * 只支持整数与字符串类型的排序键
+ *
+ * @author scccy
+ */
+public final class KeysetPagination {
+
+    private static final byte CURSOR_VERSION = 1;
+    private static final byte FLAG_DESC = 1;
+    private static final byte TYPE_LONG = 'L';
+    private static final byte TYPE_STRING = 'S';
+
+    private KeysetPagination() {
+        throw new UnsupportedOperationException("工具类不能被实例化");
+    }
+
+    /**
+     * 排序键
+     *
+     * @param column 列名
+     * @param getter 从实体读取该列值
+     */
+    public record SortKey<T>(String column, Function<T, ?> getter) {
+    }
+
+    public static <T> SortKey<T> key(String column, Function<T, ?> getter) {
+        return new SortKey<>(column, getter);
+    }
+
+    /**
+     * 添加查询条件：值为空时忽略；字符串在前缀模式下使用 {@code LIKE 'x%'}（可走索引），其余等值匹配
+     */
+    public static <T> void match(QueryWrapper<T> wrapper, String column, Object value, boolean prefixLike) {
+        if (value == null || (value instanceof String s && s.isEmpty())) {
+            return;
+        }
+        if (prefixLike && value instanceof String) {
+            wrapper.likeRight(column, value);
+        } else {
+            wrapper.eq(column, value);
+        }
+    }
+
+    /**
+     * 游标分页查询
+     *
+     * @param service 实体服务
+     * @param wrapper 已包含过滤条件的查询，方法内会追加游标条件、排序与 LIMIT
+     * @param query   分页参数
+     * @param keys    唯一排序键，按优先级排列
+     */
+    @SafeVarargs
+    public static <T> CursorPage<T> page(IService<T> service, QueryWrapper<T> wrapper, CursorPageQuery query,
+                                         SortKey<T>... keys) {
+        if (keys.length == 0) {
+            throw new IllegalArgumentException("至少需要一个排序键");
+        }
+        int size = query.getSize() == null ? 10 : Math.max(1, Math.min(query.getSize(), CursorPageQuery.MAX_SIZE));
+        boolean desc = Boolean.TRUE.equals(query.getDesc());
+        String cursor = query.getCursor();
+        boolean firstPage = cursor == null || cursor.isEmpty();
+
+        CursorPage<T> result = new CursorPage<T>().setSize(size);
+        // 只在首页统计，总数在翻页过程中不再重复计算
+        if (firstPage) {
+            count(service, wrapper, query.getCountMode(), result);
+        } else {
+            seek(wrapper, keys, decode(cursor, keys.length, desc), desc);
+        }
+        for (SortKey<T> key : keys) {
+            wrapper.orderBy(true, !desc, key.column());
+        }
+        wrapper.last("LIMIT " + (size + 1));
+
+        List<T> rows = service.list(wrapper);
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+        return result.setRecords(rows)
+                .setHasNext(hasNext)
+                .setNextCursor(hasNext ? encode(rows.get(rows.size() - 1), keys, desc) : null);
+    }
+
+    /**
+     * 按排序键分批遍历查询结果，每批处理完再查询下一批，内存中只保留一批数据，批与批之间不占用数据库连接
+     *
+     * @param service        实体服务
+     * @param wrapperFactory 查询条件工厂，每批查询都需要新的 QueryWrapper
+     * @param batchSize      每批条数，最大 {@link CursorPageQuery#MAX_SIZE}
+     * @param limit          最多遍历的行数，小于等于 0 表示不限制
+     * @param consumer       批处理
+     * @param keys           唯一排序键，按优先级排列
+     * @return 达到 limit 后仍有剩余数据时返回 true
+     */
+    @SafeVarargs
+    public static <T> boolean forEachBatch(IService<T> service, Supplier<QueryWrapper<T>> wrapperFactory, int batchSize,
+                                           long limit, Consumer<List<T>> consumer, SortKey<T>... keys) {
+        long remaining = limit > 0 ? limit : Long.MAX_VALUE;
+        String cursor = null;
+        while (true) {
+            CursorPageQuery query = new CursorPageQuery();
+            query.setCursor(cursor);
+            query.setSize((int) Math.min(batchSize, remaining));
+            CursorPage<T> page = page(service, wrapperFactory.get(), query, keys);
+            if (!page.getRecords().isEmpty()) {
+                consumer.accept(page.getRecords());
+            }
+            remaining -= page.getRecords().size();
+            if (!page.getHasNext()) {
+                return false;
+            }
+            if (remaining <= 0) {
+                return true;
+            }
+            cursor = page.getNextCursor();
+        }
+    }
+
+    private static <T> void count(IService<T> service, QueryWrapper<T> wrapper, CountMode mode, CursorPage<T> result) {
+        if (mode == CountMode.EXACT) {
+            result.setTotal(service.count(wrapper)).setTotalEstimated(false);
+        } else if (mode == CountMode.ESTIMATED && wrapper.isEmptyOfWhere()) {
+            result.setTotal(estimateRows(service)).setTotalEstimated(true);
+        }
+    }
+
+    /**
+     * 读取 InnoDB 表统计信息中的行数估计值；借用实体表的查询执行，无需额外的 Mapper 方法
+     */
+    private static <T> Long estimateRows(IService<T> service) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(service.getEntityClass());
+        if (tableInfo == null) {
+            return null;
+        }
+        String tableName = tableInfo.getTableName().replace("`", "").replace("'", "");
+        QueryWrapper<T> estimate = new QueryWrapper<T>()
+                .select("(SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '"
+                        + tableName + "') AS estimated_rows")
+                .last("LIMIT 1");
+        List<Object> values = service.getBaseMapper().selectObjs(estimate);
+        if (values.isEmpty() || values.get(0) == null) {
+            return 0L;
+        }
+        return ((Number) values.get(0)).longValue();
+    }
+
+    /**
+     * 追加 {@code (k1 > v1) OR (k1 = v1 AND k2 > v2) ...} 条件
+     */
+    private static <T> void seek(QueryWrapper<T> wrapper, SortKey<T>[] keys, Object[] values, boolean desc) {
+        wrapper.and(condition -> {
+            for (int i = 0; i < keys.length; i++) {
+                int last = i;
+                Consumer<QueryWrapper<T>> branch = w -> {
+                    for (int j = 0; j < last; j++) {
+                        w.eq(keys[j].column(), values[j]);
+                    }
+                    if (desc) {
+                        w.lt(keys[last].column(), values[last]);
+                    } else {
+                        w.gt(keys[last].column(), values[last]);
+                    }
+                };
+                if (i == 0) {
+                    condition.nested(branch);
+                } else {
+                    condition.or(branch);
+                }
+            }
+        });
+    }
+
+    private static <T> String encode(T row, SortKey<T>[] keys, boolean desc) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(CURSOR_VERSION);
+            out.writeByte(desc ? FLAG_DESC : 0);
+            out.writeByte(keys.length);
+            for (SortKey<T> key : keys) {
+                Object value = key.getter().apply(row);
+                if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                    out.writeByte(TYPE_LONG);
+                    out.writeLong(((Number) value).longValue());
+                } else if (value instanceof String s) {
+                    out.writeByte(TYPE_STRING);
+                    out.writeUTF(s);
+                } else {
+                    throw new IllegalStateException("排序键 " + key.column() + " 的值为空或类型不支持: " + value);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    private static Object[] decode(String cursor, int keyCount, boolean desc) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            if (in.readByte() != CURSOR_VERSION
+                    || (in.readByte() == FLAG_DESC) != desc
+                    || in.readByte() != keyCount) {
+                throw invalidCursor();
+            }
+            Object[] values = new Object[keyCount];
+            for (int i = 0; i < keyCount; i++) {
+                byte type = in.readByte();
+                if (type == TYPE_LONG) {
+                    values[i] = in.readLong();
+                } else if (type == TYPE_STRING) {
+                    values[i] = in.readUTF();
+                } else {
+                    throw invalidCursor();
+                }
+            }
+            return values;
+        } catch (IOException | IllegalArgumentException e) {
+            throw invalidCursor();
+        }
+    }
+
+    private static BusinessException invalidCursor() {
+        return new BusinessException(ErrorCode.PARAM_ERROR, "分页游标无效或与当前排序不匹配");
+    }
+}
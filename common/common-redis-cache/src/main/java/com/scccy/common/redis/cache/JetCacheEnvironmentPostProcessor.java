@@ -1,5 +1,6 @@
 package com.scccy.common.redis.cache;
 
+import com.scccy.common.redis.cache.codec.JsonbValueCodec;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.env.EnvironmentPostProcessor;
 import org.springframework.core.env.ConfigurableEnvironment;
@@ -22,6 +23,7 @@ import java.util.Map;
  *     <li>本地缓存：使用 Caffeine，提供 default、longTime、shortTime 三个缓存区域</li>
  *     <li>远程缓存：使用 Redis Lettuce，提供 default、longTime、shortTime 三个缓存区域</li>
  *     <li>Redis URI：自动从环境变量或 Spring Redis 配置获取</li>
+ *     <li>远程缓存值编码：fastjson2 JSONB 二进制格式（见 {@link JsonbValueCodec}），可读取旧的 java 编码数据</li>
  * </ul>
  * <p>
  * 配置覆盖优先级（从高到低）：
@@ -37,8 +39,8 @@ import java.util.Map;
  */
 public class JetCacheEnvironmentPostProcessor implements EnvironmentPostProcessor {
 
-    private static final String FASTJSON2_ENCODER = "com.scccy.common.redis.cache.codec.Fastjson2ValueEncoder";
-    private static final String FASTJSON2_DECODER = "com.scccy.common.redis.cache.codec.Fastjson2ValueDecoder";
+    private static final String VALUE_ENCODER = "bean:" + JsonbValueCodec.ENCODER_BEAN;
+    private static final String VALUE_DECODER = "bean:" + JsonbValueCodec.DECODER_BEAN;
 
     @Override
     public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
@@ -94,8 +96,8 @@ public class JetCacheEnvironmentPostProcessor implements EnvironmentPostProcesso
         setIfAbsent(environment, defaultProperties, "jetcache.remote.default.type", "redis.lettuce");
         setIfAbsent(environment, defaultProperties, "jetcache.remote.default.expireAfterWriteInMillis", "7200000");
         setIfAbsent(environment, defaultProperties, "jetcache.remote.default.keyConvertor", "fastjson2");
-        setIfAbsent(environment, defaultProperties, "jetcache.remote.default.valueEncoder", "java");
-        setIfAbsent(environment, defaultProperties, "jetcache.remote.default.valueDecoder", "java");
+        setIfAbsent(environment, defaultProperties, "jetcache.remote.default.valueEncoder", VALUE_ENCODER);
+        setIfAbsent(environment, defaultProperties, "jetcache.remote.default.valueDecoder", VALUE_DECODER);
         setIfAbsent(environment, defaultProperties, "jetcache.remote.default.poolConfig.minIdle", "5");
         setIfAbsent(environment, defaultProperties, "jetcache.remote.default.poolConfig.maxIdle", "20");
         setIfAbsent(environment, defaultProperties, "jetcache.remote.default.poolConfig.maxTotal", "50");
@@ -107,8 +109,8 @@ public class JetCacheEnvironmentPostProcessor implements EnvironmentPostProcesso
         setIfAbsent(environment, defaultProperties, "jetcache.remote.longTime.type", "redis.lettuce");
         setIfAbsent(environment, defaultProperties, "jetcache.remote.longTime.expireAfterWriteInMillis", "43200000");
         setIfAbsent(environment, defaultProperties, "jetcache.remote.longTime.keyConvertor", "fastjson2");
-        setIfAbsent(environment, defaultProperties, "jetcache.remote.longTime.valueEncoder", "java");
-        setIfAbsent(environment, defaultProperties, "jetcache.remote.longTime.valueDecoder", "java");
+        setIfAbsent(environment, defaultProperties, "jetcache.remote.longTime.valueEncoder", VALUE_ENCODER);
+        setIfAbsent(environment, defaultProperties, "jetcache.remote.longTime.valueDecoder", VALUE_DECODER);
         setIfAbsent(environment, defaultProperties, "jetcache.remote.longTime.poolConfig.minIdle", "5");
         setIfAbsent(environment, defaultProperties, "jetcache.remote.longTime.poolConfig.maxIdle", "20");
         setIfAbsent(environment, defaultProperties, "jetcache.remote.longTime.poolConfig.maxTotal", "50");
@@ -120,8 +122,8 @@ public class JetCacheEnvironmentPostProcessor implements EnvironmentPostProcesso
         setIfAbsent(environment, defaultProperties, "jetcache.remote.shortTime.type", "redis.lettuce");
         setIfAbsent(environment, defaultProperties, "jetcache.remote.shortTime.expireAfterWriteInMillis", "300000");
         setIfAbsent(environment, defaultProperties, "jetcache.remote.shortTime.keyConvertor", "fastjson2");
-        setIfAbsent(environment, defaultProperties, "jetcache.remote.shortTime.valueEncoder", "java");
-        setIfAbsent(environment, defaultProperties, "jetcache.remote.shortTime.valueDecoder", "java");
+        setIfAbsent(environment, defaultProperties, "jetcache.remote.shortTime.valueEncoder", VALUE_ENCODER);
+        setIfAbsent(environment, defaultProperties, "jetcache.remote.shortTime.valueDecoder", VALUE_DECODER);
         setIfAbsent(environment, defaultProperties, "jetcache.remote.shortTime.poolConfig.minIdle", "5");
         setIfAbsent(environment, defaultProperties, "jetcache.remote.shortTime.poolConfig.maxIdle", "20");
         setIfAbsent(environment, defaultProperties, "jetcache.remote.shortTime.poolConfig.maxTotal", "50");
@@ -131,12 +133,12 @@ public class JetCacheEnvironmentPostProcessor implements EnvironmentPostProcesso
         
         // 远程缓存配置 - remote_internal_token（内部 token 缓存区域）
         // 注意：区域名称是 "remote_internal_token:"，在配置中使用 "remote_internal_token"（去掉冒号）
-        // 根据 JetCache 官方文档，使用 fastjson2 作为 keyConvertor，string 作为 valueEncoder/valueDecoder
+        // 使用 fastjson2 作为 keyConvertor，值编码与其他区域一致
         setIfAbsent(environment, defaultProperties, "jetcache.remote.remote_internal_token.type", "redis.lettuce");
         setIfAbsent(environment, defaultProperties, "jetcache.remote.remote_internal_token.expireAfterWriteInMillis", "600000"); // 默认 10 分钟
         setIfAbsent(environment, defaultProperties, "jetcache.remote.remote_internal_token.keyConvertor", "fastjson2");
-        setIfAbsent(environment, defaultProperties, "jetcache.remote.remote_internal_token.valueEncoder", "java");
-        setIfAbsent(environment, defaultProperties, "jetcache.remote.remote_internal_token.valueDecoder", "java");
+        setIfAbsent(environment, defaultProperties, "jetcache.remote.remote_internal_token.valueEncoder", VALUE_ENCODER);
+        setIfAbsent(environment, defaultProperties, "jetcache.remote.remote_internal_token.valueDecoder", VALUE_DECODER);
         setIfAbsent(environment, defaultProperties, "jetcache.remote.remote_internal_token.poolConfig.minIdle", "5");
         setIfAbsent(environment, defaultProperties, "jetcache.remote.remote_internal_token.poolConfig.maxIdle", "20");
         setIfAbsent(environment, defaultProperties, "jetcache.remote.remote_internal_token.poolConfig.maxTotal", "50");
@@ -0,0 +1,46 @@
+package com.scccy.common.redis.cache;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * 内部 token 缓存的响应式抽象
+ *
+ * <p>
+ * 与 {@link InternalTokenCache} 读写同一批 Redis key，供 WebFlux / 响应式调用链使用，
+ * 所有方法均不阻塞调用线程。
+ * </p>
+ */
+public interface ReactiveInternalTokenCache {
+
+    /**
+     * 从缓存中获取内部 token
+     *
+     * @param cacheKey 业务方已经拼装好的 key（含 clientId/audience/scope 等）
+     * @return token 字符串；未命中或已过期时为空 Mono
+     */
+    Mono<String> getToken(String cacheKey);
+
+    /**
+     * 写入/更新内部 token
+     *
+     * @param cacheKey 业务方已经拼装好的 key
+     * @param token    token 字符串
+     * @param ttlSec   过期时间（秒），应略短于真实 token TTL
+     */
+    Mono<Void> putToken(String cacheKey, String token, long ttlSec);
+
+    /**
+     * 主动剔除缓存
+     *
+     * @param cacheKey 缓存 key
+     */
+    Mono<Void> evict(String cacheKey);
+
+    /**
+     * 获取 key 的剩余过期时间
+     *
+     * @param cacheKey 缓存 key
+     * @return 剩余秒数；若 key 不存在为空 Mono，若无过期时间则返回 -1
+     */
+    Mono<Long> getExpireSeconds(String cacheKey);
+}
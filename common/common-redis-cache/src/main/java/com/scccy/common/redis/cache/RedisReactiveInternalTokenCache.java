@@ -0,0 +1,102 @@
+package com.scccy.common.redis.cache;
+
+import com.alicp.jetcache.CacheValueHolder;
+import com.scccy.common.redis.cache.codec.JsonbValueCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 基于 Lettuce 响应式命令的内部 token 缓存实现
+ *
+ * <p>
+ * 说明：
+ * <ul>
+ *     <li>与 {@link RedisInternalTokenCache} 共用 JetCache 区域 "remote_internal_token:" 下的 key，
+ *     同步与响应式调用方可以互相复用对方刷新的 token</li>
+ *     <li>value 按 JetCache 远程缓存的格式编解码：{@link CacheValueHolder} 经区域配置的
+ *     {@code bean:jetcacheJsonbValueEncoder} / {@code bean:jetcacheJsonbValueDecoder} 编解码，注入同一 Bean，
+ *     编码格式随区域配置一起演进</li>
+ *     <li>TTL 通过 Redis PTTL 获取，与同步实现语义一致</li>
+ * </ul>
+ * </p>
+ */
+@Slf4j
+@Component
+public class RedisReactiveInternalTokenCache implements ReactiveInternalTokenCache {
+
+    /**
+     * JetCache 区域前缀，需与 {@link RedisInternalTokenCache} 保持一致
+     */
+    private static final String KEY_PREFIX = "remote_internal_token:";
+
+    private final ReactiveRedisTemplate<String, byte[]> redisTemplate;
+    private final Function<Object, byte[]> valueEncoder;
+    private final Function<byte[], Object> valueDecoder;
+
+    public RedisReactiveInternalTokenCache(ReactiveRedisConnectionFactory connectionFactory,
+                                           @Qualifier(JsonbValueCodec.ENCODER_BEAN) Function<Object, byte[]> valueEncoder,
+                                           @Qualifier(JsonbValueCodec.DECODER_BEAN) Function<byte[], Object> valueDecoder) {
+        this.valueEncoder = valueEncoder;
+        this.valueDecoder = valueDecoder;
+        RedisSerializationContext<String, byte[]> context = RedisSerializationContext
+            .<String, byte[]>newSerializationContext(StringRedisSerializer.UTF_8)
+            .value(RedisSerializer.byteArray())
+            .build();
+        this.redisTemplate = new ReactiveRedisTemplate<>(connectionFactory, context);
+    }
+
+    @Override
+    public Mono<String> getToken(String cacheKey) {
+        return redisTemplate.opsForValue().get(KEY_PREFIX + cacheKey)
+            .flatMap(bytes -> Mono.justOrEmpty(decode(cacheKey, bytes)));
+    }
+
+    @Override
+    public Mono<Void> putToken(String cacheKey, String token, long ttlSec) {
+        long ttlMillis = ttlSec > 0 ? TimeUnit.SECONDS.toMillis(ttlSec) : TimeUnit.SECONDS.toMillis(600);
+        byte[] value = valueEncoder.apply(new CacheValueHolder<>(token, ttlMillis));
+        return redisTemplate.opsForValue()
+            .set(KEY_PREFIX + cacheKey, value, Duration.ofMillis(ttlMillis))
+            .then();
+    }
+
+    @Override
+    public Mono<Void> evict(String cacheKey) {
+        return redisTemplate.delete(KEY_PREFIX + cacheKey).then();
+    }
+
+    @Override
+    public Mono<Long> getExpireSeconds(String cacheKey) {
+        // ReactiveRedisTemplate#getExpire：key 不存在为空，无过期时间返回 Duration.ZERO（此处转换为 -1）
+        return redisTemplate.getExpire(KEY_PREFIX + cacheKey)
+            .map(ttl -> ttl.isZero() ? -1L : ttl.getSeconds());
+    }
+
+    private String decode(String cacheKey, byte[] bytes) {
+        try {
+            Object decoded = valueDecoder.apply(bytes);
+            if (decoded instanceof CacheValueHolder<?> holder) {
+                if (holder.getExpireTime() > 0 && holder.getExpireTime() <= System.currentTimeMillis()) {
+                    return null;
+                }
+                Object value = holder.getValue();
+                return value instanceof String token ? token : null;
+            }
+            return decoded instanceof String token ? token : null;
+        } catch (Exception e) {
+            log.warn("解码内部 token 缓存失败（key={}）：{}", cacheKey, e.getMessage());
+            return null;
+        }
+    }
+}
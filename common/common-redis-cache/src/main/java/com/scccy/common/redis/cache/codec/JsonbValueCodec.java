@@ -0,0 +1,132 @@
+package com.scccy.common.redis.cache.codec;
+
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.JSONWriter;
+import com.alibaba.fastjson2.SymbolTable;
+import com.alibaba.fastjson2.filter.Filter;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+/**
+ * JetCache 远程缓存二进制编码格式（fastjson2 JSONB）
+ * <p>
+ * 报文结构（大端序）：
+ * <pre>
+ * | identity(4) | version(1) | flags(1) | [原始长度(4)，仅压缩时] | JSONB 数据 |
+ * </pre>
+ * <ul>
+ *     <li>identity 与 JetCache 自带编码器的头部约定一致，解码器据此区分新旧格式：
+ *     非本格式的数据交给 JetCache 的 java/kryo 解码器或旧的 {@link Fastjson2ValueDecoder}，滚动升级期间新实例可读取旧数据</li>
+ *     <li>version 绑定 {@link #SYMBOL_TABLE}：符号表只能整体替换并同时提升版本号，旧实例遇到新版本时解码失败按未命中处理</li>
+ *     <li>flags 第 0 位表示数据经过 LZ4 压缩</li>
+ * </ul>
+ * JSONB 写入类型名，常用类型名与字段名通过符号表编码为整数，不经过中间 String
+ *
+ * @author scccy
+ */
+public final class JsonbValueCodec {
+
+    /**
+     * JetCache 编码器 Bean 名称，配置方式：{@code valueEncoder: bean:jetcacheJsonbValueEncoder}
+     */
+    public static final String ENCODER_BEAN = "jetcacheJsonbValueEncoder";
+
+    /**
+     * JetCache 解码器 Bean 名称，配置方式：{@code valueDecoder: bean:jetcacheJsonbValueDecoder}
+     */
+    public static final String DECODER_BEAN = "jetcacheJsonbValueDecoder";
+
+    static final int IDENTITY_NUMBER = 0x4A953AB0;
+
+    static final byte VERSION = 1;
+
+    static final byte FLAG_LZ4 = 1;
+
+    static final int HEADER_LENGTH = 6;
+
+    static final int COMPRESSED_HEADER_LENGTH = HEADER_LENGTH + 4;
+
+    /**
+     * 版本 1 的符号表：JetCache 包装类型及本项目缓存的主要类型、字段
+     */
+    static final SymbolTable SYMBOL_TABLE = JSONB.symbolTable(
+            "com.alicp.jetcache.CacheValueHolder",
+            "value",
+            "expireTime",
+            "accessTime",
+            "com.scccy.common.modules.domain.mp.system.SysUserMp",
+            "userId",
+            "deptId",
+            "userName",
+            "nickName",
+            "userType",
+            "email",
+            "phonenumber",
+            "sex",
+            "avatar",
+            "password",
+            "status",
+            "delFlag",
+            "loginIp",
+            "loginDate",
+            "pwdUpdateDate",
+            "createBy",
+            "createTime",
+            "updateBy",
+            "updateTime",
+            "remark",
+            "authorities",
+            "java.util.ArrayList",
+            "java.util.Collections$UnmodifiableRandomAccessList",
+            "java.util.ImmutableCollections$ListN"
+    );
+
+    static final JSONWriter.Feature[] WRITE_FEATURES = {
+            JSONWriter.Feature.WriteClassName,
+            JSONWriter.Feature.FieldBased,
+            JSONWriter.Feature.ReferenceDetection,
+            JSONWriter.Feature.WriteNameAsSymbol
+    };
+
+    static final JSONReader.Feature[] READ_FEATURES = {
+            JSONReader.Feature.FieldBased,
+            JSONReader.Feature.UseNativeObject
+    };
+
+    static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestJavaInstance().fastCompressor();
+
+    static final LZ4SafeDecompressor DECOMPRESSOR = LZ4Factory.fastestJavaInstance().safeDecompressor();
+
+    private JsonbValueCodec() {
+        throw new UnsupportedOperationException("工具类不能被实例化");
+    }
+
+    /**
+     * 只允许反序列化指定包前缀下的类型，避免缓存数据被篡改后实例化任意类
+     */
+    static Filter[] autoTypeFilters(String... acceptPrefixes) {
+        return new Filter[]{JSONReader.autoTypeFilter(acceptPrefixes)};
+    }
+
+    static void writeHeader(byte[] buffer, byte flags) {
+        writeInt(buffer, 0, IDENTITY_NUMBER);
+        buffer[4] = VERSION;
+        buffer[5] = flags;
+    }
+
+    static void writeInt(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >>> 24);
+        buffer[offset + 1] = (byte) (value >>> 16);
+        buffer[offset + 2] = (byte) (value >>> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+
+    static int readInt(byte[] buffer, int offset) {
+        return ((buffer[offset] & 0xFF) << 24)
+                | ((buffer[offset + 1] & 0xFF) << 16)
+                | ((buffer[offset + 2] & 0xFF) << 8)
+                | (buffer[offset + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,67 @@
+package com.scccy.common.redis.cache.codec;
+
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.filter.Filter;
+import com.alicp.jetcache.support.CacheEncodeException;
+import com.alicp.jetcache.support.JavaValueDecoder;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+import static com.scccy.common.redis.cache.codec.JsonbValueCodec.COMPRESSED_HEADER_LENGTH;
+import static com.scccy.common.redis.cache.codec.JsonbValueCodec.DECOMPRESSOR;
+import static com.scccy.common.redis.cache.codec.JsonbValueCodec.FLAG_LZ4;
+import static com.scccy.common.redis.cache.codec.JsonbValueCodec.HEADER_LENGTH;
+
+/**
+ * 基于 fastjson2 JSONB 的 JetCache Value Decoder，格式见 {@link JsonbValueCodec}。
+ * <p>
+ * 兼容旧数据：头部不是本格式时，JSON 文本交给 {@link Fastjson2ValueDecoder}，
+ * 其余交给 JetCache 按头部识别 java / kryo 编码的解码器
+ *
+ * @author scccy
+ */
+public class JsonbValueDecoder implements Function<byte[], Object> {
+
+    private final Filter[] filters;
+
+    private final Fastjson2ValueDecoder jsonDecoder = new Fastjson2ValueDecoder();
+
+    /**
+     * @param acceptTypePrefixes 允许反序列化的类型前缀
+     */
+    public JsonbValueDecoder(String... acceptTypePrefixes) {
+        this.filters = JsonbValueCodec.autoTypeFilters(acceptTypePrefixes);
+    }
+
+    @Override
+    public Object apply(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes.length < HEADER_LENGTH || JsonbValueCodec.readInt(bytes, 0) != JsonbValueCodec.IDENTITY_NUMBER) {
+            return decodeLegacy(bytes);
+        }
+        byte version = bytes[4];
+        if (version != JsonbValueCodec.VERSION) {
+            throw new CacheEncodeException("不支持的缓存编码版本: " + version, null);
+        }
+        byte[] payload;
+        if ((bytes[5] & FLAG_LZ4) != 0) {
+            int length = JsonbValueCodec.readInt(bytes, HEADER_LENGTH);
+            payload = new byte[length];
+            DECOMPRESSOR.decompress(bytes, COMPRESSED_HEADER_LENGTH, bytes.length - COMPRESSED_HEADER_LENGTH, payload, 0, length);
+        } else {
+            payload = Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length);
+        }
+        return JSONB.parseObject(payload, Object.class, JsonbValueCodec.SYMBOL_TABLE, filters, JsonbValueCodec.READ_FEATURES);
+    }
+
+    private Object decodeLegacy(byte[] bytes) {
+        byte first = bytes[0];
+        if (first == '{' || first == '[' || first == '"') {
+            return jsonDecoder.apply(bytes);
+        }
+        return JavaValueDecoder.INSTANCE.apply(bytes);
+    }
+}
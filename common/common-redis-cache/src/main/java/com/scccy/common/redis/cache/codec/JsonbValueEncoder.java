@@ -0,0 +1,60 @@
+package com.scccy.common.redis.cache.codec;
+
+import com.alibaba.fastjson2.JSONB;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+import static com.scccy.common.redis.cache.codec.JsonbValueCodec.COMPRESSED_HEADER_LENGTH;
+import static com.scccy.common.redis.cache.codec.JsonbValueCodec.COMPRESSOR;
+import static com.scccy.common.redis.cache.codec.JsonbValueCodec.FLAG_LZ4;
+import static com.scccy.common.redis.cache.codec.JsonbValueCodec.HEADER_LENGTH;
+
+/**
+ * 基于 fastjson2 JSONB 的 JetCache Value Encoder，格式见 {@link JsonbValueCodec}。
+ * <p>
+ * JSONB 数据超过压缩阈值时使用 LZ4 压缩，压缩后不小于原数据时按原数据写入
+ *
+ * @author scccy
+ */
+public class JsonbValueEncoder implements Function<Object, byte[]> {
+
+    /**
+     * 压缩阈值（字节），小于等于 0 表示不压缩
+     */
+    private final int compressThreshold;
+
+    public JsonbValueEncoder(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+
+    @Override
+    public byte[] apply(Object value) {
+        byte[] payload = JSONB.toBytes(value, JsonbValueCodec.SYMBOL_TABLE, JsonbValueCodec.WRITE_FEATURES);
+        if (compressThreshold > 0 && payload.length >= compressThreshold) {
+            byte[] compressed = compress(payload);
+            if (compressed != null) {
+                return compressed;
+            }
+        }
+        byte[] buffer = new byte[HEADER_LENGTH + payload.length];
+        JsonbValueCodec.writeHeader(buffer, (byte) 0);
+        System.arraycopy(payload, 0, buffer, HEADER_LENGTH, payload.length);
+        return buffer;
+    }
+
+    /**
+     * 直接压缩到目标数组的数据区，压缩无收益时返回 null
+     */
+    private static byte[] compress(byte[] payload) {
+        int maxLength = COMPRESSOR.maxCompressedLength(payload.length);
+        byte[] buffer = new byte[COMPRESSED_HEADER_LENGTH + maxLength];
+        int compressedLength = COMPRESSOR.compress(payload, 0, payload.length, buffer, COMPRESSED_HEADER_LENGTH, maxLength);
+        if (COMPRESSED_HEADER_LENGTH + compressedLength >= HEADER_LENGTH + payload.length) {
+            return null;
+        }
+        JsonbValueCodec.writeHeader(buffer, FLAG_LZ4);
+        JsonbValueCodec.writeInt(buffer, HEADER_LENGTH, payload.length);
+        return Arrays.copyOf(buffer, COMPRESSED_HEADER_LENGTH + compressedLength);
+    }
+}
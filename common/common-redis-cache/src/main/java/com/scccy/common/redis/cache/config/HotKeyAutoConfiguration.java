@@ -0,0 +1,73 @@
+package com.scccy.common.redis.cache.config;
+
+import com.alicp.jetcache.anno.support.ConfigProvider;
+import com.scccy.common.redis.cache.hotkey.HotKeyCacheManager;
+import com.scccy.common.redis.cache.hotkey.HotKeyEndpoint;
+import com.scccy.common.redis.cache.hotkey.HotKeyProperties;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 远程缓存热点 Key 探测自动配置
+ * <p>
+ * 在 JetCacheAutoConfiguration 之前注册 {@code jcCacheManager}，使其默认的 SimpleCacheManager 不再创建；
+ * {@code scccy.cache.hot-key.enabled=false} 时不生效，恢复 JetCache 默认行为。
+ * 引入 Actuator 时额外注册 {@link HotKeyEndpoint}
+ *
+ * @author scccy
+ */
+@AutoConfiguration(after = RedisAutoConfiguration.class,
+        beforeName = "com.alicp.jetcache.autoconfigure.JetCacheAutoConfiguration")
+@ConditionalOnClass(ConfigProvider.class)
+@ConditionalOnProperty(prefix = "scccy.cache.hot-key", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(HotKeyProperties.class)
+public class HotKeyAutoConfiguration {
+
+    /**
+     * 服务未自行定义监听容器时提供一个，用于订阅近端缓存失效广播
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    /**
+     * 与 JetCache 默认定义保持一致：Bean 名称 {@code jcCacheManager}，沿用 ConfigProvider 的缓存构建模板
+     */
+    @Bean(name = "jcCacheManager", destroyMethod = "close")
+    public HotKeyCacheManager jcCacheManager(ConfigProvider configProvider,
+                                             HotKeyProperties properties,
+                                             StringRedisTemplate stringRedisTemplate,
+                                             RedisMessageListenerContainer listenerContainer) {
+        HotKeyCacheManager cacheManager = new HotKeyCacheManager(properties, stringRedisTemplate);
+        cacheManager.setCacheBuilderTemplate(configProvider.getCacheBuilderTemplate());
+        listenerContainer.addMessageListener(cacheManager, new ChannelTopic(HotKeyCacheManager.INVALIDATION_CHANNEL));
+        return cacheManager;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    static class HotKeyEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnAvailableEndpoint
+        public HotKeyEndpoint hotKeyEndpoint(HotKeyCacheManager cacheManager) {
+            return new HotKeyEndpoint(cacheManager);
+        }
+    }
+}
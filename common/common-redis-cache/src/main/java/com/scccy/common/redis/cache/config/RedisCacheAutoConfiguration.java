@@ -1,6 +1,10 @@
 package com.scccy.common.redis.cache.config;
 
 import com.alibaba.fastjson2.support.spring6.data.redis.FastJsonRedisSerializer;
+import com.scccy.common.redis.cache.codec.JsonbValueCodec;
+import com.scccy.common.redis.cache.codec.JsonbValueDecoder;
+import com.scccy.common.redis.cache.codec.JsonbValueEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
@@ -9,7 +13,8 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
- * RedisTemplate 自动配置，统一为项目提供 FastJson value、String key 的模板。
+ * RedisTemplate 自动配置，统一为项目提供 FastJson value、String key 的模板；
+ * 同时提供 JetCache 远程缓存使用的 JSONB 编解码器（{@code bean:jetcacheJsonbValueEncoder} / {@code bean:jetcacheJsonbValueDecoder}）。
  */
 @AutoConfiguration
 public class RedisCacheAutoConfiguration {
@@ -31,6 +36,28 @@ public class RedisCacheAutoConfiguration {
         template.afterPropertiesSet();
         return template;
     }
-}
 
+    /**
+     * JetCache 远程缓存编码器
+     *
+     * @param compressThreshold JSONB 数据超过该字节数时 LZ4 压缩，小于等于 0 表示不压缩
+     */
+    @Bean(JsonbValueCodec.ENCODER_BEAN)
+    @ConditionalOnMissingBean(name = JsonbValueCodec.ENCODER_BEAN)
+    public JsonbValueEncoder jetcacheJsonbValueEncoder(
+            @Value("${scccy.cache.codec.compress-threshold:1024}") int compressThreshold) {
+        return new JsonbValueEncoder(compressThreshold);
+    }
 
+    /**
+     * JetCache 远程缓存解码器
+     *
+     * @param acceptTypes 允许反序列化的类型前缀
+     */
+    @Bean(JsonbValueCodec.DECODER_BEAN)
+    @ConditionalOnMissingBean(name = JsonbValueCodec.DECODER_BEAN)
+    public JsonbValueDecoder jetcacheJsonbValueDecoder(
+            @Value("${scccy.cache.codec.accept-types:com.scccy.,com.alicp.jetcache.,java.,org.springframework.security.}") String[] acceptTypes) {
+        return new JsonbValueDecoder(acceptTypes);
+    }
+}
@@ -0,0 +1,64 @@
+package com.scccy.common.redis.cache.hotkey;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-Min Sketch 频率估计
+ * <p>
+ * 固定 4 行、宽度为 2 的幂的计数矩阵，估计值只会偏大不会偏小；
+ * 计数器为原子整型，多线程并发累加无需加锁
+ *
+ * @author scccy
+ */
+final class CountMinSketch {
+
+    private static final int[] SEEDS = {0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F};
+
+    private static final int MIN_WIDTH = 16;
+
+    private final AtomicIntegerArray counters;
+    private final int width;
+    private final int shift;
+
+    /**
+     * @param width 每行计数器个数，向上取整为 2 的幂
+     */
+    CountMinSketch(int width) {
+        this.width = width <= MIN_WIDTH ? MIN_WIDTH : Integer.highestOneBit(width - 1) << 1;
+        this.shift = Integer.SIZE - Integer.numberOfTrailingZeros(this.width);
+        this.counters = new AtomicIntegerArray(this.width * SEEDS.length);
+    }
+
+    /**
+     * 累加一次并返回累加后的估计值
+     */
+    int add(int hash) {
+        int h = spread(hash);
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < SEEDS.length; row++) {
+            min = Math.min(min, counters.incrementAndGet(row * width + index(h, row)));
+        }
+        return min;
+    }
+
+    /**
+     * 估计值
+     */
+    int estimate(int hash) {
+        int h = spread(hash);
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < SEEDS.length; row++) {
+            min = Math.min(min, counters.get(row * width + index(h, row)));
+        }
+        return min;
+    }
+
+    private int index(int hash, int row) {
+        // 乘法散列取高位，各行使用不同的奇数种子
+        return (hash * SEEDS[row]) >>> shift;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
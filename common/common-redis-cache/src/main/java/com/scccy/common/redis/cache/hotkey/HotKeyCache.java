@@ -0,0 +1,264 @@
+package com.scccy.common.redis.cache.hotkey;
+
+import com.alicp.jetcache.AutoReleaseLock;
+import com.alicp.jetcache.Cache;
+import com.alicp.jetcache.CacheConfig;
+import com.alicp.jetcache.CacheGetResult;
+import com.alicp.jetcache.CacheResult;
+import com.alicp.jetcache.CacheResultCode;
+import com.alicp.jetcache.CacheValueHolder;
+import com.alicp.jetcache.MultiGetResult;
+import com.alicp.jetcache.ProxyCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 带热点 Key 本地提升的远程缓存代理
+ * <p>
+ * 单 Key 读取（{@code GET}/{@code get}/{@code computeIfAbsent}）经过 {@link HotKeyDetector} 计数，
+ * 热点 Key 的非空值放入短 TTL 的 Caffeine 近端缓存，命中时不再访问 Redis；批量读取直接访问远程缓存。
+ * 经本代理的写入和删除先失效本地近端缓存，再通过 {@code invalidator} 广播给其他实例；
+ * 绕过 JetCache 直接修改 Redis 的数据最多在近端缓存 TTL 内不一致。
+ * <p>
+ * 与 JetCache 本地缓存一样，近端缓存命中时返回的是同一个对象实例，调用方不应修改
+ *
+ * @author scccy
+ */
+public class HotKeyCache<K, V> implements ProxyCache<K, V> {
+
+    private final String id;
+    private final Cache<K, V> cache;
+    private final HotKeyDetector detector;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> near;
+    private final BiConsumer<String, Collection<String>> invalidator;
+    private final Function<K, Object> keyConvertor;
+    private final long nearTtlMillis;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder nearHits = new LongAdder();
+    private final LongAdder nearMisses = new LongAdder();
+
+    /**
+     * @param id          缓存标识（{@code area:cacheName}），用于失效广播
+     * @param cache       被代理的远程缓存
+     * @param properties  探测配置
+     * @param invalidator 失效广播，参数为缓存标识与失效的 Key
+     */
+    public HotKeyCache(String id, Cache<K, V> cache, HotKeyProperties properties,
+                       BiConsumer<String, Collection<String>> invalidator) {
+        this.id = id;
+        this.cache = cache;
+        this.invalidator = invalidator;
+        this.keyConvertor = cache.config().getKeyConvertor();
+        this.nearTtlMillis = properties.getNearTtl().toMillis();
+        this.near = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, properties.getMaxHotKeys()))
+                .expireAfterWrite(properties.getNearTtl())
+                .build();
+        this.detector = new HotKeyDetector(properties, this.near::invalidate);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public HotKeyDetector getDetector() {
+        return detector;
+    }
+
+    public long getNearHits() {
+        return nearHits.sum();
+    }
+
+    public long getNearMisses() {
+        return nearMisses.sum();
+    }
+
+    /**
+     * 仅失效本实例的近端缓存，收到其他实例的失效广播时调用
+     */
+    public void invalidateLocal(Collection<String> nearKeys) {
+        generation.incrementAndGet();
+        near.invalidateAll(nearKeys);
+    }
+
+    @Override
+    public Cache<K, V> getTargetCache() {
+        return cache;
+    }
+
+    @Override
+    public CacheConfig<K, V> config() {
+        return cache.config();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> clazz) {
+        return cache.unwrap(clazz);
+    }
+
+    @Override
+    public AutoReleaseLock tryLock(K key, long expire, TimeUnit timeUnit) {
+        // 锁 Key 不是业务数据，不经过热点探测与失效广播
+        return cache.tryLock(key, expire, timeUnit);
+    }
+
+    @Override
+    public void close() {
+        near.invalidateAll();
+        cache.close();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CacheGetResult<V> GET(K key) {
+        String nearKey = nearKey(key);
+        HotKeyDetector.HotKey hotKey = nearKey == null ? null : detector.record(nearKey);
+        if (hotKey == null) {
+            return cache.GET(key);
+        }
+        V value = (V) near.getIfPresent(nearKey);
+        if (value != null) {
+            hotKey.hit();
+            nearHits.increment();
+            // 近端缓存只保存值，过期时间按近端 TTL 上限给出
+            return new CacheGetResult<V>(CacheResultCode.SUCCESS, null,
+                    new CacheValueHolder<V>(value, System.currentTimeMillis() + nearTtlMillis));
+        }
+        hotKey.miss();
+        nearMisses.increment();
+        long stamp = generation.get();
+        CacheGetResult<V> result = cache.GET(key);
+        if (result.isSuccess()) {
+            fill(nearKey, result.getValue(), stamp);
+        }
+        return result;
+    }
+
+    @Override
+    public MultiGetResult<K, V> GET_ALL(Set<? extends K> keys) {
+        return cache.GET_ALL(keys);
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<K, V> loader) {
+        return computeIfAbsent(key, loader, config().isCacheNullValue());
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<K, V> loader, boolean cacheNullWhenLoaderReturnNull) {
+        return loadThroughNear(key, () -> cache.computeIfAbsent(key, loader, cacheNullWhenLoaderReturnNull));
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<K, V> loader, boolean cacheNullWhenLoaderReturnNull,
+                             long expireAfterWrite, TimeUnit timeUnit) {
+        return loadThroughNear(key, () -> cache.computeIfAbsent(key, loader, cacheNullWhenLoaderReturnNull,
+                expireAfterWrite, timeUnit));
+    }
+
+    @Override
+    public CacheResult PUT(K key, V value, long expireAfterWrite, TimeUnit timeUnit) {
+        CacheResult result = cache.PUT(key, value, expireAfterWrite, timeUnit);
+        invalidate(Collections.singletonList(key));
+        return result;
+    }
+
+    @Override
+    public CacheResult PUT_ALL(Map<? extends K, ? extends V> map, long expireAfterWrite, TimeUnit timeUnit) {
+        CacheResult result = cache.PUT_ALL(map, expireAfterWrite, timeUnit);
+        if (map != null) {
+            invalidate(map.keySet());
+        }
+        return result;
+    }
+
+    @Override
+    public CacheResult REMOVE(K key) {
+        CacheResult result = cache.REMOVE(key);
+        invalidate(Collections.singletonList(key));
+        return result;
+    }
+
+    @Override
+    public CacheResult REMOVE_ALL(Set<? extends K> keys) {
+        CacheResult result = cache.REMOVE_ALL(keys);
+        if (keys != null) {
+            invalidate(keys);
+        }
+        return result;
+    }
+
+    @Override
+    public CacheResult PUT_IF_ABSENT(K key, V value, long expireAfterWrite, TimeUnit timeUnit) {
+        // 写入成功说明远程原本没有该 Key，近端缓存不会持有它的值，无需失效
+        return cache.PUT_IF_ABSENT(key, value, expireAfterWrite, timeUnit);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V loadThroughNear(K key, Supplier<V> loader) {
+        String nearKey = nearKey(key);
+        HotKeyDetector.HotKey hotKey = nearKey == null ? null : detector.record(nearKey);
+        if (hotKey == null) {
+            return loader.get();
+        }
+        V value = (V) near.getIfPresent(nearKey);
+        if (value != null) {
+            hotKey.hit();
+            nearHits.increment();
+            return value;
+        }
+        hotKey.miss();
+        nearMisses.increment();
+        long stamp = generation.get();
+        value = loader.get();
+        fill(nearKey, value, stamp);
+        return value;
+    }
+
+    /**
+     * 读取期间发生过失效时放弃回填，避免把失效前读到的旧值放回近端缓存
+     */
+    private void fill(String nearKey, V value, long stamp) {
+        if (value != null && generation.get() == stamp) {
+            near.put(nearKey, value);
+        }
+    }
+
+    private void invalidate(Collection<? extends K> keys) {
+        List<String> nearKeys = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            String nearKey = nearKey(key);
+            if (nearKey != null) {
+                nearKeys.add(nearKey);
+            }
+        }
+        if (nearKeys.isEmpty()) {
+            return;
+        }
+        invalidateLocal(nearKeys);
+        invalidator.accept(id, nearKeys);
+    }
+
+    /**
+     * 近端缓存 Key 与远程 Key 使用同一个 keyConvertor，保证各实例对同一个 Key 得到相同的字符串
+     */
+    private String nearKey(K key) {
+        if (key == null) {
+            return null;
+        }
+        Object converted = keyConvertor == null ? key : keyConvertor.apply(key);
+        return converted == null ? null : String.valueOf(converted);
+    }
+}
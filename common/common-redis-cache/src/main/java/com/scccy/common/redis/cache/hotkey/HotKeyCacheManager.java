@@ -0,0 +1,122 @@
+package com.scccy.common.redis.cache.hotkey;
+
+import com.alicp.jetcache.Cache;
+import com.alicp.jetcache.SimpleCacheManager;
+import com.alicp.jetcache.external.ExternalCacheConfig;
+import com.alicp.jetcache.template.QuickConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 支持热点 Key 本地提升的 JetCache 缓存管理器
+ * <p>
+ * 替代 JetCache 默认的 {@link SimpleCacheManager}（Bean 名称同为 {@code jcCacheManager}），
+ * {@code QuickConfig} 创建与 {@code @Cached} 注解创建的缓存都经过 {@link #getOrCreateCache(QuickConfig)}：
+ * 仅远程缓存（{@code CacheType.REMOTE}）被包装为 {@link HotKeyCache}，多级缓存已有本地层，保持原样。
+ * <p>
+ * 近端缓存的跨实例失效通过 Redis Pub/Sub 频道 {@link #INVALIDATION_CHANNEL} 广播，
+ * 消息格式：{@code <area:cacheName>\n<key>\n<key>...}
+ *
+ * @author scccy
+ */
+@Slf4j
+// SimpleCacheManager#getCache 返回原始类型，覆盖它产生的未检查转换警告只能在类上抑制
+@SuppressWarnings("unchecked")
+public class HotKeyCacheManager extends SimpleCacheManager implements MessageListener {
+
+    /**
+     * 近端缓存失效广播频道
+     */
+    public static final String INVALIDATION_CHANNEL = "scccy:cache:hot-key:invalidate";
+
+    private static final char SEPARATOR = '\n';
+
+    private final HotKeyProperties properties;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Map<Cache<?, ?>, HotKeyCache<?, ?>> wrappers = new ConcurrentHashMap<>();
+    private final Map<String, HotKeyCache<?, ?>> cachesById = new ConcurrentHashMap<>();
+
+    public HotKeyCacheManager(HotKeyProperties properties, StringRedisTemplate stringRedisTemplate) {
+        this.properties = properties;
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    @Override
+    public <K, V> Cache<K, V> getOrCreateCache(QuickConfig config) {
+        Cache<K, V> cache = super.getOrCreateCache(config);
+        return wrap(config.getArea(), config.getName(), cache);
+    }
+
+    /**
+     * 与父类签名保持一致（父类返回原始类型），按名称取到的缓存与 {@link #getOrCreateCache} 返回同一个包装
+     */
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Cache getCache(String area, String cacheName) {
+        Cache<Object, Object> cache = super.getCache(area, cacheName);
+        return wrap(area, cacheName, cache);
+    }
+
+    /**
+     * 已包装的缓存
+     */
+    public Collection<HotKeyCache<?, ?>> hotKeyCaches() {
+        return cachesById.values();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split(String.valueOf(SEPARATOR));
+        if (parts.length < 2) {
+            return;
+        }
+        HotKeyCache<?, ?> cache = cachesById.get(parts[0]);
+        if (cache != null) {
+            cache.invalidateLocal(Arrays.asList(parts).subList(1, parts.length));
+        }
+    }
+
+    private <K, V> Cache<K, V> wrap(String area, String cacheName, Cache<K, V> cache) {
+        if (cache == null || cache instanceof HotKeyCache || !eligible(cacheName, cache)) {
+            return cache;
+        }
+        return (Cache<K, V>) wrappers.computeIfAbsent(cache, c -> {
+            String id = area + ":" + cacheName;
+            HotKeyCache<K, V> hotKeyCache = new HotKeyCache<>(id, cache, properties, this::publish);
+            cachesById.put(id, hotKeyCache);
+            log.info("远程缓存已启用热点 Key 探测: {}", id);
+            return hotKeyCache;
+        });
+    }
+
+    private boolean eligible(String cacheName, Cache<?, ?> cache) {
+        if (!(cache.config() instanceof ExternalCacheConfig)) {
+            return false;
+        }
+        List<String> excludes = properties.getExcludeCaches();
+        return cacheName == null || excludes == null || excludes.stream().noneMatch(cacheName::startsWith);
+    }
+
+    private void publish(String cacheId, Collection<String> keys) {
+        List<String> parts = new ArrayList<>(keys.size() + 1);
+        parts.add(cacheId);
+        parts.addAll(keys);
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, String.join(String.valueOf(SEPARATOR), parts));
+        } catch (Exception e) {
+            // 其他实例的近端缓存最迟在 TTL 到期后失效
+            log.warn("广播近端缓存失效失败: cache={}, error={}", cacheId, e.getMessage());
+        }
+    }
+}
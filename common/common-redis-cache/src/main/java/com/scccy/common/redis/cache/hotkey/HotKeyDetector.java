@@ -0,0 +1,174 @@
+package com.scccy.common.redis.cache.hotkey;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 单个缓存的热点 Key 探测器
+ * <p>
+ * 按比例采样访问并记入当前窗口的 {@link CountMinSketch}，采样计数换算后达到 QPS 阈值的 Key 被提升为热点；
+ * 窗口滚动时重新计数，热点 Key 超过保持时间未再次达到阈值则取消提升并回调 {@code onDemote}。
+ * 热点 Key 数量有上限，达到上限后不再提升新的 Key
+ *
+ * @author scccy
+ */
+public class HotKeyDetector {
+
+    private final int sampleRate;
+    private final int sampledThreshold;
+    private final long windowMillis;
+    private final long holdMillis;
+    private final int maxHotKeys;
+    private final int sketchWidth;
+    private final Consumer<String> onDemote;
+    private final Map<String, HotKey> hotKeys = new ConcurrentHashMap<>();
+    private final LongAdder promotions = new LongAdder();
+
+    private volatile Window window;
+
+    public HotKeyDetector(HotKeyProperties properties, Consumer<String> onDemote) {
+        this.sampleRate = Math.max(1, properties.getSampleRate());
+        this.windowMillis = Math.max(1, properties.getWindow().toMillis());
+        this.holdMillis = Math.max(windowMillis, properties.getHoldTime().toMillis());
+        this.maxHotKeys = Math.max(1, properties.getMaxHotKeys());
+        this.sketchWidth = properties.getSketchWidth();
+        long threshold = (long) properties.getQpsThreshold() * windowMillis / 1000 / sampleRate;
+        this.sampledThreshold = (int) Math.max(1, Math.min(Integer.MAX_VALUE, threshold));
+        this.onDemote = onDemote;
+        this.window = new Window(new CountMinSketch(sketchWidth), System.currentTimeMillis());
+    }
+
+    /**
+     * 记录一次访问
+     *
+     * @param key 缓存 Key（转换后的字符串形式）
+     * @return Key 当前为热点时返回其统计对象，否则返回 null
+     */
+    public HotKey record(String key) {
+        long now = System.currentTimeMillis();
+        Window current = window;
+        if (now - current.start >= windowMillis) {
+            current = roll(current, now);
+        }
+        HotKey hotKey = hotKeys.get(key);
+        if (sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0) {
+            if (current.sketch.add(key.hashCode()) >= sampledThreshold) {
+                if (hotKey == null) {
+                    hotKey = promote(key, now);
+                } else {
+                    hotKey.lastDetectedAt = now;
+                }
+            }
+        }
+        return hotKey;
+    }
+
+    /**
+     * 当前热点 Key
+     */
+    public List<HotKey> hotKeys() {
+        return new ArrayList<>(hotKeys.values());
+    }
+
+    /**
+     * 累计提升次数
+     */
+    public long promotions() {
+        return promotions.sum();
+    }
+
+    private HotKey promote(String key, long now) {
+        if (hotKeys.size() >= maxHotKeys) {
+            return null;
+        }
+        HotKey created = new HotKey(key, now);
+        HotKey existing = hotKeys.putIfAbsent(key, created);
+        if (existing != null) {
+            existing.lastDetectedAt = now;
+            return existing;
+        }
+        promotions.increment();
+        return created;
+    }
+
+    /**
+     * 滚动窗口：根据上一窗口的计数更新热点 Key 的 QPS 估计值，并取消已冷却的 Key
+     */
+    private synchronized Window roll(Window current, long now) {
+        if (window != current) {
+            return window;
+        }
+        long elapsed = Math.max(windowMillis, now - current.start);
+        for (HotKey hotKey : hotKeys.values()) {
+            hotKey.qps = (long) current.sketch.estimate(hotKey.key.hashCode()) * sampleRate * 1000 / elapsed;
+            if (now - hotKey.lastDetectedAt > holdMillis && hotKeys.remove(hotKey.key, hotKey)) {
+                onDemote.accept(hotKey.key);
+            }
+        }
+        Window next = new Window(new CountMinSketch(sketchWidth), now);
+        window = next;
+        return next;
+    }
+
+    private record Window(CountMinSketch sketch, long start) {
+    }
+
+    /**
+     * 热点 Key 及其近端缓存命中统计
+     */
+    public static final class HotKey {
+
+        private final String key;
+        private final long promotedAt;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private volatile long lastDetectedAt;
+        private volatile long qps;
+
+        HotKey(String key, long promotedAt) {
+            this.key = key;
+            this.promotedAt = promotedAt;
+            this.lastDetectedAt = promotedAt;
+        }
+
+        void hit() {
+            hits.increment();
+        }
+
+        void miss() {
+            misses.increment();
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getPromotedAt() {
+            return promotedAt;
+        }
+
+        public long getLastDetectedAt() {
+            return lastDetectedAt;
+        }
+
+        /**
+         * 上一个完整窗口的 QPS 估计值，刚提升时为 0
+         */
+        public long getQps() {
+            return qps;
+        }
+
+        public long getHits() {
+            return hits.sum();
+        }
+
+        public long getMisses() {
+            return misses.sum();
+        }
+    }
+}
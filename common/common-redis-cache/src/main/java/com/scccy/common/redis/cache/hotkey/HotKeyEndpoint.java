@@ -0,0 +1,91 @@
+package com.scccy.common.redis.cache.hotkey;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 热点 Key Actuator 端点：{@code GET /actuator/hotkeys}
+ * <p>
+ * 列出各远程缓存当前提升的热点 Key、QPS 估计值以及近端缓存命中率；
+ * 需在 {@code management.endpoints.web.exposure.include} 中加入 {@code hotkeys} 才会通过 HTTP 暴露
+ *
+ * @author scccy
+ */
+@Endpoint(id = "hotkeys")
+public class HotKeyEndpoint {
+
+    /**
+     * 报告中 Key 的最大长度，避免输出完整 token 等长字符串
+     */
+    private static final int MAX_KEY_LENGTH = 64;
+
+    private final HotKeyCacheManager cacheManager;
+
+    public HotKeyEndpoint(HotKeyCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @ReadOperation
+    public List<CacheReport> hotKeys() {
+        return cacheManager.hotKeyCaches().stream()
+                .map(HotKeyEndpoint::report)
+                .sorted(Comparator.comparing(CacheReport::cache))
+                .toList();
+    }
+
+    private static CacheReport report(HotKeyCache<?, ?> cache) {
+        HotKeyDetector detector = cache.getDetector();
+        List<KeyReport> keys = detector.hotKeys().stream()
+                .sorted(Comparator.comparingLong(HotKeyDetector.HotKey::getQps).reversed())
+                .map(hotKey -> new KeyReport(
+                        abbreviate(hotKey.getKey()),
+                        hotKey.getQps(),
+                        hotKey.getHits(),
+                        hotKey.getMisses(),
+                        hitRate(hotKey.getHits(), hotKey.getMisses()),
+                        Instant.ofEpochMilli(hotKey.getPromotedAt())))
+                .toList();
+        return new CacheReport(cache.getId(), detector.promotions(), cache.getNearHits(), cache.getNearMisses(),
+                hitRate(cache.getNearHits(), cache.getNearMisses()), keys);
+    }
+
+    private static double hitRate(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0D : (double) hits / total;
+    }
+
+    private static String abbreviate(String key) {
+        return key.length() <= MAX_KEY_LENGTH ? key : key.substring(0, MAX_KEY_LENGTH) + "...";
+    }
+
+    /**
+     * 单个缓存的热点统计
+     *
+     * @param cache      缓存标识（{@code area:cacheName}）
+     * @param promotions 累计提升次数
+     * @param nearHits   近端缓存命中次数
+     * @param nearMisses 热点 Key 未命中近端缓存、回源 Redis 的次数
+     * @param hitRate    近端缓存命中率
+     * @param hotKeys    当前热点 Key，按 QPS 降序
+     */
+    public record CacheReport(String cache, long promotions, long nearHits, long nearMisses, double hitRate,
+                              List<KeyReport> hotKeys) {
+    }
+
+    /**
+     * 单个热点 Key 的统计
+     *
+     * @param key        Key（过长时截断）
+     * @param qps        上一个完整窗口的 QPS 估计值
+     * @param hits       近端缓存命中次数
+     * @param misses     近端缓存未命中次数
+     * @param hitRate    近端缓存命中率
+     * @param promotedAt 提升时间
+     */
+    public record KeyReport(String key, long qps, long hits, long misses, double hitRate, Instant promotedAt) {
+    }
+}
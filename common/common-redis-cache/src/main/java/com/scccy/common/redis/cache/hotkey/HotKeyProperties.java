@@ -0,0 +1,71 @@
+package com.scccy.common.redis.cache.hotkey;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 远程缓存热点 Key 探测配置
+ *
+ * @author scccy
+ */
+@Data
+@ConfigurationProperties(prefix = "scccy.cache.hot-key")
+public class HotKeyProperties {
+
+    /**
+     * 是否启用热点 Key 探测与本地提升
+     * 默认: true
+     */
+    private boolean enabled = true;
+
+    /**
+     * 单个 Key 每秒访问次数达到该值即判定为热点
+     * 默认: 200
+     */
+    private int qpsThreshold = 200;
+
+    /**
+     * 采样比例，每 N 次访问计数一次，1 表示全部计数
+     * 默认: 8
+     */
+    private int sampleRate = 8;
+
+    /**
+     * 统计窗口，每个窗口重新计数
+     * 默认: 1s
+     */
+    private Duration window = Duration.ofSeconds(1);
+
+    /**
+     * 热点 Key 连续多久未再次达到阈值后取消提升
+     * 默认: 5s
+     */
+    private Duration holdTime = Duration.ofSeconds(5);
+
+    /**
+     * 本地近端缓存的过期时间，即跨实例写入未收到失效广播时的最大不一致时长
+     * 默认: 2s
+     */
+    private Duration nearTtl = Duration.ofSeconds(2);
+
+    /**
+     * 每个缓存最多同时提升的热点 Key 数量
+     * 默认: 64
+     */
+    private int maxHotKeys = 64;
+
+    /**
+     * Count-Min Sketch 每行计数器个数
+     * 默认: 1024
+     */
+    private int sketchWidth = 1024;
+
+    /**
+     * 不参与探测的缓存名称前缀
+     */
+    private List<String> excludeCaches = new ArrayList<>();
+}
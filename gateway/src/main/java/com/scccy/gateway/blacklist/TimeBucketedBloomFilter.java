@@ -0,0 +1,175 @@
+package com.scccy.gateway.blacklist;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 按时间分桶的布隆过滤器
+ * <p>
+ * 写入落在当前时间桶，查询检查所有仍在保留期内的时间桶；
+ * 超过保留期的时间桶在被环形复用时整体丢弃，无需逐条删除
+ * <p>
+ * 线程安全：位图使用 {@link AtomicLongArray}，桶的轮换使用 CAS
+ *
+ * @author scccy
+ */
+public class TimeBucketedBloomFilter {
+
+    private final long bucketMillis;
+    private final int bitCount;
+    private final int hashCount;
+    private final AtomicReferenceArray<Bucket> ring;
+
+    /**
+     * @param bucketMillis                时间桶跨度（毫秒）
+     * @param retentionMillis             保留时长（毫秒）
+     * @param expectedInsertionsPerBucket 单桶预期写入量
+     * @param falsePositiveProbability    单桶目标误判率
+     */
+    public TimeBucketedBloomFilter(long bucketMillis, long retentionMillis,
+                                   int expectedInsertionsPerBucket, double falsePositiveProbability) {
+        if (bucketMillis <= 0 || retentionMillis <= 0) {
+            throw new IllegalArgumentException("bucketMillis 和 retentionMillis 必须大于 0");
+        }
+        long n = Math.max(1, expectedInsertionsPerBucket);
+        double p = Math.min(Math.max(falsePositiveProbability, 1e-9), 0.5);
+        long bits = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        // 向上取整到 64 的倍数，且不超过 int 范围
+        bits = Math.min(((bits + 63) / 64) * 64, (long) Integer.MAX_VALUE - 63);
+        this.bucketMillis = bucketMillis;
+        this.bitCount = (int) bits;
+        this.hashCount = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+        // 额外保留一个桶，覆盖当前桶尚未写满时跨越保留期边界的情况
+        int buckets = (int) ((retentionMillis + bucketMillis - 1) / bucketMillis) + 1;
+        this.ring = new AtomicReferenceArray<>(buckets);
+    }
+
+    /**
+     * 写入一个 id
+     *
+     * @param id  jti 或 token 整串
+     * @param now 当前时间（毫秒）
+     */
+    public void put(String id, long now) {
+        long h1 = hash(id);
+        long h2 = mix(h1);
+        AtomicLongArray bits = currentBucket(now).bits;
+        for (int i = 0; i < hashCount; i++) {
+            int index = index(h1, h2, i);
+            setBit(bits, index);
+        }
+    }
+
+    /**
+     * 判断 id 是否可能存在
+     *
+     * @param id  jti 或 token 整串
+     * @param now 当前时间（毫秒）
+     * @return false 表示一定不存在；true 表示可能存在，需要回源确认
+     */
+    public boolean mightContain(String id, long now) {
+        long h1 = hash(id);
+        long h2 = mix(h1);
+        long oldestLive = now / bucketMillis - ring.length() + 1;
+        for (int slot = 0; slot < ring.length(); slot++) {
+            Bucket bucket = ring.get(slot);
+            if (bucket == null || bucket.id < oldestLive) {
+                continue;
+            }
+            if (containsAll(bucket.bits, h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 每个桶的位数
+     */
+    public int getBitCount() {
+        return bitCount;
+    }
+
+    /**
+     * 哈希函数个数
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    private boolean containsAll(AtomicLongArray bits, long h1, long h2) {
+        for (int i = 0; i < hashCount; i++) {
+            int index = index(h1, h2, i);
+            if ((bits.get(index >>> 6) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Bucket currentBucket(long now) {
+        long bucketId = now / bucketMillis;
+        int slot = (int) Math.floorMod(bucketId, (long) ring.length());
+        while (true) {
+            Bucket existing = ring.get(slot);
+            if (existing != null && existing.id >= bucketId) {
+                return existing;
+            }
+            Bucket fresh = new Bucket(bucketId, bitCount);
+            if (ring.compareAndSet(slot, existing, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private int index(long h1, long h2, int i) {
+        long combined = h1 + i * h2;
+        return (int) Math.floorMod(combined, (long) bitCount);
+    }
+
+    private static void setBit(AtomicLongArray bits, int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    /**
+     * 64 位 FNV-1a
+     */
+    private static long hash(String id) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            h ^= id.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * MurmurHash3 fmix64，用于打散并派生第二个哈希值
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h | 1L;
+    }
+
+    private static final class Bucket {
+        private final long id;
+        private final AtomicLongArray bits;
+
+        private Bucket(long id, int bitCount) {
+            this.id = id;
+            this.bits = new AtomicLongArray(bitCount >>> 6);
+        }
+    }
+}
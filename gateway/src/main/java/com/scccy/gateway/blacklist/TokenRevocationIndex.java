@@ -0,0 +1,406 @@
+package com.scccy.gateway.blacklist;
+
+import com.scccy.common.modules.constant.TokenRevocationConstants;
+import com.scccy.gateway.config.TokenRevocationIndexProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gateway 本地 Token 撤销索引
+ * <p>
+ * 绝大多数 Token 从未被撤销，因此在 Gateway 内存中维护一个按时间分桶的布隆过滤器：
+ * <ul>
+ *     <li>索引未命中：一定未被撤销，直接放行，不访问 Redis</li>
+ *     <li>索引命中：可能被撤销（或误判），回源 Redis 确认</li>
+ * </ul>
+ * 用户级撤销水位线（{@code jwt:revoked-before:<userId>}）数量很少，直接以 userId → epoch 毫秒 的 Map 常驻内存，
+ * 与 Token 的签发时间比较即可判定，无需访问 Redis
+ * <p>
+ * 同步方式：
+ * <ul>
+ *     <li>增量：订阅 Auth 服务发布的撤销事件与水位线事件频道（Redis Pub/Sub）</li>
+ *     <li>全量：启动时及每隔 resync-interval 通过 SCAN 黑名单 Key（带 JetCache 缓存名称前缀）与水位线 Key 重建索引</li>
+ * </ul>
+ * 只有在订阅建立且至少完成一次全量重建后索引才视为可用；订阅中断期间回退为每请求查询 Redis，
+ * 恢复订阅后立即触发一次全量重建，保证不会漏掉中断期间的撤销记录
+ *
+ * @author scccy
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(TokenRevocationIndexProperties.class)
+public class TokenRevocationIndex {
+
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final TokenRevocationIndexProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${security.jwt.blacklist.prefix:" + TokenRevocationConstants.BLACKLIST_KEY_PREFIX + "}")
+    private String blacklistKeyPrefix;
+
+    /**
+     * Auth 服务写入黑名单所用的 JetCache 缓存名称，即 Redis 中实际 Key 的前缀
+     */
+    @Value("${security.jwt.blacklist.cache-name:" + TokenRevocationConstants.BLACKLIST_CACHE_NAME + "}")
+    private String blacklistCacheName;
+
+    @Value("${security.jwt.revoked-before.prefix:" + TokenRevocationConstants.REVOKED_BEFORE_KEY_PREFIX + "}")
+    private String revokedBeforeKeyPrefix;
+
+    private volatile TimeBucketedBloomFilter filter;
+    /**
+     * 全量重建期间正在构建的新索引，期间到达的增量事件需同时写入
+     */
+    private volatile TimeBucketedBloomFilter rebuilding;
+    /**
+     * 用户级撤销水位线：userId → epoch 毫秒
+     */
+    private volatile Map<Long, Long> revokedBefore = new ConcurrentHashMap<>();
+    private volatile Map<Long, Long> rebuildingRevokedBefore;
+    private volatile boolean subscribed;
+    private volatile boolean synced;
+    /**
+     * 订阅代次，每次（重新）建立订阅时递增；全量重建仅在代次未变化时才标记索引可用
+     */
+    private final AtomicLong subscriptionGeneration = new AtomicLong();
+    private final AtomicBoolean resyncing = new AtomicBoolean();
+    private volatile boolean resyncRequested;
+
+    private final AtomicLong lastSyncLagMillis = new AtomicLong();
+    private final AtomicLong lastResyncAt = new AtomicLong();
+    private final Disposable.Composite subscriptions = Disposables.composite();
+    private final List<TokenRevocationListener> listeners = new CopyOnWriteArrayList<>();
+
+    private Counter redisAvoided;
+    private Counter indexPositive;
+    private Counter falsePositive;
+    private Counter eventsReceived;
+
+    public TokenRevocationIndex(ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+                                TokenRevocationIndexProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.reactiveStringRedisTemplate = reactiveStringRedisTemplate;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            log.info("Gateway 本地 Token 撤销索引未启用，黑名单校验将逐请求查询 Redis");
+            return;
+        }
+        this.filter = newFilter();
+        registerMetrics();
+
+        // 先订阅再全量重建，避免两者之间的撤销事件丢失
+        String channel = properties.getChannel();
+        String revokedBeforeChannel = properties.getRevokedBeforeChannel();
+        subscriptions.add(reactiveStringRedisTemplate.listenToChannel(channel, revokedBeforeChannel)
+            .doOnSubscribe(s -> {
+                subscriptionGeneration.incrementAndGet();
+                subscribed = true;
+                log.info("已订阅 Token 撤销事件频道: {}, {}", channel, revokedBeforeChannel);
+                resync().subscribe();
+            })
+            .doOnNext(message -> {
+                if (revokedBeforeChannel.equals(message.getChannel())) {
+                    onRevokedBeforeEvent(message.getMessage());
+                } else {
+                    onRevocationEvent(message.getMessage());
+                }
+            })
+            .doOnError(e -> {
+                subscribed = false;
+                synced = false;
+                log.warn("Token 撤销事件订阅中断，回退为逐请求查询 Redis: {}", e.toString());
+            })
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+            .subscribe());
+
+        Duration interval = properties.getResyncInterval();
+        subscriptions.add(Flux.interval(interval, interval, Schedulers.parallel())
+            .onBackpressureDrop()
+            .concatMap(tick -> resync())
+            .subscribe());
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscriptions.dispose();
+    }
+
+    /**
+     * 注册撤销事件监听器
+     *
+     * @param listener 监听器
+     */
+    public void addListener(TokenRevocationListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 索引是否可用于判定"一定未撤销"
+     */
+    public boolean isReady() {
+        return properties.isEnabled() && subscribed && synced;
+    }
+
+    /**
+     * 判断 id 是否可能被撤销
+     *
+     * @param id jti 或 token 整串
+     * @return false 表示一定未撤销（已计入避免的 Redis 调用）；true 表示需要回源 Redis 确认
+     */
+    public boolean mightBeRevoked(String id) {
+        if (!isReady()) {
+            return true;
+        }
+        if (filter.mightContain(id, System.currentTimeMillis())) {
+            indexPositive.increment();
+            return true;
+        }
+        redisAvoided.increment();
+        return false;
+    }
+
+    /**
+     * 判断 Token 是否早于用户级撤销水位线
+     * <p>
+     * 索引可用时直接比较本地水位线；否则回源 Redis 查询
+     *
+     * @param userId         用户ID
+     * @param issuedAtMillis Token 签发时间（epoch 毫秒，见 {@link com.scccy.common.modules.utils.JwtUtils#getIssuedAtMillis}）
+     * @return true 表示签发时间早于水位线（已撤销）
+     */
+    public Mono<Boolean> isRevokedBefore(Long userId, Long issuedAtMillis) {
+        if (userId == null || issuedAtMillis == null) {
+            return Mono.just(false);
+        }
+        if (isReady()) {
+            Long watermark = revokedBefore.get(userId);
+            return Mono.just(watermark != null && issuedAtMillis < watermark);
+        }
+        return reactiveStringRedisTemplate.opsForValue()
+            .get(revokedBeforeKeyPrefix + userId)
+            .map(value -> issuedAtMillis < TokenRevocationConstants.parseWatermarkMillis(value))
+            .defaultIfEmpty(false);
+    }
+
+    /**
+     * 黑名单记录在 Redis 中的实际 Key
+     *
+     * @param id jti 或 token 整串
+     */
+    public String blacklistRedisKey(String id) {
+        return blacklistRedisKeyPrefix(blacklistCacheName, blacklistKeyPrefix) + id;
+    }
+
+    /**
+     * 黑名单经 JetCache 远程缓存写入，实际 Key 为缓存名称 + 黑名单前缀 + id
+     */
+    static String blacklistRedisKeyPrefix(String cacheName, String keyPrefix) {
+        return cacheName == null ? keyPrefix : cacheName + keyPrefix;
+    }
+
+    /**
+     * 记录一次误判：索引命中但 Redis 中不存在黑名单记录
+     */
+    public void recordFalsePositive() {
+        if (falsePositive != null) {
+            falsePositive.increment();
+        }
+    }
+
+    /**
+     * 全量重建索引
+     */
+    Mono<Void> resync() {
+        if (!resyncing.compareAndSet(false, true)) {
+            // 已有重建在进行，结束后再补一次，保证覆盖本次请求之前的撤销记录
+            resyncRequested = true;
+            return Mono.empty();
+        }
+        long generation = subscriptionGeneration.get();
+        long startedAt = System.currentTimeMillis();
+        TimeBucketedBloomFilter next = newFilter();
+        Map<Long, Long> nextRevokedBefore = new ConcurrentHashMap<>();
+        rebuilding = next;
+        rebuildingRevokedBefore = nextRevokedBefore;
+        String blacklistRedisKeyPrefix = blacklistRedisKeyPrefix(blacklistCacheName, blacklistKeyPrefix);
+        int prefixLength = blacklistRedisKeyPrefix.length();
+        Mono<Long> blacklistKeys = reactiveStringRedisTemplate.scan(scanOptions(blacklistRedisKeyPrefix))
+            .doOnNext(key -> next.put(key.substring(prefixLength), startedAt))
+            .count();
+        Mono<Long> watermarkKeys = reactiveStringRedisTemplate.scan(scanOptions(revokedBeforeKeyPrefix))
+            .buffer((int) Math.max(1, properties.getScanCount()))
+            .concatMap(this::loadWatermarks)
+            .doOnNext(entry -> nextRevokedBefore.merge(entry.getKey(), entry.getValue(), Math::max))
+            .count();
+        return Mono.zip(blacklistKeys, watermarkKeys)
+            .doOnNext(counts -> {
+                filter = next;
+                revokedBefore = nextRevokedBefore;
+                synced = subscribed && generation == subscriptionGeneration.get();
+                lastResyncAt.set(System.currentTimeMillis());
+                log.debug("Token 撤销索引全量重建完成: blacklistKeys={}, revokedBeforeKeys={}, cost={}ms",
+                    counts.getT1(), counts.getT2(), System.currentTimeMillis() - startedAt);
+            })
+            .doOnError(e -> log.warn("Token 撤销索引全量重建失败，保留旧索引: {}", e.toString()))
+            .doFinally(signal -> {
+                rebuilding = null;
+                rebuildingRevokedBefore = null;
+                resyncing.set(false);
+                if (resyncRequested) {
+                    resyncRequested = false;
+                    resync().subscribe();
+                }
+            })
+            .onErrorResume(e -> Mono.empty())
+            .then();
+    }
+
+    private ScanOptions scanOptions(String prefix) {
+        return ScanOptions.scanOptions()
+            .match(prefix + "*")
+            .count(properties.getScanCount())
+            .build();
+    }
+
+    /**
+     * 批量读取一批水位线 Key 的值（MGET）
+     */
+    private Flux<Map.Entry<Long, Long>> loadWatermarks(List<String> keys) {
+        int prefixLength = revokedBeforeKeyPrefix.length();
+        return reactiveStringRedisTemplate.opsForValue().multiGet(keys)
+            .flatMapIterable(values -> {
+                List<Map.Entry<Long, Long>> entries = new ArrayList<>(keys.size());
+                for (int i = 0; i < keys.size() && i < values.size(); i++) {
+                    String value = values.get(i);
+                    if (value == null) {
+                        continue;
+                    }
+                    try {
+                        entries.add(Map.entry(Long.parseLong(keys.get(i).substring(prefixLength)),
+                            TokenRevocationConstants.parseWatermarkMillis(value)));
+                    } catch (NumberFormatException e) {
+                        log.debug("忽略无法解析的撤销水位线: key={}", keys.get(i));
+                    }
+                }
+                return entries;
+            });
+    }
+
+    private void onRevokedBeforeEvent(String message) {
+        int sep = message == null ? -1 : message.indexOf(TokenRevocationConstants.MESSAGE_SEPARATOR);
+        if (sep <= 0) {
+            return;
+        }
+        try {
+            long revokedAt = Long.parseLong(message, 0, sep, 10);
+            long userId = Long.parseLong(message, sep + 1, message.length(), 10);
+            long watermark = revokedAt;
+            lastSyncLagMillis.set(Math.max(0, System.currentTimeMillis() - revokedAt));
+            revokedBefore.merge(userId, watermark, Math::max);
+            Map<Long, Long> next = rebuildingRevokedBefore;
+            if (next != null) {
+                next.merge(userId, watermark, Math::max);
+            }
+            eventsReceived.increment();
+            for (TokenRevocationListener listener : listeners) {
+                listener.onUserRevoked(userId, watermark);
+            }
+        } catch (NumberFormatException e) {
+            log.debug("忽略无法解析的撤销水位线事件: {}", message);
+        }
+    }
+
+    private void onRevocationEvent(String message) {
+        if (message == null || message.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        String id = message;
+        int sep = message.indexOf(TokenRevocationConstants.MESSAGE_SEPARATOR);
+        if (sep > 0) {
+            try {
+                long revokedAt = Long.parseLong(message, 0, sep, 10);
+                lastSyncLagMillis.set(Math.max(0, now - revokedAt));
+                id = message.substring(sep + 1);
+            } catch (NumberFormatException ignored) {
+                // 非时间戳前缀，按整串 id 处理
+            }
+        }
+        filter.put(id, now);
+        TimeBucketedBloomFilter next = rebuilding;
+        if (next != null) {
+            next.put(id, now);
+        }
+        eventsReceived.increment();
+        for (TokenRevocationListener listener : listeners) {
+            listener.onTokenRevoked(id);
+        }
+    }
+
+    private TimeBucketedBloomFilter newFilter() {
+        return new TimeBucketedBloomFilter(
+            properties.getBucketDuration().toMillis(),
+            properties.getRetention().toMillis(),
+            properties.getExpectedInsertionsPerBucket(),
+            properties.getFalsePositiveProbability());
+    }
+
+    private void registerMetrics() {
+        redisAvoided = Counter.builder("gateway.token.revocation.redis.avoided")
+            .description("本地撤销索引判定未撤销而跳过的 Redis 查询次数")
+            .register(meterRegistry);
+        indexPositive = Counter.builder("gateway.token.revocation.index.positive")
+            .description("本地撤销索引命中、需回源 Redis 确认的次数")
+            .register(meterRegistry);
+        falsePositive = Counter.builder("gateway.token.revocation.index.false.positive")
+            .description("本地撤销索引命中但 Redis 中不存在黑名单记录的次数")
+            .register(meterRegistry);
+        eventsReceived = Counter.builder("gateway.token.revocation.events")
+            .description("收到的 Token 撤销事件数")
+            .register(meterRegistry);
+        Gauge.builder("gateway.token.revocation.sync.lag", lastSyncLagMillis, AtomicLong::get)
+            .description("最近一次撤销事件从发布到进入本地索引的延迟")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+        Gauge.builder("gateway.token.revocation.resync.age", lastResyncAt,
+                at -> at.get() == 0 ? -1 : System.currentTimeMillis() - at.get())
+            .description("距最近一次全量重建成功的时间")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+        Gauge.builder("gateway.token.revocation.revoked.before.users", this, index -> index.revokedBefore.size())
+            .description("本地常驻的用户级撤销水位线数量")
+            .register(meterRegistry);
+        Gauge.builder("gateway.token.revocation.ready", this, index -> index.isReady() ? 1 : 0)
+            .description("本地撤销索引是否可用")
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,27 @@
+package com.scccy.gateway.blacklist;
+
+/**
+ * Token 撤销事件监听器
+ * <p>
+ * 由 {@link TokenRevocationIndex} 在收到增量撤销事件后回调，
+ * 供依赖 Token 状态的本地缓存（如已验证 Token 缓存）及时失效
+ *
+ * @author scccy
+ */
+public interface TokenRevocationListener {
+
+    /**
+     * 单个 Token 被撤销
+     *
+     * @param id jti 或 token 整串
+     */
+    void onTokenRevoked(String id);
+
+    /**
+     * 用户级撤销水位线更新
+     *
+     * @param userId        用户ID
+     * @param revokedBefore 水位线（epoch 毫秒），签发时间早于它的 Token 已撤销
+     */
+    void onUserRevoked(long userId, long revokedBefore);
+}
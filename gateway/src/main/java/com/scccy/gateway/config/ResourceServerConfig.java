@@ -1,6 +1,8 @@
 package com.scccy.gateway.config;
 
 import com.scccy.common.modules.constant.SecurityPathConstants;
+import com.scccy.gateway.jwt.CachingReactiveJwtDecoder;
+import com.scccy.gateway.jwt.VerifiedTokenCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -8,6 +10,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
 
@@ -16,6 +20,8 @@ import org.springframework.security.web.server.authentication.HttpStatusServerEn
  * <p>
  * Gateway 作为 Resource Server，统一验证 Token
  * 使用 WebFlux（响应式）安全配置
+ * <p>
+ * JwtDecoder 外层包装 {@link CachingReactiveJwtDecoder}，同一 Token 重复请求时跳过 RSA 验签
  *
  * @author scccy
  */
@@ -27,8 +33,19 @@ public class ResourceServerConfig {
     @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}")
     private String issuerUri;
 
+    /**
+     * 带验签缓存的 JwtDecoder
+     * <p>
+     * 从 {issuer-uri}/oauth2/jwks 获取 JWK Set 完成验签，结果写入 {@link VerifiedTokenCache}
+     */
+    @Bean
+    public ReactiveJwtDecoder reactiveJwtDecoder(VerifiedTokenCache verifiedTokenCache) {
+        ReactiveJwtDecoder delegate = NimbusReactiveJwtDecoder.withJwkSetUri(issuerUri + "/oauth2/jwks").build();
+        return new CachingReactiveJwtDecoder(delegate, verifiedTokenCache);
+    }
+
     @Bean
-    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, ReactiveJwtDecoder reactiveJwtDecoder) {
         log.info("配置 Gateway Resource Server，issuer-uri: {}", issuerUri);
 
         http
@@ -46,10 +63,8 @@ public class ResourceServerConfig {
             )
             .oauth2ResourceServer(oauth2 -> oauth2
                 .jwt(jwt -> jwt
-                    // 使用 issuer-uri 自动发现 JWK Set
-                    // Spring Security 会自动从 {issuer-uri}/.well-known/oauth-authorization-server 获取配置
-                    // 然后从 jwks_uri 获取 JWK Set
-                    .jwkSetUri(issuerUri + "/oauth2/jwks")
+                    // 从 {issuer-uri}/oauth2/jwks 获取 JWK Set，外层带验签缓存
+                    .jwtDecoder(reactiveJwtDecoder)
                 )
             )
             .csrf(ServerHttpSecurity.CsrfSpec::disable);  // Gateway 通常禁用 CSRF
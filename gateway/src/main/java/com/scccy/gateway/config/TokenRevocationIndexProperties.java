@@ -0,0 +1,65 @@
+package com.scccy.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Gateway 本地 Token 撤销索引配置
+ * <p>
+ * 索引为按时间分桶的布隆过滤器：未命中即可确定未被撤销，直接放行；
+ * 命中时再回源 Redis 确认，避免每个请求都访问 Redis
+ *
+ * @author scccy
+ */
+@Data
+@ConfigurationProperties(prefix = "security.jwt.blacklist.local-index")
+public class TokenRevocationIndexProperties {
+
+    /**
+     * 是否启用本地撤销索引，关闭后每个请求都回源 Redis
+     */
+    private boolean enabled = true;
+
+    /**
+     * 撤销事件广播频道，需与 Auth 服务保持一致
+     */
+    private String channel = "jwt:blacklist:events";
+
+    /**
+     * 用户级撤销水位线广播频道，需与 Auth 服务保持一致
+     */
+    private String revokedBeforeChannel = "jwt:revoked-before:events";
+
+    /**
+     * 单个时间桶的跨度
+     */
+    private Duration bucketDuration = Duration.ofMinutes(30);
+
+    /**
+     * 撤销记录需要保留的最长时间，应不小于 access token 的最大有效期
+     * 默认: 2 小时 + 5 分钟时钟偏差
+     */
+    private Duration retention = Duration.ofMinutes(125);
+
+    /**
+     * 单个时间桶的预期撤销数量
+     */
+    private int expectedInsertionsPerBucket = 100_000;
+
+    /**
+     * 单个时间桶的目标误判率
+     */
+    private double falsePositiveProbability = 0.001;
+
+    /**
+     * 全量重建索引的间隔（通过 SCAN 黑名单 Key 重建）
+     */
+    private Duration resyncInterval = Duration.ofMinutes(10);
+
+    /**
+     * 全量重建时 SCAN 的 COUNT 提示值
+     */
+    private long scanCount = 1000;
+}
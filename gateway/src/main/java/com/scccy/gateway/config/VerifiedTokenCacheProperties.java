@@ -0,0 +1,44 @@
+package com.scccy.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Gateway 已验证 Token 缓存配置
+ * <p>
+ * 同一 Bearer Token 在有效期内会被反复携带，缓存验签结果与提取出的用户信息请求头，
+ * 重复请求可跳过 RSA 验签与 claim 解析
+ *
+ * @author scccy
+ */
+@Data
+@ConfigurationProperties(prefix = "security.jwt.verified-cache")
+public class VerifiedTokenCacheProperties {
+
+    /**
+     * 是否启用已验证 Token 缓存
+     */
+    private boolean enabled = true;
+
+    /**
+     * 最大缓存条目数
+     */
+    private long maximumSize = 100_000;
+
+    /**
+     * 单条缓存的最长保留时间，实际过期时间取该值与 Token exp 中较早者
+     */
+    private Duration maxTtl = Duration.ofHours(2);
+
+    /**
+     * "索引误判但 Redis 确认未撤销" 结论的有效期，期间同一 Token 不再回源 Redis
+     */
+    private Duration notRevokedVerdictTtl = Duration.ofMinutes(1);
+
+    /**
+     * JWK 轮换广播频道，需与 Auth 服务保持一致
+     */
+    private String jwkRotationChannel = "jwt:jwk:rotated";
+}
@@ -1,5 +1,9 @@
 package com.scccy.gateway.filter;
 
+import com.scccy.common.modules.utils.JwtUtils;
+import com.scccy.gateway.blacklist.TokenRevocationIndex;
+import com.scccy.gateway.jwt.VerifiedToken;
+import com.scccy.gateway.jwt.VerifiedTokenCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -29,6 +33,8 @@ import java.util.Set;
  * 基于 Redis 的 JWT 黑名单统一拦截（Gateway 全局过滤器）
  * - 仅使用响应式 Redis（ReactiveStringRedisTemplate），不引入 MVC 的 Redis 依赖
  * - 优先读取已认证主体中的 jti；若不可用则回退到 Bearer token 整串
+ * - 先查询本地撤销索引（{@link TokenRevocationIndex}），仅在索引命中时才回源 Redis
+ * - 校验用户级撤销水位线：iat 不晚于水位线的 Token 视为已撤销（改密、封禁等场景）
  */
 @Slf4j
 @Component
@@ -36,9 +42,8 @@ import java.util.Set;
 public class TokenBlacklistGlobalFilter implements GlobalFilter, Ordered {
 
     private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
-
-    @Value("${security.jwt.blacklist.prefix:jwt:blacklist:}")
-    private String blacklistKeyPrefix;
+    private final TokenRevocationIndex tokenRevocationIndex;
+    private final VerifiedTokenCache verifiedTokenCache;
 
     @Value("${security.jwt.blacklist.skip-client-credentials:true}")
     private boolean skipClientCredentials;
@@ -85,20 +90,25 @@ public class TokenBlacklistGlobalFilter implements GlobalFilter, Ordered {
                         return chain.filter(exchange);
                     }
 
-                    String jti = null;
-                    try {
-                        jti = jwt.getClaimAsString("jti");
-                    } catch (Exception ignored) {
-                    }
-                    String key = buildBlacklistKey(jti != null && !jti.isBlank() ? jti : bearerToken);
-                    return checkAndBlockIfBlacklisted(exchange, chain, key);
+                    // 复用验签时预计算的 jti / userId（仅用户 Token 携带 userId，客户端凭证 Token 不参与水位线校验）
+                    VerifiedToken verified = verifiedTokenCache.resolve(jwt);
+                    String jti = verified.getJti();
+                    String id = jti != null && !jti.isBlank() ? jti : bearerToken;
+                    return tokenRevocationIndex.isRevokedBefore(verified.getUserId(), JwtUtils.getIssuedAtMillis(jwt))
+                        .flatMap(revoked -> {
+                            if (revoked) {
+                                log.info("JWT 早于用户撤销水位线，拒绝访问。jti={}, clientIp={}",
+                                    jti, exchange.getRequest().getRemoteAddress());
+                                return writeUnauthorized(exchange);
+                            }
+                            return checkAndBlockIfBlacklisted(exchange, chain, id, verified);
+                        });
                 }
                 // 不是 JWT 认证主体，回退使用 token 整串
-                String key = buildBlacklistKey(bearerToken);
-                return checkAndBlockIfBlacklisted(exchange, chain, key);
+                return checkAndBlockIfBlacklisted(exchange, chain, bearerToken, null);
             })
             // 如果没有主体（未通过 Security 认证链，但带了 Bearer），依旧用整串 token 检查
-            .switchIfEmpty(checkAndBlockIfBlacklisted(exchange, chain, buildBlacklistKey(bearerToken)));
+            .switchIfEmpty(Mono.defer(() -> checkAndBlockIfBlacklisted(exchange, chain, bearerToken, null)));
     }
 
     private boolean shouldSkipByPath(ServerWebExchange exchange) {
@@ -158,12 +168,23 @@ public class TokenBlacklistGlobalFilter implements GlobalFilter, Ordered {
     }
 
     private String buildBlacklistKey(String id) {
-        return blacklistKeyPrefix + Objects.toString(id, "");
+        return tokenRevocationIndex.blacklistRedisKey(Objects.toString(id, ""));
     }
 
     private Mono<Void> checkAndBlockIfBlacklisted(ServerWebExchange exchange,
                                                   GatewayFilterChain chain,
-                                                  String redisKey) {
+                                                  String id,
+                                                  VerifiedToken verified) {
+        // 本地索引判定一定未撤销时直接放行，不访问 Redis
+        if (!tokenRevocationIndex.mightBeRevoked(id)) {
+            return chain.filter(exchange);
+        }
+        // 索引误判过的 Token 在结论有效期内不再回源（撤销事件会剔除缓存条目，结论随之失效）
+        if (verified != null && tokenRevocationIndex.isReady()
+            && verifiedTokenCache.isNotRevokedVerdictFresh(verified, System.currentTimeMillis())) {
+            return chain.filter(exchange);
+        }
+        String redisKey = buildBlacklistKey(id);
         return reactiveStringRedisTemplate.opsForValue()
             .get(redisKey)
             .flatMap(value -> {
@@ -172,7 +193,15 @@ public class TokenBlacklistGlobalFilter implements GlobalFilter, Ordered {
                     redisKey, exchange.getRequest().getRemoteAddress());
                 return writeUnauthorized(exchange);
             })
-            .switchIfEmpty(chain.filter(exchange));
+            .switchIfEmpty(Mono.defer(() -> {
+                if (tokenRevocationIndex.isReady()) {
+                    tokenRevocationIndex.recordFalsePositive();
+                    if (verified != null) {
+                        verified.confirmNotRevoked(System.currentTimeMillis());
+                    }
+                }
+                return chain.filter(exchange);
+            }));
     }
 
     private Mono<Void> writeUnauthorized(ServerWebExchange exchange) {
@@ -1,7 +1,8 @@
 package com.scccy.gateway.filter;
 
 import com.scccy.common.modules.constant.UserHeaderConstants;
-import com.scccy.common.modules.utils.JwtUtils;
+import com.scccy.gateway.jwt.VerifiedToken;
+import com.scccy.gateway.jwt.VerifiedTokenCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
@@ -15,14 +16,12 @@ import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
-
 /**
  * 用户信息网关过滤器
  * <p>
  * 从 Token 中提取用户信息，添加到请求头传递给后端服务
  * <p>
- * 注意：使用 JwtUtils 静态方法，避免依赖注入
+ * 请求头取值在 Token 首次验签时已预计算并随 {@link VerifiedTokenCache} 缓存，重复请求直接复用
  *
  * @author scccy
  */
@@ -30,8 +29,11 @@ import java.util.List;
 @Component
 public class UserInfoGatewayFilter extends AbstractGatewayFilterFactory<Object> {
 
-    public UserInfoGatewayFilter() {
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    public UserInfoGatewayFilter(VerifiedTokenCache verifiedTokenCache) {
         super(Object.class);
+        this.verifiedTokenCache = verifiedTokenCache;
     }
 
     @Override
@@ -43,20 +45,26 @@ public class UserInfoGatewayFilter extends AbstractGatewayFilterFactory<Object>
                 .cast(JwtAuthenticationToken.class)
                 .map(JwtAuthenticationToken::getToken)
                 .flatMap(jwt -> {
-                    // 使用 JwtUtils 静态方法提取用户信息
-                    Long userId = JwtUtils.getUserId(jwt);
-                    String username = JwtUtils.getUsername(jwt);
-                    List<String> authorities = JwtUtils.getAuthorities(jwt);
+                    // 复用验签时预计算的用户信息
+                    VerifiedToken verified = verifiedTokenCache.resolve(jwt);
 
-                    log.debug("提取用户信息: userId={}, username={}, authorities={}",
-                        userId, username, authorities);
+                    log.debug("提取用户信息: userId={}, username={}, authorities={}, authoritiesBits={}",
+                        verified.getUserIdHeader(), verified.getUsernameHeader(),
+                        verified.getAuthoritiesHeader(), verified.getAuthoritiesBitsHeader());
 
                     // 添加用户信息到请求头（这些请求头不会暴露给前端，只在 Gateway 和后端服务之间传递）
                     ServerHttpRequest modifiedRequest = exchange.getRequest().mutate()
-                        .header(UserHeaderConstants.HEADER_USER_ID, userId != null ? String.valueOf(userId) : "")
-                        .header(UserHeaderConstants.HEADER_USERNAME, username != null ? username : "")
-                        .header(UserHeaderConstants.HEADER_AUTHORITIES, authorities != null && !authorities.isEmpty()
-                            ? String.join(",", authorities) : "")
+                        .header(UserHeaderConstants.HEADER_USER_ID, verified.getUserIdHeader())
+                        .header(UserHeaderConstants.HEADER_USERNAME, verified.getUsernameHeader())
+                        .header(UserHeaderConstants.HEADER_AUTHORITIES, verified.getAuthoritiesHeader())
+                        .headers(headers -> {
+                            // 位图请求头只能由 Gateway 写入，字典未就绪时移除客户端可能携带的同名请求头
+                            if (verified.getAuthoritiesBitsHeader() != null) {
+                                headers.set(UserHeaderConstants.HEADER_AUTHORITIES_BITS, verified.getAuthoritiesBitsHeader());
+                            } else {
+                                headers.remove(UserHeaderConstants.HEADER_AUTHORITIES_BITS);
+                            }
+                        })
                         .build();
 
                     ServerWebExchange modifiedExchange = exchange.mutate()
@@ -65,7 +73,12 @@ public class UserInfoGatewayFilter extends AbstractGatewayFilterFactory<Object>
 
                     return chain.filter(modifiedExchange);
                 })
-                .switchIfEmpty(chain.filter(exchange));  // 如果没有认证信息，继续转发
+                // 如果没有认证信息，移除客户端可能伪造的权限位图请求头后继续转发
+                .switchIfEmpty(Mono.defer(() -> chain.filter(exchange.mutate()
+                    .request(exchange.getRequest().mutate()
+                        .headers(headers -> headers.remove(UserHeaderConstants.HEADER_AUTHORITIES_BITS))
+                        .build())
+                    .build())));
         }, -100);  // 在路由之前执行
     }
 }
@@ -0,0 +1,39 @@
+package com.scccy.gateway.jwt;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+/**
+ * 带验签缓存的 ReactiveJwtDecoder
+ * <p>
+ * 命中 {@link VerifiedTokenCache} 时直接返回已验证的 {@link Jwt}，跳过 RSA 验签与 claim 解析；
+ * 未命中时委托给真正的解码器（如 NimbusReactiveJwtDecoder），验签通过后写入缓存。
+ * 验签失败的 Token 不会被缓存
+ *
+ * @author scccy
+ */
+public class CachingReactiveJwtDecoder implements ReactiveJwtDecoder {
+
+    private final ReactiveJwtDecoder delegate;
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    public CachingReactiveJwtDecoder(ReactiveJwtDecoder delegate, VerifiedTokenCache verifiedTokenCache) {
+        this.delegate = delegate;
+        this.verifiedTokenCache = verifiedTokenCache;
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) throws JwtException {
+        VerifiedToken cached = verifiedTokenCache.getIfPresent(token);
+        if (cached != null) {
+            return Mono.just(cached.getJwt());
+        }
+        return Mono.defer(() -> {
+            long startedAt = System.nanoTime();
+            return delegate.decode(token)
+                .map(jwt -> verifiedTokenCache.put(jwt, System.nanoTime() - startedAt).getJwt());
+        });
+    }
+}
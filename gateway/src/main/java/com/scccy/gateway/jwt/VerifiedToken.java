@@ -0,0 +1,56 @@
+package com.scccy.gateway.jwt;
+
+import com.scccy.common.modules.utils.JwtUtils;
+import com.scccy.gateway.permission.PermissionDictionaryHolder;
+import lombok.Getter;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+
+/**
+ * 已验证的 Token
+ * <p>
+ * 持有验签后的 {@link Jwt} 以及预先计算好的用户信息请求头值（权限已按共享字典编码为位图），
+ * 重复请求直接复用，无需再次验签与提取 claim
+ *
+ * @author scccy
+ */
+@Getter
+public class VerifiedToken {
+
+    private final Jwt jwt;
+    private final String jti;
+    private final Long userId;
+    private final String userIdHeader;
+    private final String usernameHeader;
+    private final String authoritiesHeader;
+    /**
+     * 权限位图请求头值，字典未就绪时为 null
+     */
+    private final String authoritiesBitsHeader;
+
+    /**
+     * 最近一次回源 Redis 确认"未撤销"的时间（毫秒），0 表示未确认过
+     */
+    private volatile long notRevokedConfirmedAt;
+
+    public VerifiedToken(Jwt jwt, PermissionDictionaryHolder permissionDictionary) {
+        this.jwt = jwt;
+        this.jti = jwt.getId();
+        this.userId = jwt.hasClaim("userId") ? JwtUtils.getUserId(jwt) : null;
+        String username = JwtUtils.getUsername(jwt);
+        PermissionDictionaryHolder.EncodedAuthorities authorities = permissionDictionary.encode(JwtUtils.getAuthorities(jwt));
+        this.userIdHeader = userId != null ? String.valueOf(userId) : "";
+        this.usernameHeader = username != null ? username : "";
+        this.authoritiesHeader = authorities.plainHeader();
+        this.authoritiesBitsHeader = authorities.bitsHeader();
+    }
+
+    /**
+     * 记录一次"未撤销"结论
+     *
+     * @param now 当前时间（毫秒）
+     */
+    public void confirmNotRevoked(long now) {
+        this.notRevokedConfirmedAt = now;
+    }
+}
@@ -0,0 +1,355 @@
+package com.scccy.gateway.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.scccy.common.modules.utils.JwtUtils;
+import com.scccy.gateway.blacklist.TokenRevocationIndex;
+import com.scccy.gateway.blacklist.TokenRevocationListener;
+import com.scccy.gateway.config.VerifiedTokenCacheProperties;
+import com.scccy.gateway.permission.PermissionDictionaryHolder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.util.retry.Retry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gateway 已验证 Token 缓存
+ * <p>
+ * 以 Token 串的 SHA-256 为 Key，缓存验签后的 {@link VerifiedToken}：
+ * <ul>
+ *     <li>第一级：验签结果（{@link Jwt}），重复请求跳过 RSA 验签，见 {@link CachingReactiveJwtDecoder}</li>
+ *     <li>第二级：预计算的用户信息请求头与"未撤销"结论，跳过 claim 提取与误判 Token 的 Redis 回源</li>
+ * </ul>
+ * 失效策略：
+ * <ul>
+ *     <li>单条过期时间取 Token exp 与 max-ttl 中较早者，容量受 maximum-size 限制</li>
+ *     <li>收到撤销事件 / 用户级水位线事件时剔除对应条目：按 jti → Key、userId → Key 二级索引直接定位，
+ *     不扫描整个缓存</li>
+ *     <li>收到 JWK 轮换事件时清空全部条目，后续请求重新验签</li>
+ * </ul>
+ *
+ * @author scccy
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(VerifiedTokenCacheProperties.class)
+public class VerifiedTokenCache implements TokenRevocationListener {
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    });
+
+    private final VerifiedTokenCacheProperties properties;
+    private final TokenRevocationIndex tokenRevocationIndex;
+    private final PermissionDictionaryHolder permissionDictionary;
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Cache<String, VerifiedToken> cache;
+    /**
+     * 二级索引，写入缓存后登记，条目被剔除 / 过期 / 淘汰时注销；索引中多余的 Key 只会导致一次无效的 invalidate
+     */
+    private final Map<String, Set<String>> keysByJti = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> keysByUserId = new ConcurrentHashMap<>();
+
+    private Counter hits;
+    private Counter misses;
+    private Timer decodeTimer;
+    private Disposable jwkRotationSubscription;
+
+    public VerifiedTokenCache(VerifiedTokenCacheProperties properties,
+                              TokenRevocationIndex tokenRevocationIndex,
+                              PermissionDictionaryHolder permissionDictionary,
+                              ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+                              MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.tokenRevocationIndex = tokenRevocationIndex;
+        this.permissionDictionary = permissionDictionary;
+        this.reactiveStringRedisTemplate = reactiveStringRedisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(properties.getMaximumSize())
+            .expireAfter(new TokenExpiry(properties.getMaxTtl()))
+            // 淘汰 / 过期回调在缓存写锁内同步执行，先于同一 Key 的后续写入，不会误删新条目的索引
+            .evictionListener((String key, VerifiedToken verified, RemovalCause cause) -> unindex(key, verified))
+            .build();
+    }
+
+    @PostConstruct
+    public void init() {
+        hits = Counter.builder("gateway.jwt.verified.cache.hits")
+            .description("已验证 Token 缓存命中次数（跳过验签）")
+            .register(meterRegistry);
+        misses = Counter.builder("gateway.jwt.verified.cache.misses")
+            .description("已验证 Token 缓存未命中次数")
+            .register(meterRegistry);
+        decodeTimer = Timer.builder("gateway.jwt.decode")
+            .description("缓存未命中时完整解码与验签的耗时")
+            .register(meterRegistry);
+        Gauge.builder("gateway.jwt.verified.cache.hit.ratio", this, VerifiedTokenCache::hitRatio)
+            .description("已验证 Token 缓存命中率")
+            .register(meterRegistry);
+        Gauge.builder("gateway.jwt.verified.cache.saved.cpu", this, VerifiedTokenCache::savedCpuSeconds)
+            .description("命中缓存累计节省的验签耗时（按未命中平均耗时估算）")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        Gauge.builder("gateway.jwt.verified.cache.size", cache, Cache::estimatedSize)
+            .description("已验证 Token 缓存条目数")
+            .register(meterRegistry);
+
+        if (!properties.isEnabled()) {
+            log.info("Gateway 已验证 Token 缓存未启用，每个请求都将完整验签");
+            return;
+        }
+        tokenRevocationIndex.addListener(this);
+        jwkRotationSubscription = reactiveStringRedisTemplate.listenToChannel(properties.getJwkRotationChannel())
+            .doOnNext(message -> {
+                log.info("收到 JWK 轮换事件，清空已验证 Token 缓存: {}", message.getMessage());
+                invalidateAll();
+            })
+            .doOnError(e -> {
+                // 订阅中断期间无法感知密钥轮换，保守起见清空缓存
+                invalidateAll();
+                log.warn("JWK 轮换事件订阅中断，已清空已验证 Token 缓存: {}", e.toString());
+            })
+            .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (jwkRotationSubscription != null) {
+            jwkRotationSubscription.dispose();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * 按 Token 串查询已验证结果
+     *
+     * @param token Bearer Token 串
+     * @return 命中且未过期时返回缓存条目，否则返回 null
+     */
+    public VerifiedToken getIfPresent(String token) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        String key = key(token);
+        VerifiedToken verified = cache.getIfPresent(key);
+        if (verified != null) {
+            Instant expiresAt = verified.getJwt().getExpiresAt();
+            if (expiresAt == null || expiresAt.isAfter(Instant.now())) {
+                hits.increment();
+                return verified;
+            }
+            invalidate(key, verified);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * 写入验签结果
+     *
+     * @param jwt          验签通过的 Jwt
+     * @param decodeNanos  本次解码耗时（纳秒）
+     * @return 缓存条目
+     */
+    public VerifiedToken put(Jwt jwt, long decodeNanos) {
+        decodeTimer.record(decodeNanos, TimeUnit.NANOSECONDS);
+        VerifiedToken verified = new VerifiedToken(jwt, permissionDictionary);
+        if (properties.isEnabled()) {
+            String key = key(jwt.getTokenValue());
+            cache.put(key, verified);
+            index(key, verified);
+        }
+        return verified;
+    }
+
+    /**
+     * 获取 Jwt 对应的已验证条目（含预计算请求头），未命中时即时构建
+     *
+     * @param jwt 已认证的 Jwt
+     * @return 已验证条目
+     */
+    public VerifiedToken resolve(Jwt jwt) {
+        if (properties.isEnabled()) {
+            VerifiedToken verified = cache.getIfPresent(key(jwt.getTokenValue()));
+            if (verified != null && verified.getJwt() == jwt) {
+                return verified;
+            }
+        }
+        return new VerifiedToken(jwt, permissionDictionary);
+    }
+
+    /**
+     * "未撤销"结论是否仍然有效
+     *
+     * @param verified 已验证条目
+     * @param now      当前时间（毫秒）
+     */
+    public boolean isNotRevokedVerdictFresh(VerifiedToken verified, long now) {
+        long confirmedAt = verified.getNotRevokedConfirmedAt();
+        return confirmedAt > 0 && now - confirmedAt < properties.getNotRevokedVerdictTtl().toMillis();
+    }
+
+    @Override
+    public void onTokenRevoked(String id) {
+        // 无 jti 的 Token 以整串作为撤销 id
+        invalidate(key(id));
+        Set<String> keys = keysByJti.remove(id);
+        if (keys != null) {
+            keys.forEach(this::invalidate);
+        }
+    }
+
+    @Override
+    public void onUserRevoked(long userId, long revokedBefore) {
+        Set<String> keys = keysByUserId.get(userId);
+        if (keys == null) {
+            return;
+        }
+        for (String key : List.copyOf(keys)) {
+            VerifiedToken verified = cache.getIfPresent(key);
+            if (verified == null) {
+                continue;
+            }
+            Long issuedAtMillis = JwtUtils.getIssuedAtMillis(verified.getJwt());
+            if (issuedAtMillis == null || issuedAtMillis < revokedBefore) {
+                invalidate(key, verified);
+            }
+        }
+    }
+
+    private void invalidate(String key) {
+        VerifiedToken removed = cache.asMap().remove(key);
+        if (removed != null) {
+            unindex(key, removed);
+        }
+    }
+
+    /**
+     * 仅当缓存中仍是该条目时剔除，避免误删并发写入的新条目
+     */
+    private void invalidate(String key, VerifiedToken verified) {
+        if (cache.asMap().remove(key, verified)) {
+            unindex(key, verified);
+        }
+    }
+
+    private void invalidateAll() {
+        cache.invalidateAll();
+        keysByJti.clear();
+        keysByUserId.clear();
+    }
+
+    private void index(String key, VerifiedToken verified) {
+        if (verified.getJti() != null) {
+            addKey(keysByJti, verified.getJti(), key);
+        }
+        if (verified.getUserId() != null) {
+            addKey(keysByUserId, verified.getUserId(), key);
+        }
+    }
+
+    private void unindex(String key, VerifiedToken verified) {
+        if (verified.getJti() != null) {
+            removeKey(keysByJti, verified.getJti(), key);
+        }
+        if (verified.getUserId() != null) {
+            removeKey(keysByUserId, verified.getUserId(), key);
+        }
+    }
+
+    private static <I> void addKey(Map<I, Set<String>> index, I id, String key) {
+        index.compute(id, (ignored, keys) -> {
+            Set<String> result = keys != null ? keys : ConcurrentHashMap.newKeySet();
+            result.add(key);
+            return result;
+        });
+    }
+
+    private static <I> void removeKey(Map<I, Set<String>> index, I id, String key) {
+        index.computeIfPresent(id, (ignored, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private double savedCpuSeconds() {
+        return hits.count() * decodeTimer.mean(TimeUnit.SECONDS);
+    }
+
+    private static String key(String token) {
+        MessageDigest digest = SHA256.get();
+        digest.reset();
+        byte[] hash = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    /**
+     * 单条过期时间：min(Token exp, max-ttl)
+     */
+    private static final class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        private final long maxTtlNanos;
+
+        private TokenExpiry(Duration maxTtl) {
+            this.maxTtlNanos = maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            Instant expiresAt = value.getJwt().getExpiresAt();
+            if (expiresAt == null) {
+                return maxTtlNanos;
+            }
+            long remaining = TimeUnit.MILLISECONDS.toNanos(expiresAt.toEpochMilli() - System.currentTimeMillis());
+            return Math.max(0, Math.min(remaining, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.scccy.gateway.permission;
+
+import com.scccy.common.modules.constant.AuthorityConstants;
+import com.scccy.common.modules.permission.PermissionCodec;
+import com.scccy.common.modules.permission.PermissionDictionary;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Gateway 端权限字典
+ * <p>
+ * 启动时及定期从 Redis 增量拉取权限字典（只追加的 List），用于将用户权限编码为位图请求头。
+ * 遇到字典中不存在的权限时异步追加到 Redis，本次请求仍以明文传递，字典刷新后即可编码；
+ * 收到 service-system 的角色权限变更广播时立即刷新一次，尽快拿到其他实例追加的新权限
+ *
+ * @author scccy
+ */
+@Slf4j
+@Component
+public class PermissionDictionaryHolder {
+
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    @Value("${security.permission-codec.enabled:true}")
+    private boolean enabled;
+
+    @Value("${security.permission-codec.refresh-interval:30s}")
+    private Duration refreshInterval;
+
+    private volatile PermissionDictionary dictionary = PermissionDictionary.EMPTY;
+    private final Set<String> pendingRegistrations = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private Disposable refreshTask;
+    private Disposable changeSubscription;
+
+    public PermissionDictionaryHolder(ReactiveStringRedisTemplate reactiveStringRedisTemplate) {
+        this.reactiveStringRedisTemplate = reactiveStringRedisTemplate;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("权限位图编码未启用，权限以明文请求头传递");
+            return;
+        }
+        refreshTask = Flux.interval(Duration.ZERO, refreshInterval, Schedulers.parallel())
+            .onBackpressureDrop()
+            .concatMap(tick -> refresh())
+            .subscribe();
+        changeSubscription = reactiveStringRedisTemplate.listenToChannel(AuthorityConstants.AUTHORITY_CHANGED_CHANNEL)
+            .onBackpressureDrop()
+            .concatMap(message -> refresh())
+            .doOnError(e -> log.warn("角色权限变更订阅中断，依赖定时刷新: {}", e.toString()))
+            .onErrorResume(e -> Mono.empty())
+            .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refreshTask != null) {
+            refreshTask.dispose();
+        }
+        if (changeSubscription != null) {
+            changeSubscription.dispose();
+        }
+    }
+
+    /**
+     * 编码权限列表
+     *
+     * @param authorities 权限列表
+     * @return 编码结果；未启用或字典未就绪时全部以明文传递
+     */
+    public EncodedAuthorities encode(List<String> authorities) {
+        if (authorities == null || authorities.isEmpty()) {
+            return EncodedAuthorities.EMPTY;
+        }
+        if (!enabled) {
+            return new EncodedAuthorities(null, String.join(",", authorities));
+        }
+        List<String> unknown = new ArrayList<>(0);
+        String bits = PermissionCodec.encode(authorities, dictionary, unknown);
+        if (!unknown.isEmpty() && !dictionary.isEmpty()) {
+            register(unknown);
+        }
+        return new EncodedAuthorities(bits, unknown.isEmpty() ? "" : String.join(",", unknown));
+    }
+
+    /**
+     * 增量刷新字典：检查纪元后拉取尾部新增元素
+     */
+    Mono<Void> refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return Mono.empty();
+        }
+        PermissionDictionary current = dictionary;
+        return reactiveStringRedisTemplate.opsForList().index(PermissionCodec.DICTIONARY_KEY, 0)
+            .flatMap(epochMarker -> {
+                boolean sameEpoch = !current.isEmpty()
+                    && epochMarker.equals(PermissionDictionary.EPOCH_PREFIX + current.epoch());
+                long from = sameEpoch ? current.size() : 0;
+                return reactiveStringRedisTemplate.opsForList().range(PermissionCodec.DICTIONARY_KEY, from, -1)
+                    .collectList()
+                    .doOnNext(tail -> {
+                        PermissionDictionary next = sameEpoch ? current.extend(tail) : PermissionDictionary.of(tail);
+                        if (next != current) {
+                            dictionary = next;
+                            log.debug("权限字典已刷新: epoch={}, size={}", next.epoch(), next.size());
+                        }
+                    });
+            })
+            // 字典不存在时写入纪元标记初始化（并发初始化时以下标 0 的标记为准）
+            .switchIfEmpty(Mono.defer(() -> reactiveStringRedisTemplate.opsForList()
+                .rightPush(PermissionCodec.DICTIONARY_KEY, PermissionDictionary.EPOCH_PREFIX + newEpoch())
+                .then(Mono.empty())))
+            .doOnError(e -> log.warn("刷新权限字典失败，保留当前字典: {}", e.toString()))
+            .onErrorResume(e -> Mono.empty())
+            .doFinally(signal -> refreshing.set(false))
+            .then();
+    }
+
+    private void register(Collection<String> names) {
+        List<String> toRegister = new ArrayList<>(names.size());
+        for (String name : names) {
+            if (pendingRegistrations.add(name)) {
+                toRegister.add(name);
+            }
+        }
+        if (toRegister.isEmpty()) {
+            return;
+        }
+        reactiveStringRedisTemplate.opsForList().rightPushAll(PermissionCodec.DICTIONARY_KEY, toRegister)
+            .then(refresh())
+            .doOnError(e -> log.warn("追加权限字典失败: {}", e.toString()))
+            .doFinally(signal -> toRegister.forEach(pendingRegistrations::remove))
+            .subscribe();
+    }
+
+    private static String newEpoch() {
+        return Long.toString(System.currentTimeMillis(), 36)
+            + Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    }
+
+    /**
+     * 权限请求头编码结果
+     *
+     * @param bitsHeader  位图请求头值，可能为 null
+     * @param plainHeader 明文权限请求头值（逗号分隔）
+     */
+    public record EncodedAuthorities(String bitsHeader, String plainHeader) {
+
+        public static final EncodedAuthorities EMPTY = new EncodedAuthorities(null, "");
+    }
+}
@@ -0,0 +1,183 @@
+package com.scccy.gateway.blacklist;
+
+import com.alicp.jetcache.Cache;
+import com.alicp.jetcache.CacheBuilder;
+import com.alicp.jetcache.ProxyCache;
+import com.alicp.jetcache.SimpleCacheManager;
+import com.alicp.jetcache.anno.CacheConsts;
+import com.alicp.jetcache.anno.CacheType;
+import com.alicp.jetcache.external.AbstractExternalCache;
+import com.alicp.jetcache.external.MockRemoteCacheBuilder;
+import com.alicp.jetcache.template.CacheBuilderTemplate;
+import com.alicp.jetcache.template.QuickConfig;
+import com.scccy.common.modules.constant.TokenRevocationConstants;
+import com.scccy.common.modules.utils.JwtUtils;
+import com.scccy.gateway.config.TokenRevocationIndexProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+/**
+ * {@link TokenRevocationIndex} 全量重建测试
+ * <p>
+ * Redis 以内存 Map 模拟，SCAN 按 MATCH 模式过滤，黑名单 Key 按 Auth 服务的方式经 JetCache 远程缓存生成
+ *
+ * @author scccy
+ */
+class TokenRevocationIndexTest {
+
+    private static final long USER_ID = 42L;
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+    private TokenRevocationIndex index;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ReactiveStringRedisTemplate template = mock(ReactiveStringRedisTemplate.class);
+        doReturn(Flux.never()).when(template).listenToChannel(any(), any());
+        doAnswer(invocation -> {
+            ScanOptions options = invocation.getArgument(0);
+            Pattern pattern = globToRegex(options.getPattern());
+            return Flux.fromIterable(redis.keySet()).filter(key -> pattern.matcher(key).matches());
+        }).when(template).scan(any(ScanOptions.class));
+        ReactiveValueOperations<String, String> valueOperations = mock(ReactiveValueOperations.class);
+        doReturn(valueOperations).when(template).opsForValue();
+        doAnswer(invocation -> {
+            List<String> keys = List.copyOf(invocation.<Collection<String>>getArgument(0));
+            return Mono.just(keys.stream().map(redis::get).toList());
+        }).when(valueOperations).multiGet(anyCollection());
+
+        index = new TokenRevocationIndex(template, new TokenRevocationIndexProperties(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(index, "blacklistKeyPrefix", TokenRevocationConstants.BLACKLIST_KEY_PREFIX);
+        ReflectionTestUtils.setField(index, "blacklistCacheName", TokenRevocationConstants.BLACKLIST_CACHE_NAME);
+        ReflectionTestUtils.setField(index, "revokedBeforeKeyPrefix", TokenRevocationConstants.REVOKED_BEFORE_KEY_PREFIX);
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.stop();
+    }
+
+    @Test
+    void resyncFindsBlacklistKeysWrittenThroughJetCache() {
+        redis.put(seedBlacklistKey("jti-revoked"), "true");
+
+        // 订阅建立后触发全量重建
+        index.start();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.mightBeRevoked("jti-revoked")).isTrue();
+        assertThat(index.mightBeRevoked("jti-active")).isFalse();
+    }
+
+    @Test
+    void blacklistRedisKeyMatchesJetCacheKey() {
+        assertThat(index.blacklistRedisKey("jti-revoked")).isEqualTo(seedBlacklistKey("jti-revoked"));
+    }
+
+    @Test
+    void reLoginInSameSecondAfterRevokeAllIsNotRevoked() {
+        // 改密时撤销全部会话（水位线为撤销时刻的毫秒），随后在同一秒内重新登录
+        long revokedAt = 1_700_000_000_500L;
+        redis.put(TokenRevocationConstants.REVOKED_BEFORE_KEY_PREFIX + USER_ID, String.valueOf(revokedAt));
+        index.start();
+
+        Jwt issuedBefore = userJwt(revokedAt - 200);
+        Jwt reLogin = userJwt(revokedAt + 200);
+
+        assertThat(issuedBefore.getIssuedAt()).isEqualTo(reLogin.getIssuedAt());
+        assertThat(index.isRevokedBefore(USER_ID, JwtUtils.getIssuedAtMillis(issuedBefore)).block()).isTrue();
+        assertThat(index.isRevokedBefore(USER_ID, JwtUtils.getIssuedAtMillis(reLogin)).block()).isFalse();
+    }
+
+    @Test
+    void secondsWatermarkWrittenBeforeUpgradeStillRevokes() {
+        long revokedAt = 1_700_000_000_500L;
+        redis.put(TokenRevocationConstants.REVOKED_BEFORE_KEY_PREFIX + USER_ID, String.valueOf(revokedAt / 1000));
+        index.start();
+
+        assertThat(index.isRevokedBefore(USER_ID, JwtUtils.getIssuedAtMillis(userJwt(revokedAt - 1000))).block())
+                .isTrue();
+        assertThat(index.isRevokedBefore(USER_ID, JwtUtils.getIssuedAtMillis(userJwt(revokedAt + 200))).block())
+                .isFalse();
+    }
+
+    /**
+     * 与 UserTokenGenerationService 相同：iat 为秒，另带毫秒精度的签发时间
+     */
+    private static Jwt userJwt(long issuedAtMillis) {
+        return Jwt.withTokenValue("token-" + issuedAtMillis)
+                .header("alg", "RS256")
+                .issuedAt(Instant.ofEpochSecond(issuedAtMillis / 1000))
+                .claim(TokenRevocationConstants.ISSUED_AT_MILLIS_CLAIM, issuedAtMillis)
+                .claim("userId", USER_ID)
+                .build();
+    }
+
+    /**
+     * 与 TokenBlacklistService 相同：按缓存名称创建 REMOTE 缓存，以 {@code jwt:blacklist:<id>} 为 Key 写入，
+     * 返回该记录在 Redis 中的实际 Key
+     */
+    @SuppressWarnings("unchecked")
+    private static String seedBlacklistKey(String id) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        Map<String, CacheBuilder> remoteBuilders = Collections.singletonMap(CacheConsts.DEFAULT_AREA,
+                MockRemoteCacheBuilder.createMockRemoteCacheBuilder());
+        cacheManager.setCacheBuilderTemplate(new CacheBuilderTemplate(false, Collections.emptyMap(), remoteBuilders));
+        Cache<String, Boolean> cache = cacheManager.getOrCreateCache(
+                QuickConfig.newBuilder(TokenRevocationConstants.BLACKLIST_CACHE_NAME)
+                        .cacheType(CacheType.REMOTE)
+                        .syncLocal(false)
+                        .build());
+        String key = TokenRevocationConstants.BLACKLIST_KEY_PREFIX + id;
+        cache.put(key, true, 1, TimeUnit.MINUTES);
+
+        Cache<String, Boolean> target = cache;
+        while (target instanceof ProxyCache) {
+            target = ((ProxyCache<String, Boolean>) target).getTargetCache();
+        }
+        byte[] redisKey = ((AbstractExternalCache<String, Boolean>) target).buildKey(key);
+        cacheManager.close();
+        return new String(redisKey, StandardCharsets.UTF_8);
+    }
+
+    private static Pattern globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*') {
+                regex.append(".*");
+            } else if (c == '?') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
@@ -5,11 +5,14 @@ import com.scccy.common.modules.constant.SecurityPathConstants;
 import com.scccy.common.modules.domain.mp.system.SysUserMp;
 import com.scccy.common.modules.dto.ResultData;
 import com.scccy.service.auth.fegin.SystemUserClient;
+import com.scccy.service.auth.oauth2.JWKCacheManager;
 import com.scccy.service.auth.oauth2.device.DeviceClientAuthenticationConverter;
 import com.scccy.service.auth.oauth2.device.DeviceClientAuthenticationProvider;
 import com.scccy.service.auth.oauth2.handler.Oauth2AccessDeniedHandler;
 
 import com.scccy.service.auth.oauth2.handler.Oauth2FailureHandler;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
@@ -199,4 +202,18 @@ public class AuthorizationServerConfig {
 
         return httpSecurity.build();
     }
+
+    /**
+     * JWK 来源
+     * <p>
+     * 直接读取 {@link JWKCacheManager} 常驻内存的 JWKSet（生效密钥 + 宽限期内的旧密钥），
+     * 供 /oauth2/jwks 发布公钥及授权服务器签发 Token 使用；签发时通过 JWS Header 的 kid 选中生效密钥
+     *
+     * @param jwkCacheManager JWK 密钥管理
+     * @return JWKSource
+     */
+    @Bean
+    public JWKSource<SecurityContext> jwkSource(JWKCacheManager jwkCacheManager) {
+        return (jwkSelector, securityContext) -> jwkSelector.select(jwkCacheManager.getJWKSet());
+    }
 }
@@ -1,6 +1,8 @@
 package com.scccy.service.auth.config;
 
+import com.scccy.common.modules.constant.TokenRevocationConstants;
 import com.scccy.common.modules.domain.mp.system.SysUserMp;
+import com.scccy.service.auth.oauth2.JWKCacheManager;
 import com.scccy.service.auth.service.SystemUserCacheService;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
@@ -11,6 +13,7 @@ import org.springframework.security.oauth2.core.AuthorizationGrantType;
 import org.springframework.security.oauth2.server.authorization.token.JwtEncodingContext;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenCustomizer;
 
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 
@@ -28,6 +31,9 @@ public class TokenCustomizerConfig {
     @Resource
     private SystemUserCacheService systemUserCacheService;
 
+    @Resource
+    private JWKCacheManager jwkCacheManager;
+
     /**
      * JWT Token 自定义器
      * <p>
@@ -38,6 +44,9 @@ public class TokenCustomizerConfig {
     @Bean
     public OAuth2TokenCustomizer<JwtEncodingContext> jwtTokenCustomizer() {
         return (context) -> {
+            // 密钥轮换宽限期内 JWKSet 中有多个密钥，通过 kid 指定当前生效的签名密钥
+            context.getJwsHeader().keyId(jwkCacheManager.getSigningKey().keyId());
+
             Authentication principal = context.getPrincipal();
 
             // 客户端凭证模式：内部服务调用，优先处理并返回
@@ -54,6 +63,13 @@ public class TokenCustomizerConfig {
                 return;
             }
 
+            // iat 只有秒精度，附加毫秒精度的签发时间供用户级撤销水位线比较
+            context.getClaims().claims(claims -> {
+                if (claims.get("iat") instanceof Instant issuedAt) {
+                    claims.put(TokenRevocationConstants.ISSUED_AT_MILLIS_CLAIM, issuedAt.toEpochMilli());
+                }
+            });
+
             String username = principal.getName();
 
             log.debug("开始自定义 JWT Token，用户名: {}", username);
@@ -1,5 +1,6 @@
 package com.scccy.service.auth.controller;
 
+import com.scccy.common.modules.annotation.InternalOnly;
 import com.scccy.common.modules.dto.ResultData;
 import com.scccy.service.auth.dto.LoginBody;
 import com.scccy.service.auth.dto.LoginResponse;
@@ -39,6 +40,7 @@ import java.util.Map;
  * - 用户注册：创建新用户（通过 Feign 调用 system 服务）
  * - 用户登录：用户名密码认证
  * - 用户登出：将 JWT Token 加入黑名单
+ * - 会话撤销：撤销指定用户的全部 Token（内部调用）
  *
  * @author scccy
  */
@@ -230,5 +232,35 @@ public class UserAuthController {
             return ResultData.ok("登出成功");
         }
     }
-}
 
+    /**
+     * 撤销用户全部会话接口
+     * <p>
+     * 写入用户级撤销水位线，该用户此前签发的所有 Token 立即失效；
+     * 供改密、封禁等场景由内部服务调用，不逐个拉黑 Token
+     *
+     * @param userId 用户ID
+     * @return 水位线（epoch 秒）
+     */
+    @Operation(
+            summary = "撤销用户全部会话",
+            description = "写入用户级撤销水位线，该用户在此之前签发的所有 Token 均失效。仅限内部服务调用（internal-service scope）。"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "撤销成功",
+                    content = @Content(schema = @Schema(implementation = ResultData.class))
+            )
+    })
+    @InternalOnly
+    @PostMapping("/{userId}/sessions/revoke")
+    @ResponseBody
+    public ResultData<Long> revokeSessions(@PathVariable("userId") Long userId) {
+        Long revokedBefore = tokenBlacklistService.revokeAllForUser(userId);
+        if (revokedBefore == null) {
+            return ResultData.fail("撤销用户会话失败");
+        }
+        return ResultData.ok("撤销成功", revokedBefore);
+    }
+}
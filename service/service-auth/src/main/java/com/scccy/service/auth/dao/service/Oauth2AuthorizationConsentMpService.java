@@ -3,6 +3,8 @@ package com.scccy.service.auth.dao.service;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.scccy.service.auth.domain.mp.Oauth2AuthorizationConsentMp;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.dto.CursorPage;
 
 /**
  * 授权记录(Oauth2AuthorizationConsent)表服务接口
@@ -22,4 +24,9 @@ public interface Oauth2AuthorizationConsentMpService extends IService<Oauth2Auth
      */
     Page<Oauth2AuthorizationConsentMp> pageEq(Integer pageNum, Integer pageSize, Oauth2AuthorizationConsentMp query);
 
+    /**
+     * 游标分页查询（keyset），按主键顺序翻页，深翻页开销与页大小成正比
+     */
+    CursorPage<Oauth2AuthorizationConsentMp> pageCursor(CursorPageQuery pageQuery, Oauth2AuthorizationConsentMp query);
+
 }
@@ -3,6 +3,8 @@ package com.scccy.service.auth.dao.service;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.scccy.service.auth.domain.mp.Oauth2AuthorizationMp;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.dto.CursorPage;
 
 /**
  * token记录表(Oauth2Authorization)表服务接口
@@ -22,4 +24,9 @@ public interface Oauth2AuthorizationMpService extends IService<Oauth2Authorizati
      */
     Page<Oauth2AuthorizationMp> pageEq(Integer pageNum, Integer pageSize, Oauth2AuthorizationMp query);
 
+    /**
+     * 游标分页查询（keyset），按主键顺序翻页，深翻页开销与页大小成正比
+     */
+    CursorPage<Oauth2AuthorizationMp> pageCursor(CursorPageQuery pageQuery, Oauth2AuthorizationMp query);
+
 }
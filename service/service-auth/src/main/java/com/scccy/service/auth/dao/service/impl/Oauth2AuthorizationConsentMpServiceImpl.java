@@ -7,6 +7,9 @@ import com.scccy.service.auth.dao.service.Oauth2AuthorizationConsentMpService;
 import org.springframework.stereotype.Service;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.dto.CursorPage;
+import com.scccy.common.modules.utils.KeysetPagination;
 
 /**
  * 授权记录(Oauth2AuthorizationConsent)服务实现类
@@ -55,4 +58,18 @@ public class Oauth2AuthorizationConsentMpServiceImpl
         return this.page(page, wrapper);
     }
 
+    @Override
+    public CursorPage<Oauth2AuthorizationConsentMp> pageCursor(CursorPageQuery pageQuery, Oauth2AuthorizationConsentMp oauth2AuthorizationConsentMp) {
+        QueryWrapper<Oauth2AuthorizationConsentMp> wrapper = new QueryWrapper<>();
+        boolean prefixLike = Boolean.TRUE.equals(pageQuery.getPrefixLike());
+
+        KeysetPagination.match(wrapper, "registered_client_id", oauth2AuthorizationConsentMp.getRegisteredClientId(), prefixLike);
+        KeysetPagination.match(wrapper, "principal_name", oauth2AuthorizationConsentMp.getPrincipalName(), prefixLike);
+        KeysetPagination.match(wrapper, "authorities", oauth2AuthorizationConsentMp.getAuthorities(), prefixLike);
+
+        return KeysetPagination.page(this, wrapper, pageQuery,
+                KeysetPagination.key("registered_client_id", Oauth2AuthorizationConsentMp::getRegisteredClientId),
+                KeysetPagination.key("principal_name", Oauth2AuthorizationConsentMp::getPrincipalName));
+    }
+
 }
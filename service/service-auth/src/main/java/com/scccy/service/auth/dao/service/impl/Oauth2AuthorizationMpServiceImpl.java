@@ -7,6 +7,9 @@ import com.scccy.service.auth.dao.service.Oauth2AuthorizationMpService;
 import org.springframework.stereotype.Service;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.dto.CursorPage;
+import com.scccy.common.modules.utils.KeysetPagination;
 
 /**
  * token记录表(Oauth2Authorization)服务实现类
@@ -235,4 +238,47 @@ public class Oauth2AuthorizationMpServiceImpl
         return this.page(page, wrapper);
     }
 
+    @Override
+    public CursorPage<Oauth2AuthorizationMp> pageCursor(CursorPageQuery pageQuery, Oauth2AuthorizationMp oauth2AuthorizationMp) {
+        QueryWrapper<Oauth2AuthorizationMp> wrapper = new QueryWrapper<>();
+        boolean prefixLike = Boolean.TRUE.equals(pageQuery.getPrefixLike());
+
+        KeysetPagination.match(wrapper, "id", oauth2AuthorizationMp.getId(), prefixLike);
+        KeysetPagination.match(wrapper, "registered_client_id", oauth2AuthorizationMp.getRegisteredClientId(), prefixLike);
+        KeysetPagination.match(wrapper, "principal_name", oauth2AuthorizationMp.getPrincipalName(), prefixLike);
+        KeysetPagination.match(wrapper, "authorization_grant_type", oauth2AuthorizationMp.getAuthorizationGrantType(), prefixLike);
+        KeysetPagination.match(wrapper, "authorized_scopes", oauth2AuthorizationMp.getAuthorizedScopes(), prefixLike);
+        KeysetPagination.match(wrapper, "attributes", oauth2AuthorizationMp.getAttributes(), prefixLike);
+        KeysetPagination.match(wrapper, "state", oauth2AuthorizationMp.getState(), prefixLike);
+        KeysetPagination.match(wrapper, "authorization_code_value", oauth2AuthorizationMp.getAuthorizationCodeValue(), prefixLike);
+        KeysetPagination.match(wrapper, "authorization_code_issued_at", oauth2AuthorizationMp.getAuthorizationCodeIssuedAt(), prefixLike);
+        KeysetPagination.match(wrapper, "authorization_code_expires_at", oauth2AuthorizationMp.getAuthorizationCodeExpiresAt(), prefixLike);
+        KeysetPagination.match(wrapper, "authorization_code_metadata", oauth2AuthorizationMp.getAuthorizationCodeMetadata(), prefixLike);
+        KeysetPagination.match(wrapper, "access_token_value", oauth2AuthorizationMp.getAccessTokenValue(), prefixLike);
+        KeysetPagination.match(wrapper, "access_token_issued_at", oauth2AuthorizationMp.getAccessTokenIssuedAt(), prefixLike);
+        KeysetPagination.match(wrapper, "access_token_expires_at", oauth2AuthorizationMp.getAccessTokenExpiresAt(), prefixLike);
+        KeysetPagination.match(wrapper, "access_token_metadata", oauth2AuthorizationMp.getAccessTokenMetadata(), prefixLike);
+        KeysetPagination.match(wrapper, "access_token_type", oauth2AuthorizationMp.getAccessTokenType(), prefixLike);
+        KeysetPagination.match(wrapper, "access_token_scopes", oauth2AuthorizationMp.getAccessTokenScopes(), prefixLike);
+        KeysetPagination.match(wrapper, "oidc_id_token_value", oauth2AuthorizationMp.getOidcIdTokenValue(), prefixLike);
+        KeysetPagination.match(wrapper, "oidc_id_token_issued_at", oauth2AuthorizationMp.getOidcIdTokenIssuedAt(), prefixLike);
+        KeysetPagination.match(wrapper, "oidc_id_token_expires_at", oauth2AuthorizationMp.getOidcIdTokenExpiresAt(), prefixLike);
+        KeysetPagination.match(wrapper, "oidc_id_token_metadata", oauth2AuthorizationMp.getOidcIdTokenMetadata(), prefixLike);
+        KeysetPagination.match(wrapper, "refresh_token_value", oauth2AuthorizationMp.getRefreshTokenValue(), prefixLike);
+        KeysetPagination.match(wrapper, "refresh_token_issued_at", oauth2AuthorizationMp.getRefreshTokenIssuedAt(), prefixLike);
+        KeysetPagination.match(wrapper, "refresh_token_expires_at", oauth2AuthorizationMp.getRefreshTokenExpiresAt(), prefixLike);
+        KeysetPagination.match(wrapper, "refresh_token_metadata", oauth2AuthorizationMp.getRefreshTokenMetadata(), prefixLike);
+        KeysetPagination.match(wrapper, "user_code_value", oauth2AuthorizationMp.getUserCodeValue(), prefixLike);
+        KeysetPagination.match(wrapper, "user_code_issued_at", oauth2AuthorizationMp.getUserCodeIssuedAt(), prefixLike);
+        KeysetPagination.match(wrapper, "user_code_expires_at", oauth2AuthorizationMp.getUserCodeExpiresAt(), prefixLike);
+        KeysetPagination.match(wrapper, "user_code_metadata", oauth2AuthorizationMp.getUserCodeMetadata(), prefixLike);
+        KeysetPagination.match(wrapper, "device_code_value", oauth2AuthorizationMp.getDeviceCodeValue(), prefixLike);
+        KeysetPagination.match(wrapper, "device_code_issued_at", oauth2AuthorizationMp.getDeviceCodeIssuedAt(), prefixLike);
+        KeysetPagination.match(wrapper, "device_code_expires_at", oauth2AuthorizationMp.getDeviceCodeExpiresAt(), prefixLike);
+        KeysetPagination.match(wrapper, "device_code_metadata", oauth2AuthorizationMp.getDeviceCodeMetadata(), prefixLike);
+
+        return KeysetPagination.page(this, wrapper, pageQuery,
+                KeysetPagination.key("id", Oauth2AuthorizationMp::getId));
+    }
+
 }
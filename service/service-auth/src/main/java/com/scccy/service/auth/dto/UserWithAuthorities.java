@@ -0,0 +1,40 @@
+package com.scccy.service.auth.dto;
+
+import com.scccy.common.modules.domain.mp.system.SysUserMp;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 用户信息及权限
+ * <p>
+ * 登录链路一次远程调用同时返回用户与权限，避免两次 Feign 调用
+ *
+ * @author scccy
+ */
+@Data
+@Schema(description = "用户信息及权限")
+public class UserWithAuthorities implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 用户信息，用户不存在时为空
+     */
+    @Schema(description = "用户信息，用户不存在时为空")
+    private SysUserMp user;
+
+    /**
+     * 权限列表（角色标识 + 菜单权限）
+     */
+    @Schema(description = "权限列表（角色标识 + 菜单权限）", example = "[\"ROLE_ADMIN\", \"system:user:list\"]")
+    private List<String> authorities;
+
+    /**
+     * 生成权限时所用的角色权限索引版本，Auth 据此拒绝由旧索引生成的权限
+     */
+    @Schema(description = "生成权限时所用的角色权限索引版本", example = "12")
+    private long indexVersion;
+}
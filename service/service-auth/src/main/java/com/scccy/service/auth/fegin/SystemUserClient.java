@@ -4,6 +4,7 @@ import com.scccy.common.modules.domain.mp.system.SysUserMp;
 import com.scccy.common.modules.dto.ResultData;
 import com.scccy.service.auth.dto.LoginBody;
 import com.scccy.service.auth.dto.RegisterBody;
+import com.scccy.service.auth.dto.UserWithAuthorities;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -49,4 +50,15 @@ public interface SystemUserClient {
      */
     @GetMapping("/authorities")
     ResultData<List<String>> getUserAuthorities(@RequestParam String userName);
+
+    /**
+     * 获取用户信息及权限
+     * <p>
+     * 登录链路一次调用同时获取用户与权限；用户不存在时 user 为空
+     *
+     * @param userName 用户名
+     * @return 用户信息及权限
+     */
+    @GetMapping("/userWithAuthorities")
+    ResultData<UserWithAuthorities> getUserWithAuthorities(@RequestParam String userName);
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import com.scccy.common.modules.domain.mp.system.SysUserMp;
 import com.scccy.common.modules.dto.ResultData;
 import com.scccy.service.auth.dto.LoginBody;
 import com.scccy.service.auth.dto.RegisterBody;
+import com.scccy.service.auth.dto.UserWithAuthorities;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cloud.openfeign.FallbackFactory;
 import org.springframework.stereotype.Component;
@@ -58,6 +59,15 @@ public class SystemUserClientFallback implements FallbackFactory<SystemUserClien
                 // 返回空列表，避免影响 Token 生成
                 return ResultData.ok(Collections.emptyList());
             }
+
+            @Override
+            public ResultData<UserWithAuthorities> getUserWithAuthorities(String userName) {
+                log.error("service-system 服务不可用，无法获取用户信息及权限: userName={}, 错误原因: {}", 
+                        userName, cause != null ? cause.getMessage() : "未知错误", cause);
+                // 返回失败而非空数据，避免调用方将其当作"用户不存在"做空值缓存
+                return ResultData.fail("service-system 服务不可用，无法获取用户信息及权限: " + 
+                        (cause != null ? cause.getMessage() : "服务调用失败"));
+            }
         };
     }
 }
@@ -4,55 +4,314 @@ import com.alicp.jetcache.Cache;
 import com.alicp.jetcache.CacheManager;
 import com.alicp.jetcache.anno.CacheType;
 import com.alicp.jetcache.template.QuickConfig;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
 import com.nimbusds.jose.jwk.RSAKey;
+import com.scccy.common.modules.constant.TokenRevocationConstants;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.text.ParseException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * JWK 密钥管理
+ * <p>
+ * 当前生效的 JWKSet 与预先构建好的 {@link JWSSigner} 常驻内存，签发 Token 时不再访问缓存、不再构建签名器；
+ * 密钥材料以 JWKSet JSON 的形式保存在 Redis 中，供所有 Auth 实例共享。
+ * <p>
+ * 密钥轮换：
+ * <ul>
+ *     <li>当前密钥使用满 {@code security.jwk.rotation-period} 后，由抢到 Redis 锁的实例生成新密钥并立即用于签名</li>
+ *     <li>旧密钥标记过期时间（当前时间 + {@code security.jwk.grace-period}）后继续发布在 JWKSet 中，
+ *     保证其签发的 Token 在有效期内仍可验签；过期后自动移除</li>
+ *     <li>变更后通过 {@link TokenRevocationConstants#JWK_ROTATION_CHANNEL} 广播，
+ *     其他 Auth 实例重新加载密钥，Gateway 丢弃验签缓存</li>
+ * </ul>
+ */
+@Slf4j
 @Component
-public class JWKCacheManager {
+public class JWKCacheManager implements MessageListener {
 
     private static final String AUTHORIZATION_JWS_PREFIX_KEY = "authorization_jws";
+    private static final String AUTHORIZATION_JWKS_PREFIX_KEY = "authorization_jwks";
+    private static final Duration LOCK_TTL = Duration.ofSeconds(30);
 
     @Value("${spring.application.name}")
     private String application;
 
+    /**
+     * 密钥轮换周期
+     */
+    @Value("${security.jwk.rotation-period:30d}")
+    private Duration rotationPeriod;
+
+    /**
+     * 旧密钥在轮换后继续发布的时长，应不小于 access token 的最大有效期
+     * 默认: 2 小时 + 5 分钟时钟偏差
+     */
+    @Value("${security.jwk.grace-period:125m}")
+    private Duration gracePeriod;
+
+    /**
+     * 轮换检查（含从 Redis 重新加载）的间隔
+     */
+    @Value("${security.jwk.check-interval:10m}")
+    private Duration checkInterval;
+
     @Resource
     private CacheManager cacheManager;
-    private Cache<String, JWKSet> jwkSetCache;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    private final ScheduledExecutorService rotationExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "jwk-rotation");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile KeyState state;
 
     @PostConstruct
     public void init() {
-        QuickConfig qc = QuickConfig.newBuilder("remote_")
-                .expire(Duration.ofDays(365L)) // 1年过期时间，JWK密钥对相对稳定，但需要支持密钥轮换
-                .cacheType(CacheType.BOTH) // two level cache
-                .syncLocal(true) // invalidate local cache in all jvm process after update
-                .build();
-        jwkSetCache = cacheManager.getOrCreateCache(qc);
+        loadOrCreate();
+        redisMessageListenerContainer.addMessageListener(this,
+                new ChannelTopic(TokenRevocationConstants.JWK_ROTATION_CHANNEL));
+        long intervalMillis = checkInterval.toMillis();
+        rotationExecutor.scheduleWithFixedDelay(this::maintainQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        redisMessageListenerContainer.removeMessageListener(this);
+        rotationExecutor.shutdownNow();
     }
 
     /**
-     * 缓存JWK密钥
+     * 当前发布的 JWKSet（含生效密钥与宽限期内的旧密钥）
      *
      * @return 返回JWKSet
      */
     public JWKSet getJWKSet() {
-        return jwkSetCache.computeIfAbsent(getJWKKey(), key -> {
-            // 生成密钥对
-            KeyPair keyPair = generateRsaKey();
-            RSAKey rsaKey = getRsaKey(keyPair);
-            // 生成jws
-            return new JWKSet(rsaKey);
-        });
+        return state.jwkSet;
+    }
+
+    /**
+     * 当前用于签名的密钥
+     *
+     * @return 签名密钥（kid + 常驻的签名器）
+     */
+    public SigningKey getSigningKey() {
+        return state.signingKey;
+    }
+
+    /**
+     * 立即轮换密钥（运维或密钥泄露时使用）
+     */
+    public void rotateNow() {
+        maintain(true);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String kid = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (kid.equals(state.signingKey.keyId())) {
+            return;
+        }
+        log.info("收到 JWK 轮换广播，重新加载密钥: activeKid={}", kid);
+        // 不在监听线程中访问 Redis
+        rotationExecutor.execute(this::reloadQuietly);
+    }
+
+    /**
+     * 启动时加载共享密钥；不存在时从旧版缓存迁移或生成新密钥
+     */
+    private void loadOrCreate() {
+        String document = stringRedisTemplate.opsForValue().get(getJWKKey());
+        if (document == null) {
+            JWKSet initial = importLegacy();
+            if (initial == null) {
+                initial = new JWKSet(generateRsaKey(new Date()));
+            }
+            Boolean created = stringRedisTemplate.opsForValue().setIfAbsent(getJWKKey(), initial.toString(false));
+            document = Boolean.TRUE.equals(created) ? initial.toString(false) : stringRedisTemplate.opsForValue().get(getJWKKey());
+        }
+        apply(document);
+        log.info("JWK 密钥加载完成: activeKid={}, publishedKids={}", state.signingKey.keyId(), state.keyIds());
+    }
+
+    /**
+     * 迁移旧版 JetCache 中保存的密钥，避免升级后已签发的 Token 失效
+     */
+    private JWKSet importLegacy() {
+        try {
+            QuickConfig qc = QuickConfig.newBuilder("remote_")
+                    .cacheType(CacheType.REMOTE)
+                    .build();
+            Cache<String, JWKSet> legacyCache = cacheManager.getOrCreateCache(qc);
+            JWKSet legacy = legacyCache.get(AUTHORIZATION_JWS_PREFIX_KEY + ":" + application);
+            if (legacy == null || legacy.getKeys().isEmpty() || !(legacy.getKeys().get(0) instanceof RSAKey rsaKey)) {
+                return null;
+            }
+            log.info("迁移旧版 JWK 密钥: kid={}", rsaKey.getKeyID());
+            return new JWKSet(new RSAKey.Builder(rsaKey)
+                    .keyUse(KeyUse.SIGNATURE)
+                    .algorithm(JWSAlgorithm.RS256)
+                    .issueTime(new Date())
+                    .build());
+        } catch (Exception e) {
+            log.warn("读取旧版 JWK 缓存失败，将生成新密钥: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void maintainQuietly() {
+        try {
+            maintain(false);
+        } catch (Exception e) {
+            log.warn("JWK 轮换检查失败: {}", e.getMessage());
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            String document = stringRedisTemplate.opsForValue().get(getJWKKey());
+            if (document != null) {
+                apply(document);
+                log.info("JWK 密钥已重新加载: activeKid={}, publishedKids={}", state.signingKey.keyId(), state.keyIds());
+            }
+        } catch (Exception e) {
+            log.warn("重新加载 JWK 密钥失败，继续使用内存中的密钥: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 轮换检查：到期轮换、清理宽限期已过的旧密钥；同时从 Redis 同步最新密钥
+     *
+     * @param force 是否强制轮换
+     */
+    private void maintain(boolean force) {
+        reloadQuietly();
+        long now = System.currentTimeMillis();
+        if (!force && !needsRotation(state, now) && !hasExpiredKeys(state, now)) {
+            return;
+        }
+
+        String lockKey = getJWKKey() + ":lock";
+        String lockValue = UUID.randomUUID().toString();
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(lockKey, lockValue, LOCK_TTL);
+        if (!Boolean.TRUE.equals(locked)) {
+            log.debug("其他实例正在维护 JWK 密钥，跳过本次检查");
+            return;
+        }
+        try {
+            // 持有锁后以 Redis 中的最新版本为准
+            String document = stringRedisTemplate.opsForValue().get(getJWKKey());
+            KeyState current = document != null ? parse(document) : state;
+            now = System.currentTimeMillis();
+            boolean rotate = force || needsRotation(current, now);
+            if (!rotate && !hasExpiredKeys(current, now)) {
+                apply(current);
+                return;
+            }
+
+            List<JWK> keys = new ArrayList<>();
+            Date graceEnd = new Date(now + gracePeriod.toMillis());
+            if (rotate) {
+                keys.add(generateRsaKey(new Date(now)));
+            }
+            for (JWK key : current.jwkSet.getKeys()) {
+                if (key.getKeyID().equals(current.signingKey.keyId())) {
+                    keys.add(rotate ? new RSAKey.Builder(key.toRSAKey()).expirationTime(graceEnd).build() : key);
+                } else if (key.getExpirationTime() == null || key.getExpirationTime().getTime() > now) {
+                    keys.add(key);
+                }
+            }
+
+            JWKSet next = new JWKSet(keys);
+            stringRedisTemplate.opsForValue().set(getJWKKey(), next.toString(false));
+            apply(next.toString(false));
+            stringRedisTemplate.convertAndSend(TokenRevocationConstants.JWK_ROTATION_CHANNEL, state.signingKey.keyId());
+            log.info("JWK 密钥已更新: rotated={}, activeKid={}, publishedKids={}", rotate, state.signingKey.keyId(), state.keyIds());
+        } finally {
+            String holder = stringRedisTemplate.opsForValue().get(lockKey);
+            if (lockValue.equals(holder)) {
+                stringRedisTemplate.delete(lockKey);
+            }
+        }
+    }
+
+    private boolean needsRotation(KeyState keyState, long now) {
+        Date issuedAt = keyState.signingKey.key().getIssueTime();
+        return issuedAt == null || now - issuedAt.getTime() >= rotationPeriod.toMillis();
+    }
+
+    private static boolean hasExpiredKeys(KeyState keyState, long now) {
+        return keyState.jwkSet.getKeys().stream()
+                .anyMatch(key -> key.getExpirationTime() != null && key.getExpirationTime().getTime() <= now);
+    }
+
+    private void apply(String document) {
+        apply(parse(document));
+    }
+
+    private void apply(KeyState next) {
+        KeyState current = state;
+        if (current != null && current.document.equals(next.document)) {
+            return;
+        }
+        state = next;
+    }
+
+    /**
+     * 解析 JWKSet，选出生效密钥并构建签名器
+     * <p>
+     * 生效密钥为未设置过期时间的密钥中签发时间最新的一个
+     */
+    private static KeyState parse(String document) {
+        try {
+            JWKSet jwkSet = JWKSet.parse(document);
+            RSAKey active = jwkSet.getKeys().stream()
+                    .filter(key -> key instanceof RSAKey && key.isPrivate() && key.getExpirationTime() == null)
+                    .map(JWK::toRSAKey)
+                    .max(Comparator.comparing(key -> key.getIssueTime() != null ? key.getIssueTime() : new Date(0)))
+                    .orElseThrow(() -> new IllegalStateException("JWKSet 中没有可用于签名的 RSA 密钥"));
+            JWSSigner signer = new RSASSASigner(active);
+            return new KeyState(document, jwkSet, new SigningKey(active.getKeyID(), active, signer));
+        } catch (ParseException | JOSEException e) {
+            throw new IllegalStateException("解析 JWKSet 失败: " + e.getMessage(), e);
+        }
     }
 
     /**
@@ -61,21 +320,25 @@ public class JWKCacheManager {
      * @return cache key
      */
     private String getJWKKey() {
-        return AUTHORIZATION_JWS_PREFIX_KEY + ":" + application;                                                                                     
+        return AUTHORIZATION_JWKS_PREFIX_KEY + ":" + application;
     }
 
     /**
-     * 将keyPair转换为RSAKey
+     * 生成新的签名密钥
      *
-     * @param keyPair 密钥对
+     * @param issuedAt 签发时间
      * @return 返回RSAKey
      */
-    private static RSAKey getRsaKey(KeyPair keyPair) {
+    private static RSAKey generateRsaKey(Date issuedAt) {
+        KeyPair keyPair = generateRsaKey();
         RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
         RSAPrivateKey privateKey = (RSAPrivateKey) keyPair.getPrivate();
         return new RSAKey.Builder(publicKey)
                 .privateKey(privateKey)
                 .keyID(UUID.randomUUID().toString())
+                .keyUse(KeyUse.SIGNATURE)
+                .algorithm(JWSAlgorithm.RS256)
+                .issueTime(issuedAt)
                 .build();
     }
 
@@ -95,4 +358,21 @@ public class JWKCacheManager {
         }
         return keyPair;
     }
-}
\ No newline at end of file
+
+    /**
+     * 签名密钥
+     *
+     * @param keyId  kid，需写入 JWS Header
+     * @param key    RSA 密钥（含私钥）
+     * @param signer 常驻的签名器（线程安全）
+     */
+    public record SigningKey(String keyId, RSAKey key, JWSSigner signer) {
+    }
+
+    private record KeyState(String document, JWKSet jwkSet, SigningKey signingKey) {
+
+        private List<String> keyIds() {
+            return jwkSet.getKeys().stream().map(JWK::getKeyID).toList();
+        }
+    }
+}
@@ -1,14 +1,6 @@
 package com.scccy.service.auth.oauth2;
 
 
-import com.alicp.jetcache.Cache;
-import com.alicp.jetcache.CacheManager;
-import com.alicp.jetcache.anno.CacheType;
-import com.alicp.jetcache.template.QuickConfig;
-import com.scccy.service.auth.domain.RegisteredClientConvert;
-import com.scccy.service.auth.domain.mp.Oauth2RegisteredClientMp;
-import com.scccy.service.auth.service.IOauth2RegisteredClientService;
-import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Primary;
@@ -16,37 +8,19 @@ import org.springframework.stereotype.Component;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 
-import java.time.Duration;
-import java.util.function.Supplier;
-
+/**
+ * 注册客户端仓库
+ * <p>
+ * 查找全部由 {@link RegisteredClientIndex} 的内存快照完成，不访问数据库；
+ * 写入请使用 IOauth2RegisteredClientService，写入后会广播失效各实例的快照
+ */
 @Slf4j
 @Component
 @Primary
 public class Oauth2RegisteredClientRepository implements RegisteredClientRepository {
 
     @Resource
-    IOauth2RegisteredClientService oauth2RegisteredClientService;
-
-    @Resource
-    RegisteredClientConvert registeredClientConvert;
-
-    @Resource
-    private CacheManager cacheManager;
-
-    private Cache<String, RegisteredClient> registeredClientCache;
-
-    private static final String CACHE_NAME = "registered_client_local:";
-    private static final Duration CACHE_EXPIRE = Duration.ofMinutes(5);
-
-    @PostConstruct
-    public void initCache() {
-        QuickConfig qc = QuickConfig.newBuilder(CACHE_NAME)
-                .cacheType(CacheType.LOCAL)
-                .expire(CACHE_EXPIRE)
-                .build();
-        registeredClientCache = cacheManager.getOrCreateCache(qc);
-        log.info("RegisteredClient 本地缓存初始化完成，name={}，expire={}s", CACHE_NAME, CACHE_EXPIRE.getSeconds());
-    }
+    RegisteredClientIndex registeredClientIndex;
 
     @Deprecated
     @Override
@@ -56,40 +30,19 @@ public class Oauth2RegisteredClientRepository implements RegisteredClientReposit
 
     @Override
     public RegisteredClient findById(String id) {
-        return getCached("id:" + id, () -> {
-            Oauth2RegisteredClientMp registeredClientPo = oauth2RegisteredClientService.get(id);
-            if (registeredClientPo == null) {
-                log.debug("未找到注册客户端: id={}", id);
-                return null;
-            }
-            return registeredClientConvert.convertToRegisteredClient(registeredClientPo);
-        });
+        RegisteredClient client = registeredClientIndex.findById(id);
+        if (client == null) {
+            log.debug("未找到注册客户端: id={}", id);
+        }
+        return client;
     }
 
     @Override
     public RegisteredClient findByClientId(String clientId) {
-        return getCached("clientId:" + clientId, () -> {
-            Oauth2RegisteredClientMp registeredClientPo = oauth2RegisteredClientService.getByClientId(clientId);
-            if (registeredClientPo == null) {
-                log.debug("未找到注册客户端: clientId={}", clientId);
-                return null;
-            }
-            return registeredClientConvert.convertToRegisteredClient(registeredClientPo);
-        });
-    }
-
-    private RegisteredClient getCached(String key, Supplier<RegisteredClient> supplier) {
-        if (registeredClientCache == null) {
-            return supplier.get();
-        }
-        RegisteredClient cached = registeredClientCache.get(key);
-        if (cached != null) {
-            return cached;
-        }
-        RegisteredClient value = supplier.get();
-        if (value != null) {
-            registeredClientCache.put(key, value);
+        RegisteredClient client = registeredClientIndex.findByClientId(clientId);
+        if (client == null) {
+            log.debug("未找到注册客户端: clientId={}", clientId);
         }
-        return value;
+        return client;
     }
-}
\ No newline at end of file
+}
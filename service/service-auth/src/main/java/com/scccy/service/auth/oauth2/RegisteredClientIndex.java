@@ -0,0 +1,174 @@
+package com.scccy.service.auth.oauth2;
+
+import com.scccy.service.auth.domain.RegisteredClientConvert;
+import com.scccy.service.auth.domain.mp.Oauth2RegisteredClientMp;
+import com.scccy.service.auth.service.IOauth2RegisteredClientService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 注册客户端内存索引
+ * <p>
+ * 启动时全量加载 oauth2_registered_client 并完成转换，按 id 与 clientId 建立只读快照；
+ * 查找完全在内存中完成，未命中直接返回 null，不回源 MySQL（错误配置的客户端刷 /oauth2/token 也不会打到数据库）。
+ * <p>
+ * 客户端变更后由 {@link IOauth2RegisteredClientService} 通过 Redis Pub/Sub 广播，
+ * 各实例收到后重新加载快照；另按固定间隔全量重载，兜底丢失的广播消息
+ *
+ * @author scccy
+ */
+@Slf4j
+@Component
+public class RegisteredClientIndex implements ApplicationRunner, MessageListener {
+
+    /**
+     * 客户端变更广播频道，消息内容为变更的客户端 id
+     */
+    public static final String CHANGE_CHANNEL = "oauth2:registered-client:changed";
+
+    private final IOauth2RegisteredClientService oauth2RegisteredClientService;
+    private final RegisteredClientConvert registeredClientConvert;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ScheduledExecutorService reloadExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "registered-client-reload");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Value("${scccy.internal-token.client-id:}")
+    private String internalServiceClientId;
+
+    @Value("${security.oauth2.registered-client.reload-interval:5m}")
+    private Duration reloadInterval;
+
+    private volatile Snapshot snapshot;
+
+    public RegisteredClientIndex(IOauth2RegisteredClientService oauth2RegisteredClientService,
+                                 RegisteredClientConvert registeredClientConvert,
+                                 RedisMessageListenerContainer listenerContainer) {
+        this.oauth2RegisteredClientService = oauth2RegisteredClientService;
+        this.registeredClientConvert = registeredClientConvert;
+        this.listenerContainer = listenerContainer;
+    }
+
+    /**
+     * 启动阶段加载快照并订阅变更广播，同时校验内部服务客户端已配置
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANGE_CHANNEL));
+        Snapshot loaded = ensureLoaded();
+        long intervalMillis = reloadInterval.toMillis();
+        if (intervalMillis > 0) {
+            reloadExecutor.scheduleWithFixedDelay(this::reloadQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+
+        if (!StringUtils.hasText(internalServiceClientId)) {
+            log.warn("未配置 scccy.internal-token.client-id，跳过内部服务客户端校验");
+            return;
+        }
+        RegisteredClient client = loaded.byClientId.get(internalServiceClientId);
+        if (client == null) {
+            String message = String.format(
+                    "RegisteredClient 预热失败，未找到配置的 clientId=%s，请先在 oauth2_registered_client 中创建记录",
+                    internalServiceClientId);
+            log.error(message);
+            throw new IllegalStateException(message);
+        }
+        long ttlSeconds = client.getTokenSettings().getAccessTokenTimeToLive().toSeconds();
+        log.info("RegisteredClient 预热成功: clientId={}, accessTokenTTL={}s", internalServiceClientId, ttlSeconds);
+    }
+
+    /**
+     * 根据 id 查找注册客户端
+     */
+    public RegisteredClient findById(String id) {
+        return id == null ? null : ensureLoaded().byId.get(id);
+    }
+
+    /**
+     * 根据 clientId 查找注册客户端
+     */
+    public RegisteredClient findByClientId(String clientId) {
+        return clientId == null ? null : ensureLoaded().byClientId.get(clientId);
+    }
+
+    /**
+     * 全量重新加载快照
+     */
+    public synchronized void reload() {
+        List<Oauth2RegisteredClientMp> rows = oauth2RegisteredClientService.listAll();
+        Map<String, RegisteredClient> byId = new HashMap<>(rows.size() * 2);
+        Map<String, RegisteredClient> byClientId = new HashMap<>(rows.size() * 2);
+        for (Oauth2RegisteredClientMp row : rows) {
+            try {
+                RegisteredClient client = registeredClientConvert.convertToRegisteredClient(row);
+                byId.put(client.getId(), client);
+                byClientId.put(client.getClientId(), client);
+            } catch (Exception e) {
+                // 单个客户端配置错误不影响其他客户端
+                log.error("转换注册客户端失败，已跳过: id={}, clientId={}", row.getId(), row.getClientId(), e);
+            }
+        }
+        snapshot = new Snapshot(Map.copyOf(byId), Map.copyOf(byClientId));
+        log.info("注册客户端索引已加载，共 {} 个客户端", byId.size());
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String id = new String(message.getBody(), StandardCharsets.UTF_8);
+        log.debug("收到注册客户端变更广播: id={}", id);
+        // 不在监听线程中访问数据库
+        reloadExecutor.execute(this::reloadQuietly);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        listenerContainer.removeMessageListener(this);
+        reloadExecutor.shutdownNow();
+    }
+
+    private Snapshot ensureLoaded() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                reload();
+            }
+            return snapshot;
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (Exception e) {
+            // 保留旧快照，等待下次重载
+            log.warn("重新加载注册客户端索引失败，继续使用旧快照: {}", e.getMessage());
+        }
+    }
+
+    private record Snapshot(Map<String, RegisteredClient> byId, Map<String, RegisteredClient> byClientId) {
+    }
+}
@@ -129,6 +129,9 @@ public class AuthService {
                 registerBody.getUsername(), 
                 user.getUserId());
 
+            // 清除注册前可能写入的"用户不存在"空值缓存
+            systemUserCacheService.evict(registerBody.getUsername());
+
             // 2. 注册成功后，自动生成 Token
             LoginResponse loginResponse = new LoginResponse();
             loginResponse.setUserId(user.getUserId());
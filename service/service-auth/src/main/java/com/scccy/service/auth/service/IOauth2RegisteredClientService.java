@@ -6,6 +6,8 @@ import com.scccy.service.auth.domain.mp.Oauth2RegisteredClientMp;
 import com.scccy.service.auth.domain.param.RegisteredClientQueryParam;
 import com.scccy.service.auth.domain.vo.RegisteredClientVo;
 
+import java.util.List;
+
 
 public interface IOauth2RegisteredClientService {
     /**
@@ -46,6 +48,13 @@ public interface IOauth2RegisteredClientService {
      */
     Oauth2RegisteredClientMp get(String id);
 
+    /**
+     * 查询全部Client（不走缓存），用于加载注册客户端索引
+     *
+     * @return 全部Client
+     */
+    List<Oauth2RegisteredClientMp> listAll();
+
     /**
      * 失效client
      *
@@ -1,78 +1,370 @@
 package com.scccy.service.auth.service;
 
-import com.alicp.jetcache.anno.Cached;
+import com.alicp.jetcache.Cache;
+import com.alicp.jetcache.CacheManager;
 import com.alicp.jetcache.anno.CacheType;
+import com.alicp.jetcache.template.QuickConfig;
+import com.scccy.common.modules.constant.AuthorityConstants;
 import com.scccy.common.modules.domain.mp.system.SysUserMp;
 import com.scccy.common.modules.dto.ResultData;
 import com.scccy.common.redis.cache.DefaultCacheArea;
+import com.scccy.service.auth.dto.UserWithAuthorities;
 import com.scccy.service.auth.fegin.SystemUserClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * System 服务用户数据缓存封装
  * <p>
  * 通过 JetCache 复用 service-system 返回的用户信息和权限，
- * 减少 Feign 调用次数，缓解登录链路的重复查询。
+ * 减少 Feign 调用次数，缓解登录链路的重复查询：
+ * <ul>
+ *     <li>用户与权限通过 {@link SystemUserClient#getUserWithAuthorities} 一次调用获取，合并缓存</li>
+ *     <li>同一用户名同时只有一个加载在进行（single-flight），其余调用方等待同一结果</li>
+ *     <li>缓存过期时间带随机抖动，并按 XFetch 算法概率性提前刷新，避免集中过期引发的击穿</li>
+ *     <li>不存在的用户名以较短 TTL 做空值缓存，撞库流量不会逐次打到 service-system</li>
+ *     <li>每个条目记录生成权限时所用的角色权限索引版本；收到 service-system 的变更广播后，
+ *     版本低于广播版本的条目一律视为过期，尚未完成重建的 System 实例返回的旧版本权限不写缓存</li>
+ * </ul>
+ * service-system 不可用（降级返回失败）时不写缓存，避免把故障当作"用户不存在"缓存下来
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class SystemUserCacheService {
+public class SystemUserCacheService implements MessageListener {
 
     private static final String CACHE_PREFIX = "system:user:";
-    private static final int DEFAULT_EXPIRE_SECONDS = 60;
 
     private final SystemUserClient systemUserClient;
+    private final CacheManager cacheManager;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final StringRedisTemplate stringRedisTemplate;
 
     /**
-     * 获取单个用户信息，并通过 JetCache 缓存 60 秒。
+     * 用户存在时的缓存时间
+     */
+    @Value("${security.user-cache.ttl:60s}")
+    private Duration ttl;
+
+    /**
+     * 用户不存在时的缓存时间
+     */
+    @Value("${security.user-cache.negative-ttl:10s}")
+    private Duration negativeTtl;
+
+    /**
+     * 缓存时间随机抖动比例，0.1 表示 ±10%
+     */
+    @Value("${security.user-cache.ttl-jitter:0.1}")
+    private double ttlJitter;
+
+    /**
+     * XFetch 提前刷新系数，越大越倾向于提前刷新，0 表示不提前刷新
+     */
+    @Value("${security.user-cache.early-refresh-beta:1.0}")
+    private double earlyRefreshBeta;
+
+    private final Map<String, CompletableFuture<CachedUser>> inflight = new ConcurrentHashMap<>();
+    private final ExecutorService refreshExecutor = newRefreshExecutor();
+
+    private Cache<String, CachedUser> cache;
+
+    /**
+     * 已知的最新角色权限索引版本，低于此版本的条目视为过期
+     */
+    private final AtomicLong minIndexVersion = new AtomicLong();
+
+    /**
+     * 最近一次收到旧格式（不带版本）变更广播的时间，早于此时间加载的条目视为过期
+     */
+    private volatile long authoritiesChangedAt;
+
+    @PostConstruct
+    public void init() {
+        QuickConfig qc = QuickConfig.newBuilder(DefaultCacheArea.SHORT_TIME_AREA, CACHE_PREFIX + "login:")
+                .cacheType(CacheType.BOTH)
+                .expire(ttl)
+                .cacheNullValue(false)
+                .build();
+        cache = cacheManager.getOrCreateCache(qc);
+        listenerContainer.addMessageListener(this, new ChannelTopic(AuthorityConstants.AUTHORITY_CHANGED_CHANNEL));
+        initIndexVersion();
+        log.info("用户缓存初始化完成，ttl={}s，negativeTtl={}s", ttl.getSeconds(), negativeTtl.getSeconds());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        listenerContainer.removeMessageListener(this);
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 获取单个用户信息
      *
      * @param userName 用户名
-     * @return 用户信息，可能为空（空值不会被缓存）
+     * @return 用户信息，用户不存在或 service-system 不可用时为空
      */
-    @Cached(
-            area = DefaultCacheArea.SHORT_TIME_AREA,
-            name = CACHE_PREFIX + "info:",
-            key = "#userName",
-            cacheType = CacheType.BOTH,
-            expire = DEFAULT_EXPIRE_SECONDS,
-            cacheNullValue = false
-    )
     public SysUserMp getUserByUserName(String userName) {
-        ResultData<SysUserMp> result = systemUserClient.getByUserName(userName);
-        if (result == null || result.getData() == null) {
-            log.warn("service-system 未返回用户信息: userName={}", userName);
-            return null;
-        }
-        return result.getData();
+        CachedUser entry = get(userName);
+        return entry != null ? entry.user : null;
     }
 
     /**
-     * 获取用户权限，默认缓存 60 秒。
+     * 获取用户权限
      *
      * @param userName 用户名
      * @return 权限列表（若查询失败返回空列表）
      */
-    @Cached(
-            area = DefaultCacheArea.SHORT_TIME_AREA,
-            name = CACHE_PREFIX + "authorities:",
-            key = "#userName",
-            cacheType = CacheType.BOTH,
-            expire = DEFAULT_EXPIRE_SECONDS,
-            cacheNullValue = false
-    )
     public List<String> getUserAuthorities(String userName) {
-        ResultData<List<String>> result = systemUserClient.getUserAuthorities(userName);
-        if (result == null || result.getData() == null) {
-            log.warn("service-system 未返回用户权限: userName={}", userName);
-            return Collections.emptyList();
+        CachedUser entry = get(userName);
+        return entry != null && entry.authorities != null ? entry.authorities : Collections.emptyList();
+    }
+
+    /**
+     * 获取用户信息及权限
+     *
+     * @param userName 用户名
+     * @return 用户信息及权限，service-system 不可用时为空
+     */
+    public UserWithAuthorities getUserWithAuthorities(String userName) {
+        CachedUser entry = get(userName);
+        if (entry == null) {
+            return null;
         }
-        return result.getData();
+        UserWithAuthorities result = new UserWithAuthorities();
+        result.setUser(entry.user);
+        result.setAuthorities(entry.authorities);
+        return result;
+    }
+
+    /**
+     * 清除用户缓存（注册、改名等场景）
+     *
+     * @param userName 用户名
+     */
+    public void evict(String userName) {
+        if (userName != null) {
+            cache.remove(userName);
+        }
+    }
+
+    /**
+     * 角色权限变更：无法确定受影响的用户，使由更早版本索引生成的全部条目失效
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        long version = AuthorityConstants.parseVersion(new String(message.getBody(), StandardCharsets.UTF_8));
+        if (version < 0) {
+            authoritiesChangedAt = System.currentTimeMillis();
+            log.debug("收到不带版本的角色权限变更广播，用户权限缓存已失效");
+            return;
+        }
+        minIndexVersion.accumulateAndGet(version, Math::max);
+        log.debug("收到角色权限变更广播，索引版本 {} 之前的用户权限缓存已失效", version);
     }
-}
 
+    /**
+     * 启动时读取当前索引版本，避免重启后接受其他实例写入的旧版本条目
+     */
+    private void initIndexVersion() {
+        try {
+            String value = stringRedisTemplate.opsForValue().get(AuthorityConstants.INDEX_VERSION_KEY);
+            if (value != null) {
+                minIndexVersion.accumulateAndGet(Long.parseLong(value), Math::max);
+            }
+        } catch (Exception e) {
+            log.warn("读取角色权限索引版本失败，等待变更广播: {}", e.getMessage());
+        }
+    }
+
+    private CachedUser get(String userName) {
+        if (userName == null || userName.isBlank()) {
+            return null;
+        }
+        CachedUser entry = cache.get(userName);
+        long now = System.currentTimeMillis();
+        if (entry != null && now < entry.expiresAt && isCurrent(entry)) {
+            if (entry.user != null && shouldRefreshEarly(entry, now)) {
+                refreshAsync(userName);
+            }
+            return entry;
+        }
+        return load(userName);
+    }
+
+    private boolean isCurrent(CachedUser entry) {
+        return entry.indexVersion >= minIndexVersion.get() && entry.loadedAt >= authoritiesChangedAt;
+    }
+
+    /**
+     * XFetch：剩余时间越少、加载耗时越长，提前刷新的概率越大
+     */
+    private boolean shouldRefreshEarly(CachedUser entry, long now) {
+        if (earlyRefreshBeta <= 0) {
+            return false;
+        }
+        double random = ThreadLocalRandom.current().nextDouble();
+        double gap = -entry.loadMillis * earlyRefreshBeta * Math.log(random);
+        return now + gap >= entry.expiresAt;
+    }
+
+    private void refreshAsync(String userName) {
+        if (inflight.containsKey(userName)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(userName);
+                } catch (Exception e) {
+                    log.warn("提前刷新用户缓存失败: userName={}, error={}", userName, e.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            // 刷新队列已满，等待自然过期后由调用方加载
+            log.debug("提前刷新用户缓存被拒绝: userName={}", userName);
+        }
+    }
+
+    /**
+     * 加载用户，同一用户名同时只有一个远程调用
+     */
+    private CachedUser load(String userName) {
+        CompletableFuture<CachedUser> mine = new CompletableFuture<>();
+        CompletableFuture<CachedUser> existing = inflight.putIfAbsent(userName, mine);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+        try {
+            CachedUser loaded = fetch(userName);
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inflight.remove(userName, mine);
+        }
+    }
+
+    private CachedUser fetch(String userName) {
+        long start = System.currentTimeMillis();
+        ResultData<UserWithAuthorities> result = systemUserClient.getUserWithAuthorities(userName);
+        if (isStale(result)) {
+            // 响应来自尚未完成重建的 System 实例，重试一次，由负载均衡换到其他实例
+            log.debug("service-system 返回的权限索引版本过旧，重试: userName={}, version={}, expected={}",
+                    userName, result.getData().getIndexVersion(), minIndexVersion.get());
+            result = systemUserClient.getUserWithAuthorities(userName);
+        }
+        long loadMillis = System.currentTimeMillis() - start;
+        if (result == null || !result.isSuccess()) {
+            log.warn("service-system 未返回用户信息: userName={}, message={}",
+                    userName, result != null ? result.getMessage() : "响应为空");
+            return null;
+        }
+
+        UserWithAuthorities data = result.getData();
+        long indexVersion = data != null ? data.getIndexVersion() : 0L;
+        SysUserMp user = data != null ? data.getUser() : null;
+        Duration entryTtl;
+        List<String> authorities;
+        if (user == null) {
+            log.debug("用户不存在，写入空值缓存: userName={}", userName);
+            entryTtl = negativeTtl;
+            authorities = Collections.emptyList();
+        } else {
+            entryTtl = jitter(ttl);
+            authorities = data.getAuthorities() != null ? new ArrayList<>(data.getAuthorities()) : new ArrayList<>();
+        }
+
+        long ttlMillis = Math.max(1L, entryTtl.toMillis());
+        CachedUser entry = new CachedUser(user, authorities, start, System.currentTimeMillis() + ttlMillis, loadMillis,
+                indexVersion);
+        if (isStale(result)) {
+            // 仍为旧版本：本次登录使用该结果，但不写缓存
+            log.warn("service-system 返回的权限索引版本过旧，不写缓存: userName={}, version={}, expected={}",
+                    userName, indexVersion, minIndexVersion.get());
+            return entry;
+        }
+        cache.put(userName, entry, ttlMillis, TimeUnit.MILLISECONDS);
+        return entry;
+    }
+
+    private boolean isStale(ResultData<UserWithAuthorities> result) {
+        return result != null && result.isSuccess() && result.getData() != null
+                && result.getData().getIndexVersion() < minIndexVersion.get();
+    }
+
+    private Duration jitter(Duration base) {
+        if (ttlJitter <= 0) {
+            return base;
+        }
+        double factor = 1 + ThreadLocalRandom.current().nextDouble(-ttlJitter, ttlJitter);
+        return Duration.ofMillis((long) (base.toMillis() * factor));
+    }
+
+    private static ExecutorService newRefreshExecutor() {
+        AtomicInteger index = new AtomicInteger();
+        return new ThreadPoolExecutor(1, 2, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(256), r -> {
+            Thread t = new Thread(r, "system-user-refresh-" + index.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 缓存条目，user 为空表示用户不存在（空值缓存）
+     */
+    static final class CachedUser implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SysUserMp user;
+        private final List<String> authorities;
+        private final long loadedAt;
+        private final long expiresAt;
+        private final long loadMillis;
+        private final long indexVersion;
+
+        CachedUser(SysUserMp user, List<String> authorities, long loadedAt, long expiresAt, long loadMillis,
+                   long indexVersion) {
+            this.user = user;
+            this.authorities = authorities;
+            this.loadedAt = loadedAt;
+            this.expiresAt = expiresAt;
+            this.loadMillis = loadMillis;
+            this.indexVersion = indexVersion;
+        }
+    }
+}
@@ -4,13 +4,22 @@ import com.alicp.jetcache.Cache;
 import com.alicp.jetcache.CacheManager;
 import com.alicp.jetcache.anno.CacheType;
 import com.alicp.jetcache.template.QuickConfig;
+import com.scccy.common.modules.constant.TokenRevocationConstants;
+import com.scccy.common.modules.utils.JwtUtils;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -22,8 +31,17 @@ import java.util.concurrent.TimeUnit;
  * 黑名单 Key 格式：
  * - 优先使用 jti：`jwt:blacklist:{jti}`
  * - 如果没有 jti，使用 token 整串：`jwt:blacklist:{token}`
+ * - 经 JetCache 远程缓存写入，Redis 中的实际 Key 带缓存名称前缀 {@link TokenRevocationConstants#BLACKLIST_CACHE_NAME}
  * <p>
  * TTL：Token 剩余有效期（exp - now），单位为毫秒
+ * <p>
+ * 写入黑名单后会通过 Redis Pub/Sub 广播撤销事件（{@link TokenRevocationConstants#REVOCATION_CHANNEL}），
+ * Gateway 据此维护本地撤销索引
+ * <p>
+ * 批量撤销：
+ * - {@link #addToBlacklist(Collection)}：N 个 Token 的黑名单写入与事件广播各合并为一次批量提交
+ * - {@link #revokeAllForUser(Long)}：写入用户级水位线 `jwt:revoked-before:{userId}`（epoch 毫秒），
+ *   该用户签发时间早于水位线的所有 Token 均失效，校验时只需一次 Key 查询
  *
  * @author scccy
  */
@@ -31,16 +49,25 @@ import java.util.concurrent.TimeUnit;
 @Service
 public class TokenBlacklistService {
 
-    private static final String TOKEN_BLACKLIST_PREFIX = "jwt:blacklist:";
+    private static final String TOKEN_BLACKLIST_PREFIX = TokenRevocationConstants.BLACKLIST_KEY_PREFIX;
 
     @Resource
     private CacheManager cacheManager;
 
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 用户级撤销水位线的保留时长（秒），应不小于 access token 的最大有效期
+     */
+    @Value("${security.jwt.revoked-before.ttl-seconds:7500}")
+    private long revokedBeforeTtlSeconds;
+
     private Cache<String, Boolean> tokenBlacklistCache;
 
     @PostConstruct
     public void init() {
-        QuickConfig qc = QuickConfig.newBuilder("remote_")
+        QuickConfig qc = QuickConfig.newBuilder(TokenRevocationConstants.BLACKLIST_CACHE_NAME)
                 .cacheType(CacheType.REMOTE)
                 .syncLocal(false)
                 .build();
@@ -64,7 +91,8 @@ public class TokenBlacklistService {
         try {
             // 优先使用 jti
             String jti = jwt.getId();
-            String key = buildBlacklistKey(jti != null && !jti.isBlank() ? jti : jwt.getTokenValue());
+            String id = jti != null && !jti.isBlank() ? jti : jwt.getTokenValue();
+            String key = buildBlacklistKey(id);
             
             // 计算剩余有效期
             Instant expiresAt = jwt.getExpiresAt();
@@ -84,6 +112,7 @@ public class TokenBlacklistService {
 
             // 写入黑名单
             tokenBlacklistCache.put(key, true, remainingTime, TimeUnit.MILLISECONDS);
+            publishRevocation(id, currentTime);
             log.info("JWT Token 已加入黑名单: key={}, expireTime={}, remainingTime={}ms", 
                 maskKey(key), expireTime, remainingTime);
         } catch (Exception e) {
@@ -116,6 +145,7 @@ public class TokenBlacklistService {
             }
 
             tokenBlacklistCache.put(key, true, remainingTime, TimeUnit.MILLISECONDS);
+            publishRevocation(token, currentTime);
             log.info("Token 已加入黑名单: key={}, expireTime={}, remainingTime={}ms", 
                 maskKey(key), expiresAt, remainingTime);
         } catch (Exception e) {
@@ -123,6 +153,106 @@ public class TokenBlacklistService {
         }
     }
 
+    /**
+     * 批量将 JWT Token 加入黑名单
+     * <p>
+     * 所有黑名单写入通过一次 putAll 提交（Lettuce 异步命令在同一连接上流水线发送），
+     * 撤销事件通过一次 Pipeline 广播；TTL 统一取本批次中最长的剩余有效期
+     *
+     * @param jwts JWT Token 集合
+     * @return 实际加入黑名单的数量（已过期或无过期时间的 Token 会被跳过）
+     */
+    public int addToBlacklist(Collection<Jwt> jwts) {
+        if (jwts == null || jwts.isEmpty()) {
+            return 0;
+        }
+
+        long currentTime = System.currentTimeMillis();
+        Map<String, Boolean> entries = new LinkedHashMap<>(jwts.size() * 2);
+        Map<String, String> ids = new LinkedHashMap<>(jwts.size() * 2);
+        long maxRemainingTime = 0;
+        for (Jwt jwt : jwts) {
+            if (jwt == null || jwt.getExpiresAt() == null) {
+                continue;
+            }
+            long remainingTime = jwt.getExpiresAt().toEpochMilli() - currentTime;
+            if (remainingTime <= 0) {
+                continue;
+            }
+            String jti = jwt.getId();
+            String id = jti != null && !jti.isBlank() ? jti : jwt.getTokenValue();
+            String key = buildBlacklistKey(id);
+            entries.put(key, true);
+            ids.put(key, id);
+            maxRemainingTime = Math.max(maxRemainingTime, remainingTime);
+        }
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            tokenBlacklistCache.putAll(entries, maxRemainingTime, TimeUnit.MILLISECONDS);
+            publishRevocations(ids.values(), currentTime);
+            log.info("批量加入黑名单完成: count={}, maxRemainingTime={}ms", entries.size(), maxRemainingTime);
+            return entries.size();
+        } catch (Exception e) {
+            log.error("批量将 JWT Token 加入黑名单失败: count={}, error={}", entries.size(), e.getMessage(), e);
+            return 0;
+        }
+    }
+
+    /**
+     * 撤销用户的所有会话
+     * <p>
+     * 写入用户级水位线（当前 epoch 毫秒），该用户签发时间早于水位线的 Token 全部失效，
+     * 适用于改密、封禁等场景，无需逐个查找并拉黑 Token；撤销之后（包括同一秒内）重新登录签发的 Token 不受影响
+     *
+     * @param userId 用户ID
+     * @return 水位线（epoch 毫秒）；写入失败返回 null
+     */
+    public Long revokeAllForUser(Long userId) {
+        if (userId == null) {
+            log.warn("用户ID为空，无法撤销会话");
+            return null;
+        }
+
+        try {
+            long currentTime = System.currentTimeMillis();
+            long watermark = currentTime;
+            stringRedisTemplate.opsForValue().set(buildRevokedBeforeKey(userId), String.valueOf(watermark),
+                revokedBeforeTtlSeconds, TimeUnit.SECONDS);
+            publish(TokenRevocationConstants.REVOKED_BEFORE_CHANNEL, String.valueOf(userId), currentTime);
+            log.info("已撤销用户的所有会话: userId={}, revokedBefore={}", userId, watermark);
+            return watermark;
+        } catch (Exception e) {
+            log.error("撤销用户会话失败: userId={}, error={}", userId, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * 检查 JWT Token 是否早于用户级撤销水位线
+     *
+     * @param jwt JWT Token 对象
+     * @return true 如果签发时间早于水位线（已撤销），false 如果未撤销或无法判定用户
+     */
+    public boolean isRevokedBefore(Jwt jwt) {
+        Long issuedAtMillis = JwtUtils.getIssuedAtMillis(jwt);
+        if (issuedAtMillis == null) {
+            return false;
+        }
+        Long userId = JwtUtils.getUserId(jwt);
+        if (userId == null) {
+            return false;
+        }
+
+        String watermark = stringRedisTemplate.opsForValue().get(buildRevokedBeforeKey(userId));
+        if (watermark == null || watermark.isEmpty()) {
+            return false;
+        }
+        return issuedAtMillis < TokenRevocationConstants.parseWatermarkMillis(watermark);
+    }
+
     /**
      * 检查 JWT Token 是否在黑名单中
      *
@@ -139,7 +269,7 @@ public class TokenBlacklistService {
             String jti = jwt.getId();
             String key = buildBlacklistKey(jti != null && !jti.isBlank() ? jti : jwt.getTokenValue());
             Boolean blacklisted = tokenBlacklistCache.get(key);
-            return blacklisted != null && blacklisted;
+            return (blacklisted != null && blacklisted) || isRevokedBefore(jwt);
         } catch (Exception e) {
             log.error("检查 JWT Token 黑名单失败: error={}", e.getMessage(), e);
             // 发生异常时，为了安全起见，返回 true（拒绝访问）
@@ -169,6 +299,60 @@ public class TokenBlacklistService {
         }
     }
 
+    /**
+     * 广播撤销事件，供 Gateway 同步本地撤销索引
+     * <p>
+     * 广播失败不影响黑名单写入，Gateway 会在下一次全量重建时补齐
+     *
+     * @param id        jti 或 token 整串
+     * @param revokedAt 撤销时间（毫秒）
+     */
+    private void publishRevocation(String id, long revokedAt) {
+        publish(TokenRevocationConstants.REVOCATION_CHANNEL, id, revokedAt);
+    }
+
+    /**
+     * 通过一次 Pipeline 批量广播撤销事件
+     *
+     * @param ids       jti 或 token 整串
+     * @param revokedAt 撤销时间（毫秒）
+     */
+    private void publishRevocations(Collection<String> ids, long revokedAt) {
+        try {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (String id : ids) {
+                    stringConnection.publish(TokenRevocationConstants.REVOCATION_CHANNEL, buildMessage(id, revokedAt));
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("批量广播 Token 撤销事件失败，等待 Gateway 全量重建补齐: error={}", e.getMessage());
+        }
+    }
+
+    private void publish(String channel, String id, long revokedAt) {
+        try {
+            stringRedisTemplate.convertAndSend(channel, buildMessage(id, revokedAt));
+        } catch (Exception e) {
+            log.warn("广播 Token 撤销事件失败，等待 Gateway 全量重建补齐: channel={}, error={}", channel, e.getMessage());
+        }
+    }
+
+    private String buildMessage(String id, long revokedAt) {
+        return revokedAt + String.valueOf(TokenRevocationConstants.MESSAGE_SEPARATOR) + id;
+    }
+
+    /**
+     * 构建用户级撤销水位线 Key
+     *
+     * @param userId 用户ID
+     * @return 水位线 Key
+     */
+    private String buildRevokedBeforeKey(Long userId) {
+        return TokenRevocationConstants.REVOKED_BEFORE_KEY_PREFIX + userId;
+    }
+
     /**
      * 构建黑名单 Key
      *
@@ -1,23 +1,19 @@
 package com.scccy.service.auth.service;
 
 import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
 import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.JWSHeader;
-import com.nimbusds.jose.JWSSigner;
-import com.nimbusds.jose.crypto.RSASSASigner;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jwt.JWTClaimsSet;
-import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jose.util.Base64URL;
+import com.scccy.common.modules.constant.TokenRevocationConstants;
 import com.scccy.common.modules.domain.mp.system.SysUserMp;
-import com.scccy.common.modules.dto.ResultData;
 import com.scccy.service.auth.dto.LoginResponse;
 import com.scccy.service.auth.oauth2.JWKCacheManager;
+import com.scccy.service.auth.oauth2.JwtIdGenerator;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
@@ -25,13 +21,9 @@ import org.springframework.security.oauth2.server.authorization.settings.TokenSe
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
-import java.security.interfaces.RSAPrivateKey;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.Collections;
-import java.util.Date;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * 用户 Token 生成服务
@@ -42,6 +34,12 @@ import java.util.UUID;
  * - 普通用户登录后生成 Token
  * - 普通用户注册后自动生成 Token
  * <p>
+ * 签发路径针对登录高峰做了精简：
+ * - 客户端配置（audience、有效期）解析为快照，仅在 RegisteredClient 变化时重建
+ * - jti 由 {@link JwtIdGenerator} 无锁生成，不再使用 UUID.randomUUID()
+ * - Claims 直接写入预估容量的缓冲区，不经过 JwtClaimsSet / JWTClaimsSet 的 Map 与 JSON 库
+ * - 使用 JWKCacheManager 常驻的签名器签名，JWS Header 按 kid 预先编码
+ * <p>
  * 注意：此服务仅用于普通用户场景
  * 第三方 client_id 的 Token 生成由 Spring Authorization Server 自动处理
  *
@@ -51,6 +49,11 @@ import java.util.UUID;
 @Service
 public class UserTokenGenerationService {
 
+    /**
+     * 未配置内部服务客户端时的默认有效期
+     */
+    private static final Duration DEFAULT_ACCESS_TOKEN_TTL = Duration.ofHours(2);
+
     @Autowired
     private SystemUserCacheService systemUserCacheService;
 
@@ -60,12 +63,12 @@ public class UserTokenGenerationService {
     @Autowired
     private AuthorizationServerSettings authorizationServerSettings;
 
-    @Autowired(required = false)
-    private JwtEncoder jwtEncoder;
-
     @Resource
     private JWKCacheManager jwkCacheManager;
 
+    @Resource
+    private JwtIdGenerator jwtIdGenerator;
+
     /**
      * 内部服务客户端 ID，从配置文件读取
      * <p>
@@ -74,6 +77,16 @@ public class UserTokenGenerationService {
     @Value("${scccy.internal-token.client-id:}")
     private String internalServiceClientId;
 
+    /**
+     * 客户端配置快照，RegisteredClient 实例变化（索引重载）时重建
+     */
+    private volatile ClientSettingsSnapshot clientSettings;
+
+    /**
+     * 按 kid 预先编码的 JWS Header，密钥轮换后重建
+     */
+    private volatile EncodedHeader encodedHeader;
+
     /**
      * 生成用户 JWT Token
      * <p>
@@ -89,8 +102,6 @@ public class UserTokenGenerationService {
      * @return Token 和用户信息
      */
     public LoginResponse generateUserToken(String username) {
-        log.info("生成用户 JWT Token: username={}", username);
-
         try {
             // 1. 获取用户信息（缓存封装）
             SysUserMp user = systemUserCacheService.getUserByUserName(username);
@@ -102,26 +113,22 @@ public class UserTokenGenerationService {
             // 2. 获取用户权限
             List<String> authorities = systemUserCacheService.getUserAuthorities(username);
 
-            // 3. 生成 JWT Token
-            String token = generateJwtToken(user, authorities);
-
-            // 4. 计算过期时间（从客户端配置中获取）
-            Instant expiresAt = Instant.now().plus(2, ChronoUnit.HOURS);
-            RegisteredClient userClient = findUserClient();
-            if (userClient != null) {
-                TokenSettings tokenSettings = userClient.getTokenSettings();
-                expiresAt = Instant.now().plus(tokenSettings.getAccessTokenTimeToLive());
-            }
+            // 3. 生成 JWT Token（客户端配置只解析一次，过期时间与 Token 中的 exp 一致）
+            ClientSettingsSnapshot settings = resolveClientSettings();
+            long issuedAtMillis = System.currentTimeMillis();
+            long issuedAt = issuedAtMillis / 1000;
+            long expiresAt = issuedAt + settings.accessTokenTtlSeconds();
+            String token = generateJwtToken(user, authorities, settings, issuedAtMillis, expiresAt);
 
-            // 5. 构建登录响应
+            // 4. 构建登录响应
             LoginResponse loginResponse = new LoginResponse();
             loginResponse.setToken(token);
             loginResponse.setUserId(user.getUserId());
             loginResponse.setUsername(user.getUserName());
             loginResponse.setNickName(user.getNickName());
-            loginResponse.setExpireTime(expiresAt.toEpochMilli());
+            loginResponse.setExpireTime(expiresAt * 1000);
 
-            log.info("用户 JWT Token 生成成功: username={}, userId={}, expiresAt={}", 
+            log.debug("用户 JWT Token 生成成功: username={}, userId={}, expiresAt={}",
                 username, user.getUserId(), expiresAt);
             return loginResponse;
         } catch (Exception e) {
@@ -133,209 +140,198 @@ public class UserTokenGenerationService {
     /**
      * 生成 JWT Token
      * <p>
-     * 优先使用 JwtEncoder 生成 Token，如果不可用则使用 JWKCacheManager 的密钥对直接生成
+     * 直接拼接 Header 与 Claims 的 Base64URL 编码，使用 JWKCacheManager 常驻的签名器签名
      *
      * @param user        用户信息
      * @param authorities 权限列表
+     * @param settings    客户端配置快照
+     * @param issuedAtMillis 签发时间（epoch 毫秒）
+     * @param expiresAt      过期时间（epoch 秒）
      * @return JWT Token 字符串
      */
-    private String generateJwtToken(SysUserMp user, List<String> authorities) {
-        if (jwtEncoder != null) {
-            // 使用 JwtEncoder 生成 Token
-            return generateTokenWithJwtEncoder(user, authorities);
-        } else {
-            // 使用 JWKCacheManager 的密钥对直接生成 Token
-            return generateTokenWithJWK(user, authorities);
+    private String generateJwtToken(SysUserMp user, List<String> authorities, ClientSettingsSnapshot settings,
+                                    long issuedAtMillis, long expiresAt) {
+        try {
+            // 获取常驻内存的签名密钥（kid 与签名器来自同一快照）
+            JWKCacheManager.SigningKey signingKey = jwkCacheManager.getSigningKey();
+            EncodedHeader header = resolveHeader(signingKey.keyId());
+
+            String jti = jwtIdGenerator.nextId();
+            byte[] claims = writeClaims(user, authorities, settings.audience(), issuedAtMillis, expiresAt, jti);
+
+            // signingInput = base64url(header) + '.' + base64url(claims)
+            String encodedClaims = Base64URL.encode(claims).toString();
+            StringBuilder jwt = new StringBuilder(header.encoded().length() + encodedClaims.length() + 360)
+                    .append(header.encoded())
+                    .append('.')
+                    .append(encodedClaims);
+            byte[] signingInput = jwt.toString().getBytes(StandardCharsets.US_ASCII);
+            Base64URL signature = signingKey.signer().sign(header.header(), signingInput);
+            jwt.append('.').append(signature);
+
+            log.debug("生成用户 Token 成功: username={}, jti={}", user.getUserName(), jti);
+            return jwt.toString();
+        } catch (JOSEException e) {
+            log.error("生成用户 Token 失败: username={}, error={}", user.getUserName(), e.getMessage(), e);
+            throw new RuntimeException("生成 Token 失败: " + e.getMessage(), e);
         }
     }
 
     /**
-     * 使用 JwtEncoder 生成 Token
-     *
-     * @param user        用户信息
-     * @param authorities 权限列表
-     * @return JWT Token 字符串
+     * 将 Claims 直接序列化为 JSON 字节
+     * <p>
+     * 字段固定，无需通用 JSON 库；缓冲区按权限数量预估容量，避免扩容拷贝
      */
-    private String generateTokenWithJwtEncoder(SysUserMp user, List<String> authorities) {
-        try {
-            // 获取用户客户端配置（用于普通用户的默认客户端）
-            RegisteredClient registeredClient = findUserClient();
-            TokenSettings tokenSettings;
-            String clientId;
-            
-            if (registeredClient != null) {
-                tokenSettings = registeredClient.getTokenSettings();
-                clientId = registeredClient.getClientId();
-                log.debug("使用用户客户端配置生成 Token: clientId={}", clientId);
-            } else {
-                log.debug("未找到用户客户端配置，使用默认配置");
-                // 使用默认 Token 设置（2 小时）
-                tokenSettings = TokenSettings.builder()
-                        .accessTokenTimeToLive(java.time.Duration.ofHours(2))
-                        .build();
-                // 使用 issuer 作为 audience，因为这是 Authorization Server 自己生成的 Token
-                clientId = authorizationServerSettings.getIssuer();
+    private byte[] writeClaims(SysUserMp user, List<String> authorities, String audience,
+                               long issuedAtMillis, long expiresAt, String jti) {
+        int authorityCount = authorities == null ? 0 : authorities.size();
+        StringBuilder json = new StringBuilder(256 + authorityCount * 32);
+        json.append('{');
+        appendStringField(json, "iss", authorizationServerSettings.getIssuer()).append(',');
+        appendStringField(json, "sub", user.getUserName()).append(',');
+        appendStringField(json, "aud", audience).append(',');
+        json.append("\"iat\":").append(issuedAtMillis / 1000).append(',');
+        // iat 只有秒精度，撤销水位线按毫秒比较
+        json.append('"').append(TokenRevocationConstants.ISSUED_AT_MILLIS_CLAIM).append("\":").append(issuedAtMillis).append(',');
+        json.append("\"exp\":").append(expiresAt).append(',');
+        appendStringField(json, "jti", jti).append(',');
+        json.append("\"userId\":").append(user.getUserId()).append(',');
+        appendStringField(json, "username", user.getUserName()).append(',');
+        json.append("\"authorities\":[");
+        for (int i = 0; i < authorityCount; i++) {
+            if (i > 0) {
+                json.append(',');
             }
+            appendString(json, authorities.get(i));
+        }
+        json.append(']');
+        if (user.getNickName() != null) {
+            json.append(',');
+            appendStringField(json, "nickName", user.getNickName());
+        }
+        if (user.getStatus() != null) {
+            json.append(",\"status\":").append(user.getStatus());
+        }
+        json.append('}');
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
 
-            // 获取 Token 设置
-            Instant issuedAt = Instant.now();
-            Instant expiresAt = issuedAt.plus(tokenSettings.getAccessTokenTimeToLive());
-
-            // 构建 JWT Claims
-            org.springframework.security.oauth2.jwt.JwtClaimsSet.Builder claimsBuilder = 
-                    org.springframework.security.oauth2.jwt.JwtClaimsSet.builder()
-                    .issuer(authorizationServerSettings.getIssuer())
-                    .subject(user.getUserName())
-                    .audience(Collections.singletonList(clientId))
-                    .issuedAt(issuedAt)
-                    .expiresAt(expiresAt)
-                    .id(UUID.randomUUID().toString())
-                    .claim("userId", user.getUserId())
-                    .claim("username", user.getUserName())
-                    .claim("authorities", authorities);
+    private static StringBuilder appendStringField(StringBuilder json, String name, String value) {
+        json.append('"').append(name).append("\":");
+        return appendString(json, value);
+    }
 
-            if (user.getNickName() != null) {
-                claimsBuilder.claim("nickName", user.getNickName());
-            }
-            if (user.getStatus() != null) {
-                claimsBuilder.claim("status", user.getStatus());
+    /**
+     * 追加 JSON 字符串（含转义），null 输出为 JSON null
+     */
+    private static StringBuilder appendString(StringBuilder json, String value) {
+        if (value == null) {
+            return json.append("null");
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
             }
-
-            org.springframework.security.oauth2.jwt.JwtClaimsSet claims = claimsBuilder.build();
-
-            // 生成 JWT Token
-            org.springframework.security.oauth2.jwt.JwtEncoderParameters encoderParameters = 
-                    org.springframework.security.oauth2.jwt.JwtEncoderParameters.from(claims);
-            org.springframework.security.oauth2.jwt.Jwt jwt = jwtEncoder.encode(encoderParameters);
-
-            log.debug("使用 JwtEncoder 生成用户 Token 成功: username={}, jti={}", user.getUserName(), jwt.getId());
-            return jwt.getTokenValue();
-        } catch (Exception e) {
-            log.error("使用 JwtEncoder 生成用户 Token 失败: username={}, error={}", user.getUserName(), e.getMessage(), e);
-            throw new RuntimeException("生成 Token 失败: " + e.getMessage(), e);
         }
+        return json.append('"');
     }
 
     /**
-     * 使用 JWKCacheManager 的密钥对直接生成 Token
-     * <p>
-     * 当 JwtEncoder 不可用时，使用 JWKCacheManager 的密钥对直接生成 JWT Token
-     *
-     * @param user        用户信息
-     * @param authorities 权限列表
-     * @return JWT Token 字符串
+     * 获取当前 kid 对应的已编码 Header，kid 变化（密钥轮换）时重建
      */
-    private String generateTokenWithJWK(SysUserMp user, List<String> authorities) {
-        try {
-            // 获取 JWKSet
-            JWKSet jwkSet = jwkCacheManager.getJWKSet();
-            RSAKey rsaKey = (RSAKey) jwkSet.getKeys().get(0);
-            
-            // 获取私钥
-            RSAPrivateKey privateKey = rsaKey.toRSAPrivateKey();
-            
-            // 获取用户客户端配置（用于普通用户的默认客户端）
-            RegisteredClient registeredClient = findUserClient();
-            TokenSettings tokenSettings;
-            String clientId;
-            
-            if (registeredClient != null) {
-                tokenSettings = registeredClient.getTokenSettings();
-                clientId = registeredClient.getClientId();
-                log.debug("使用用户客户端配置生成 Token: clientId={}", clientId);
-            } else {
-                log.debug("未找到用户客户端配置，使用默认配置");
-                // 使用默认 Token 设置（2 小时）
-                tokenSettings = TokenSettings.builder()
-                        .accessTokenTimeToLive(java.time.Duration.ofHours(2))
-                        .build();
-                // 使用 issuer 作为 audience，因为这是 Authorization Server 自己生成的 Token
-                clientId = authorizationServerSettings.getIssuer();
-            }
-
-            // 计算过期时间
-            Instant issuedAt = Instant.now();
-            Instant expiresAt = issuedAt.plus(tokenSettings.getAccessTokenTimeToLive());
-            
-            // 构建 JWT Claims
-            JWTClaimsSet.Builder claimsBuilder = new JWTClaimsSet.Builder()
-                    .issuer(authorizationServerSettings.getIssuer())
-                    .subject(user.getUserName())
-                    .audience(Collections.singletonList(clientId))
-                    .issueTime(Date.from(issuedAt))
-                    .expirationTime(Date.from(expiresAt))
-                    .jwtID(UUID.randomUUID().toString())
-                    .claim("userId", user.getUserId())
-                    .claim("username", user.getUserName())
-                    .claim("authorities", authorities);
-
-            if (user.getNickName() != null) {
-                claimsBuilder.claim("nickName", user.getNickName());
-            }
-            if (user.getStatus() != null) {
-                claimsBuilder.claim("status", user.getStatus());
-            }
-
-            JWTClaimsSet claims = claimsBuilder.build();
-
-            // 创建 JWS Header
-            JWSHeader header = new JWSHeader.Builder(JWSAlgorithm.RS256)
-                    .keyID(rsaKey.getKeyID())
-                    .build();
-
-            // 创建 SignedJWT
-            SignedJWT signedJWT = new SignedJWT(header, claims);
-
-            // 使用私钥签名
-            JWSSigner signer = new RSASSASigner(privateKey);
-            signedJWT.sign(signer);
-
-            // 序列化为字符串
-            String token = signedJWT.serialize();
-
-            log.debug("使用 JWK 生成用户 Token 成功: username={}, jti={}", user.getUserName(), claims.getJWTID());
-            return token;
-        } catch (JOSEException e) {
-            log.error("使用 JWK 生成用户 Token 失败: username={}, error={}", user.getUserName(), e.getMessage(), e);
-            throw new RuntimeException("生成 Token 失败: " + e.getMessage(), e);
-        } catch (Exception e) {
-            log.error("使用 JWK 生成用户 Token 失败: username={}, error={}", user.getUserName(), e.getMessage(), e);
-            throw new RuntimeException("生成 Token 失败: " + e.getMessage(), e);
+    private EncodedHeader resolveHeader(String keyId) {
+        EncodedHeader current = encodedHeader;
+        if (current != null && current.keyId().equals(keyId)) {
+            return current;
         }
+        JWSHeader header = new JWSHeader.Builder(JWSAlgorithm.RS256)
+                .type(JOSEObjectType.JWT)
+                .keyID(keyId)
+                .build();
+        EncodedHeader rebuilt = new EncodedHeader(keyId, header, header.toBase64URL().toString());
+        encodedHeader = rebuilt;
+        return rebuilt;
     }
 
     /**
-     * 查找用户客户端
+     * 解析用户客户端配置
      * <p>
      * 从配置文件中读取内部服务客户端 ID（scccy.internal-token.client-id），
-     * 并在数据库中查找对应的客户端配置。
+     * 并在 RegisteredClient 索引中查找对应的客户端配置。
+     * 索引返回的是快照中的同一实例，实例未变化时直接复用上次解析的结果。
      * <p>
      * 注意：
      * 1. 必须从配置文件读取客户端 ID，保证与内部服务调用使用相同的客户端配置
      * 2. 用户登录后的 Token 会用于 /api/** 路由，这些路由都需要 SCOPE_internal-service 权限
      * 3. 如果配置了客户端 ID 但数据库中不存在，将抛出异常拒绝登录
-     * 4. 如果未配置客户端 ID，将使用默认配置（2 小时过期时间）
+     * 4. 如果未配置客户端 ID，将使用默认配置（2 小时过期时间，audience 为 issuer）
      *
-     * @return 注册的客户端，如果未配置客户端 ID 则返回 null（使用默认配置）
+     * @return 客户端配置快照
      * @throws RuntimeException 如果配置了客户端 ID 但数据库中不存在
      */
-    private RegisteredClient findUserClient() {
-        // 如果配置了内部服务客户端 ID，必须在数据库中找到对应的客户端配置
+    private ClientSettingsSnapshot resolveClientSettings() {
+        RegisteredClient client = null;
         if (StringUtils.hasText(internalServiceClientId)) {
-            RegisteredClient client = registeredClientRepository.findByClientId(internalServiceClientId);
-            if (client != null) {
-                log.debug("找到用户客户端（从配置读取）: clientId={}", internalServiceClientId);
-                return client;
+            client = registeredClientRepository.findByClientId(internalServiceClientId);
+            if (client == null) {
+                // 配置了客户端 ID 但数据库中不存在，拒绝登录
+                String errorMsg = String.format("配置的内部服务客户端 ID 不存在: %s，请在数据库中创建对应的客户端配置", internalServiceClientId);
+                log.error(errorMsg);
+                throw new RuntimeException(errorMsg);
             }
-            // 配置了客户端 ID 但数据库中不存在，拒绝登录
-            String errorMsg = String.format("配置的内部服务客户端 ID 不存在: %s，请在数据库中创建对应的客户端配置", internalServiceClientId);
-            log.error(errorMsg);
-            throw new RuntimeException(errorMsg);
         }
-        
-        // 如果未配置客户端 ID，使用默认配置（2 小时过期时间）
-        log.debug("未配置内部服务客户端 ID，将使用默认配置（2 小时过期时间）");
-        return null;
+
+        ClientSettingsSnapshot current = clientSettings;
+        if (current != null && current.source() == client) {
+            return current;
+        }
+
+        ClientSettingsSnapshot rebuilt;
+        if (client != null) {
+            TokenSettings tokenSettings = client.getTokenSettings();
+            rebuilt = new ClientSettingsSnapshot(client, client.getClientId(),
+                    tokenSettings.getAccessTokenTimeToLive().toSeconds());
+            log.debug("用户客户端配置已解析: clientId={}", client.getClientId());
+        } else {
+            // 使用 issuer 作为 audience，因为这是 Authorization Server 自己生成的 Token
+            rebuilt = new ClientSettingsSnapshot(null, authorizationServerSettings.getIssuer(),
+                    DEFAULT_ACCESS_TOKEN_TTL.toSeconds());
+            log.debug("未配置内部服务客户端 ID，将使用默认配置（2 小时过期时间）");
+        }
+        clientSettings = rebuilt;
+        return rebuilt;
     }
-}
 
+    /**
+     * 客户端配置快照
+     *
+     * @param source                来源客户端（未配置时为 null），用于判断是否需要重建
+     * @param audience              Token 的 aud
+     * @param accessTokenTtlSeconds Access Token 有效期（秒）
+     */
+    private record ClientSettingsSnapshot(RegisteredClient source, String audience, long accessTokenTtlSeconds) {
+    }
+
+    /**
+     * 已编码的 JWS Header
+     *
+     * @param keyId   kid
+     * @param header  Header 对象（签名器需要）
+     * @param encoded Header 的 Base64URL 编码
+     */
+    private record EncodedHeader(String keyId, JWSHeader header, String encoded) {
+    }
+}
@@ -12,12 +12,18 @@ import com.scccy.service.auth.domain.RegisteredClientConvert;
 import com.scccy.service.auth.domain.mp.Oauth2RegisteredClientMp;
 import com.scccy.service.auth.domain.param.RegisteredClientQueryParam;
 import com.scccy.service.auth.domain.vo.RegisteredClientVo;
+import com.scccy.service.auth.oauth2.RegisteredClientIndex;
 import com.scccy.service.auth.service.IOauth2RegisteredClientService;
 import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
+@Slf4j
 @Service
 public class Oauth2RegisteredClientService extends ServiceImpl<Oauth2RegisteredClientMapper, Oauth2RegisteredClientMp> implements IOauth2RegisteredClientService {
     /**
@@ -31,23 +37,34 @@ public class Oauth2RegisteredClientService extends ServiceImpl<Oauth2RegisteredC
     @Resource
     RegisteredClientConvert registeredClientConvert;
 
+    @Resource
+    StringRedisTemplate stringRedisTemplate;
+
     @Override
     public boolean add(Oauth2RegisteredClientMp oauth2RegisteredClientMp) {
         //密码不为空，表示重新设置了密码，保存密码
         if (StringUtils.isNotBlank(oauth2RegisteredClientMp.getClientSecret()))
             oauth2RegisteredClientMp.setClientSecret(passwordEncoder.encode(oauth2RegisteredClientMp.getClientSecret()));
         //保存
-        return this.save(oauth2RegisteredClientMp);
+        boolean saved = this.save(oauth2RegisteredClientMp);
+        if (saved) {
+            publishChange(oauth2RegisteredClientMp.getId());
+        }
+        return saved;
     }
 
     @Override
-    @CacheInvalidate(name = CACHE_PREFIX_KEY, key = "#registeredClientPo.id")
+    @CacheInvalidate(name = CACHE_PREFIX_KEY, key = "#oauth2RegisteredClientMp.id")
     public boolean update(Oauth2RegisteredClientMp oauth2RegisteredClientMp) {
         //密码不为空，表示重新设置了密码，保存密码
         if (StringUtils.isNotBlank(oauth2RegisteredClientMp.getClientSecret()))
             oauth2RegisteredClientMp.setClientSecret(passwordEncoder.encode(oauth2RegisteredClientMp.getClientSecret()));
         //更新
-        return this.updateById(oauth2RegisteredClientMp);
+        boolean updated = this.updateById(oauth2RegisteredClientMp);
+        if (updated) {
+            publishChange(oauth2RegisteredClientMp.getId());
+        }
+        return updated;
     }
 
     @Override
@@ -73,9 +90,32 @@ public class Oauth2RegisteredClientService extends ServiceImpl<Oauth2RegisteredC
         return this.getOne(queryWrapper);
     }
 
+    @Override
+    public List<Oauth2RegisteredClientMp> listAll() {
+        return this.list();
+    }
+
     @Override
     @CacheInvalidate(name = CACHE_PREFIX_KEY, key = "#id")
     public boolean disable(String id) {
-        return this.removeById(id);
+        boolean removed = this.removeById(id);
+        if (removed) {
+            publishChange(id);
+        }
+        return removed;
+    }
+
+    /**
+     * 广播客户端变更，各实例收到后重新加载注册客户端索引
+     *
+     * @param id 变更的客户端 id
+     */
+    private void publishChange(String id) {
+        try {
+            stringRedisTemplate.convertAndSend(RegisteredClientIndex.CHANGE_CHANNEL, String.valueOf(id));
+        } catch (Exception e) {
+            // 广播失败时依赖索引的定时全量重载兜底
+            log.warn("广播注册客户端变更失败: id={}, error={}", id, e.getMessage());
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.scccy.service.auth.oauth2;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link JwtIdGenerator} 并发唯一性与有序性测试
+ *
+ * @author scccy
+ */
+class JwtIdGeneratorTest {
+
+    private static final int THREADS = 8;
+
+    private static final int IDS_PER_THREAD = 50_000;
+
+    private final JwtIdGenerator generator = new JwtIdGenerator();
+
+    @Test
+    void concurrentIdsAreUniqueAndOrderedPerThread() throws InterruptedException {
+        Set<String> all = ConcurrentHashMap.newKeySet();
+        List<Boolean> ordered = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                String previous = "";
+                boolean sorted = true;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < IDS_PER_THREAD; i++) {
+                    String id = generator.nextId();
+                    sorted &= id.compareTo(previous) > 0;
+                    previous = id;
+                    all.add(id);
+                }
+                synchronized (ordered) {
+                    ordered.add(sorted);
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(all).hasSize(THREADS * IDS_PER_THREAD);
+        assertThat(ordered).hasSize(THREADS).containsOnly(true);
+    }
+
+    @Test
+    void idsCarryInstancePrefixAndFixedLength() {
+        String id = generator.nextId();
+
+        assertThat(id).startsWith(generator.getInstancePrefix());
+        assertThat(id).hasSize(generator.getInstancePrefix().length() + 16);
+        assertThat(new JwtIdGenerator().getInstancePrefix()).isNotEqualTo(generator.getInstancePrefix());
+    }
+}
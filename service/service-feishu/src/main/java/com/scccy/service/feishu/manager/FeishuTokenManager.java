@@ -0,0 +1,100 @@
+package com.scccy.service.feishu.manager;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.scccy.common.base.manager.OkHttpManager;
+import com.scccy.common.base.manager.ThirdPartyTokenBroker;
+import com.scccy.common.base.manager.ThirdPartyTokenBroker.IssuedToken;
+import com.scccy.common.base.manager.ThirdPartyTokenBroker.TokenSource;
+import com.scccy.common.modules.enums.HTTPS;
+import com.scccy.service.feishu.config.FeishuProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 飞书自建应用 access token
+ * <p>
+ * tenant_access_token 与 app_access_token 各对应一个令牌，由 {@link ThirdPartyTokenBroker} 统一缓存与刷新。
+ * Redis 中以纯字符串保存，键为 {@code feishu:access_token:tenant} / {@code feishu:access_token:app}
+ *
+ * @author scccy
+ */
+@Component
+public class FeishuTokenManager {
+
+    /**
+     * 99991661 缺少令牌，99991663 / 99991664 / 99991668 令牌无效，99991677 令牌过期
+     */
+    private static final Set<Integer> TOKEN_ERROR_CODES = Set.of(99991661, 99991663, 99991664, 99991668, 99991677);
+
+    private final ThirdPartyTokenBroker tokenBroker;
+
+    private final TokenSource tenantToken;
+
+    private final TokenSource appToken;
+
+    public FeishuTokenManager(ThirdPartyTokenBroker tokenBroker,
+                              OkHttpManager okHttpManager,
+                              FeishuProperties feishuProperties) {
+        this.tokenBroker = tokenBroker;
+        this.tenantToken = new FeishuTokenSource("feishu:access_token:tenant", "/auth/v3/tenant_access_token/internal",
+                "tenant_access_token", okHttpManager, feishuProperties);
+        this.appToken = new FeishuTokenSource("feishu:access_token:app", "/auth/v3/app_access_token/internal",
+                "app_access_token", okHttpManager, feishuProperties);
+    }
+
+    public String tenantToken() throws IOException {
+        return tokenBroker.getToken(tenantToken);
+    }
+
+    public String appToken() throws IOException {
+        return tokenBroker.getToken(appToken);
+    }
+
+    /**
+     * 丢弃当前令牌并重新获取
+     *
+     * @return tenant_access_token、app_access_token
+     */
+    public Map<String, String> refresh() throws IOException {
+        tokenBroker.evict(tenantToken, null);
+        tokenBroker.evict(appToken, null);
+        return Map.of(
+                "tenant_access_token", tenantToken(),
+                "app_access_token", appToken()
+        );
+    }
+
+    private record FeishuTokenSource(String cacheKey,
+                                     String path,
+                                     String field,
+                                     OkHttpManager okHttpManager,
+                                     FeishuProperties feishuProperties) implements TokenSource {
+
+        @Override
+        public IssuedToken fetch() throws IOException {
+            Map<String, Object> param = Map.of(
+                    "app_id", feishuProperties.getAppId(),
+                    "app_secret", feishuProperties.getAppSecret()
+            );
+            Map<String, Object> headers = Map.of(
+                    "Content-Type", HTTPS.CONTENT_TYPE.getCode()
+            );
+            JSONObject post = okHttpManager.post(feishuProperties.getLarkBaseUrl() + path, headers, param);
+            Integer code = post.getInteger("code");
+            if (code != null && code != 0) {
+                throw new IOException("获取飞书 " + field + " 失败: " + post);
+            }
+            Long expire = post.getLong("expire");
+            return new IssuedToken(post.getString(field), expire == null ? 7200L : expire);
+        }
+
+        @Override
+        public boolean isTokenRejected(JSONObject response) {
+            Integer code = response.getInteger("code");
+            return code != null && TOKEN_ERROR_CODES.contains(code);
+        }
+    }
+}
@@ -11,11 +11,9 @@ import com.lark.oapi.service.authen.v1.model.GetUserInfoResp;
 import com.lark.oapi.service.im.v1.model.CreateMessageReq;
 import com.lark.oapi.service.im.v1.model.CreateMessageReqBody;
 import com.lark.oapi.service.im.v1.model.CreateMessageResp;
-import com.scccy.common.base.manager.OkHttpManager;
-import com.scccy.common.modules.enums.HTTPS;
-import com.scccy.service.feishu.config.FeishuProperties;
 import com.scccy.service.feishu.dto.FeishuQRLoginDto;
 import com.scccy.service.feishu.manager.FeishuApiClient;
+import com.scccy.service.feishu.manager.FeishuTokenManager;
 import com.scccy.service.feishu.service.FeishuService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,58 +30,24 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class FeishuServiceImpl implements FeishuService {
 
-    private final OkHttpManager okHttpManager;
     private final RedisTemplate<String, Object> redisTemplate;
     private final FeishuApiClient feishuApiClient;
-    private final FeishuProperties feishuProperties;
+    private final FeishuTokenManager feishuTokenManager;
 
     @Override
     public Map<String, String> refreshToken() throws IOException {
-        Map<String, Object> param = Map.of(
-                "app_id", feishuProperties.getAppId(),
-                "app_secret", feishuProperties.getAppSecret()
-        );
-        Map<String, Object> headers = Map.of(
-                "Content-Type", HTTPS.CONTENT_TYPE.getCode()
-
-        );
-        JSONObject post = okHttpManager.post(feishuProperties.getLarkBaseUrl()+ "/auth/v3/app_access_token/internal", param, headers);
-        String tenantAccessToken = post.getString("tenant_access_token");
-        String appAccessToken = post.getString("app_access_token");
-        Integer expire = post.getInteger("expire");
-        redisTemplate.opsForValue().set("feishu:token:tenant_access_token", tenantAccessToken, expire, TimeUnit.SECONDS);
-        redisTemplate.opsForValue().set("feishu:token:app_access_token", appAccessToken, expire, TimeUnit.SECONDS);
-
-        // 返回新生成的token
-        return Map.of(
-                "tenant_access_token", tenantAccessToken,
-                "app_access_token", appAccessToken
-        );
+        return feishuTokenManager.refresh();
     }
 
 
     @Override
     public String getAppAccessToken() throws IOException {
-        // 先从Redis中查询app_access_token
-        String appAccessToken = (String) redisTemplate.opsForValue().get("feishu:token:app_access_token");
-        if (appAccessToken != null && !appAccessToken.isEmpty()) {
-            return appAccessToken;
-        }
-        // 如果Redis中没有，则调用refreshToken方法获取
-        return refreshToken().get("app_access_token");
-
+        return feishuTokenManager.appToken();
     }
 
     @Override
     public String getTenantAccessToken() throws IOException {
-        // 先从Redis中查询tenant_access_token
-        String tenantAccessToken = (String) redisTemplate.opsForValue().get("feishu:token:tenant_access_token");
-        if (tenantAccessToken != null && !tenantAccessToken.isEmpty()) {
-            return tenantAccessToken;
-        }
-        // 如果Redis中没有，则调用refreshToken方法获取
-        return refreshToken().get("tenant_access_token");
-
+        return feishuTokenManager.tenantToken();
     }
 
 
@@ -2,11 +2,17 @@ package com.scccy.service.jackyun.controller;
 
 import com.scccy.service.jackyun.dao.service.SysUserMpService;
 import com.scccy.service.jackyun.domain.mp.SysUserMp;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.dto.CursorPage;
 import com.scccy.common.modules.dto.ResultData;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.scccy.common.base.manager.JsonStreamManager;
+import com.scccy.common.modules.utils.KeysetPagination;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -23,6 +29,9 @@ public class SysUserController {
     @Autowired
     private SysUserMpService sysUserMpServiceImpl;
 
+    @Autowired
+    private JsonStreamManager jsonStreamManager;
+
     /**
      * 新增
      */
@@ -96,12 +105,25 @@ public class SysUserController {
     }
 
     /**
-     * 获取所有数据（无条件）
+     * 游标分页查询（keyset，按主键顺序翻页，深翻页不退化；prefixLike=true 时字符串条件按前缀匹配）
+     */
+    @PostMapping("/pageCursor")
+    public ResultData<CursorPage<SysUserMp>> pageCursor(CursorPageQuery pageQuery, SysUserMp sysUserMp) {
+        CursorPage<SysUserMp> resultPage = sysUserMpServiceImpl.pageCursor(pageQuery, sysUserMp);
+        return ResultData.ok(resultPage);
+    }
+
+    /**
+     * 获取所有数据（无条件），按主键分批流式输出
+     * <p>
+     * format 为 array（默认，ResultData 结构）或 ndjson；limit 为最大行数，不超过服务端上限
      */
     @GetMapping("/all")
-    public ResultData<List<SysUserMp>> all() {
-        List<SysUserMp> list = sysUserMpServiceImpl.list();
-        return ResultData.ok(list);
+    public void all(@RequestParam(defaultValue = JsonStreamManager.FORMAT_ARRAY) String format,
+                    @RequestParam(required = false) Long limit,
+                    HttpServletResponse response) throws IOException {
+        jsonStreamManager.streamAll(response, format, limit, sysUserMpServiceImpl,
+                KeysetPagination.key("user_id", SysUserMp::getUserId));
     }
 }
 
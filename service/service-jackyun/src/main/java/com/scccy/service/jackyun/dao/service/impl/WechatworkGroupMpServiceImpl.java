@@ -7,6 +7,9 @@ import com.scccy.service.jackyun.dao.service.WechatworkGroupMpService;
 import org.springframework.stereotype.Service;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.dto.CursorPage;
+import com.scccy.common.modules.utils.KeysetPagination;
 
 /**
  * 企微用户群关联表(WechatworkGroup)服务实现类
@@ -97,4 +100,25 @@ public class WechatworkGroupMpServiceImpl
         return this.page(page, wrapper);
     }
 
+    @Override
+    public CursorPage<WechatworkGroupMp> pageCursor(CursorPageQuery pageQuery, WechatworkGroupMp wechatworkGroupMp) {
+        QueryWrapper<WechatworkGroupMp> wrapper = new QueryWrapper<>();
+        boolean prefixLike = Boolean.TRUE.equals(pageQuery.getPrefixLike());
+
+        KeysetPagination.match(wrapper, "wechatwork_user_id", wechatworkGroupMp.getWechatworkUserId(), prefixLike);
+        KeysetPagination.match(wrapper, "wechatwork_group_id", wechatworkGroupMp.getWechatworkGroupId(), prefixLike);
+        KeysetPagination.match(wrapper, "wechatwork_external_union_id", wechatworkGroupMp.getWechatworkExternalUnionId(), prefixLike);
+        KeysetPagination.match(wrapper, "wechatwork_external_user_id", wechatworkGroupMp.getWechatworkExternalUserId(), prefixLike);
+        KeysetPagination.match(wrapper, "status", wechatworkGroupMp.getStatus(), prefixLike);
+        KeysetPagination.match(wrapper, "create_time", wechatworkGroupMp.getCreateTime(), prefixLike);
+        KeysetPagination.match(wrapper, "update_time", wechatworkGroupMp.getUpdateTime(), prefixLike);
+        KeysetPagination.match(wrapper, "create_by", wechatworkGroupMp.getCreateBy(), prefixLike);
+        KeysetPagination.match(wrapper, "update_by", wechatworkGroupMp.getUpdateBy(), prefixLike);
+        KeysetPagination.match(wrapper, "del_flag", wechatworkGroupMp.getDelFlag(), prefixLike);
+
+        return KeysetPagination.page(this, wrapper, pageQuery,
+                KeysetPagination.key("wechatwork_group_id", WechatworkGroupMp::getWechatworkGroupId),
+                KeysetPagination.key("wechatwork_external_user_id", WechatworkGroupMp::getWechatworkExternalUserId));
+    }
+
 }
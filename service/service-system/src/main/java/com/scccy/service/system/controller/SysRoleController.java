@@ -1,16 +1,24 @@
 package com.scccy.service.system.controller;
 
+import java.io.IOException;
 import java.util.Date;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.scccy.service.system.dao.service.SysRoleMpService;
 import com.scccy.service.system.domain.mp.SysRoleMp;
+import com.scccy.service.system.service.AuthorityIndex;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.dto.CursorPage;
 import com.scccy.common.modules.dto.ResultData;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.scccy.common.base.manager.JsonStreamManager;
+import com.scccy.common.modules.utils.KeysetPagination;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Collections;
 import java.util.List;
 
 import com.scccy.service.system.domain.mp.SysRoleMp;
@@ -29,12 +37,21 @@ public class SysRoleController {
     @Autowired
     private SysRoleMpService sysRoleMpServiceImpl;
 
+    @Autowired
+    private JsonStreamManager jsonStreamManager;
+
+    @Autowired
+    private AuthorityIndex authorityIndex;
+
     /**
      * 新增
      */
     @PostMapping
     public ResultData<?> save(@RequestBody SysRoleMp sysRoleMp) {
         boolean result = sysRoleMpServiceImpl.save(sysRoleMp);
+        if (result) {
+            authorityIndex.rolesChanged(Collections.singletonList(sysRoleMp.getRoleId()));
+        }
         return result ? ResultData.ok("新增成功") : ResultData.fail("新增失败");
     }
 
@@ -44,6 +61,9 @@ public class SysRoleController {
     @DeleteMapping("/{id}")
     public ResultData<?> delete(@PathVariable Long id) {
         boolean result = sysRoleMpServiceImpl.removeById(id);
+        if (result) {
+            authorityIndex.rolesChanged(Collections.singletonList(id));
+        }
         return result ? ResultData.ok("删除成功") : ResultData.fail("删除失败");
     }
 
@@ -53,6 +73,9 @@ public class SysRoleController {
     @DeleteMapping("/batch")
     public ResultData<?> deleteBatch(@RequestBody List<Long> ids) {
         boolean result = sysRoleMpServiceImpl.removeByIds(ids);
+        if (result) {
+            authorityIndex.rolesChanged(ids);
+        }
         return result ? ResultData.ok("批量删除成功") : ResultData.fail("批量删除失败");
     }
 
@@ -62,6 +85,9 @@ public class SysRoleController {
     @PutMapping
     public ResultData<?> update(@RequestBody SysRoleMp sysRoleMp) {
         boolean result = sysRoleMpServiceImpl.updateById(sysRoleMp);
+        if (result) {
+            authorityIndex.rolesChanged(Collections.singletonList(sysRoleMp.getRoleId()));
+        }
         return result ? ResultData.ok("修改成功") : ResultData.fail("修改失败");
     }
 
@@ -102,12 +128,25 @@ public class SysRoleController {
     }
 
     /**
-     * 获取所有数据（无条件）
+     * 游标分页查询（keyset，按主键顺序翻页，深翻页不退化；prefixLike=true 时字符串条件按前缀匹配）
+     */
+    @PostMapping("/pageCursor")
+    public ResultData<CursorPage<SysRoleMp>> pageCursor(CursorPageQuery pageQuery, SysRoleMp sysRoleMp) {
+        CursorPage<SysRoleMp> resultPage = sysRoleMpServiceImpl.pageCursor(pageQuery, sysRoleMp);
+        return ResultData.ok(resultPage);
+    }
+
+    /**
+     * 获取所有数据（无条件），按主键分批流式输出
+     * <p>
+     * format 为 array（默认，ResultData 结构）或 ndjson；limit 为最大行数，不超过服务端上限
      */
     @GetMapping("/all")
-    public ResultData<List<SysRoleMp>> all() {
-        List<SysRoleMp> list = sysRoleMpServiceImpl.list();
-        return ResultData.ok(list);
+    public void all(@RequestParam(defaultValue = JsonStreamManager.FORMAT_ARRAY) String format,
+                    @RequestParam(required = false) Long limit,
+                    HttpServletResponse response) throws IOException {
+        jsonStreamManager.streamAll(response, format, limit, sysRoleMpServiceImpl,
+                KeysetPagination.key("role_id", SysRoleMp::getRoleId));
     }
 }
 
@@ -3,12 +3,18 @@ package com.scccy.service.system.controller;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.scccy.service.system.dao.service.SysRoleDeptMpService;
 import com.scccy.service.system.domain.mp.SysRoleDeptMp;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.dto.CursorPage;
 import com.scccy.common.modules.dto.ResultData;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.scccy.common.base.manager.JsonStreamManager;
+import com.scccy.common.modules.utils.KeysetPagination;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.io.IOException;
 import java.util.List;
 
 import com.scccy.service.system.domain.jpa.SysRoleDeptJpa;
@@ -31,6 +37,9 @@ public class SysRoleDeptController {
     @Autowired
     private SysRoleDeptMpService sysRoleDeptMpServiceImpl;
 
+    @Autowired
+    private JsonStreamManager jsonStreamManager;
+
     /**
      * 新增（请求使用 Mp 实体 -> 转换为 JPA 实体后保存）
      */
@@ -146,12 +155,26 @@ public class SysRoleDeptController {
     }
 
     /**
-     * 获取所有数据（无条件）
+     * 游标分页查询（keyset，按主键顺序翻页，深翻页不退化；prefixLike=true 时字符串条件按前缀匹配）
+     */
+    @PostMapping("/pageCursor")
+    public ResultData<CursorPage<SysRoleDeptMp>> pageCursor(CursorPageQuery pageQuery, SysRoleDeptMp sysRoleDeptMp) {
+        CursorPage<SysRoleDeptMp> resultPage = sysRoleDeptMpServiceImpl.pageCursor(pageQuery, sysRoleDeptMp);
+        return ResultData.ok(resultPage);
+    }
+
+    /**
+     * 获取所有数据（无条件），按主键分批流式输出
+     * <p>
+     * format 为 array（默认，ResultData 结构）或 ndjson；limit 为最大行数，不超过服务端上限
      */
     @GetMapping("/all")
-    public ResultData<List<SysRoleDeptMp>> all() {
-        List<SysRoleDeptMp> list = sysRoleDeptMpServiceImpl.list();
-        return ResultData.ok(list);
+    public void all(@RequestParam(defaultValue = JsonStreamManager.FORMAT_ARRAY) String format,
+                    @RequestParam(required = false) Long limit,
+                    HttpServletResponse response) throws IOException {
+        jsonStreamManager.streamAll(response, format, limit, sysRoleDeptMpServiceImpl,
+                KeysetPagination.key("role_id", SysRoleDeptMp::getRoleId),
+                KeysetPagination.key("dept_id", SysRoleDeptMp::getDeptId));
     }
 }
 
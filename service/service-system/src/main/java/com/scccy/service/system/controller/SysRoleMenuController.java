@@ -3,12 +3,20 @@ package com.scccy.service.system.controller;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.scccy.service.system.dao.service.SysRoleMenuMpService;
 import com.scccy.service.system.domain.mp.SysRoleMenuMp;
+import com.scccy.service.system.service.AuthorityIndex;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.dto.CursorPage;
 import com.scccy.common.modules.dto.ResultData;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.scccy.common.base.manager.JsonStreamManager;
+import com.scccy.common.modules.utils.KeysetPagination;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 
 import com.scccy.service.system.domain.jpa.SysRoleMenuJpa;
@@ -31,6 +39,12 @@ public class SysRoleMenuController {
     @Autowired
     private SysRoleMenuMpService sysRoleMenuMpServiceImpl;
 
+    @Autowired
+    private JsonStreamManager jsonStreamManager;
+
+    @Autowired
+    private AuthorityIndex authorityIndex;
+
     /**
      * 新增（请求使用 Mp 实体 -> 转换为 JPA 实体后保存）
      */
@@ -47,6 +61,7 @@ public class SysRoleMenuController {
         entity.setId(id);
 
         SysRoleMenuJpa saved = sysRoleMenuRepository.save(entity);
+        authorityIndex.rolesChanged(Collections.singletonList(mp.getRoleId()));
         return ResultData.ok(saved);
     }
 
@@ -66,6 +81,7 @@ public class SysRoleMenuController {
 
         boolean success = sysRoleMenuMpServiceImpl.remove(wrapper); // 逻辑删除
         if (success) {
+            authorityIndex.rolesChanged(Collections.singletonList(mp.getRoleId()));
             return ResultData.ok("删除成功");
         } else {
             return ResultData.fail("删除失败或记录不存在");
@@ -84,6 +100,7 @@ public class SysRoleMenuController {
             id.setMenuId(mp.getMenuId());
             sysRoleMenuRepository.deleteById(id);
         });
+        authorityIndex.rolesChanged(mps.stream().map(SysRoleMenuMp::getRoleId).toList());
         return ResultData.ok("批量删除成功");
     }
 
@@ -101,6 +118,7 @@ public class SysRoleMenuController {
         entity.setId(id);
 
         SysRoleMenuJpa saved = sysRoleMenuRepository.save(entity);
+        authorityIndex.rolesChanged(Collections.singletonList(mp.getRoleId()));
         return ResultData.ok(saved);
     }
 
@@ -146,12 +164,26 @@ public class SysRoleMenuController {
     }
 
     /**
-     * 获取所有数据（无条件）
+     * 游标分页查询（keyset，按主键顺序翻页，深翻页不退化；prefixLike=true 时字符串条件按前缀匹配）
+     */
+    @PostMapping("/pageCursor")
+    public ResultData<CursorPage<SysRoleMenuMp>> pageCursor(CursorPageQuery pageQuery, SysRoleMenuMp sysRoleMenuMp) {
+        CursorPage<SysRoleMenuMp> resultPage = sysRoleMenuMpServiceImpl.pageCursor(pageQuery, sysRoleMenuMp);
+        return ResultData.ok(resultPage);
+    }
+
+    /**
+     * 获取所有数据（无条件），按主键分批流式输出
+     * <p>
+     * format 为 array（默认，ResultData 结构）或 ndjson；limit 为最大行数，不超过服务端上限
      */
     @GetMapping("/all")
-    public ResultData<List<SysRoleMenuMp>> all() {
-        List<SysRoleMenuMp> list = sysRoleMenuMpServiceImpl.list();
-        return ResultData.ok(list);
+    public void all(@RequestParam(defaultValue = JsonStreamManager.FORMAT_ARRAY) String format,
+                    @RequestParam(required = false) Long limit,
+                    HttpServletResponse response) throws IOException {
+        jsonStreamManager.streamAll(response, format, limit, sysRoleMenuMpServiceImpl,
+                KeysetPagination.key("role_id", SysRoleMenuMp::getRoleId),
+                KeysetPagination.key("menu_id", SysRoleMenuMp::getMenuId));
     }
 }
 
@@ -2,17 +2,24 @@ package com.scccy.service.system.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.extern.slf4j.Slf4j;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.dto.CursorPage;
 import com.scccy.common.modules.dto.ResultData;
 import com.scccy.common.modules.domain.mp.system.SysUserMp;
 import com.scccy.service.system.dao.service.SysUserMpService;
 import com.scccy.service.system.dto.LoginBody;
 import com.scccy.service.system.dto.RegisterBody;
+import com.scccy.service.system.dto.UserWithAuthorities;
 import com.scccy.service.system.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.BadCredentialsException;
+import com.scccy.common.base.manager.JsonStreamManager;
+import com.scccy.common.modules.utils.KeysetPagination;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -30,6 +37,9 @@ public class SysUserController {
     @Autowired
     private SysUserMpService sysUserMpServiceImpl;
 
+    @Autowired
+    private JsonStreamManager jsonStreamManager;
+
     @Autowired
     private UserService userService;
 
@@ -136,12 +146,25 @@ public class SysUserController {
     }
 
     /**
-     * 获取所有数据（无条件）
+     * 游标分页查询（keyset，按主键顺序翻页，深翻页不退化；prefixLike=true 时字符串条件按前缀匹配）
+     */
+    @PostMapping("/pageCursor")
+    public ResultData<CursorPage<SysUserMp>> pageCursor(CursorPageQuery pageQuery, SysUserMp sysUserMp) {
+        CursorPage<SysUserMp> resultPage = sysUserMpServiceImpl.pageCursor(pageQuery, sysUserMp);
+        return ResultData.ok(resultPage);
+    }
+
+    /**
+     * 获取所有数据（无条件），按主键分批流式输出
+     * <p>
+     * format 为 array（默认，ResultData 结构）或 ndjson；limit 为最大行数，不超过服务端上限
      */
-    @GetMapping("/all" )
-    public ResultData<List<SysUserMp>> all() {
-        List<SysUserMp> list = sysUserMpServiceImpl.list();
-        return ResultData.ok(list);
+    @GetMapping("/all")
+    public void all(@RequestParam(defaultValue = JsonStreamManager.FORMAT_ARRAY) String format,
+                    @RequestParam(required = false) Long limit,
+                    HttpServletResponse response) throws IOException {
+        jsonStreamManager.streamAll(response, format, limit, sysUserMpServiceImpl,
+                KeysetPagination.key("user_id", SysUserMp::getUserId));
     }
 
     /**
@@ -160,5 +183,18 @@ public class SysUserController {
         List<String> authorities = userService.getUserAuthorities(userName);
         return ResultData.ok(authorities);
     }
-}
 
+    /**
+     * 获取用户信息及权限（内部接口）
+     * <p>
+     * 登录链路一次调用同时返回用户与权限，替代 /userName + /authorities 两次调用；
+     * 用户不存在时 user 为空、authorities 为空列表（调用方据此做空值缓存）
+     *
+     * @param userName 用户名
+     * @return 用户信息及权限
+     */
+    @GetMapping("/userWithAuthorities")
+    public ResultData<UserWithAuthorities> getUserWithAuthorities(@RequestParam String userName) {
+        return ResultData.ok(userService.getUserWithAuthorities(userName));
+    }
+}
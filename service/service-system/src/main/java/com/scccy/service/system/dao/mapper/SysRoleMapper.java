@@ -2,7 +2,13 @@ package com.scccy.service.system.dao.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.scccy.service.system.domain.mp.SysRoleMp;
+import com.scccy.service.system.dto.RolePermission;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 角色信息表(SysRole)Mapper 接口
@@ -13,4 +19,26 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface SysRoleMapper extends BaseMapper<SysRoleMp> {
 
+    /**
+     * 查询启用角色的菜单权限
+     * <p>
+     * 查询链路：sys_role -> sys_role_menu -> sys_menu，每个角色的每个菜单权限一行；
+     * 角色未分配菜单（或菜单无权限标识）时返回一行 perms 为空的记录，保证角色本身仍被索引
+     *
+     * @param roleIds 角色ID，为空时查询全部角色
+     * @return 角色权限行
+     */
+    @Select("<script>" +
+            "SELECT r.role_id, r.role_key, m.perms " +
+            "FROM sys_role r " +
+            "LEFT JOIN sys_role_menu rm ON r.role_id = rm.role_id " +
+            "LEFT JOIN sys_menu m ON rm.menu_id = m.menu_id AND m.perms IS NOT NULL AND m.perms != '' " +
+            "WHERE r.status = '0' " +
+            "    AND r.del_flag = 0 " +
+            "<if test='roleIds != null and roleIds.size() > 0'>" +
+            "    AND r.role_id IN " +
+            "    <foreach collection='roleIds' item='roleId' open='(' separator=',' close=')'>#{roleId}</foreach>" +
+            "</if>" +
+            "</script>")
+    List<RolePermission> listRolePermissions(@Param("roleIds") Collection<Long> roleIds);
 }
@@ -18,39 +18,27 @@ import java.util.List;
 public interface SysUserMapper extends BaseMapper<SysUserMp> {
 
     /**
-     * 查询用户的所有权限（角色标识和菜单权限）
+     * 查询用户的角色ID
      * <p>
-     * 查询链路：sys_user -> sys_user_role -> sys_role -> sys_role_menu -> sys_menu
-     * 返回格式：
-     * - 角色标识：ROLE_ADMIN, ROLE_USER（Spring Security 标准格式）
-     * - 菜单权限：system:user:list, system:user:add（菜单 perms 字段）
+     * 按用户名走 sys_user 唯一索引，再按 user_id 走 sys_user_role 主键前缀，已删除的用户返回空；
+     * 角色对应的权限由内存中的角色权限索引展开
      *
      * @param userName 用户名
-     * @return 权限列表
+     * @return 角色ID列表
      */
-    @Select("SELECT DISTINCT " +
-            "    CONCAT('ROLE_', UPPER(r.role_key)) as authority " +
+    @Select("SELECT ur.role_id " +
             "FROM sys_user u " +
             "JOIN sys_user_role ur ON u.user_id = ur.user_id " +
-            "JOIN sys_role r ON ur.role_id = r.role_id " +
             "WHERE u.user_name = #{userName} " +
-            "    AND u.del_flag = 0 " +
-            "    AND r.status = '0' " +
-            "    AND r.del_flag = 0 " +
-            "UNION " +
-            "SELECT DISTINCT " +
-            "    m.perms as authority " +
-            "FROM sys_user u " +
-            "JOIN sys_user_role ur ON u.user_id = ur.user_id " +
-            "JOIN sys_role r ON ur.role_id = r.role_id " +
-            "LEFT JOIN sys_role_menu rm ON r.role_id = rm.role_id " +
-            "LEFT JOIN sys_menu m ON rm.menu_id = m.menu_id " +
-            "WHERE u.user_name = #{userName} " +
-            "    AND u.del_flag = 0 " +
-            "    AND r.status = '0' " +
-            "    AND r.del_flag = 0 " +
-            "    AND m.perms IS NOT NULL " +
-            "    AND m.perms != '' " +
-            "ORDER BY authority")
-    List<String> getUserAuthorities(@Param("userName") String userName);
+            "    AND u.del_flag = 0")
+    List<Long> listRoleIdsByUserName(@Param("userName") String userName);
+
+    /**
+     * 查询用户的角色ID（已持有用户信息时使用，只查 sys_user_role）
+     *
+     * @param userId 用户ID
+     * @return 角色ID列表
+     */
+    @Select("SELECT role_id FROM sys_user_role WHERE user_id = #{userId}")
+    List<Long> listRoleIdsByUserId(@Param("userId") Long userId);
 }
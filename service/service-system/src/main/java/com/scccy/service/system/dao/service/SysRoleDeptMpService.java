@@ -3,6 +3,8 @@ package com.scccy.service.system.dao.service;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.scccy.service.system.domain.mp.SysRoleDeptMp;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.dto.CursorPage;
 
 /**
  * 角色和部门关联表(SysRoleDept)表服务接口
@@ -22,4 +24,9 @@ public interface SysRoleDeptMpService extends IService<SysRoleDeptMp> {
      */
     Page<SysRoleDeptMp> pageEq(Integer pageNum, Integer pageSize, SysRoleDeptMp query);
 
+    /**
+     * 游标分页查询（keyset），按主键顺序翻页，深翻页开销与页大小成正比
+     */
+    CursorPage<SysRoleDeptMp> pageCursor(CursorPageQuery pageQuery, SysRoleDeptMp query);
+
 }
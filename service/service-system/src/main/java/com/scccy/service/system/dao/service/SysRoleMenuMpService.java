@@ -3,6 +3,8 @@ package com.scccy.service.system.dao.service;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.scccy.service.system.domain.mp.SysRoleMenuMp;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.dto.CursorPage;
 
 /**
  * 角色和菜单关联表(SysRoleMenu)表服务接口
@@ -22,4 +24,9 @@ public interface SysRoleMenuMpService extends IService<SysRoleMenuMp> {
      */
     Page<SysRoleMenuMp> pageEq(Integer pageNum, Integer pageSize, SysRoleMenuMp query);
 
+    /**
+     * 游标分页查询（keyset），按主键顺序翻页，深翻页开销与页大小成正比
+     */
+    CursorPage<SysRoleMenuMp> pageCursor(CursorPageQuery pageQuery, SysRoleMenuMp query);
+
 }
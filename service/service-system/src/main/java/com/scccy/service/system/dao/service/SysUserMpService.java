@@ -3,6 +3,8 @@ package com.scccy.service.system.dao.service;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.scccy.common.modules.domain.mp.system.SysUserMp;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.dto.CursorPage;
 
 /**
  * 用户信息表(SysUser)表服务接口
@@ -22,4 +24,9 @@ public interface SysUserMpService extends IService<SysUserMp> {
      */
     Page<SysUserMp> pageEq(Integer pageNum, Integer pageSize, SysUserMp query);
 
+    /**
+     * 游标分页查询（keyset），按主键顺序翻页，深翻页开销与页大小成正比
+     */
+    CursorPage<SysUserMp> pageCursor(CursorPageQuery pageQuery, SysUserMp query);
+
 }
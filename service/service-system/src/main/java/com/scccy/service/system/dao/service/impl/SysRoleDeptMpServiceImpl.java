@@ -7,6 +7,9 @@ import com.scccy.service.system.dao.service.SysRoleDeptMpService;
 import org.springframework.stereotype.Service;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.dto.CursorPage;
+import com.scccy.common.modules.utils.KeysetPagination;
 
 /**
  * 角色和部门关联表(SysRoleDept)服务实现类
@@ -49,4 +52,17 @@ public class SysRoleDeptMpServiceImpl
         return this.page(page, wrapper);
     }
 
+    @Override
+    public CursorPage<SysRoleDeptMp> pageCursor(CursorPageQuery pageQuery, SysRoleDeptMp sysRoleDeptMp) {
+        QueryWrapper<SysRoleDeptMp> wrapper = new QueryWrapper<>();
+        boolean prefixLike = Boolean.TRUE.equals(pageQuery.getPrefixLike());
+
+        KeysetPagination.match(wrapper, "role_id", sysRoleDeptMp.getRoleId(), prefixLike);
+        KeysetPagination.match(wrapper, "dept_id", sysRoleDeptMp.getDeptId(), prefixLike);
+
+        return KeysetPagination.page(this, wrapper, pageQuery,
+                KeysetPagination.key("role_id", SysRoleDeptMp::getRoleId),
+                KeysetPagination.key("dept_id", SysRoleDeptMp::getDeptId));
+    }
+
 }
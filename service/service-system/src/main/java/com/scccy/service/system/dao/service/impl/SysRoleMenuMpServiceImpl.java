@@ -7,6 +7,9 @@ import com.scccy.service.system.dao.service.SysRoleMenuMpService;
 import org.springframework.stereotype.Service;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.dto.CursorPage;
+import com.scccy.common.modules.utils.KeysetPagination;
 
 /**
  * 角色和菜单关联表(SysRoleMenu)服务实现类
@@ -49,4 +52,17 @@ public class SysRoleMenuMpServiceImpl
         return this.page(page, wrapper);
     }
 
+    @Override
+    public CursorPage<SysRoleMenuMp> pageCursor(CursorPageQuery pageQuery, SysRoleMenuMp sysRoleMenuMp) {
+        QueryWrapper<SysRoleMenuMp> wrapper = new QueryWrapper<>();
+        boolean prefixLike = Boolean.TRUE.equals(pageQuery.getPrefixLike());
+
+        KeysetPagination.match(wrapper, "role_id", sysRoleMenuMp.getRoleId(), prefixLike);
+        KeysetPagination.match(wrapper, "menu_id", sysRoleMenuMp.getMenuId(), prefixLike);
+
+        return KeysetPagination.page(this, wrapper, pageQuery,
+                KeysetPagination.key("role_id", SysRoleMenuMp::getRoleId),
+                KeysetPagination.key("menu_id", SysRoleMenuMp::getMenuId));
+    }
+
 }
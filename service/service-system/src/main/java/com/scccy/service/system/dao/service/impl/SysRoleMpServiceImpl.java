@@ -7,6 +7,9 @@ import com.scccy.service.system.dao.service.SysRoleMpService;
 import org.springframework.stereotype.Service;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.dto.CursorPage;
+import com.scccy.common.modules.utils.KeysetPagination;
 
 /**
  * 角色信息表(SysRole)服务实现类
@@ -121,4 +124,28 @@ public class SysRoleMpServiceImpl
         return this.page(page, wrapper);
     }
 
+    @Override
+    public CursorPage<SysRoleMp> pageCursor(CursorPageQuery pageQuery, SysRoleMp sysRoleMp) {
+        QueryWrapper<SysRoleMp> wrapper = new QueryWrapper<>();
+        boolean prefixLike = Boolean.TRUE.equals(pageQuery.getPrefixLike());
+
+        KeysetPagination.match(wrapper, "role_id", sysRoleMp.getRoleId(), prefixLike);
+        KeysetPagination.match(wrapper, "role_name", sysRoleMp.getRoleName(), prefixLike);
+        KeysetPagination.match(wrapper, "role_key", sysRoleMp.getRoleKey(), prefixLike);
+        KeysetPagination.match(wrapper, "role_sort", sysRoleMp.getRoleSort(), prefixLike);
+        KeysetPagination.match(wrapper, "data_scope", sysRoleMp.getDataScope(), prefixLike);
+        KeysetPagination.match(wrapper, "menu_check_strictly", sysRoleMp.getMenuCheckStrictly(), prefixLike);
+        KeysetPagination.match(wrapper, "dept_check_strictly", sysRoleMp.getDeptCheckStrictly(), prefixLike);
+        KeysetPagination.match(wrapper, "status", sysRoleMp.getStatus(), prefixLike);
+        KeysetPagination.match(wrapper, "del_flag", sysRoleMp.getDelFlag(), prefixLike);
+        KeysetPagination.match(wrapper, "create_by", sysRoleMp.getCreateBy(), prefixLike);
+        KeysetPagination.match(wrapper, "create_time", sysRoleMp.getCreateTime(), prefixLike);
+        KeysetPagination.match(wrapper, "update_by", sysRoleMp.getUpdateBy(), prefixLike);
+        KeysetPagination.match(wrapper, "update_time", sysRoleMp.getUpdateTime(), prefixLike);
+        KeysetPagination.match(wrapper, "remark", sysRoleMp.getRemark(), prefixLike);
+
+        return KeysetPagination.page(this, wrapper, pageQuery,
+                KeysetPagination.key("role_id", SysRoleMp::getRoleId));
+    }
+
 }
@@ -7,6 +7,9 @@ import com.scccy.service.system.dao.service.SysUserMpService;
 import org.springframework.stereotype.Service;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.dto.CursorPage;
+import com.scccy.common.modules.utils.KeysetPagination;
 
 /**
  * 用户信息表(SysUser)服务实现类
@@ -157,4 +160,34 @@ public class SysUserMpServiceImpl
         return this.page(page, wrapper);
     }
 
+    @Override
+    public CursorPage<SysUserMp> pageCursor(CursorPageQuery pageQuery, SysUserMp sysUserMp) {
+        QueryWrapper<SysUserMp> wrapper = new QueryWrapper<>();
+        boolean prefixLike = Boolean.TRUE.equals(pageQuery.getPrefixLike());
+
+        KeysetPagination.match(wrapper, "user_id", sysUserMp.getUserId(), prefixLike);
+        KeysetPagination.match(wrapper, "dept_id", sysUserMp.getDeptId(), prefixLike);
+        KeysetPagination.match(wrapper, "user_name", sysUserMp.getUserName(), prefixLike);
+        KeysetPagination.match(wrapper, "nick_name", sysUserMp.getNickName(), prefixLike);
+        KeysetPagination.match(wrapper, "user_type", sysUserMp.getUserType(), prefixLike);
+        KeysetPagination.match(wrapper, "email", sysUserMp.getEmail(), prefixLike);
+        KeysetPagination.match(wrapper, "phonenumber", sysUserMp.getPhonenumber(), prefixLike);
+        KeysetPagination.match(wrapper, "sex", sysUserMp.getSex(), prefixLike);
+        KeysetPagination.match(wrapper, "avatar", sysUserMp.getAvatar(), prefixLike);
+        KeysetPagination.match(wrapper, "password", sysUserMp.getPassword(), prefixLike);
+        KeysetPagination.match(wrapper, "status", sysUserMp.getStatus(), prefixLike);
+        KeysetPagination.match(wrapper, "del_flag", sysUserMp.getDelFlag(), prefixLike);
+        KeysetPagination.match(wrapper, "login_ip", sysUserMp.getLoginIp(), prefixLike);
+        KeysetPagination.match(wrapper, "login_date", sysUserMp.getLoginDate(), prefixLike);
+        KeysetPagination.match(wrapper, "pwd_update_date", sysUserMp.getPwdUpdateDate(), prefixLike);
+        KeysetPagination.match(wrapper, "create_by", sysUserMp.getCreateBy(), prefixLike);
+        KeysetPagination.match(wrapper, "create_time", sysUserMp.getCreateTime(), prefixLike);
+        KeysetPagination.match(wrapper, "update_by", sysUserMp.getUpdateBy(), prefixLike);
+        KeysetPagination.match(wrapper, "update_time", sysUserMp.getUpdateTime(), prefixLike);
+        KeysetPagination.match(wrapper, "remark", sysUserMp.getRemark(), prefixLike);
+
+        return KeysetPagination.page(this, wrapper, pageQuery,
+                KeysetPagination.key("user_id", SysUserMp::getUserId));
+    }
+
 }
@@ -0,0 +1,29 @@
+package com.scccy.service.system.dto;
+
+import lombok.Data;
+
+/**
+ * 角色权限行
+ * <p>
+ * 构建角色权限索引时使用，每个角色的每个菜单权限一行；角色未分配菜单时 perms 为空
+ *
+ * @author scccy
+ */
+@Data
+public class RolePermission {
+
+    /**
+     * 角色ID
+     */
+    private Long roleId;
+
+    /**
+     * 角色权限字符串
+     */
+    private String roleKey;
+
+    /**
+     * 菜单权限标识
+     */
+    private String perms;
+}
@@ -0,0 +1,368 @@
+package com.scccy.service.system.service;
+
+import com.scccy.common.modules.constant.AuthorityConstants;
+import com.scccy.service.system.dao.mapper.SysRoleMapper;
+import com.scccy.service.system.dto.RolePermission;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 角色权限内存索引
+ * <p>
+ * 启动时全量加载启用角色的权限（角色标识 {@code ROLE_XXX} + 菜单 perms），每个权限字符串只保存一份并分配整数编码，
+ * 每个角色编译为编码数组；解析用户权限时只需查出用户的角色ID，再在内存中对编码做位图并集，不再执行多表 UNION 查询。
+ * <p>
+ * 角色或角色菜单变更后调用 {@link #rolesChanged(Collection)}：先自增 {@link AuthorityConstants#INDEX_VERSION_KEY}
+ * 得到新的索引版本，本实例增量重建受影响的角色后再通过 {@link AuthorityConstants#AUTHORITY_CHANGED_CHANNEL} 广播该版本，
+ * 其余 System 实例增量重建，Auth 拒绝由更早版本索引生成的用户权限，Gateway 刷新权限字典；
+ * 另按固定间隔全量重载，兜底丢失的广播消息及菜单表变更。
+ * <p>
+ * 每个快照记录其已包含的索引版本：收到的版本与本地版本不连续（消息丢失或乱序）时改为全量重载，
+ * 全量重载前先读取当前版本，因此快照版本不会高于其实际包含的变更
+ *
+ * @author scccy
+ */
+@Slf4j
+@Component
+public class AuthorityIndex implements ApplicationRunner, MessageListener {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final SysRoleMapper sysRoleMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ScheduledExecutorService reloadExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "authority-index-reload");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Value("${security.authority-index.reload-interval:5m}")
+    private Duration reloadInterval;
+
+    private volatile Snapshot snapshot;
+
+    public AuthorityIndex(SysRoleMapper sysRoleMapper,
+                          StringRedisTemplate stringRedisTemplate,
+                          RedisMessageListenerContainer listenerContainer) {
+        this.sysRoleMapper = sysRoleMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    /**
+     * 启动阶段加载索引并订阅变更广播
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        listenerContainer.addMessageListener(this, new ChannelTopic(AuthorityConstants.AUTHORITY_CHANGED_CHANNEL));
+        ensureLoaded();
+        long intervalMillis = reloadInterval.toMillis();
+        if (intervalMillis > 0) {
+            reloadExecutor.scheduleWithFixedDelay(this::reloadQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 当前索引版本，调用方应在 {@link #resolve(Collection)} 之前读取，保证返回的版本不高于实际使用的索引
+     *
+     * @return 本实例索引已包含的最新版本
+     */
+    public long version() {
+        return ensureLoaded().version;
+    }
+
+    /**
+     * 展开角色对应的全部权限
+     *
+     * @param roleIds 角色ID，停用或已删除的角色被忽略
+     * @return 去重并按字典序排列的权限列表
+     */
+    public List<String> resolve(Collection<Long> roleIds) {
+        if (roleIds == null || roleIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Snapshot current = ensureLoaded();
+        BitSet bits = new BitSet(current.names.length);
+        for (Long roleId : roleIds) {
+            int[] codes = current.roles.get(roleId);
+            if (codes != null) {
+                for (int code : codes) {
+                    bits.set(code);
+                }
+            }
+        }
+        List<String> authorities = new ArrayList<>(bits.cardinality());
+        for (int code = bits.nextSetBit(0); code >= 0; code = bits.nextSetBit(code + 1)) {
+            authorities.add(current.names[code]);
+        }
+        if (!current.sorted) {
+            Collections.sort(authorities);
+        }
+        return authorities;
+    }
+
+    /**
+     * 角色或角色菜单已变更：生成新的索引版本，本实例重建受影响的角色后再广播变更事件
+     *
+     * @param roleIds 变更的角色ID
+     */
+    public void rolesChanged(Collection<Long> roleIds) {
+        Set<Long> ids = roleIds == null ? Collections.emptySet() : roleIds.stream()
+                .filter(id -> id != null)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (ids.isEmpty()) {
+            return;
+        }
+        long version;
+        try {
+            version = nextVersion();
+        } catch (Exception e) {
+            // 无法生成版本时仍重建本实例，其余实例及 Auth 依赖定期重载和缓存过期
+            log.warn("生成角色权限索引版本失败，仅重建本实例: roleIds={}, error={}", ids, e.getMessage());
+            applyQuietly(ids, -1L);
+            return;
+        }
+        applyQuietly(ids, version);
+        publish(version, ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+    }
+
+    /**
+     * 全量重新加载索引（按字典序重新分配编码）
+     */
+    public synchronized void reload() {
+        // 先读版本再查库，快照版本不会高于其实际包含的变更
+        long version = readVersion();
+        List<RolePermission> rows = sysRoleMapper.listRolePermissions(null);
+        Map<Long, Set<String>> grouped = group(rows);
+        TreeSet<String> sortedNames = new TreeSet<>();
+        grouped.values().forEach(sortedNames::addAll);
+
+        String[] names = sortedNames.toArray(new String[0]);
+        Map<String, Integer> codes = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            codes.put(names[i], i);
+        }
+        Map<Long, int[]> roles = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((roleId, authorities) -> roles.put(roleId, encode(authorities, codes, null)));
+        snapshot = new Snapshot(names, Map.copyOf(codes), Map.copyOf(roles), true, version);
+        log.info("角色权限索引已加载，版本 {}，共 {} 个角色，{} 个权限", version, roles.size(), names.length);
+    }
+
+    /**
+     * 应用一次角色权限变更
+     * <p>
+     * 版本紧接本地版本时增量重建；已包含该版本时忽略；版本不连续、未加载或全量变更时全量重载；
+     * 版本未知（-1，旧格式消息或版本生成失败）时增量重建且不推进版本
+     *
+     * @param roleIds 变更的角色ID，为空表示全量变更
+     * @param version 变更对应的索引版本
+     */
+    public synchronized void applyChange(Collection<Long> roleIds, long version) {
+        Snapshot current = snapshot;
+        if (current == null || roleIds == null) {
+            reload();
+            return;
+        }
+        if (version < 0) {
+            refreshRoles(current, roleIds, current.version);
+        } else if (version <= current.version) {
+            log.debug("角色权限索引已包含版本 {}，忽略: roleIds={}", version, roleIds);
+        } else if (version == current.version + 1) {
+            refreshRoles(current, roleIds, version);
+        } else {
+            log.info("角色权限索引版本不连续（本地 {}，收到 {}），全量重载", current.version, version);
+            reload();
+        }
+    }
+
+    /**
+     * 增量重建指定角色，沿用已有编码，新出现的权限追加到字典末尾；
+     * 停用或删除的角色从索引中移除，不再被引用的权限保留到下次全量重载
+     */
+    private void refreshRoles(Snapshot current, Collection<Long> roleIds, long version) {
+        Map<Long, Set<String>> grouped = group(sysRoleMapper.listRolePermissions(roleIds));
+        List<String> names = new ArrayList<>(Arrays.asList(current.names));
+        Map<String, Integer> codes = new HashMap<>(current.codes);
+        Map<Long, int[]> roles = new HashMap<>(current.roles);
+        roleIds.forEach(roles::remove);
+        grouped.forEach((roleId, authorities) -> roles.put(roleId, encode(authorities, codes, names)));
+        boolean sorted = current.sorted && names.size() == current.names.length;
+        snapshot = new Snapshot(names.toArray(new String[0]), Map.copyOf(codes), Map.copyOf(roles), sorted, version);
+        log.info("角色权限索引已增量重建: roleIds={}, 版本 {}，当前共 {} 个角色", roleIds, version, roles.size());
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(AuthorityConstants.MESSAGE_SEPARATOR);
+        String roles = separator >= 0 ? body.substring(separator + 1) : body;
+        long version = AuthorityConstants.parseVersion(body);
+        log.debug("收到角色权限变更广播: {}", body);
+        // 不在监听线程中访问数据库
+        if (AuthorityConstants.ALL_ROLES.equals(roles)) {
+            reloadExecutor.execute(() -> applyQuietly(null, version));
+            return;
+        }
+        List<Long> roleIds = new ArrayList<>();
+        for (String id : roles.split(",")) {
+            try {
+                roleIds.add(Long.parseLong(id.trim()));
+            } catch (NumberFormatException e) {
+                log.warn("忽略无法解析的角色ID: {}", id);
+            }
+        }
+        if (!roleIds.isEmpty()) {
+            reloadExecutor.execute(() -> applyQuietly(roleIds, version));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        listenerContainer.removeMessageListener(this);
+        reloadExecutor.shutdownNow();
+    }
+
+    private void publish(long version, String roles) {
+        try {
+            stringRedisTemplate.convertAndSend(AuthorityConstants.AUTHORITY_CHANGED_CHANNEL,
+                    version + String.valueOf(AuthorityConstants.MESSAGE_SEPARATOR) + roles);
+        } catch (Exception e) {
+            log.warn("广播角色权限变更失败，等待各实例定期重载: version={}, roles={}, error={}", version, roles, e.getMessage());
+        }
+    }
+
+    private long nextVersion() {
+        Long version = stringRedisTemplate.opsForValue().increment(AuthorityConstants.INDEX_VERSION_KEY);
+        if (version == null) {
+            throw new IllegalStateException("INCR 未返回结果");
+        }
+        return version;
+    }
+
+    /**
+     * 读取当前索引版本；读取失败时沿用本地版本，不推进
+     */
+    private long readVersion() {
+        Snapshot current = snapshot;
+        long fallback = current != null ? current.version : 0L;
+        try {
+            String value = stringRedisTemplate.opsForValue().get(AuthorityConstants.INDEX_VERSION_KEY);
+            return value != null ? Long.parseLong(value) : 0L;
+        } catch (Exception e) {
+            log.warn("读取角色权限索引版本失败，沿用本地版本 {}: {}", fallback, e.getMessage());
+            return fallback;
+        }
+    }
+
+    private void applyQuietly(Collection<Long> roleIds, long version) {
+        try {
+            applyChange(roleIds, version);
+        } catch (Exception e) {
+            log.warn("重建角色权限索引失败，等待下次全量重载: roleIds={}, version={}, error={}",
+                    roleIds, version, e.getMessage());
+        }
+    }
+
+    /**
+     * 按角色归并权限，角色标识与 SQL 中的 {@code CONCAT('ROLE_', UPPER(role_key))} 保持一致
+     */
+    private static Map<Long, Set<String>> group(List<RolePermission> rows) {
+        Map<Long, Set<String>> grouped = new LinkedHashMap<>();
+        for (RolePermission row : rows) {
+            if (row.getRoleId() == null) {
+                continue;
+            }
+            Set<String> authorities = grouped.computeIfAbsent(row.getRoleId(), id -> new LinkedHashSet<>());
+            if (row.getRoleKey() != null && !row.getRoleKey().isEmpty()) {
+                authorities.add(ROLE_PREFIX + row.getRoleKey().toUpperCase(Locale.ROOT));
+            }
+            if (row.getPerms() != null && !row.getPerms().isEmpty()) {
+                authorities.add(row.getPerms());
+            }
+        }
+        return grouped;
+    }
+
+    /**
+     * 编码角色权限；names 不为空时为新出现的权限追加编码
+     */
+    private static int[] encode(Set<String> authorities, Map<String, Integer> codes, List<String> names) {
+        int[] encoded = new int[authorities.size()];
+        int i = 0;
+        for (String authority : authorities) {
+            Integer code = codes.get(authority);
+            if (code == null) {
+                code = names.size();
+                names.add(authority);
+                codes.put(authority, code);
+            }
+            encoded[i++] = code;
+        }
+        return encoded;
+    }
+
+    private Snapshot ensureLoaded() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                reload();
+            }
+            return snapshot;
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (Exception e) {
+            // 保留旧索引，等待下次重载
+            log.warn("重新加载角色权限索引失败，继续使用旧索引: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 索引快照，实例不可变
+     *
+     * @param names   编码 -> 权限
+     * @param codes   权限 -> 编码
+     * @param roles   角色ID -> 权限编码
+     * @param sorted  编码顺序是否与字典序一致（全量重载后为 true，增量追加新权限后为 false）
+     * @param version 已包含的索引版本
+     */
+    private record Snapshot(String[] names, Map<String, Integer> codes, Map<Long, int[]> roles, boolean sorted,
+                            long version) {
+    }
+}
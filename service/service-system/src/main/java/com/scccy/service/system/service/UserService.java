@@ -6,6 +6,7 @@ import com.scccy.service.system.dao.mapper.SysUserMapper;
 import com.scccy.service.system.dao.service.SysUserMpService;
 import com.scccy.service.system.dto.LoginResponse;
 import com.scccy.service.system.dto.RegisterBody;
+import com.scccy.service.system.dto.UserWithAuthorities;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -16,6 +17,7 @@ import org.springframework.stereotype.Service;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * 用户服务
@@ -35,6 +37,9 @@ public class UserService {
     @Autowired
     private SysUserMapper sysUserMapper;
 
+    @Autowired
+    private AuthorityIndex authorityIndex;
+
     private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(12);
 
     /**
@@ -143,8 +148,7 @@ public class UserService {
     /**
      * 获取用户权限列表
      * <p>
-     * 查询用户 → 角色 → 菜单权限的完整链路
-     * 返回权限列表，包含：
+     * 查出用户的角色ID后，由 {@link AuthorityIndex} 在内存中展开为权限列表，包含：
      * - 角色标识：ROLE_ADMIN, ROLE_USER（Spring Security 标准格式）
      * - 菜单权限：system:user:list, system:user:add（菜单 perms 字段）
      *
@@ -153,10 +157,37 @@ public class UserService {
      */
     public List<String> getUserAuthorities(String userName) {
         log.debug("获取用户权限: userName={}", userName);
+        return resolveAuthorities(userName, () -> sysUserMapper.listRoleIdsByUserName(userName));
+    }
+
+    /**
+     * 获取用户信息及权限
+     * <p>
+     * 用户不存在时不再查询权限
+     *
+     * @param userName 用户名
+     * @return 用户信息及权限
+     */
+    public UserWithAuthorities getUserWithAuthorities(String userName) {
+        UserWithAuthorities result = new UserWithAuthorities();
+        SysUserMp user = sysUserMpService.lambdaQuery()
+                .eq(SysUserMp::getUserName, userName)
+                .one();
+        result.setUser(user);
+        // 先取版本再展开权限，返回的版本不高于实际使用的索引
+        result.setIndexVersion(authorityIndex.version());
+        boolean active = user != null && Integer.valueOf(0).equals(user.getDelFlag());
+        result.setAuthorities(active
+                ? resolveAuthorities(userName, () -> sysUserMapper.listRoleIdsByUserId(user.getUserId()))
+                : Collections.emptyList());
+        return result;
+    }
+
+    private List<String> resolveAuthorities(String userName, Supplier<List<Long>> roleIds) {
         try {
-            List<String> authorities = sysUserMapper.getUserAuthorities(userName);
+            List<String> authorities = authorityIndex.resolve(roleIds.get());
             log.debug("用户权限查询成功: userName={}, authorities={}", userName, authorities);
-            return authorities != null ? authorities : Collections.emptyList();
+            return authorities;
         } catch (Exception e) {
             log.error("获取用户权限失败: userName={}, error={}", userName, e.getMessage(), e);
             return Collections.emptyList();
@@ -164,4 +195,3 @@ public class UserService {
     }
 
 }
-
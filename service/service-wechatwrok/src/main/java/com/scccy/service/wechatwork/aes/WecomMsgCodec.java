@@ -0,0 +1,296 @@
+package com.scccy.service.wechatwork.aes;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 企业微信消息加解密（高吞吐实现）
+ * <p>
+ * 协议与 {@link WXBizMsgCrypt} 完全一致（AES-256-CBC、32 字节 PKCS7 补位、SHA1 签名），区别在于：
+ * <ul>
+ *     <li>EncodingAESKey 只在构造时解码一次，密钥与 IV 对象复用</li>
+ *     <li>{@link Cipher} 与 {@link MessageDigest} 每线程一个，不再每次调用 {@code getInstance}</li>
+ *     <li>解密在 Base64 解码得到的数组上原地进行，直接按偏移读取长度与 receiveid，不复制中间数组</li>
+ *     <li>加密按最终长度一次分配明文数组，随机串、长度、正文、receiveid、补位依次写入后原地加密</li>
+ *     <li>签名把排序后的参数写入线程内复用的缓冲区计算摘要，与 URL 中的十六进制签名按字节比较，不拼接字符串、不生成十六进制串</li>
+ * </ul>
+ * 实例不可变、线程安全，按 token / EncodingAESKey / receiveid 创建一个全局复用
+ *
+ * @author scccy
+ */
+public final class WecomMsgCodec {
+
+    private static final int BLOCK_SIZE = 32;
+
+    private static final int RANDOM_LENGTH = 16;
+
+    private static final int HEADER_LENGTH = RANDOM_LENGTH + 4;
+
+    private static final int DIGEST_LENGTH = 20;
+
+    private static final byte[] RANDOM_ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    private static final String ENCRYPT_OPEN = "<Encrypt><![CDATA[";
+
+    private static final String ENCRYPT_CLOSE = "]]></Encrypt>";
+
+    /**
+     * 与原实现使用的 commons-codec 一致，忽略密文中的换行等非 Base64 字符
+     */
+    private static final Base64.Decoder DECODER = Base64.getMimeDecoder();
+
+    private static final Base64.Encoder ENCODER = Base64.getEncoder();
+
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+    private final String token;
+
+    private final byte[] receiveId;
+
+    private final SecretKeySpec keySpec;
+
+    private final IvParameterSpec iv;
+
+    /**
+     * @param token          企业微信后台设置的 token
+     * @param encodingAesKey 企业微信后台设置的 EncodingAESKey
+     * @param receiveId      企业应用为 corpid，第三方应用为 suiteid
+     * @throws AesException EncodingAESKey 非法
+     */
+    public WecomMsgCodec(String token, String encodingAesKey, String receiveId) throws AesException {
+        if (encodingAesKey == null || encodingAesKey.length() != 43) {
+            throw new AesException(AesException.IllegalAesKey);
+        }
+        byte[] aesKey;
+        try {
+            aesKey = DECODER.decode(encodingAesKey + "=");
+        } catch (IllegalArgumentException e) {
+            throw new AesException(AesException.IllegalAesKey);
+        }
+        this.token = token;
+        this.receiveId = receiveId.getBytes(StandardCharsets.UTF_8);
+        this.keySpec = new SecretKeySpec(aesKey, "AES");
+        this.iv = new IvParameterSpec(aesKey, 0, 16);
+    }
+
+    /**
+     * 验证回调 URL
+     *
+     * @return 解密后的 echostr
+     */
+    public String verifyUrl(String msgSignature, String timeStamp, String nonce, String echoStr) throws AesException {
+        verifySignature(msgSignature, timeStamp, nonce, echoStr);
+        return decrypt(echoStr);
+    }
+
+    /**
+     * 验签并解密回调消息
+     *
+     * @param postData 回调请求体
+     * @return 明文 XML
+     */
+    public String decryptMsg(String msgSignature, String timeStamp, String nonce, String postData) throws AesException {
+        String encrypt = extractEncrypt(postData);
+        verifySignature(msgSignature, timeStamp, nonce, encrypt);
+        return decrypt(encrypt);
+    }
+
+    /**
+     * 加密被动回复消息
+     *
+     * @return 可直接回复的密文 XML
+     */
+    public String encryptMsg(String replyMsg, String timeStamp, String nonce) throws AesException {
+        String encrypt = encrypt(replyMsg);
+        if (timeStamp == null || timeStamp.isEmpty()) {
+            timeStamp = Long.toString(System.currentTimeMillis());
+        }
+        byte[] digest = signature(token, timeStamp, nonce, encrypt);
+        return XMLParse.generate(encrypt, toHex(digest), timeStamp, nonce);
+    }
+
+    String encrypt(String text) throws AesException {
+        byte[] textBytes = text.getBytes(StandardCharsets.UTF_8);
+        int length = HEADER_LENGTH + textBytes.length + receiveId.length;
+        int pad = BLOCK_SIZE - (length % BLOCK_SIZE);
+        byte[] buffer = new byte[length + pad];
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < RANDOM_LENGTH; i++) {
+            buffer[i] = RANDOM_ALPHABET[random.nextInt(RANDOM_ALPHABET.length)];
+        }
+        int n = textBytes.length;
+        buffer[RANDOM_LENGTH] = (byte) (n >>> 24);
+        buffer[RANDOM_LENGTH + 1] = (byte) (n >>> 16);
+        buffer[RANDOM_LENGTH + 2] = (byte) (n >>> 8);
+        buffer[RANDOM_LENGTH + 3] = (byte) n;
+        System.arraycopy(textBytes, 0, buffer, HEADER_LENGTH, n);
+        System.arraycopy(receiveId, 0, buffer, HEADER_LENGTH + n, receiveId.length);
+        Arrays.fill(buffer, length, buffer.length, (byte) pad);
+
+        try {
+            Cipher cipher = WORKSPACE.get().cipher;
+            cipher.init(Cipher.ENCRYPT_MODE, keySpec, iv);
+            cipher.doFinal(buffer, 0, buffer.length, buffer, 0);
+        } catch (GeneralSecurityException e) {
+            throw new AesException(AesException.EncryptAESError);
+        }
+        return ENCODER.encodeToString(buffer);
+    }
+
+    String decrypt(String text) throws AesException {
+        byte[] buffer;
+        int length;
+        try {
+            buffer = DECODER.decode(text);
+            Cipher cipher = WORKSPACE.get().cipher;
+            cipher.init(Cipher.DECRYPT_MODE, keySpec, iv);
+            length = cipher.doFinal(buffer, 0, buffer.length, buffer, 0);
+        } catch (IllegalArgumentException | GeneralSecurityException e) {
+            throw new AesException(AesException.DecryptAESError);
+        }
+
+        int pad = length == 0 ? 0 : buffer[length - 1];
+        if (pad < 1 || pad > BLOCK_SIZE) {
+            pad = 0;
+        }
+        int end = length - pad;
+        if (end < HEADER_LENGTH) {
+            throw new AesException(AesException.IllegalBuffer);
+        }
+        int xmlLength = (buffer[RANDOM_LENGTH] & 0xFF) << 24
+                | (buffer[RANDOM_LENGTH + 1] & 0xFF) << 16
+                | (buffer[RANDOM_LENGTH + 2] & 0xFF) << 8
+                | (buffer[RANDOM_LENGTH + 3] & 0xFF);
+        // 先与剩余长度比较再相加，长度前缀接近 Integer.MAX_VALUE 时相加会溢出为负数
+        if (xmlLength < 0 || xmlLength > end - HEADER_LENGTH) {
+            throw new AesException(AesException.IllegalBuffer);
+        }
+        int receiveIdStart = HEADER_LENGTH + xmlLength;
+        if (!Arrays.equals(buffer, receiveIdStart, end, receiveId, 0, receiveId.length)) {
+            throw new AesException(AesException.ValidateCorpidError);
+        }
+        return new String(buffer, HEADER_LENGTH, xmlLength, StandardCharsets.UTF_8);
+    }
+
+    private void verifySignature(String msgSignature, String timeStamp, String nonce, String encrypt) throws AesException {
+        byte[] expected = signature(token, timeStamp, nonce, encrypt);
+        if (!matchesHex(expected, msgSignature)) {
+            throw new AesException(AesException.ValidateSignatureError);
+        }
+    }
+
+    /**
+     * SHA1(sort(token, timestamp, nonce, encrypt) 依次拼接)
+     */
+    static byte[] signature(String token, String timeStamp, String nonce, String encrypt) throws AesException {
+        if (token == null || timeStamp == null || nonce == null || encrypt == null) {
+            throw new AesException(AesException.ComputeSignatureError);
+        }
+        String[] parts = {token, timeStamp, nonce, encrypt};
+        Arrays.sort(parts);
+        Workspace workspace = WORKSPACE.get();
+        MessageDigest digest = workspace.digest;
+        for (String part : parts) {
+            workspace.update(part);
+        }
+        return digest.digest();
+    }
+
+    /**
+     * 按字节比较摘要与十六进制签名（常量时间，忽略大小写）
+     */
+    static boolean matchesHex(byte[] digest, String hex) {
+        if (hex == null || hex.length() != DIGEST_LENGTH * 2) {
+            return false;
+        }
+        int diff = 0;
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            int high = Character.digit(hex.charAt(i * 2), 16);
+            int low = Character.digit(hex.charAt(i * 2 + 1), 16);
+            if (high < 0 || low < 0) {
+                return false;
+            }
+            diff |= ((high << 4) | low) ^ (digest[i] & 0xFF);
+        }
+        return diff == 0;
+    }
+
+    private static String toHex(byte[] digest) {
+        char[] chars = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            chars[i * 2] = Character.forDigit((digest[i] >> 4) & 0xF, 16);
+            chars[i * 2 + 1] = Character.forDigit(digest[i] & 0xF, 16);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 回调请求体固定为 {@code <Encrypt><![CDATA[...]]></Encrypt>}，直接截取；格式不符时退回 DOM 解析
+     */
+    static String extractEncrypt(String postData) throws AesException {
+        if (postData == null) {
+            throw new AesException(AesException.ParseXmlError);
+        }
+        int start = postData.indexOf(ENCRYPT_OPEN);
+        if (start >= 0) {
+            start += ENCRYPT_OPEN.length();
+            int end = postData.indexOf(ENCRYPT_CLOSE, start);
+            if (end >= 0) {
+                return postData.substring(start, end);
+            }
+        }
+        return XMLParse.extract(postData)[1].toString();
+    }
+
+    /**
+     * 线程内复用的 Cipher、MessageDigest 与签名缓冲区
+     */
+    private static final class Workspace {
+
+        private static final int MAX_RETAINED = 64 * 1024;
+
+        private final Cipher cipher;
+
+        private final MessageDigest digest;
+
+        private byte[] scratch = new byte[4096];
+
+        private Workspace() {
+            try {
+                this.cipher = Cipher.getInstance("AES/CBC/NoPadding");
+                this.digest = MessageDigest.getInstance("SHA-1");
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * 参数通常为 ASCII（Base64 密文、数字时间戳），逐字符写入缓冲区；遇到非 ASCII 字符时按 UTF-8 编码
+         */
+        private void update(String part) {
+            int length = part.length();
+            byte[] buffer = length <= scratch.length ? scratch : new byte[length];
+            for (int i = 0; i < length; i++) {
+                char c = part.charAt(i);
+                if (c >= 0x80) {
+                    digest.update(part.getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+                buffer[i] = (byte) c;
+            }
+            digest.update(buffer, 0, length);
+            if (buffer != scratch && length <= MAX_RETAINED) {
+                scratch = buffer;
+            }
+        }
+    }
+}
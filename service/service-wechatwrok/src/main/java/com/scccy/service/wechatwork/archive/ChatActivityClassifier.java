@@ -0,0 +1,156 @@
+package com.scccy.service.wechatwork.archive;
+
+import com.alibaba.fastjson2.JSONObject;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 群活动时间窗口分类规则
+ * <p>
+ * 规则与原 getAllData 一致：
+ * <ul>
+ *     <li>运营在群内发布当天的 {@code HH:mm-HH:mm} 时间段 → 记录该群的活动窗口（窗口结束前有效）</li>
+ *     <li>客户（from 以 wo/wm 开头）在窗口内发言 → 标记该客户当天参与过群聊</li>
+ *     <li>非群聊、非文本消息忽略</li>
+ * </ul>
+ * 本类不访问外部资源：同页内消息按 seq 顺序分类，页内新发布的窗口对后续消息立即生效，
+ * 页外已有的窗口由调用方预先批量读取后传入
+ *
+ * @author scccy
+ */
+public class ChatActivityClassifier {
+
+    private static final Pattern TIME_RANGE_PATTERN = Pattern.compile("(\\d{2}:\\d{2})-(\\d{2}:\\d{2})");
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
+    private static final Pattern CUSTOMER_PATTERN = Pattern.compile("^(wo|wm).*");
+
+    private final ZoneId zoneId;
+
+    public ChatActivityClassifier(ZoneId zoneId) {
+        this.zoneId = zoneId;
+    }
+
+    /**
+     * 找出需要预先读取活动窗口的群（本页内的非窗口发布类群文本消息）
+     */
+    public Set<String> roomsToLookup(List<ArchivedMessage> messages) {
+        Set<String> rooms = new LinkedHashSet<>();
+        for (ArchivedMessage message : messages) {
+            if (message.roomId() != null && message.text() != null
+                    && !TIME_RANGE_PATTERN.matcher(message.text()).find()) {
+                rooms.add(message.roomId());
+            }
+        }
+        return rooms;
+    }
+
+    /**
+     * 按 seq 顺序分类一页消息
+     *
+     * @param messages     已解密消息（按 seq 升序）
+     * @param knownWindows 页外已有的活动窗口
+     * @param nowMillis    当前时间
+     * @return 分类结果
+     */
+    public PageClassification classify(List<ArchivedMessage> messages, Map<String, ActivityWindow> knownWindows,
+                                       long nowMillis) {
+        Map<String, ActivityWindow> windows = new HashMap<>(knownWindows);
+        Map<String, ActivityWindow> newWindows = new LinkedHashMap<>();
+        Set<String> customers = new LinkedHashSet<>();
+        LocalDate today = LocalDateTime.ofInstant(Instant.ofEpochMilli(nowMillis), zoneId).toLocalDate();
+
+        for (ArchivedMessage message : messages) {
+            if (message.roomId() == null || message.text() == null) {
+                continue;
+            }
+
+            // 情况1: 运营发布活动时间，仅处理当天的消息
+            Matcher matcher = TIME_RANGE_PATTERN.matcher(message.text());
+            if (matcher.find()) {
+                if (message.msgTime() == null
+                        || !LocalDateTime.ofInstant(Instant.ofEpochMilli(message.msgTime()), zoneId).toLocalDate().equals(today)) {
+                    continue;
+                }
+                long startTime = LocalDateTime.of(today, LocalTime.parse(matcher.group(1), FORMATTER))
+                        .atZone(zoneId).toInstant().toEpochMilli();
+                long endTime = LocalDateTime.of(today, LocalTime.parse(matcher.group(2), FORMATTER))
+                        .atZone(zoneId).toInstant().toEpochMilli();
+                // 已结束的窗口不记录
+                if (endTime - nowMillis >= 1000) {
+                    ActivityWindow window = new ActivityWindow(startTime, endTime);
+                    windows.put(message.roomId(), window);
+                    newWindows.put(message.roomId(), window);
+                }
+                continue;
+            }
+
+            // 情况2: 正常客户发言，运营未发布活动时间的群直接跳过
+            ActivityWindow window = windows.get(message.roomId());
+            if (window == null || message.msgTime() == null || !window.contains(message.msgTime())) {
+                continue;
+            }
+            if (message.from() != null && CUSTOMER_PATTERN.matcher(message.from()).matches()) {
+                customers.add(message.from());
+            }
+        }
+        return new PageClassification(newWindows, customers);
+    }
+
+    /**
+     * 已解密的会话存档消息（仅保留分类所需字段）
+     *
+     * @param seq     消息 seq
+     * @param roomId  群 ID，非群聊为 null
+     * @param from    发送方
+     * @param msgTime 消息时间（毫秒）
+     * @param text    文本内容，非文本消息为 null
+     */
+    public record ArchivedMessage(long seq, String roomId, String from, Long msgTime, String text) {
+
+        public static ArchivedMessage of(long seq, JSONObject detail) {
+            JSONObject text = detail.getJSONObject("text");
+            return new ArchivedMessage(seq,
+                    detail.getString("roomid"),
+                    detail.getString("from"),
+                    detail.getLong("msgtime"),
+                    text == null ? null : text.getString("content"));
+        }
+    }
+
+    /**
+     * 群活动时间窗口
+     *
+     * @param startTime 开始时间（毫秒）
+     * @param endTime   结束时间（毫秒）
+     */
+    public record ActivityWindow(long startTime, long endTime) {
+
+        public boolean contains(long millis) {
+            return startTime <= millis && millis <= endTime;
+        }
+    }
+
+    /**
+     * 一页消息的分类结果
+     *
+     * @param newWindows 本页新发布的活动窗口（同群以最后一次为准）
+     * @param customers  在活动窗口内发言的客户 external userid
+     */
+    public record PageClassification(Map<String, ActivityWindow> newWindows, Set<String> customers) {
+    }
+}
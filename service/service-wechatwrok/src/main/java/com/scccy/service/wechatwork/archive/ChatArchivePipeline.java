@@ -0,0 +1,298 @@
+package com.scccy.service.wechatwork.archive;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.JSONWriter;
+import com.scccy.service.wechatwork.archive.ChatActivityClassifier.ActivityWindow;
+import com.scccy.service.wechatwork.archive.ChatActivityClassifier.ArchivedMessage;
+import com.scccy.service.wechatwork.archive.ChatActivityClassifier.PageClassification;
+import com.scccy.service.wechatwork.config.WechatworkProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 会话存档拉取流水线
+ * <p>
+ * 每页依次经过以下阶段：
+ * <ol>
+ *     <li>拉取：{@link ChatArchiveSdk} 的长期句柄拉取一页密文</li>
+ *     <li>解密：有界线程池并行解密（RSA 解 random key + SDK 解消息体），每个线程复用自己的 Cipher 与 SDK 句柄</li>
+ *     <li>分类：按 seq 顺序应用活动窗口规则（{@link ChatActivityClassifier}），页内所需的已有窗口由 {@link RoomActivityStore} 批量读取</li>
+ *     <li>落地：活动窗口与客户标记按页批量写入，本地未缓存的客户 unionId 在线程池中并行查询</li>
+ *     <li>检查点：每页只写一次 {@code wechatwork:seq}，值为从页首起连续解密成功的最大 seq</li>
+ * </ol>
+ * 某条消息解密失败时，检查点停在它之前，本次同步结束，下次从失败处重试。
+ * 同一 seq 的失败次数记录在 {@link #ATTEMPTS_KEY}，达到 {@code max-decrypt-attempts} 后原始密文转入死信
+ * {@link #DEAD_LETTER_KEY}，检查点越过该消息继续推进；整页全部失败（如 SDK 或私钥不可用）时不计次数
+ *
+ * @author scccy
+ */
+@Slf4j
+@Component
+public class ChatArchivePipeline {
+
+    /**
+     * 检查点 Key
+     */
+    public static final String SEQ_KEY = "wechatwork:seq";
+
+    /**
+     * 解密失败次数（Hash，field 为 seq）
+     */
+    public static final String ATTEMPTS_KEY = "wechatwork:seq:attempts";
+
+    /**
+     * 死信（List，元素为原始密文、msgid、失败原因与次数的 JSON）
+     */
+    public static final String DEAD_LETTER_KEY = "wechatwork:seq:dead";
+
+    private final ChatArchiveSdk chatArchiveSdk;
+
+    private final WechatworkProperties wechatworkProperties;
+
+    private final RoomActivityStore roomActivityStore;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final ChatActivityClassifier classifier = new ChatActivityClassifier(ZoneId.systemDefault());
+
+    private final ThreadPoolExecutor workers;
+
+    private final int pageSize;
+
+    private final int timeoutSeconds;
+
+    private final int maxDecryptAttempts;
+
+    private volatile RandomKeyDecryptor keyDecryptor;
+
+    public ChatArchivePipeline(ChatArchiveSdk chatArchiveSdk,
+                               WechatworkProperties wechatworkProperties,
+                               RoomActivityStore roomActivityStore,
+                               RedisTemplate<String, Object> redisTemplate,
+                               @Value("${wechatwork.archive.workers:0}") int workerCount,
+                               @Value("${wechatwork.archive.page-size:200}") int pageSize,
+                               @Value("${wechatwork.archive.timeout-seconds:10}") int timeoutSeconds,
+                               @Value("${wechatwork.archive.max-decrypt-attempts:3}") int maxDecryptAttempts) {
+        this.chatArchiveSdk = chatArchiveSdk;
+        this.wechatworkProperties = wechatworkProperties;
+        this.roomActivityStore = roomActivityStore;
+        this.redisTemplate = redisTemplate;
+        this.pageSize = pageSize;
+        this.timeoutSeconds = timeoutSeconds;
+        this.maxDecryptAttempts = maxDecryptAttempts;
+
+        int threads = workerCount > 0 ? workerCount : Runtime.getRuntime().availableProcessors();
+        AtomicInteger index = new AtomicInteger();
+        // 队列容量至少容纳一整页，满时由调用线程执行，天然形成背压
+        this.workers = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(pageSize, threads)),
+                r -> {
+                    Thread t = new Thread(r, "chat-archive-" + index.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * 从上次检查点开始同步到最新
+     *
+     * @return 同步结果
+     */
+    public ChatArchiveSyncResult run() {
+        RandomKeyDecryptor decryptor = keyDecryptor();
+        long startSeq = readCheckpoint();
+        long seq = startSeq;
+        int pages = 0;
+        int messages = 0;
+        int failed = 0;
+        int deadLettered = 0;
+        int activityWindows = 0;
+        int customerHits = 0;
+
+        while (true) {
+            // 1. 拉取
+            JSONArray page = chatArchiveSdk.fetch(seq, pageSize, "", "", timeoutSeconds);
+            if (page.isEmpty()) {
+                break;
+            }
+            pages++;
+
+            // 2. 并行解密，按原顺序收集，遇到失败即截断（保证检查点连续），多次失败的消息转入死信后跳过
+            List<CompletableFuture<ArchivedMessage>> futures = new ArrayList<>(page.size());
+            for (int i = 0; i < page.size(); i++) {
+                JSONObject item = page.getJSONObject(i);
+                futures.add(CompletableFuture.supplyAsync(() -> decryptOne(item, decryptor), workers));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+            // 整页全部失败多为 SDK、私钥等全局问题，不计入单条消息的失败次数
+            boolean isolated = futures.stream().anyMatch(future -> !future.isCompletedExceptionally());
+            List<ArchivedMessage> decoded = new ArrayList<>(futures.size());
+            long contiguousSeq = seq;
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    ArchivedMessage message = futures.get(i).join();
+                    decoded.add(message);
+                    contiguousSeq = message.seq();
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause() == null ? e : e.getCause();
+                    JSONObject item = page.getJSONObject(i);
+                    if (isolated && deadLetterIfExhausted(item, cause)) {
+                        deadLettered++;
+                        contiguousSeq = item.getLongValue("seq");
+                        continue;
+                    }
+                    failed = futures.size() - i;
+                    log.error("会话存档解密失败，检查点停在 seq={}: {}", contiguousSeq, cause.getMessage(), cause);
+                    break;
+                }
+            }
+            messages += decoded.size();
+
+            // 3. 分类
+            long now = System.currentTimeMillis();
+            Map<String, ActivityWindow> knownWindows = roomActivityStore.loadWindows(classifier.roomsToLookup(decoded), now);
+            PageClassification classification = classifier.classify(decoded, knownWindows, now);
+
+            // 4. 落地
+            roomActivityStore.saveWindows(classification.newWindows());
+            customerHits += markCustomers(classification.customers());
+            activityWindows += classification.newWindows().size();
+
+            // 5. 检查点
+            if (contiguousSeq > seq) {
+                redisTemplate.opsForValue().set(SEQ_KEY, contiguousSeq);
+                clearAttempts(contiguousSeq);
+                seq = contiguousSeq;
+            }
+
+            if (failed > 0 || page.size() < pageSize) {
+                break;
+            }
+        }
+
+        ChatArchiveSyncResult result = new ChatArchiveSyncResult(startSeq, seq, pages, messages, failed,
+                deadLettered, activityWindows, customerHits);
+        log.info("会话存档同步完成: {}", result);
+        return result;
+    }
+
+    private ArchivedMessage decryptOne(JSONObject item, RandomKeyDecryptor decryptor) {
+        long seq = item.getLongValue("seq");
+        try {
+            String randomKey = decryptor.decrypt(item.getString("encrypt_random_key"));
+            JSONObject detail = chatArchiveSdk.decrypt(randomKey, item.getString("encrypt_chat_msg"));
+            return ArchivedMessage.of(seq, detail);
+        } catch (Exception e) {
+            throw new IllegalStateException("解密会话存档失败: seq=" + seq + ", " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 记录一次解密失败，达到上限时写入死信并清除计数
+     *
+     * @return 是否已转入死信（检查点可以越过该消息）
+     */
+    private boolean deadLetterIfExhausted(JSONObject item, Throwable cause) {
+        String field = String.valueOf(item.getLongValue("seq"));
+        Long attempts = redisTemplate.opsForHash().increment(ATTEMPTS_KEY, field, 1L);
+        if (attempts == null || attempts < maxDecryptAttempts) {
+            log.warn("会话存档解密失败: seq={}, attempts={}/{}", field, attempts, maxDecryptAttempts);
+            return false;
+        }
+        JSONObject deadLetter = new JSONObject();
+        deadLetter.put("seq", item.getLongValue("seq"));
+        deadLetter.put("msgid", item.getString("msgid"));
+        deadLetter.put("publickey_ver", item.get("publickey_ver"));
+        deadLetter.put("encrypt_random_key", item.getString("encrypt_random_key"));
+        deadLetter.put("encrypt_chat_msg", item.getString("encrypt_chat_msg"));
+        deadLetter.put("error", cause.getMessage());
+        deadLetter.put("attempts", attempts);
+        deadLetter.put("deadAt", System.currentTimeMillis());
+        redisTemplate.opsForList().rightPush(DEAD_LETTER_KEY, deadLetter.toJSONString(JSONWriter.Feature.WriteNulls));
+        redisTemplate.opsForHash().delete(ATTEMPTS_KEY, field);
+        log.error("会话存档消息解密 {} 次仍失败，已转入死信并跳过: seq={}, msgid={}, error={}",
+                attempts, field, item.getString("msgid"), cause.getMessage());
+        return true;
+    }
+
+    /**
+     * 清除检查点之前（含）的失败计数，已恢复解密的消息不再累计
+     */
+    private void clearAttempts(long committedSeq) {
+        Object[] stale = redisTemplate.opsForHash().keys(ATTEMPTS_KEY).stream()
+                .filter(field -> Long.parseLong(String.valueOf(field)) <= committedSeq)
+                .toArray();
+        if (stale.length > 0) {
+            redisTemplate.opsForHash().delete(ATTEMPTS_KEY, stale);
+        }
+    }
+
+    private long readCheckpoint() {
+        Object value = redisTemplate.opsForValue().get(SEQ_KEY);
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    /**
+     * 并行查询本地缓存未命中的客户 unionId 并批量写入当天参与群聊标记
+     *
+     * @return 成功标记的客户数
+     */
+    private int markCustomers(Set<String> externalUserIds) {
+        if (externalUserIds.isEmpty()) {
+            return 0;
+        }
+        List<String> unionIds = new ArrayList<>(externalUserIds.size());
+        List<CompletableFuture<String>> lookups = new ArrayList<>();
+        for (String externalUserId : externalUserIds) {
+            String cached = roomActivityStore.cachedUnionId(externalUserId);
+            if (cached != null) {
+                unionIds.add(cached);
+            } else {
+                lookups.add(CompletableFuture.supplyAsync(() -> roomActivityStore.resolveUnionId(externalUserId), workers));
+            }
+        }
+        for (CompletableFuture<String> lookup : lookups) {
+            String unionId = lookup.join();
+            if (unionId != null) {
+                unionIds.add(unionId);
+            }
+        }
+        roomActivityStore.markGroupChat(unionIds);
+        return unionIds.size();
+    }
+
+    /**
+     * 私钥解析结果常驻，配置变化时重建
+     */
+    private RandomKeyDecryptor keyDecryptor() {
+        String priKey = wechatworkProperties.getPriKey();
+        RandomKeyDecryptor current = keyDecryptor;
+        if (current == null || !current.matches(priKey)) {
+            current = new RandomKeyDecryptor(priKey);
+            keyDecryptor = current;
+        }
+        return current;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,131 @@
+package com.scccy.service.wechatwork.archive;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.scccy.service.wechatwork.config.WechatworkProperties;
+import com.tencent.wework.Finance;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 会话存档 SDK 句柄管理
+ * <p>
+ * 原实现每条消息都 NewSdk/DestroySdk 一次，SDK 初始化成本远高于解密本身。这里：
+ * <ul>
+ *     <li>拉取：一个长期持有的句柄，拉取串行执行（分页本身就是顺序的）</li>
+ *     <li>解密：每个解密线程各自持有一个句柄，首次使用时创建，互不共享</li>
+ * </ul>
+ * 所有句柄在容器关闭时统一销毁
+ *
+ * @author scccy
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChatArchiveSdk {
+
+    private final WechatworkProperties wechatworkProperties;
+
+    private final Object fetchLock = new Object();
+
+    /**
+     * 拉取句柄，受 fetchLock 保护，0 表示尚未创建
+     */
+    private long fetchHandle;
+
+    private final ThreadLocal<Long> decryptHandle = new ThreadLocal<>();
+
+    /**
+     * 已创建的全部句柄，关闭时销毁
+     */
+    private final Queue<Long> handles = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 拉取一页会话存档（密文）
+     *
+     * @param seq     从该 seq 之后开始拉取
+     * @param limit   本页条数上限
+     * @param proxy   代理地址，无则传空串
+     * @param passwd  代理密码，无则传空串
+     * @param timeout 超时时间（秒）
+     * @return chatdata 数组，无数据时为空数组
+     */
+    public JSONArray fetch(long seq, int limit, String proxy, String passwd, int timeout) {
+        String content;
+        synchronized (fetchLock) {
+            if (fetchHandle == 0) {
+                fetchHandle = newHandle();
+            }
+            long slice = Finance.NewSlice();
+            try {
+                int ret = Finance.GetChatData(fetchHandle, seq, limit, proxy, passwd, timeout, slice);
+                if (ret != 0) {
+                    throw new IllegalStateException("GetChatData 失败: ret=" + ret + ", seq=" + seq);
+                }
+                content = Finance.GetContentFromSlice(slice);
+            } finally {
+                Finance.FreeSlice(slice);
+            }
+        }
+
+        JSONObject response = JSON.parseObject(content);
+        int errcode = response.getIntValue("errcode");
+        if (errcode != 0) {
+            throw new IllegalStateException("GetChatData 返回错误: errcode=" + errcode
+                    + ", errmsg=" + response.getString("errmsg"));
+        }
+        JSONArray chatdata = response.getJSONArray("chatdata");
+        return chatdata == null ? new JSONArray() : chatdata;
+    }
+
+    /**
+     * 解密单条会话存档，使用当前线程的句柄
+     *
+     * @param randomKey  RSA 解密后的 encrypt_random_key
+     * @param encryptMsg encrypt_chat_msg
+     * @return 明文消息
+     */
+    public JSONObject decrypt(String randomKey, String encryptMsg) {
+        Long handle = decryptHandle.get();
+        if (handle == null) {
+            handle = newHandle();
+            decryptHandle.set(handle);
+        }
+        long slice = Finance.NewSlice();
+        try {
+            int ret = Finance.DecryptData(handle, randomKey, encryptMsg, slice);
+            if (ret != 0) {
+                throw new IllegalStateException("DecryptData 失败: ret=" + ret);
+            }
+            return JSON.parseObject(Finance.GetContentFromSlice(slice));
+        } finally {
+            Finance.FreeSlice(slice);
+        }
+    }
+
+    private long newHandle() {
+        long handle = Finance.NewSdk();
+        int ret = Finance.Init(handle, wechatworkProperties.getCorpID(), wechatworkProperties.getCoreSecretChat());
+        if (ret != 0) {
+            Finance.DestroySdk(handle);
+            throw new IllegalStateException("会话存档 SDK 初始化失败: ret=" + ret);
+        }
+        handles.add(handle);
+        return handle;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        Long handle;
+        while ((handle = handles.poll()) != null) {
+            Finance.DestroySdk(handle);
+        }
+        log.debug("会话存档 SDK 句柄已销毁");
+    }
+}
@@ -0,0 +1,24 @@
+package com.scccy.service.wechatwork.archive;
+
+/**
+ * 会话存档同步结果
+ *
+ * @param startSeq        本次同步起始 seq（上次检查点）
+ * @param committedSeq    本次提交的检查点 seq
+ * @param pages           拉取页数
+ * @param messages        成功解密的消息数
+ * @param failed          解密失败的消息数（失败消息及其后的消息留待下次同步）
+ * @param deadLettered    多次解密失败后转入死信并跳过的消息数
+ * @param activityWindows 识别到的活动时间窗口数
+ * @param customerHits    活动时间内发言的客户数
+ * @author scccy
+ */
+public record ChatArchiveSyncResult(long startSeq,
+                                    long committedSeq,
+                                    int pages,
+                                    int messages,
+                                    int failed,
+                                    int deadLettered,
+                                    int activityWindows,
+                                    int customerHits) {
+}
@@ -0,0 +1,227 @@
+package com.scccy.service.wechatwork.archive;
+
+import com.alicp.jetcache.Cache;
+import com.alicp.jetcache.CacheManager;
+import com.alicp.jetcache.anno.CacheType;
+import com.alicp.jetcache.template.QuickConfig;
+import com.scccy.service.wechatwork.archive.ChatActivityClassifier.ActivityWindow;
+import com.scccy.service.wechatwork.service.WechatworkService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 群活动窗口状态存储
+ * <p>
+ * 原实现每条客户消息最多 3 次 GET、每个客户标记 1 次 SET、每条外部联系人消息 1 次企业微信 HTTP 调用。这里：
+ * <ul>
+ *     <li>每个群的活动窗口存为一个 Hash（{@code wechatwork:room:<roomId>}，字段 start/end），过期时间为窗口结束时间</li>
+ *     <li>本地保存仍有效的窗口，未命中的群在一次 pipeline 中批量 HMGET</li>
+ *     <li>新窗口与 hasGroupChat 标记都按页在一次 pipeline 中写入</li>
+ *     <li>externalUserId → unionId 使用本地 LRU 缓存（JetCache LOCAL，带 TTL）</li>
+ * </ul>
+ * 一页消息因此只需要固定几次 Redis 往返，与消息条数无关
+ *
+ * @author scccy
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomActivityStore {
+
+    /**
+     * 客户当天参与群聊标记 Key 前缀
+     */
+    public static final String HAS_GROUP_CHAT_PREFIX = "hasGroupChat:";
+
+    private static final String ROOM_KEY_PREFIX = "wechatwork:room:";
+
+    private static final String FIELD_START = "start";
+
+    private static final String FIELD_END = "end";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final WechatworkService wechatworkService;
+
+    private final CacheManager cacheManager;
+
+    /**
+     * unionId 本地缓存条数上限
+     */
+    @Value("${wechatwork.archive.union-id-cache.limit:10000}")
+    private int unionIdCacheLimit;
+
+    /**
+     * unionId 本地缓存时间
+     */
+    @Value("${wechatwork.archive.union-id-cache.ttl:6h}")
+    private Duration unionIdCacheTtl;
+
+    /**
+     * 本地已知的有效窗口
+     */
+    private final Map<String, ActivityWindow> windows = new ConcurrentHashMap<>();
+
+    private Cache<String, String> unionIdCache;
+
+    @PostConstruct
+    public void init() {
+        QuickConfig qc = QuickConfig.newBuilder("wechatwork:unionId:")
+                .cacheType(CacheType.LOCAL)
+                .localLimit(unionIdCacheLimit)
+                .localExpire(unionIdCacheTtl)
+                .cacheNullValue(false)
+                .build();
+        unionIdCache = cacheManager.getOrCreateCache(qc);
+    }
+
+    /**
+     * 批量获取群的活动窗口，本地未命中的群一次 pipeline HMGET
+     *
+     * @param roomIds   群 ID
+     * @param nowMillis 当前时间，已结束的窗口视为不存在
+     * @return 有活动窗口的群
+     */
+    public Map<String, ActivityWindow> loadWindows(Set<String> roomIds, long nowMillis) {
+        if (roomIds.isEmpty()) {
+            return Map.of();
+        }
+        windows.values().removeIf(window -> window.endTime() < nowMillis);
+
+        Map<String, ActivityWindow> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String roomId : roomIds) {
+            ActivityWindow window = windows.get(roomId);
+            if (window != null) {
+                result.put(roomId, window);
+            } else {
+                missing.add(roomId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        List<Object> replies = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (String roomId : missing) {
+                    ops.opsForHash().multiGet(roomKey(roomId), List.of(FIELD_START, FIELD_END));
+                }
+                return null;
+            }
+        });
+        for (int i = 0; i < missing.size(); i++) {
+            if (replies.get(i) instanceof List<?> values && values.size() == 2
+                    && values.get(0) instanceof Number start && values.get(1) instanceof Number end
+                    && end.longValue() >= nowMillis) {
+                ActivityWindow window = new ActivityWindow(start.longValue(), end.longValue());
+                windows.put(missing.get(i), window);
+                result.put(missing.get(i), window);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 一次 pipeline 写入本页新发布的活动窗口，过期时间为窗口结束时间
+     */
+    public void saveWindows(Map<String, ActivityWindow> newWindows) {
+        if (newWindows.isEmpty()) {
+            return;
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                newWindows.forEach((roomId, window) -> {
+                    String key = roomKey(roomId);
+                    ops.opsForHash().putAll(key, Map.of(FIELD_START, window.startTime(), FIELD_END, window.endTime()));
+                    ops.expireAt(key, new Date(window.endTime()));
+                });
+                return null;
+            }
+        });
+        windows.putAll(newWindows);
+    }
+
+    /**
+     * 一次 pipeline 写入客户当天参与群聊标记，当天结束时过期
+     */
+    public void markGroupChat(Collection<String> unionIds) {
+        if (unionIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        long seconds = Math.max(1L, Duration.between(now, now.with(LocalTime.MAX)).getSeconds());
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (String unionId : unionIds) {
+                    ops.opsForValue().set(HAS_GROUP_CHAT_PREFIX + unionId, true, seconds, TimeUnit.SECONDS);
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 客户是否当天参与过群聊
+     */
+    public boolean hasGroupChat(String unionId) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().get(HAS_GROUP_CHAT_PREFIX + unionId));
+    }
+
+    /**
+     * 查询外部联系人 unionId，优先本地缓存
+     *
+     * @param externalUserId 外部联系人 ID
+     * @return unionId，查询失败返回 null（不缓存）
+     */
+    public String resolveUnionId(String externalUserId) {
+        return unionIdCache.computeIfAbsent(externalUserId, id -> {
+            try {
+                return wechatworkService.getExteralContactUnionId(id);
+            } catch (Exception e) {
+                log.error("查询客户 unionId 失败: externalUserId={}, error={}", id, e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 本地缓存中的 unionId，未命中返回 null
+     */
+    public String cachedUnionId(String externalUserId) {
+        return unionIdCache.get(externalUserId);
+    }
+
+    private static String roomKey(String roomId) {
+        return ROOM_KEY_PREFIX + roomId;
+    }
+}
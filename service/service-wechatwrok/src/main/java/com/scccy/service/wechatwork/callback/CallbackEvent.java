@@ -0,0 +1,85 @@
+package com.scccy.service.wechatwork.callback;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 企业微信回调事件（解密、解析后的结构化形式）
+ * <p>
+ * 只保留后续处理需要的字段，以字符串 Map 形式写入 Redis Stream
+ *
+ * @param event          Event
+ * @param changeType     ChangeType
+ * @param updateDetail   UpdateDetail（客户群变更）
+ * @param chatId         ChatId（客户群变更）
+ * @param userId         UserID（外部联系人变更）
+ * @param externalUserId ExternalUserID（外部联系人变更）
+ * @param members        MemChangeList 中的成员（客户群变更）
+ * @param createTime     CreateTime
+ * @author scccy
+ */
+public record CallbackEvent(String event,
+                            String changeType,
+                            String updateDetail,
+                            String chatId,
+                            String userId,
+                            String externalUserId,
+                            List<String> members,
+                            String createTime) {
+
+    private static final String MEMBER_SEPARATOR = ",";
+
+    /**
+     * 去重键：企业微信重试推送的同一事件各字段完全相同
+     */
+    public String dedupKey() {
+        return String.join("|", nullToEmpty(event), nullToEmpty(changeType), nullToEmpty(updateDetail),
+                nullToEmpty(chatId), nullToEmpty(userId), nullToEmpty(externalUserId),
+                String.join(MEMBER_SEPARATOR, members), nullToEmpty(createTime));
+    }
+
+    /**
+     * 转为 Stream 记录字段（值不能为 null）
+     */
+    public Map<String, String> toFields() {
+        Map<String, String> fields = new HashMap<>(16);
+        putIfPresent(fields, "event", event);
+        putIfPresent(fields, "changeType", changeType);
+        putIfPresent(fields, "updateDetail", updateDetail);
+        putIfPresent(fields, "chatId", chatId);
+        putIfPresent(fields, "userId", userId);
+        putIfPresent(fields, "externalUserId", externalUserId);
+        if (!members.isEmpty()) {
+            fields.put("members", String.join(MEMBER_SEPARATOR, members));
+        }
+        putIfPresent(fields, "createTime", createTime);
+        return fields;
+    }
+
+    /**
+     * 从 Stream 记录字段还原
+     */
+    public static CallbackEvent fromFields(Map<String, String> fields) {
+        String members = fields.get("members");
+        return new CallbackEvent(fields.get("event"),
+                fields.get("changeType"),
+                fields.get("updateDetail"),
+                fields.get("chatId"),
+                fields.get("userId"),
+                fields.get("externalUserId"),
+                members == null || members.isEmpty() ? List.of() : Arrays.asList(members.split(MEMBER_SEPARATOR)),
+                fields.get("createTime"));
+    }
+
+    private static void putIfPresent(Map<String, String> fields, String name, String value) {
+        if (value != null) {
+            fields.put(name, value);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,153 @@
+package com.scccy.service.wechatwork.callback;
+
+import com.scccy.service.wechatwork.archive.RoomActivityStore;
+import com.scccy.service.wechatwork.dao.mapper.WechatworkExternalUserMapper;
+import com.scccy.service.wechatwork.dao.mapper.WechatworkGroupMapper;
+import com.scccy.service.wechatwork.domain.mp.WechatworkExternalUserMp;
+import com.scccy.service.wechatwork.domain.mp.WechatworkGroupMp;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 回调事件批量处理
+ * <p>
+ * 一批事件先按"关系"折叠：同一好友关系 / 同一群成员在批内多次变更时只保留最后一次（添加或删除），
+ * 再分别用一条多行 upsert 与一条批量 delete 落库。写入是幂等的，企业微信重复推送或 Stream 重投都不会产生副作用。
+ * <p>
+ * 外部联系人的 unionId 通过 {@link RoomActivityStore#resolveUnionId} 查询，命中本地缓存时不访问企业微信
+ *
+ * @author scccy
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CallbackEventHandler {
+
+    private final WechatworkExternalUserMapper wechatworkExternalUserMapper;
+
+    private final WechatworkGroupMapper wechatworkGroupMapper;
+
+    private final RoomActivityStore roomActivityStore;
+
+    /**
+     * 处理一批事件（按到达顺序）
+     *
+     * @param events 回调事件
+     */
+    public void handle(List<CallbackEvent> events) {
+        Map<String, ContactChange> contacts = new LinkedHashMap<>();
+        Map<String, MemberChange> members = new LinkedHashMap<>();
+
+        for (CallbackEvent event : events) {
+            if ("change_external_contact".equals(event.event())) {
+                collectContact(event, contacts);
+            } else if ("change_external_chat".equals(event.event())) {
+                collectMembers(event, members);
+            } else {
+                log.debug("忽略回调事件: event={}, changeType={}", event.event(), event.changeType());
+            }
+        }
+
+        applyContacts(contacts.values());
+        applyMembers(members.values());
+    }
+
+    private void collectContact(CallbackEvent event, Map<String, ContactChange> contacts) {
+        if (event.userId() == null || event.externalUserId() == null) {
+            return;
+        }
+        boolean add;
+        if ("add_external_contact".equals(event.changeType())) {
+            add = true;
+        } else if ("del_external_contact".equals(event.changeType())) {
+            add = false;
+        } else {
+            log.debug("忽略外部联系人变更: changeType={}", event.changeType());
+            return;
+        }
+        String key = event.userId() + '\u0000' + event.externalUserId();
+        // 先删除旧值再放入，保证 LinkedHashMap 中的顺序是最后一次变更的顺序
+        contacts.remove(key);
+        contacts.put(key, new ContactChange(event.userId(), event.externalUserId(), add));
+    }
+
+    private void collectMembers(CallbackEvent event, Map<String, MemberChange> members) {
+        if (event.chatId() == null || event.members().isEmpty()) {
+            return;
+        }
+        boolean add;
+        if ("add_member".equals(event.updateDetail())) {
+            add = true;
+        } else if ("del_member".equals(event.updateDetail())) {
+            add = false;
+        } else {
+            log.debug("忽略客户群变更: updateDetail={}", event.updateDetail());
+            return;
+        }
+        for (String member : event.members()) {
+            String key = event.chatId() + '\u0000' + member;
+            members.remove(key);
+            members.put(key, new MemberChange(event.chatId(), member, add));
+        }
+    }
+
+    private void applyContacts(Iterable<ContactChange> changes) {
+        List<WechatworkExternalUserMp> upserts = new ArrayList<>();
+        List<WechatworkExternalUserMp> deletes = new ArrayList<>();
+        for (ContactChange change : changes) {
+            WechatworkExternalUserMp row = new WechatworkExternalUserMp()
+                    .setWechatworkUserId(change.userId())
+                    .setWechatworkExternalUserid(change.externalUserId())
+                    .setUserId(change.userId());
+            if (change.add()) {
+                row.setWechatworkUnionId(roomActivityStore.resolveUnionId(change.externalUserId()));
+                upserts.add(row);
+            } else {
+                deletes.add(row);
+            }
+        }
+        if (!upserts.isEmpty()) {
+            wechatworkExternalUserMapper.upsertBatch(upserts);
+        }
+        if (!deletes.isEmpty()) {
+            wechatworkExternalUserMapper.deleteBatch(deletes);
+        }
+        log.debug("外部联系人回调落库: upsert={}, delete={}", upserts.size(), deletes.size());
+    }
+
+    private void applyMembers(Iterable<MemberChange> changes) {
+        List<WechatworkGroupMp> upserts = new ArrayList<>();
+        List<WechatworkGroupMp> deletes = new ArrayList<>();
+        for (MemberChange change : changes) {
+            WechatworkGroupMp row = new WechatworkGroupMp()
+                    .setWechatworkGroupId(change.chatId())
+                    .setWechatworkExternalUserId(change.memberId());
+            if (change.add()) {
+                // 成员可能是企业员工，查询失败时 unionId 为空，不影响关系写入
+                row.setWechatworkExternalUnionId(roomActivityStore.resolveUnionId(change.memberId()));
+                upserts.add(row);
+            } else {
+                deletes.add(row);
+            }
+        }
+        if (!upserts.isEmpty()) {
+            wechatworkGroupMapper.upsertBatch(upserts);
+        }
+        if (!deletes.isEmpty()) {
+            wechatworkGroupMapper.deleteBatch(deletes);
+        }
+        log.debug("客户群成员回调落库: upsert={}, delete={}", upserts.size(), deletes.size());
+    }
+
+    private record ContactChange(String userId, String externalUserId, boolean add) {
+    }
+
+    private record MemberChange(String chatId, String memberId, boolean add) {
+    }
+}
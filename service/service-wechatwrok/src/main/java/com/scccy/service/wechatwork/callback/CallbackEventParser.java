@@ -0,0 +1,88 @@
+package com.scccy.service.wechatwork.callback;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 回调明文 XML 的 StAX 解析
+ * <p>
+ * 回调明文是扁平的 {@code <xml>} 结构，单遍流式读取即可，无需为每次回调构建 DOM。
+ * {@link XMLInputFactory} 配置完成后线程安全，全局共享一个；禁用 DTD 与外部实体
+ *
+ * @author scccy
+ */
+public final class CallbackEventParser {
+
+    private static final XMLInputFactory FACTORY = newFactory();
+
+    private CallbackEventParser() {
+    }
+
+    /**
+     * 解析回调明文
+     *
+     * @param xml 解密后的 XML
+     * @return 回调事件
+     */
+    public static CallbackEvent parse(String xml) throws XMLStreamException {
+        Map<String, String> fields = new HashMap<>(16);
+        List<String> members = new ArrayList<>();
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(new StringReader(xml));
+        try {
+            int depth = 0;
+            boolean inMemChangeList = false;
+            while (reader.hasNext()) {
+                int type = reader.next();
+                if (type == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String name = reader.getLocalName();
+                    if (depth == 2 && "MemChangeList".equals(name)) {
+                        inMemChangeList = true;
+                    } else if (inMemChangeList && "Item".equals(name)) {
+                        depth--;
+                        members.add(reader.getElementText().trim());
+                    } else if (depth == 2) {
+                        depth--;
+                        fields.put(name, reader.getElementText().trim());
+                    }
+                } else if (type == XMLStreamConstants.END_ELEMENT) {
+                    if (inMemChangeList && depth == 2) {
+                        inMemChangeList = false;
+                    }
+                    depth--;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return new CallbackEvent(fields.get("Event"),
+                fields.get("ChangeType"),
+                fields.get("UpdateDetail"),
+                fields.get("ChatId"),
+                fields.get("UserID"),
+                fields.get("ExternalUserID"),
+                members,
+                fields.get("CreateTime"));
+    }
+
+    private static XMLInputFactory newFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        try {
+            factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        } catch (IllegalArgumentException ignored) {
+            // 部分实现不支持该属性，SUPPORT_DTD=false 已足够
+        }
+        return factory;
+    }
+}
@@ -0,0 +1,367 @@
+package com.scccy.service.wechatwork.callback;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.PendingMessagesSummary;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamInfo;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 回调事件持久化队列（Redis Stream）
+ * <p>
+ * 回调请求线程只做验签、解密、解析和一次 XADD，随即应答企业微信；
+ * 本地一个消费线程通过消费者组批量读取、交给 {@link CallbackEventHandler} 落库后再 XACK。
+ * <ul>
+ *     <li>整批处理失败时逐条重试，失败的消息不 ACK，留在待处理列表中</li>
+ *     <li>待处理列表中空闲超过 {@code claim-idle} 的消息（包括本实例自己名下的）被认领后重新处理</li>
+ *     <li>投递次数达到 {@code max-deliveries} 的消息转入死信 Stream 并 ACK，不再阻塞重试</li>
+ *     <li>实例重启后先处理自己名下未 ACK 的消息</li>
+ *     <li>企业微信超时重推的同一事件在批内与最近处理过的事件中去重</li>
+ *     <li>Stream 按 MINID 裁剪到最早的未 ACK 消息之前，不会删除尚未处理的消息；
+ *     长度超过 {@code max-length} 时告警</li>
+ * </ul>
+ *
+ * @author scccy
+ */
+@Slf4j
+@Component
+public class CallbackEventQueue implements SmartLifecycle {
+
+    /**
+     * Stream Key
+     */
+    public static final String STREAM_KEY = "wechatwork:callback:events";
+
+    /**
+     * 死信 Stream Key
+     */
+    public static final String DEAD_LETTER_STREAM_KEY = "wechatwork:callback:events:dead";
+
+    private static final String GROUP = "callback-workers";
+
+    /**
+     * 最近处理过的事件去重键数量
+     */
+    private static final int RECENT_KEYS = 10_000;
+
+    /**
+     * 近似裁剪到指定 ID 之前（Spring Data Redis 未提供 XTRIM MINID）
+     */
+    private static final RedisScript<Long> TRIM_MIN_ID_SCRIPT = new DefaultRedisScript<>(
+            "return redis.call('XTRIM', KEYS[1], 'MINID', '~', ARGV[1])", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final CallbackEventHandler callbackEventHandler;
+
+    private final String consumerName;
+
+    @Value("${wechatwork.callback.batch-size:200}")
+    private int batchSize;
+
+    @Value("${wechatwork.callback.max-length:100000}")
+    private long maxLength;
+
+    @Value("${wechatwork.callback.claim-idle:5m}")
+    private Duration claimIdle;
+
+    @Value("${wechatwork.callback.max-deliveries:5}")
+    private long maxDeliveries;
+
+    private final Map<String, Boolean> recentKeys = new LinkedHashMap<>(RECENT_KEYS, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > RECENT_KEYS;
+        }
+    };
+
+    private volatile boolean running;
+
+    private Thread worker;
+
+    public CallbackEventQueue(StringRedisTemplate stringRedisTemplate,
+                              CallbackEventHandler callbackEventHandler,
+                              @Value("${spring.application.name:service-wechatwork}") String applicationName) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.callbackEventHandler = callbackEventHandler;
+        this.consumerName = applicationName + "-" + hostName();
+    }
+
+    /**
+     * 入队，一次 XADD
+     *
+     * @param event 回调事件
+     */
+    public void publish(CallbackEvent event) {
+        MapRecord<String, String, String> record = StreamRecords.newRecord()
+                .in(STREAM_KEY)
+                .ofMap(event.toFields());
+        stringRedisTemplate.opsForStream().add(record);
+    }
+
+    @Override
+    public void start() {
+        ensureGroup();
+        running = true;
+        worker = Thread.ofVirtual().name("wechatwork-callback-worker").start(this::consume);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void consume() {
+        StreamOperations<String, String, String> ops = stringRedisTemplate.opsForStream();
+        Consumer consumer = Consumer.from(GROUP, consumerName);
+        StreamReadOptions options = StreamReadOptions.empty().count(batchSize).block(Duration.ofSeconds(2));
+
+        // 先处理本实例名下未 ACK 的消息
+        ReadOffset offset = ReadOffset.from("0");
+        long lastClaimAt = 0L;
+        while (running) {
+            try {
+                List<MapRecord<String, String, String>> records = ops.read(consumer, options,
+                        StreamOffset.create(STREAM_KEY, offset));
+                if (offset != ReadOffset.lastConsumed() && (records == null || records.isEmpty())) {
+                    offset = ReadOffset.lastConsumed();
+                    continue;
+                }
+                if (records != null && !records.isEmpty()) {
+                    process(ops, records);
+                }
+
+                long now = System.currentTimeMillis();
+                if (now - lastClaimAt >= claimIdle.toMillis()) {
+                    lastClaimAt = now;
+                    recoverPending(ops);
+                    trim(ops);
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    break;
+                }
+                if (hasRedisError(e, "NOGROUP")) {
+                    // Stream 或消费者组被删除（如 Redis 清空、主从切换丢数据），重新创建后继续
+                    log.warn("回调事件消费者组不存在，重新创建: {}", e.getMessage());
+                    ensureGroup();
+                    offset = ReadOffset.from("0");
+                    sleepQuietly();
+                    continue;
+                }
+                // 未 ACK 的消息留在待处理列表中，由 recoverPending 计数重试，避免反复读取同一批消息
+                offset = ReadOffset.lastConsumed();
+                log.error("回调事件消费失败，稍后重试: {}", e.getMessage(), e);
+                sleepQuietly();
+            }
+        }
+    }
+
+    private void process(StreamOperations<String, String, String> ops, List<MapRecord<String, String, String>> records) {
+        List<CallbackEvent> events = new ArrayList<>(records.size());
+        List<String> keys = new ArrayList<>(records.size());
+        for (MapRecord<String, String, String> record : records) {
+            CallbackEvent event = CallbackEvent.fromFields(record.getValue());
+            String key = event.dedupKey();
+            if (recentKeys.containsKey(key) || keys.contains(key)) {
+                continue;
+            }
+            keys.add(key);
+            events.add(event);
+        }
+        if (!events.isEmpty()) {
+            try {
+                callbackEventHandler.handle(events);
+            } catch (RuntimeException e) {
+                if (events.size() == 1) {
+                    throw e;
+                }
+                log.warn("回调事件批量处理失败，逐条重试: records={}, error={}", records.size(), e.getMessage());
+                processOneByOne(ops, records);
+                return;
+            }
+        }
+        keys.forEach(key -> recentKeys.put(key, Boolean.TRUE));
+        RecordId[] ids = records.stream().map(MapRecord::getId).toArray(RecordId[]::new);
+        ops.acknowledge(STREAM_KEY, GROUP, ids);
+        log.debug("回调事件处理完成: records={}, handled={}", records.size(), events.size());
+    }
+
+    /**
+     * 逐条处理并 ACK，处理失败的消息留在待处理列表中，不影响同批其他消息
+     */
+    private void processOneByOne(StreamOperations<String, String, String> ops,
+                                 List<MapRecord<String, String, String>> records) {
+        int failed = 0;
+        for (MapRecord<String, String, String> record : records) {
+            CallbackEvent event = CallbackEvent.fromFields(record.getValue());
+            String key = event.dedupKey();
+            if (!recentKeys.containsKey(key)) {
+                try {
+                    callbackEventHandler.handle(List.of(event));
+                } catch (RuntimeException e) {
+                    failed++;
+                    log.warn("回调事件处理失败，等待重试: id={}, event={}, error={}",
+                            record.getId(), event.event(), e.getMessage());
+                    continue;
+                }
+                recentKeys.put(key, Boolean.TRUE);
+            }
+            ops.acknowledge(STREAM_KEY, GROUP, record.getId());
+        }
+        log.debug("回调事件逐条处理完成: records={}, failed={}", records.size(), failed);
+    }
+
+    /**
+     * 处理待处理列表中空闲过久的消息
+     * <p>
+     * 包括已下线实例名下的消息与本实例处理失败的消息。投递次数（XPENDING 的 delivery count，
+     * 每次读取或认领加一）达到 {@code max-deliveries} 的消息转入死信 Stream 并 ACK，其余认领后立即重新处理
+     */
+    private void recoverPending(StreamOperations<String, String, String> ops) {
+        PendingMessages pending = ops.pending(STREAM_KEY, GROUP, Range.unbounded(), batchSize);
+        List<RecordId> idle = new ArrayList<>();
+        for (PendingMessage message : pending) {
+            if (message.getElapsedTimeSinceLastDelivery().compareTo(claimIdle) < 0) {
+                continue;
+            }
+            if (message.getTotalDeliveryCount() >= maxDeliveries) {
+                deadLetter(ops, message);
+            } else {
+                idle.add(message.getId());
+            }
+        }
+        if (idle.isEmpty()) {
+            return;
+        }
+        List<MapRecord<String, String, String>> claimed = ops.claim(STREAM_KEY, GROUP, consumerName, claimIdle,
+                idle.toArray(RecordId[]::new));
+        log.info("认领空闲回调事件: count={}", claimed.size());
+        if (!claimed.isEmpty()) {
+            process(ops, claimed);
+        }
+    }
+
+    /**
+     * 转入死信 Stream 并 ACK，死信中附带原消息 ID、投递次数与最后一个消费者
+     */
+    private void deadLetter(StreamOperations<String, String, String> ops, PendingMessage message) {
+        String id = message.getIdAsString();
+        List<MapRecord<String, String, String>> records = ops.range(STREAM_KEY, Range.closed(id, id));
+        Map<String, String> fields = new LinkedHashMap<>(records == null || records.isEmpty()
+                ? Collections.emptyMap() : records.get(0).getValue());
+        fields.put("deadLetter.sourceId", id);
+        fields.put("deadLetter.deliveries", String.valueOf(message.getTotalDeliveryCount()));
+        fields.put("deadLetter.consumer", message.getConsumerName());
+        ops.add(StreamRecords.newRecord().in(DEAD_LETTER_STREAM_KEY).ofMap(fields));
+        ops.acknowledge(STREAM_KEY, GROUP, message.getId());
+        ops.trim(DEAD_LETTER_STREAM_KEY, maxLength, true);
+        log.error("回调事件多次处理失败，已转入死信队列: id={}, deliveries={}, event={}",
+                id, message.getTotalDeliveryCount(), fields.get("event"));
+    }
+
+    /**
+     * 裁剪到最早的未 ACK 消息之前；没有未 ACK 消息时裁剪到消费者组最后读取的位置之前，
+     * 尚未读取的消息始终保留
+     */
+    private void trim(StreamOperations<String, String, String> ops) {
+        PendingMessagesSummary summary = ops.pending(STREAM_KEY, GROUP);
+        String minId;
+        if (summary != null && summary.getTotalPendingMessages() > 0) {
+            minId = summary.minMessageId();
+        } else {
+            minId = ops.groups(STREAM_KEY).stream()
+                    .filter(group -> GROUP.equals(group.groupName()))
+                    .map(StreamInfo.XInfoGroup::lastDeliveredId)
+                    .findFirst()
+                    .orElse(null);
+        }
+        if (minId == null || "0-0".equals(minId)) {
+            return;
+        }
+        stringRedisTemplate.execute(TRIM_MIN_ID_SCRIPT, List.of(STREAM_KEY), minId);
+        Long length = ops.size(STREAM_KEY);
+        if (length != null && length > maxLength) {
+            log.warn("回调事件积压超过上限: length={}, maxLength={}, oldestPending={}", length, maxLength, minId);
+        }
+    }
+
+    /**
+     * 创建消费者组，Stream 尚不存在时一并创建（MKSTREAM），否则首次启动时 XREADGROUP 会一直返回 NOGROUP
+     */
+    private void ensureGroup() {
+        try {
+            stringRedisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands()
+                    .xGroupCreate(STREAM_KEY.getBytes(StandardCharsets.UTF_8), GROUP, ReadOffset.from("0"), true));
+            log.info("回调事件消费者组已创建: stream={}, group={}", STREAM_KEY, GROUP);
+        } catch (Exception e) {
+            if (hasRedisError(e, "BUSYGROUP")) {
+                log.debug("回调事件消费者组已存在: {}", GROUP);
+                return;
+            }
+            log.error("创建回调事件消费者组失败: stream={}, group={}, error={}", STREAM_KEY, GROUP, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 判断异常链中是否包含指定的 Redis 错误码（如 NOGROUP、BUSYGROUP）
+     */
+    private static boolean hasRedisError(Throwable e, String code) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message != null && message.contains(code)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void sleepQuietly() {
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return String.valueOf(ProcessHandle.current().pid());
+        }
+    }
+}
@@ -23,6 +23,7 @@ public  class  WechatworkProperties {
     private  String baseUrl ;
     @Value("${wechatwork.token}")
     private  String token ;
+    @Value("${wechatwork.encodingAESKey}")
     private  String encodingAESKey;
     @Value("${wechatwork.coreSecretChat}")
     private  String coreSecretChat;
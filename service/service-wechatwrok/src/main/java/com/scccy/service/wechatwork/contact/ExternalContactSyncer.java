@@ -0,0 +1,312 @@
+package com.scccy.service.wechatwork.contact;
+
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.scccy.service.wechatwork.dao.mapper.WechatworkExternalUserMapper;
+import com.scccy.service.wechatwork.domain.mp.WechatworkExternalUserMp;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 外部联系人增量同步
+ * <p>
+ * 按员工逐个同步 {@code externalcontact/batch/get_by_user}，每个员工在 Redis 中保存：
+ * <ul>
+ *     <li>游标：已写入数据库的最后一页的 next_cursor，中断后从这里继续，而不是从第一页重来</li>
+ *     <li>水位线：最近一次完整同步结束的时间，增量模式下在 {@code min-interval} 内同步过的员工直接跳过</li>
+ * </ul>
+ * 企业微信接口不支持按变更时间过滤，"增量"指的是断点续传与按员工跳过，而不是只拉取变更。
+ * <p>
+ * 拉取与写库通过有界队列重叠：调用线程翻页并把每页映射为实体放入队列，
+ * 写库线程一次取出队列中已有的全部页，用一条多行 {@code INSERT ... ON DUPLICATE KEY UPDATE} 写入，
+ * 写入成功后才推进对应员工的游标。内存占用上限为队列容量乘以每页条数，与客户总量无关
+ *
+ * @author scccy
+ */
+@Slf4j
+@Component
+public class ExternalContactSyncer {
+
+    private static final String CURSOR_KEY = "wechatwork:contact-sync:cursor";
+
+    private static final String WATERMARK_KEY = "wechatwork:contact-sync:watermark";
+
+    private final WechatworkExternalUserMapper wechatworkExternalUserMapper;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 增量模式下员工两次完整同步的最小间隔
+     */
+    private final Duration minInterval;
+
+    /**
+     * 拉取与写库之间最多缓冲的页数
+     */
+    private final int queuePages;
+
+    public ExternalContactSyncer(WechatworkExternalUserMapper wechatworkExternalUserMapper,
+                                 StringRedisTemplate stringRedisTemplate,
+                                 @Value("${wechatwork.contact-sync.min-interval:6h}") Duration minInterval,
+                                 @Value("${wechatwork.contact-sync.queue-pages:16}") int queuePages) {
+        this.wechatworkExternalUserMapper = wechatworkExternalUserMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.minInterval = minInterval;
+        this.queuePages = Math.max(1, queuePages);
+    }
+
+    /**
+     * 同步一批员工的外部联系人
+     *
+     * @param userIds     员工 userid
+     * @param limit       每页条数
+     * @param incremental true 时跳过 min-interval 内已完整同步过的员工；false 时全部同步（仍从保存的游标续传）
+     * @param fetcher     翻页接口调用
+     * @return 同步结果
+     */
+    public SyncReport sync(List<String> userIds, int limit, boolean incremental, PageFetcher fetcher) {
+        BlockingQueue<Page> queue = new ArrayBlockingQueue<>(queuePages);
+        AtomicReference<Exception> writerError = new AtomicReference<>();
+        Writer writer = new Writer(queue, writerError);
+        Thread writerThread = Thread.ofVirtual().name("contact-sync-writer").start(writer);
+
+        int skipped = 0;
+        int fetched = 0;
+        Exception fetchError = null;
+        try {
+            long now = System.currentTimeMillis();
+            for (String userId : userIds) {
+                if (writerError.get() != null) {
+                    break;
+                }
+                if (incremental && syncedRecently(userId, now)) {
+                    skipped++;
+                    continue;
+                }
+                fetched += fetchUser(userId, limit, fetcher, queue, writerError);
+            }
+        } catch (Exception e) {
+            fetchError = e;
+        } finally {
+            putQuietly(queue, Page.END);
+        }
+
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        Exception error = fetchError != null ? fetchError : writerError.get();
+        if (error != null) {
+            log.error("外部联系人同步中断，已写入部分会在下次从游标续传: {}", error.getMessage(), error);
+        }
+        SyncReport report = new SyncReport(userIds.size(), skipped, fetched, writer.written, error == null);
+        log.info("外部联系人同步完成: {}", report);
+        return report;
+    }
+
+    /**
+     * 翻页拉取单个员工，从保存的游标开始
+     *
+     * @return 拉取的好友关系条数
+     */
+    private int fetchUser(String userId, int limit, PageFetcher fetcher, BlockingQueue<Page> queue,
+                          AtomicReference<Exception> writerError) throws Exception {
+        Object saved = stringRedisTemplate.opsForHash().get(CURSOR_KEY, userId);
+        String cursor = saved == null ? null : saved.toString();
+        int fetched = 0;
+        while (writerError.get() == null) {
+            JSONObject response = fetcher.fetch(userId, cursor, limit);
+            List<WechatworkExternalUserMp> rows = toRows(response.getJSONArray("external_contact_list"));
+            fetched += rows.size();
+
+            String nextCursor = response.getString("next_cursor");
+            boolean last = nextCursor == null || nextCursor.isEmpty() || nextCursor.equals(cursor);
+            queue.put(new Page(userId, last ? null : nextCursor, last, rows));
+            if (last) {
+                break;
+            }
+            cursor = nextCursor;
+        }
+        return fetched;
+    }
+
+    private boolean syncedRecently(String userId, long now) {
+        Object watermark = stringRedisTemplate.opsForHash().get(WATERMARK_KEY, userId);
+        if (watermark == null) {
+            return false;
+        }
+        try {
+            return now - Long.parseLong(watermark.toString()) < minInterval.toMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 只保留客户类型为微信用户（type=1）的外部联系人
+     */
+    private static List<WechatworkExternalUserMp> toRows(JSONArray externalContactList) {
+        if (externalContactList == null || externalContactList.isEmpty()) {
+            return List.of();
+        }
+        List<WechatworkExternalUserMp> rows = new ArrayList<>(externalContactList.size());
+        for (int i = 0; i < externalContactList.size(); i++) {
+            JSONObject item = externalContactList.getJSONObject(i);
+            JSONObject externalContact = item.getJSONObject("external_contact");
+            if (externalContact == null || !Integer.valueOf(1).equals(externalContact.getInteger("type"))) {
+                continue;
+            }
+            JSONObject followInfo = item.getJSONObject("follow_info");
+            String userid = followInfo == null ? null : followInfo.getString("userid");
+            String externalUserid = externalContact.getString("external_userid");
+            if (userid == null || externalUserid == null) {
+                continue;
+            }
+            rows.add(new WechatworkExternalUserMp()
+                    .setWechatworkUserId(userid)
+                    .setWechatworkExternalUserid(externalUserid)
+                    .setWechatworkUnionId(externalContact.getString("unionid"))
+                    .setUserId(userid));
+        }
+        return rows;
+    }
+
+    private static void putQuietly(BlockingQueue<Page> queue, Page page) {
+        try {
+            queue.put(page);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 写库线程：合并已到达的页批量写入，写入成功后推进游标与水位线
+     */
+    private class Writer implements Runnable {
+
+        private final BlockingQueue<Page> queue;
+
+        private final AtomicReference<Exception> error;
+
+        private volatile int written;
+
+        Writer(BlockingQueue<Page> queue, AtomicReference<Exception> error) {
+            this.queue = queue;
+            this.error = error;
+        }
+
+        @Override
+        public void run() {
+            List<Page> pages = new ArrayList<>(queuePages);
+            boolean end = false;
+            while (!end) {
+                try {
+                    pages.add(queue.take());
+                    queue.drainTo(pages);
+                    end = pages.get(pages.size() - 1) == Page.END;
+                    if (end) {
+                        pages.remove(pages.size() - 1);
+                    }
+                    if (error.get() == null && !pages.isEmpty()) {
+                        write(pages);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    error.compareAndSet(null, e);
+                    return;
+                } catch (Exception e) {
+                    // 出错后继续消费直到结束标记，避免拉取线程阻塞在满队列上
+                    error.compareAndSet(null, e);
+                } finally {
+                    pages.clear();
+                }
+            }
+        }
+
+        private void write(List<Page> pages) {
+            List<WechatworkExternalUserMp> rows = new ArrayList<>();
+            Map<String, Page> lastPageByUser = new LinkedHashMap<>();
+            for (Page page : pages) {
+                rows.addAll(page.rows());
+                lastPageByUser.put(page.userId(), page);
+            }
+            if (!rows.isEmpty()) {
+                wechatworkExternalUserMapper.upsertBatch(rows);
+                written += rows.size();
+            }
+
+            long now = System.currentTimeMillis();
+            Map<String, String> cursors = new LinkedHashMap<>();
+            Map<String, String> watermarks = new LinkedHashMap<>();
+            List<String> finished = new ArrayList<>();
+            lastPageByUser.forEach((userId, page) -> {
+                if (page.last()) {
+                    finished.add(userId);
+                    watermarks.put(userId, String.valueOf(now));
+                } else {
+                    cursors.put(userId, page.nextCursor());
+                }
+            });
+            if (!cursors.isEmpty()) {
+                stringRedisTemplate.opsForHash().putAll(CURSOR_KEY, cursors);
+            }
+            if (!finished.isEmpty()) {
+                stringRedisTemplate.opsForHash().delete(CURSOR_KEY, finished.toArray());
+                stringRedisTemplate.opsForHash().putAll(WATERMARK_KEY, watermarks);
+            }
+        }
+    }
+
+    /**
+     * 一页好友关系
+     *
+     * @param userId     员工 userid
+     * @param nextCursor 下一页游标，最后一页为 null
+     * @param last       是否为该员工的最后一页
+     * @param rows       映射后的实体
+     */
+    private record Page(String userId, String nextCursor, boolean last, List<WechatworkExternalUserMp> rows) {
+
+        static final Page END = new Page(null, null, true, List.of());
+    }
+
+    /**
+     * 翻页接口调用
+     */
+    @FunctionalInterface
+    public interface PageFetcher {
+
+        /**
+         * @param userId 员工 userid
+         * @param cursor 游标，首页为 null
+         * @param limit  每页条数
+         * @return 接口响应
+         */
+        JSONObject fetch(String userId, String cursor, int limit) throws Exception;
+    }
+
+    /**
+     * 同步结果
+     *
+     * @param users   请求同步的员工数
+     * @param skipped 增量模式下跳过的员工数
+     * @param fetched 拉取的好友关系条数
+     * @param written 写入数据库的条数
+     * @param success 是否全部完成
+     */
+    public record SyncReport(int users, int skipped, int fetched, int written, boolean success) {
+    }
+}
@@ -9,9 +9,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
 
 @Tag(name = "企业微信", description = "企业微信相关接口")
 @RestController
@@ -23,9 +20,6 @@ public class WechatWorkController {
     
 
 
-    // 创建一个专门的线程池来处理异步任务
-    private final Executor asyncExecutor = Executors.newFixedThreadPool(10);
-
     @GetMapping("/callBack")
     @Operation(summary = "企业微信回调验证", description = "企业微信回调URL验证接口")
     public String callBackGet(
@@ -45,17 +39,8 @@ public class WechatWorkController {
              @RequestParam String timestamp,
              @RequestBody String xmlBody) throws AesException {
 
-        // 异步处理业务逻辑
-        CompletableFuture.runAsync(() -> {
-
-            try {
-                wechatWorkServiceImpl.callBackPost(msg_signature, nonce, timestamp, xmlBody);
-            } catch (AesException e) {
-                throw new RuntimeException(e);
-            }
-
-        }, asyncExecutor);
-
+        // 只做验签、解密与入队，落库在后台批量完成，保证在企业微信超时前应答
+        wechatWorkServiceImpl.callBackPost(msg_signature, nonce, timestamp, xmlBody);
         return 200;
     }
 
@@ -3,6 +3,8 @@ package com.scccy.service.wechatwork.controller;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.scccy.common.excel.untils.ExcelUtil;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.dto.CursorPage;
 import com.scccy.common.modules.dto.ResultData;
 import com.scccy.service.wechatwork.dao.repository.WechatworkExternalUserRepository;
 import com.scccy.service.wechatwork.dao.service.WechatworkExternalUserMpService;
@@ -11,6 +13,8 @@ import com.scccy.service.wechatwork.domain.jpa.WechatworkExternalUserJpa;
 import com.scccy.service.wechatwork.domain.mp.WechatworkExternalUserMp;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.scccy.common.base.manager.JsonStreamManager;
+import com.scccy.common.modules.utils.KeysetPagination;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
@@ -32,6 +36,9 @@ public class WechatworkExternalUserController {
     @Autowired
     private WechatworkExternalUserMpService wechatworkExternalUserMpServiceImpl;
 
+    @Autowired
+    private JsonStreamManager jsonStreamManager;
+
     /**
      * 新增（请求使用 Mp 实体 -> 转换为 JPA 实体后保存）
      */
@@ -163,12 +170,26 @@ public class WechatworkExternalUserController {
     }
 
     /**
-     * 获取所有数据（无条件）
+     * 游标分页查询（keyset，按主键顺序翻页，深翻页不退化；prefixLike=true 时字符串条件按前缀匹配）
+     */
+    @PostMapping("/pageCursor")
+    public ResultData<CursorPage<WechatworkExternalUserMp>> pageCursor(CursorPageQuery pageQuery, WechatworkExternalUserMp wechatworkExternalUserMp) {
+        CursorPage<WechatworkExternalUserMp> resultPage = wechatworkExternalUserMpServiceImpl.pageCursor(pageQuery, wechatworkExternalUserMp);
+        return ResultData.ok(resultPage);
+    }
+
+    /**
+     * 获取所有数据（无条件），按主键分批流式输出
+     * <p>
+     * format 为 array（默认，ResultData 结构）或 ndjson；limit 为最大行数，不超过服务端上限
      */
     @GetMapping("/all")
-    public ResultData<List<WechatworkExternalUserMp>> all() {
-        List<WechatworkExternalUserMp> list = wechatworkExternalUserMpServiceImpl.list();
-        return ResultData.ok(list);
+    public void all(@RequestParam(defaultValue = JsonStreamManager.FORMAT_ARRAY) String format,
+                    @RequestParam(required = false) Long limit,
+                    HttpServletResponse response) throws IOException {
+        jsonStreamManager.streamAll(response, format, limit, wechatworkExternalUserMpServiceImpl,
+                KeysetPagination.key("wechatwork_user_id", WechatworkExternalUserMp::getWechatworkUserId),
+                KeysetPagination.key("wechatwork_external_userid", WechatworkExternalUserMp::getWechatworkExternalUserid));
     }
 
     @GetMapping("/export")
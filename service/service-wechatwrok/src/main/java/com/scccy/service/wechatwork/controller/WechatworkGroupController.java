@@ -9,8 +9,13 @@ import com.scccy.service.wechatwork.domain.jpa.WechatworkGroupIdJpa;
 import com.scccy.service.wechatwork.domain.jpa.WechatworkGroupJpa;
 import com.scccy.service.wechatwork.domain.mp.WechatworkGroupMp;
 import org.springframework.beans.factory.annotation.Autowired;
+import com.scccy.common.base.manager.JsonStreamManager;
+import com.scccy.common.modules.utils.KeysetPagination;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 /**
  * 企微用户群关联表 控制器（联合主键，使用 JPA Repository 进行部分 CRUD；分页/列表使用 MyBatis-Plus）
  *
@@ -27,6 +32,9 @@ public class WechatworkGroupController {
     @Autowired
     private WechatworkGroupMpService wechatworkGroupMpServiceImpl;
 
+    @Autowired
+    private JsonStreamManager jsonStreamManager;
+
     /**
      * 新增（请求使用 Mp 实体 -> 转换为 JPA 实体后保存）
      */
@@ -211,12 +219,17 @@ public class WechatworkGroupController {
     }
 
     /**
-     * 获取所有数据（无条件）
+     * 获取所有数据（无条件），按主键分批流式输出
+     * <p>
+     * format 为 array（默认，ResultData 结构）或 ndjson；limit 为最大行数，不超过服务端上限
      */
     @GetMapping("/all")
-    public ResultData<java.util.List<WechatworkGroupMp>> all() {
-        java.util.List<WechatworkGroupMp> list = wechatworkGroupMpServiceImpl.list();
-        return ResultData.ok(list);
+    public void all(@RequestParam(defaultValue = JsonStreamManager.FORMAT_ARRAY) String format,
+                    @RequestParam(required = false) Long limit,
+                    HttpServletResponse response) throws IOException {
+        jsonStreamManager.streamAll(response, format, limit, wechatworkGroupMpServiceImpl,
+                KeysetPagination.key("wechatwork_group_id", WechatworkGroupMp::getWechatworkGroupId),
+                KeysetPagination.key("wechatwork_external_user_id", WechatworkGroupMp::getWechatworkExternalUserId));
     }
 }
 
@@ -3,6 +3,9 @@ package com.scccy.service.wechatwork.dao.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.scccy.service.wechatwork.domain.mp.WechatworkExternalUserMp;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * 好友关系(WechatworkExternalUser)Mapper 接口
@@ -13,4 +16,21 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface WechatworkExternalUserMapper extends BaseMapper<WechatworkExternalUserMp> {
 
+    /**
+     * 多行 INSERT ... ON DUPLICATE KEY UPDATE 批量写入好友关系
+     * <p>
+     * 以 (wechatwork_user_id, wechatwork_external_userid) 为唯一键，已存在则更新 unionId 并恢复为未删除
+     *
+     * @param list 好友关系
+     * @return 影响行数
+     */
+    int upsertBatch(@Param("list") List<WechatworkExternalUserMp> list);
+
+    /**
+     * 按 (wechatwork_user_id, wechatwork_external_userid) 批量删除好友关系
+     *
+     * @param list 好友关系，只使用主键字段
+     * @return 影响行数
+     */
+    int deleteBatch(@Param("list") List<WechatworkExternalUserMp> list);
 }
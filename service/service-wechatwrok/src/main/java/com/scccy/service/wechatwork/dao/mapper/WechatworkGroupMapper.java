@@ -3,6 +3,9 @@ package com.scccy.service.wechatwork.dao.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.scccy.service.wechatwork.domain.mp.WechatworkGroupMp;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * 企微用户群关联表(WechatworkGroup)Mapper 接口
@@ -13,4 +16,21 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface WechatworkGroupMapper extends BaseMapper<WechatworkGroupMp> {
 
+    /**
+     * 多行 INSERT ... ON DUPLICATE KEY UPDATE 批量写入群成员
+     * <p>
+     * 以 (wechatwork_group_id, wechatwork_external_user_id) 为唯一键，已存在则更新 unionId 并恢复为未删除
+     *
+     * @param list 群成员
+     * @return 影响行数
+     */
+    int upsertBatch(@Param("list") List<WechatworkGroupMp> list);
+
+    /**
+     * 按 (wechatwork_group_id, wechatwork_external_user_id) 批量删除群成员
+     *
+     * @param list 群成员，只使用主键字段
+     * @return 影响行数
+     */
+    int deleteBatch(@Param("list") List<WechatworkGroupMp> list);
 }
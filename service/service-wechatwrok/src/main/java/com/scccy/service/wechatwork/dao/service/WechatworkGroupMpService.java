@@ -3,6 +3,8 @@ package com.scccy.service.wechatwork.dao.service;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.scccy.service.wechatwork.domain.mp.WechatworkGroupMp;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.dto.CursorPage;
 
 /**
  * 企微用户群关联表(WechatworkGroup)表服务接口
@@ -22,4 +24,9 @@ public interface WechatworkGroupMpService extends IService<WechatworkGroupMp> {
      */
     Page<WechatworkGroupMp> pageEq(Integer pageNum, Integer pageSize, WechatworkGroupMp query);
 
+    /**
+     * 游标分页查询（keyset），按主键顺序翻页，深翻页开销与页大小成正比
+     */
+    CursorPage<WechatworkGroupMp> pageCursor(CursorPageQuery pageQuery, WechatworkGroupMp query);
+
 }
@@ -7,6 +7,9 @@ import com.scccy.service.wechatwork.dao.service.WechatworkExternalUserMpService;
 import org.springframework.stereotype.Service;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.scccy.common.modules.domain.CursorPageQuery;
+import com.scccy.common.modules.dto.CursorPage;
+import com.scccy.common.modules.utils.KeysetPagination;
 
 /**
  * 好友关系(WechatworkExternalUser)服务实现类
@@ -97,4 +100,25 @@ public class WechatworkExternalUserMpServiceImpl
         return this.page(page, wrapper);
     }
 
+    @Override
+    public CursorPage<WechatworkExternalUserMp> pageCursor(CursorPageQuery pageQuery, WechatworkExternalUserMp wechatworkExternalUserMp) {
+        QueryWrapper<WechatworkExternalUserMp> wrapper = new QueryWrapper<>();
+        boolean prefixLike = Boolean.TRUE.equals(pageQuery.getPrefixLike());
+
+        KeysetPagination.match(wrapper, "wechatwork_user_id", wechatworkExternalUserMp.getWechatworkUserId(), prefixLike);
+        KeysetPagination.match(wrapper, "wechatwork_union_id", wechatworkExternalUserMp.getWechatworkUnionId(), prefixLike);
+        KeysetPagination.match(wrapper, "wechatwork_external_userid", wechatworkExternalUserMp.getWechatworkExternalUserid(), prefixLike);
+        KeysetPagination.match(wrapper, "user_id", wechatworkExternalUserMp.getUserId(), prefixLike);
+        KeysetPagination.match(wrapper, "status", wechatworkExternalUserMp.getStatus(), prefixLike);
+        KeysetPagination.match(wrapper, "create_time", wechatworkExternalUserMp.getCreateTime(), prefixLike);
+        KeysetPagination.match(wrapper, "update_time", wechatworkExternalUserMp.getUpdateTime(), prefixLike);
+        KeysetPagination.match(wrapper, "create_by", wechatworkExternalUserMp.getCreateBy(), prefixLike);
+        KeysetPagination.match(wrapper, "update_by", wechatworkExternalUserMp.getUpdateBy(), prefixLike);
+        KeysetPagination.match(wrapper, "del_flag", wechatworkExternalUserMp.getDelFlag(), prefixLike);
+
+        return KeysetPagination.page(this, wrapper, pageQuery,
+                KeysetPagination.key("wechatwork_user_id", WechatworkExternalUserMp::getWechatworkUserId),
+                KeysetPagination.key("wechatwork_external_userid", WechatworkExternalUserMp::getWechatworkExternalUserid));
+    }
+
 }
@@ -0,0 +1,96 @@
+package com.scccy.service.wechatwork.manager;
+
+import com.alibaba.fastjson2.JSONObject;
+import com.scccy.common.base.manager.OkHttpManager;
+import com.scccy.common.base.manager.ThirdPartyTokenBroker;
+import com.scccy.common.base.manager.ThirdPartyTokenBroker.IssuedToken;
+import com.scccy.common.base.manager.ThirdPartyTokenBroker.TokenCall;
+import com.scccy.common.base.manager.ThirdPartyTokenBroker.TokenSource;
+import com.scccy.service.wechatwork.config.WechatworkProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * 企业微信 access token
+ * <p>
+ * 自建应用 secret 与会话存档 secret 各对应一个令牌，由 {@link ThirdPartyTokenBroker} 统一缓存与刷新。
+ * Redis 键沿用 {@code wechatwork:access_token} / {@code wechatwork:access_token_chat}
+ *
+ * @author scccy
+ */
+@Component
+public class WecomTokenManager {
+
+    /**
+     * 40014 不合法的 access_token，41001 缺少 access_token，42001 access_token 已过期
+     */
+    private static final Set<Integer> TOKEN_ERROR_CODES = Set.of(40014, 41001, 42001);
+
+    private final ThirdPartyTokenBroker tokenBroker;
+
+    private final TokenSource corpToken;
+
+    private final TokenSource chatToken;
+
+    public WecomTokenManager(ThirdPartyTokenBroker tokenBroker,
+                             OkHttpManager okHttpManager,
+                             WechatworkProperties wechatworkProperties) {
+        this.tokenBroker = tokenBroker;
+        this.corpToken = new WecomTokenSource("wechatwork:access_token", okHttpManager, wechatworkProperties,
+                wechatworkProperties::getCorSecret);
+        this.chatToken = new WecomTokenSource("wechatwork:access_token_chat", okHttpManager, wechatworkProperties,
+                wechatworkProperties::getCoreSecretChat);
+    }
+
+    /**
+     * 自建应用 access token
+     */
+    public String corpToken() throws IOException {
+        return tokenBroker.getToken(corpToken);
+    }
+
+    /**
+     * 会话存档 access token
+     */
+    public String chatToken() throws IOException {
+        return tokenBroker.getToken(chatToken);
+    }
+
+    /**
+     * 携带自建应用 access token 调用接口，令牌失效时换新令牌重试一次
+     */
+    public JSONObject call(TokenCall call) throws IOException {
+        return tokenBroker.call(corpToken, call);
+    }
+
+    private record WecomTokenSource(String cacheKey,
+                                    OkHttpManager okHttpManager,
+                                    WechatworkProperties wechatworkProperties,
+                                    Supplier<String> secret) implements TokenSource {
+
+        @Override
+        public IssuedToken fetch() throws IOException {
+            Map<String, Object> params = new HashMap<>();
+            params.put("corpid", wechatworkProperties.getCorpID());
+            params.put("corpsecret", secret.get());
+            JSONObject result = okHttpManager.get(wechatworkProperties.getBaseUrl() + "/gettoken", new HashMap<>(), params);
+            Integer errcode = result.getInteger("errcode");
+            if (errcode != null && errcode != 0) {
+                throw new IOException("获取企业微信 access_token 失败: " + result);
+            }
+            Long expiresIn = result.getLong("expires_in");
+            return new IssuedToken(result.getString("access_token"), expiresIn == null ? 7200L : expiresIn);
+        }
+
+        @Override
+        public boolean isTokenRejected(JSONObject response) {
+            Integer errcode = response.getInteger("errcode");
+            return errcode != null && TOKEN_ERROR_CODES.contains(errcode);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.scccy.service.wechatwork.relation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 关系查询并发扇出
+ * <p>
+ * 每个元素在独立的虚拟线程中检查，第一个返回 true 的检查决定结果，其余仍在进行的检查随即被中断。
+ * 企业微信接口的调用频率由 {@link WecomRateLimiter} 统一约束，扇出本身不限制并发数。
+ * <p>
+ * 结果语义与原先的顺序 anyMatch 保持一致：任一为 true 则为 true；
+ * 全部完成且没有 true 时，如有检查失败则抛出第一个失败，否则为 false
+ *
+ * @author scccy
+ */
+@Slf4j
+@Component
+public class RelationFanOut {
+
+    /**
+     * 单次扇出的整体超时
+     */
+    @Value("${wechatwork.relation.timeout:30s}")
+    private Duration timeout;
+
+    /**
+     * 并发检查集合中是否有元素满足条件
+     *
+     * @param items 待检查元素
+     * @param check 检查逻辑，可抛出受检异常
+     * @return 是否有元素满足条件
+     */
+    public <T> boolean anyMatch(Collection<T> items, Check<T> check) {
+        if (items.isEmpty()) {
+            return false;
+        }
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(items.size());
+        AtomicReference<Exception> firstError = new AtomicReference<>();
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (T item : items) {
+                executor.execute(() -> {
+                    try {
+                        if (!result.isDone() && check.test(item)) {
+                            result.complete(Boolean.TRUE);
+                        }
+                    } catch (Exception e) {
+                        if (!result.isDone()) {
+                            firstError.compareAndSet(null, e);
+                        }
+                    } finally {
+                        if (remaining.decrementAndGet() == 0) {
+                            result.complete(Boolean.FALSE);
+                        }
+                    }
+                });
+            }
+
+            boolean matched = result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (!matched && firstError.get() != null) {
+                throw new RuntimeException(firstError.get().getMessage(), firstError.get());
+            }
+            return matched;
+        } catch (TimeoutException e) {
+            throw new RuntimeException("企业微信关系查询超时: " + timeout.toSeconds() + "s", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("企业微信关系查询被中断", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            // 已得出结果，中断仍在等待配额或 HTTP 响应的检查，不等待其结束
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 单个元素的检查逻辑
+     */
+    @FunctionalInterface
+    public interface Check<T> {
+
+        boolean test(T item) throws Exception;
+    }
+}
@@ -0,0 +1,78 @@
+package com.scccy.service.wechatwork.relation;
+
+import com.alibaba.fastjson2.JSONObject;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 单次关系查询内的请求级备忘
+ * <p>
+ * 并发扇出时，多个员工的检查可能请求同一条朋友圈详情、同一个群详情，或重复为同一员工解析同一 unionId 的 external_userid。
+ * 同一 key 只加载一次，并发的后来者等待同一个结果；加载失败不缓存，由下一个调用方重试。
+ * <p>
+ * 生命周期仅限一次 ByDep 查询，不跨请求共享，避免拿到过期数据
+ *
+ * @author scccy
+ */
+public class RelationLookupMemo {
+
+    private final Map<String, CompletableFuture<Object>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 朋友圈互动详情（按 moment_id + 员工 userid）
+     */
+    public JSONObject momentDetail(String momentId, String userId, Loader<JSONObject> loader) throws Exception {
+        return load("moment:" + momentId + ":" + userId, loader);
+    }
+
+    /**
+     * 客户群详情（按 chat_id）
+     */
+    public JSONObject groupDetail(String chatId, Loader<JSONObject> loader) throws Exception {
+        return load("group:" + chatId, loader);
+    }
+
+    /**
+     * unionId 对应的 external_userid（按员工 userid + unionId），不存在时为空
+     * <p>
+     * 本地未命中时会按该员工同步客户后再查，结果与员工有关：某个员工名下查不到，不代表其他员工名下也查不到
+     */
+    public Optional<String> externalUserid(String userId, String unionId, Loader<String> loader) throws Exception {
+        return load("external:" + userId + ":" + unionId, () -> Optional.ofNullable(loader.load()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V load(String key, Loader<V> loader) throws Exception {
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = entries.putIfAbsent(key, created);
+        if (existing != null) {
+            try {
+                return (V) existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        }
+        try {
+            V value = loader.load();
+            created.complete(value);
+            return value;
+        } catch (Exception e) {
+            entries.remove(key, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 加载逻辑，可抛出受检异常
+     */
+    @FunctionalInterface
+    public interface Loader<V> {
+
+        V load() throws Exception;
+    }
+}
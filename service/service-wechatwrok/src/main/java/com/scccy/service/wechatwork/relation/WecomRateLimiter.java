@@ -0,0 +1,84 @@
+package com.scccy.service.wechatwork.relation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 企业微信接口调用令牌桶限流器
+ * <p>
+ * 并发扇出后所有员工的查询共享同一个应用的调用频率限制，超过限制企业微信会直接返回 45009 拒绝。
+ * 令牌桶按固定速率补充，允许 {@code burst} 个请求的突发；调用方在 {@link #acquire()} 中等待到下一个可用时刻。
+ * <p>
+ * 实现上只维护"下一个令牌的可用时刻"，通过 CAS 预约，无锁（不会钉住虚拟线程的载体线程）
+ *
+ * @author scccy
+ */
+@Component
+public class WecomRateLimiter {
+
+    /**
+     * 每个令牌的补充间隔（纳秒）
+     */
+    private final long intervalNanos;
+
+    /**
+     * 令牌桶容量对应的时间跨度（纳秒）
+     */
+    private final long burstNanos;
+
+    /**
+     * 下一个令牌的可用时刻（System.nanoTime 基准）
+     */
+    private final AtomicLong nextFreeNanos;
+
+    public WecomRateLimiter(@Value("${wechatwork.rate-limit.qps:20}") int qps,
+                            @Value("${wechatwork.rate-limit.burst:20}") int burst) {
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, qps);
+        this.burstNanos = intervalNanos * Math.max(1, burst);
+        this.nextFreeNanos = new AtomicLong(System.nanoTime() - burstNanos);
+    }
+
+    /**
+     * 获取一个令牌，必要时阻塞等待
+     *
+     * @throws InterruptedIOException 等待期间线程被中断（扇出已得出结果并取消其余任务）
+     */
+    public void acquire() throws InterruptedIOException {
+        long waitNanos = reserve();
+        if (waitNanos <= 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + waitNanos;
+        long remaining = waitNanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("等待企业微信调用配额时被中断");
+            }
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    /**
+     * 预约一个令牌
+     *
+     * @return 需要等待的纳秒数，0 表示立即可用
+     */
+    private long reserve() {
+        while (true) {
+            long now = System.nanoTime();
+            long next = nextFreeNanos.get();
+            // 空闲期间最多累积 burst 个令牌
+            long start = Math.max(next, now - burstNanos);
+            if (nextFreeNanos.compareAndSet(next, start + intervalNanos)) {
+                return start - now;
+            }
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.scccy.service.wechatwork.service;
 
+import com.scccy.service.wechatwork.archive.ChatArchiveSyncResult;
+
 public interface WechatworkEncyptService {
     Boolean getHasRoomChat(String unionId);
-    void getAllData() throws Exception;
+    ChatArchiveSyncResult getAllData() throws Exception;
 
 }
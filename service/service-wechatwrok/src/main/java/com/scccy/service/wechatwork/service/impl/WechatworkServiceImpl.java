@@ -4,38 +4,31 @@ import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import com.scccy.common.base.manager.OkHttpManager;
 import com.scccy.service.wechatwork.aes.AesException;
-import com.scccy.service.wechatwork.aes.WXBizMsgCrypt;
+import com.scccy.service.wechatwork.aes.WecomMsgCodec;
+import com.scccy.service.wechatwork.callback.CallbackEvent;
+import com.scccy.service.wechatwork.callback.CallbackEventParser;
+import com.scccy.service.wechatwork.callback.CallbackEventQueue;
 import com.scccy.service.wechatwork.config.WechatworkProperties;
-import com.scccy.service.wechatwork.dao.repository.WechatworkExternalUserRepository;
-import com.scccy.service.wechatwork.dao.repository.WechatworkGroupRepository;
+import com.scccy.service.wechatwork.contact.ExternalContactSyncer;
 import com.scccy.service.wechatwork.dao.service.WechatworkExternalUserMpService;
 import com.scccy.service.wechatwork.dao.service.WechatworkGroupMpService;
-import com.scccy.service.wechatwork.domain.jpa.WechatworkExternalUserIdJpa;
-import com.scccy.service.wechatwork.domain.jpa.WechatworkExternalUserJpa;
-import com.scccy.service.wechatwork.domain.jpa.WechatworkGroupIdJpa;
-import com.scccy.service.wechatwork.domain.jpa.WechatworkGroupJpa;
 import com.scccy.service.wechatwork.domain.mp.WechatworkExternalUserMp;
 import com.scccy.service.wechatwork.domain.mp.WechatworkGroupMp;
+import com.scccy.service.wechatwork.manager.WecomTokenManager;
+import com.scccy.service.wechatwork.relation.RelationFanOut;
+import com.scccy.service.wechatwork.relation.RelationLookupMemo;
+import com.scccy.service.wechatwork.relation.WecomRateLimiter;
 import com.scccy.service.wechatwork.service.WechatworkService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import java.io.ByteArrayInputStream;
+
+import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 
 /**
@@ -47,22 +40,19 @@ import java.util.stream.IntStream;
 @RequiredArgsConstructor
 public class WechatworkServiceImpl implements WechatworkService {
 
-    private static final String ACCESS_TOKEN_KEY_HEADER = "wechatwork:";
-    private static final String ACCESS_TOKEN_KEY = "access_token";
-    private static final String ACCESS_TOKEN_KEY_CHAT = "access_token_chat";
-    private static final String ACCESS_TOKEN_EXPIRE_KEY = "access_token_expire";
-    private static final long TOKEN_EXPIRE_TIME = 7200L; // 秒
-    private static final long REFRESH_THRESHOLD = 300L; // 秒
-
-    private final RedisTemplate<String, String> redisTemplate;
     private final WechatworkProperties wechatworkProperties;
+    private final WecomTokenManager wecomTokenManager;
 
     private final WechatworkExternalUserMpService wechatworkExternalUserMpServiceImpl;
     private final WechatworkGroupMpService wechatworkGroupMpServiceImpl;
     private final OkHttpManager okHttpManager;
 
-    private final WechatworkExternalUserRepository wechatworkExternalUserRepository;
-    private final WechatworkGroupRepository wechatworkGroupRepository;
+    private final WecomRateLimiter wecomRateLimiter;
+    private final RelationFanOut relationFanOut;
+    private final ExternalContactSyncer externalContactSyncer;
+    private final CallbackEventQueue callbackEventQueue;
+
+    private volatile WecomMsgCodec msgCodec;
 
 
 
@@ -71,55 +61,28 @@ public class WechatworkServiceImpl implements WechatworkService {
 
     @Override
     public String getToken() throws IOException {
-        String cachedToken = redisTemplate.opsForValue().get(ACCESS_TOKEN_KEY_HEADER+ACCESS_TOKEN_KEY);
-        if (cachedToken != null && !cachedToken.isEmpty()) {
-            return cachedToken;
-        }
-        return refreshAccessToken(ACCESS_TOKEN_KEY_HEADER,ACCESS_TOKEN_KEY, wechatworkProperties.getCorSecret());
+        return wecomTokenManager.corpToken();
     }
 
     @Override
     public String getChatToken() throws IOException {
-        String cachedToken = redisTemplate.opsForValue().get(ACCESS_TOKEN_KEY_HEADER+ACCESS_TOKEN_KEY_CHAT);
-        if (cachedToken != null && !cachedToken.isEmpty()) {
-            return cachedToken;
-        }
-        return refreshAccessToken(ACCESS_TOKEN_KEY_HEADER,ACCESS_TOKEN_KEY_CHAT,wechatworkProperties.getCoreSecretChat());
-    }
-
-
-
-    public String refreshAccessToken(String header,String tokenKey,String secret) throws IOException {
-        String url =wechatworkProperties.getBaseUrl() + "/gettoken";
-        Map<String, Object> headers = new HashMap<>();
-        Map<String, Object> params = new HashMap<>();
-        params.put("corpid", wechatworkProperties.getCorpID());
-        params.put("corpsecret", secret);
-        JSONObject result = okHttpManager.get(url, headers, params);
-        String accessToken = result.getString("access_token");
-        redisTemplate.opsForValue().set(header+tokenKey, accessToken, TOKEN_EXPIRE_TIME - REFRESH_THRESHOLD, TimeUnit.SECONDS);
-        redisTemplate.opsForValue().set(ACCESS_TOKEN_EXPIRE_KEY, String.valueOf(System.currentTimeMillis() + TOKEN_EXPIRE_TIME * 1000));
-        return accessToken;
+        return wecomTokenManager.chatToken();
     }
 
     // ---------- 组织架构同步 ----------
 
     @Override
     public JSONObject syncDepartemt() throws IOException {
-        String url = buildUrlWithToken("/department/list");
-        Map<String, Object> params = new HashMap<>();
-        params.put("access_token", getToken());
-        return okHttpManager.get(url, null,params);
+        return wecomTokenManager.call(token -> okHttpManager.get(buildUrlWithToken("/department/list", token), null, null));
     }
 
     @Override
     public JSONObject syncUser(Integer depId) throws IOException {
-        String url = wechatworkProperties.getBaseUrl() + "/user/list?";
         Map<String, Object> headers = new HashMap<>();
         Map<String, Object> params = new HashMap<>();
-        params.put("access_token", getToken());
         params.put("department_id", depId);
-        JSONObject userList = okHttpManager.get(url, headers, params);
+        JSONObject userList = wecomTokenManager.call(token ->
+                okHttpManager.get(buildUrlWithToken("/user/list", token), headers, params));
         JSONArray userlist = userList.getJSONArray("userlist");
         if (userlist != null) {
             for (int i = 0; i < userlist.size(); i++) {
@@ -149,116 +112,44 @@ public class WechatworkServiceImpl implements WechatworkService {
             }
         }
         stringObjectHashMap.put("userid_list",userIds);
-        stringObjectHashMap.put("limit",1000);
-        return addExteralContact(stringObjectHashMap);
+        stringObjectHashMap.put("limit",100);
+        return syncExternalContacts(stringObjectHashMap, true);
     }
 
 
     @Override
     public Boolean addExteralContact(HashMap<String, Object> postParams) {
-        Map<String, Object> headers = new HashMap<>();
-        Map<String, Object> requestParams = new HashMap<>();
-        requestParams.put("userid_list", postParams.get("userid_list"));
-        requestParams.put("limit", postParams.get("limit"));
-
-        String cursor = postParams.get("cursor") == null ? null : String.valueOf(postParams.get("cursor"));
-
-        // 批量处理配置
-        final int BATCH_SIZE = 2000; // 批量保存大小
-        List<WechatworkExternalUserJpa> batchList = new ArrayList<>(BATCH_SIZE);
-        int totalProcessed = 0;
-        int totalSaved = 0;
-
-        boolean success = true;
-        String lastCursor;
-
-        try {
-            do {
-                if (cursor != null && !cursor.isEmpty()) {
-                    requestParams.put("cursor", cursor);
-                } else {
-                    requestParams.remove("cursor");
-                }
-
-                String url = buildUrlWithToken("/externalcontact/batch/get_by_user");
-                JSONObject responseBody = okHttpManager.post(url, headers, requestParams);
-                JSONArray externalContactList = responseBody.getJSONArray("external_contact_list");
-                if (externalContactList != null && !externalContactList.isEmpty()) {
-                    List<WechatworkExternalUserJpa> userWechats = IntStream
-                            .range(0, externalContactList.size())
-                            .mapToObj(externalContactList::getJSONObject)
-                            .map(externalContactJson -> {
-                                JSONObject externalContact = externalContactJson.getJSONObject("external_contact");
-                                if (externalContact == null || externalContact.getInteger("type") == null || externalContact.getInteger("type") != 1) {
-                                    return null;
-                                }
-                                String externalUserid = externalContact.getString("external_userid");
-                                String unionid = externalContact.getString("unionid");
-                                JSONObject followInfo = externalContactJson.getJSONObject("follow_info");
-                                String userid = followInfo == null ? null : followInfo.getString("userid");
-
-                                WechatworkExternalUserJpa userWechat = new WechatworkExternalUserJpa();
-                                WechatworkExternalUserIdJpa wechatworkExternalUserIdJpa = new WechatworkExternalUserIdJpa();
-                                wechatworkExternalUserIdJpa.setWechatworkExternalUserid(externalUserid);
-                                wechatworkExternalUserIdJpa.setWechatworkUserId(userid);
-                                userWechat.setId(wechatworkExternalUserIdJpa);
-                                userWechat.setWechatworkUnionId(unionid);
-                                userWechat.setUserId(userid);
-                                return userWechat;
-                            })
-                            .filter(Objects::nonNull)
-                            .toList();
-
-                    // 添加到批量列表
-                    batchList.addAll(userWechats);
-                    totalProcessed += userWechats.size();
-
-                    // 当批量列表达到指定大小时，执行批量保存
-                    if (batchList.size() >= BATCH_SIZE) {
-                        try {
-                            wechatworkExternalUserRepository.saveAll(batchList);
-                            totalSaved += batchList.size();
-                            log.info("批量保存成功，本次保存数量: {}, 累计保存数量: {}", batchList.size(), totalSaved);
-                            batchList.clear(); // 清空列表，释放内存
-                        } catch (Exception e) {
-                            log.error("批量保存失败，错误信息: {}", e.getMessage(), e);
-                            success = false;
-                            // 不要break，继续处理剩余数据
-                        }
-                    }
-                }
-
-                lastCursor = responseBody.getString("next_cursor");
-                if (lastCursor == null || lastCursor.isEmpty() || (cursor != null && cursor.equals(lastCursor))) {
-                    break;
-                }
-                cursor = lastCursor;
-
-                // 添加进度日志
-                log.info("已处理数据量: {}, 当前批次大小: {}", totalProcessed, batchList.size());
-
-            } while (true);
-
-            // 处理剩余的未保存数据
-            if (!batchList.isEmpty()) {
-                try {
-                    wechatworkExternalUserRepository.saveAll(batchList);
-                    totalSaved += batchList.size();
-                    log.info("最终批量保存成功，本次保存数量: {}, 总保存数量: {}", batchList.size(), totalSaved);
-                } catch (Exception e) {
-                    log.error("最终批量保存失败，错误信息: {}", e.getMessage(), e);
-                    success = false;
-                }
-            }
-
-            log.info("外部联系人同步完成，总处理数量: {}, 总保存数量: {}", totalProcessed, totalSaved);
+        return syncExternalContacts(postParams, false);
+    }
 
-        } catch (Exception e) {
-            log.error("外部联系人同步过程中发生异常: {}", e.getMessage(), e);
-            success = false;
+    /**
+     * 同步外部联系人，分页拉取与批量写库见 {@link ExternalContactSyncer}
+     *
+     * @param postParams  userid_list、limit（每页条数，企业微信上限 100）
+     * @param incremental 是否跳过近期已完整同步过的员工
+     */
+    @SuppressWarnings("unchecked")
+    private Boolean syncExternalContacts(HashMap<String, Object> postParams, boolean incremental) {
+        Object useridList = postParams.get("userid_list");
+        if (!(useridList instanceof List<?> list) || list.isEmpty()) {
+            return true;
         }
-
-        return success;
+        Object limitParam = postParams.get("limit");
+        int limit = limitParam instanceof Number number ? Math.min(number.intValue(), 100) : 100;
+
+        ExternalContactSyncer.SyncReport report = externalContactSyncer.sync((List<String>) list, limit, incremental,
+                (userId, cursor, pageSize) -> {
+                    Map<String, Object> requestParams = new HashMap<>();
+                    requestParams.put("userid_list", List.of(userId));
+                    requestParams.put("limit", pageSize);
+                    if (cursor != null && !cursor.isEmpty()) {
+                        requestParams.put("cursor", cursor);
+                    }
+                    wecomRateLimiter.acquire();
+                    return wecomTokenManager.call(token ->
+                            okHttpManager.post(buildUrlWithToken("/externalcontact/batch/get_by_user", token), new HashMap<>(), requestParams));
+                });
+        return report.success();
     }
 
 
@@ -272,8 +163,10 @@ public class WechatworkServiceImpl implements WechatworkService {
 //        } else {
             Map<String, Object> headers = new HashMap<>();
             Map<String, Object> requestParams = new HashMap<>();
-            String url = buildUrlWithToken("externalcontact/get");
-            JSONObject responseBody = okHttpManager.get(url + "&external_userid=" + EXTERNAL_USERID, headers, requestParams);
+            wecomRateLimiter.acquire();
+            requestParams.put("external_userid", EXTERNAL_USERID);
+            JSONObject responseBody = wecomTokenManager.call(token ->
+                    okHttpManager.get(buildUrlWithToken("/externalcontact/get", token), headers, requestParams));
             return responseBody.getJSONObject("external_contact").getString("unionid");
 //        }
     }
@@ -294,8 +187,9 @@ public class WechatworkServiceImpl implements WechatworkService {
                     requestParams.remove("cursor");
                 }
 
-                String url = buildUrlWithToken("/externalcontact/batch/get_by_user");
-                JSONObject responseBody = okHttpManager.post(url,  headers, requestParams);
+                wecomRateLimiter.acquire();
+                JSONObject responseBody = wecomTokenManager.call(token ->
+                        okHttpManager.post(buildUrlWithToken("/externalcontact/batch/get_by_user", token), headers, requestParams));
 
                 JSONArray externalContactList = responseBody.getJSONArray("external_contact_list");
                 if (externalContactList != null && !externalContactList.isEmpty()) {
@@ -344,93 +238,43 @@ public class WechatworkServiceImpl implements WechatworkService {
 
     @Override
     public JSONObject getMomentIds(HashMap<String, Object> postParams) throws IOException {
-        String url = buildUrlWithToken("/externalcontact/get_moment_list");
-        return okHttpManager.post(url,null, postParams);
+        wecomRateLimiter.acquire();
+        return wecomTokenManager.call(token -> okHttpManager.post(buildUrlWithToken("/externalcontact/get_moment_list", token), null, postParams));
     }
 
     @Override
     public JSONObject getMomentDetail(HashMap<String, Object> postParams) throws IOException {
-        String url = buildUrlWithToken("/externalcontact/get_moment_comments");
-        return okHttpManager.post(url, null,postParams);
+        wecomRateLimiter.acquire();
+        return wecomTokenManager.call(token -> okHttpManager.post(buildUrlWithToken("/externalcontact/get_moment_comments", token), null, postParams));
     }
 
     @Override
     public Boolean getLikeDetail(String userId, String unionId) throws IOException {
-        long startTime = getTodayStartTimestamp();
-        long endTime = getTodayEndTimestamp();
-
-        HashMap<String, Object> params = new HashMap<>();
-        params.put("start_time", startTime);
-        params.put("end_time", endTime);
-        params.put("creator", userId);
-        params.put("filter_type", 2);
-        params.put("cursor", "");
-        params.put("limit", 100);
-
-        String cursor = "";
-        String lastCursor;
-        do {
-            if (cursor != null && !cursor.isEmpty()) {
-                params.put("cursor", cursor);
-            } else {
-                params.remove("cursor");
-            }
-
-            JSONObject page = getMomentIds(params);
-            JSONArray momentList = page.getJSONArray("moment_list");
-            if (momentList != null && !momentList.isEmpty()) {
-                for (int i = 0; i < momentList.size(); i++) {
-                    JSONObject item = momentList.getJSONObject(i);
-                    String momentId = item.getString("moment_id");
-
-                    HashMap<String, Object> detailParams = new HashMap<>();
-                    detailParams.put("moment_id", momentId);
-                    detailParams.put("userid", userId);
-                    JSONObject detail = getMomentDetail(detailParams);
-                    JSONArray likeList = detail.getJSONArray("like_list");
-                    if (likeList == null || likeList.isEmpty()) {
-                        continue;
-                    }
-
-                    String externalUseridResolved = resolveExternalUseridOrSync(userId, unionId);
-                    if (externalUseridResolved == null) {
-                        continue;
-                    }
-                    boolean matched = likeList.stream().anyMatch(entry -> {
-                        JSONObject like = (JSONObject) entry;
-                        return externalUseridResolved.equals(like.getString("external_userid"));
-                    });
-
-                    if (matched) {
-                        return true;
-                    }
-                }
-            }
-
-            lastCursor = page.getString("next_cursor");
-            if (lastCursor == null) {
-                lastCursor = page.getString("cursor");
-            }
-            if (lastCursor == null || lastCursor.isEmpty() || (cursor != null && cursor.equals(lastCursor))) {
-                break;
-            }
-            cursor = lastCursor;
-        } while (true);
-
-        return false;
+        return momentInteracted(userId, unionId, "like_list", new RelationLookupMemo());
     }
 
     @Override
     public Boolean getCommentDetail(String userId, String unionId) throws IOException {
-        long startTime = getTodayStartTimestamp();
-        long endTime = getTodayEndTimestamp();
+        return momentInteracted(userId, unionId, "comment_list", new RelationLookupMemo());
+    }
 
+    /**
+     * 客户是否在员工今天发布的朋友圈中有互动（点赞或评论）
+     * <p>
+     * 朋友圈列表按游标顺序翻页，每页内的互动详情并发查询，命中即停止
+     *
+     * @param userId       员工 userid
+     * @param unionId      客户 unionId
+     * @param interactions 互动列表字段：like_list 或 comment_list
+     * @param memo         请求级备忘
+     */
+    private boolean momentInteracted(String userId, String unionId, String interactions, RelationLookupMemo memo)
+            throws IOException {
         HashMap<String, Object> params = new HashMap<>();
-        params.put("start_time", startTime);
-        params.put("end_time", endTime);
+        params.put("start_time", getTodayStartTimestamp());
+        params.put("end_time", getTodayEndTimestamp());
         params.put("creator", userId);
         params.put("filter_type", 2);
-        params.put("cursor", "");
         params.put("limit", 100);
 
         String cursor = "";
@@ -445,28 +289,32 @@ public class WechatworkServiceImpl implements WechatworkService {
             JSONObject page = getMomentIds(params);
             JSONArray momentList = page.getJSONArray("moment_list");
             if (momentList != null && !momentList.isEmpty()) {
-                for (int i = 0; i < momentList.size(); i++) {
-                    JSONObject item = momentList.getJSONObject(i);
-                    String momentId = item.getString("moment_id");
-
-                    HashMap<String, Object> detailParams = new HashMap<>();
-                    detailParams.put("moment_id", momentId);
-                    detailParams.put("userid", userId);
-                    JSONObject detail = getMomentDetail(detailParams);
-                    JSONArray commentList = detail.getJSONArray("comment_list");
-                    if (commentList == null || commentList.isEmpty()) {
-                        continue;
+                List<String> momentIds = momentList.stream()
+                        .map(JSONObject.class::cast)
+                        .map(item -> item.getString("moment_id"))
+                        .toList();
+                boolean matched = relationFanOut.anyMatch(momentIds, momentId -> {
+                    JSONObject detail = memo.momentDetail(momentId, userId, () -> {
+                        HashMap<String, Object> detailParams = new HashMap<>();
+                        detailParams.put("moment_id", momentId);
+                        detailParams.put("userid", userId);
+                        return getMomentDetail(detailParams);
+                    });
+                    JSONArray list = detail.getJSONArray(interactions);
+                    if (list == null || list.isEmpty()) {
+                        return false;
                     }
-
-                    String externalUseridResolved = resolveExternalUseridOrSync(userId, unionId);
-                    if (externalUseridResolved == null) {
-                        continue;
+                    String externalUserid = memo.externalUserid(userId, unionId,
+                            () -> resolveExternalUseridOrSync(userId, unionId)).orElse(null);
+                    if (externalUserid == null) {
+                        return false;
                     }
-                    return commentList.stream().anyMatch(entry -> {
-                        JSONObject comment = (JSONObject) entry;
-                        System.out.println("执行成功:external_userid:" + comment.getString("external_userid"));
-                        return externalUseridResolved.equals(comment.getString("external_userid"));
-                    });
+                    return list.stream()
+                            .map(JSONObject.class::cast)
+                            .anyMatch(entry -> externalUserid.equals(entry.getString("external_userid")));
+                });
+                if (matched) {
+                    return true;
                 }
             }
 
@@ -487,14 +335,14 @@ public class WechatworkServiceImpl implements WechatworkService {
 
     @Override
     public JSONObject syncChatgroup(HashMap<String, Object> postParams) throws IOException {
-        String url = buildUrlWithToken("/externalcontact/groupchat/list");
-        return okHttpManager.post(url, postParams);
+        wecomRateLimiter.acquire();
+        return wecomTokenManager.call(token -> okHttpManager.post(buildUrlWithToken("/externalcontact/groupchat/list", token), postParams));
     }
 
     @Override
     public JSONObject syncChatGroupMember(HashMap<String, Object> postParams) throws IOException {
-        String url = buildUrlWithToken("/externalcontact/groupchat/get");
-        return okHttpManager.post(url, postParams);
+        wecomRateLimiter.acquire();
+        return wecomTokenManager.call(token -> okHttpManager.post(buildUrlWithToken("/externalcontact/groupchat/get", token), postParams));
     }
 
     @Override
@@ -509,6 +357,15 @@ public class WechatworkServiceImpl implements WechatworkService {
 
     @Override
     public Boolean getGroupRelation(String userId, String unionId) throws IOException {
+        return groupRelation(userId, unionId, new RelationLookupMemo());
+    }
+
+    /**
+     * 客户是否在员工为群主的客户群中
+     * <p>
+     * 群列表按游标顺序翻页，每页内的群详情并发查询，命中即停止
+     */
+    private boolean groupRelation(String userId, String unionId, RelationLookupMemo memo) throws IOException {
         HashMap<String, Object> params = new HashMap<>();
         HashMap<String, Object> useridMap = new HashMap<>();
         ArrayList<String> useridList = new ArrayList<>();
@@ -528,17 +385,17 @@ public class WechatworkServiceImpl implements WechatworkService {
 
             JSONObject page = syncChatgroup(params);
             JSONArray groupList = page.getJSONArray("group_chat_list");
-            if (groupList != null) {
-                boolean found = groupList.stream().map(JSONObject.class::cast).anyMatch(group -> {
-                    String chatId = group.getString("chat_id");
-                    HashMap<String, Object> detailParams = new HashMap<>();
-                    detailParams.put("chat_id", chatId);
-                    JSONObject groupDetail = null;
-                    try {
-                        groupDetail = syncChatGroupMember(detailParams);
-                    } catch (IOException e) {
-                        throw new RuntimeException(e);
-                    }
+            if (groupList != null && !groupList.isEmpty()) {
+                List<String> chatIds = groupList.stream()
+                        .map(JSONObject.class::cast)
+                        .map(group -> group.getString("chat_id"))
+                        .toList();
+                boolean found = relationFanOut.anyMatch(chatIds, chatId -> {
+                    JSONObject groupDetail = memo.groupDetail(chatId, () -> {
+                        HashMap<String, Object> detailParams = new HashMap<>();
+                        detailParams.put("chat_id", chatId);
+                        return syncChatGroupMember(detailParams);
+                    });
                     JSONObject groupChat = groupDetail.getJSONObject("group_chat");
                     if (groupChat == null) {
                         return false;
@@ -549,7 +406,7 @@ public class WechatworkServiceImpl implements WechatworkService {
                     }
                     return memberList.stream()
                             .map(JSONObject.class::cast)
-                            .filter(m -> m.getInteger("type") == 2)
+                            .filter(m -> Integer.valueOf(2).equals(m.getInteger("type")))
                             .map(m -> m.getString("unionid"))
                             .anyMatch(unionId::equals);
                 });
@@ -564,46 +421,30 @@ public class WechatworkServiceImpl implements WechatworkService {
         return false;
     }
 
+    // ---------- 按部门员工扇出 ----------
+    // 所有员工并发检查，第一个命中即取消其余检查；企业微信调用统一经过 WecomRateLimiter
+
     @Override
     public Boolean getLikeDetailByDep(String unionId) {
-        return getUserIds().stream()
-                .anyMatch(uid -> {
-                    try {
-                        return getLikeDetail(uid, unionId);
-                    } catch (IOException e) {
-                        throw new RuntimeException(e);
-                    }
-                });
+        RelationLookupMemo memo = new RelationLookupMemo();
+        return relationFanOut.anyMatch(getUserIds(), uid -> momentInteracted(uid, unionId, "like_list", memo));
     }
 
     @Override
     public Boolean getCommentDetailBydDep(String unionId) {
-        return getUserIds().stream()
-                .anyMatch(uid -> {
-                    try {
-                        return getCommentDetail(uid, unionId);
-                    } catch (IOException e) {
-                        throw new RuntimeException(e);
-                    }
-                });
+        RelationLookupMemo memo = new RelationLookupMemo();
+        return relationFanOut.anyMatch(getUserIds(), uid -> momentInteracted(uid, unionId, "comment_list", memo));
     }
 
     @Override
     public Boolean getFriendRelationByDep(String unionId) {
-        return getUserIds().stream()
-                .anyMatch(uid -> getFriendRelation(uid, unionId));
+        return relationFanOut.anyMatch(getUserIds(), uid -> getFriendRelation(uid, unionId));
     }
 
     @Override
     public Boolean getGroupRelationByDep(String unionId) {
-        return getUserIds().stream()
-                .anyMatch(uid -> {
-                    try {
-                        return getGroupRelation(uid, unionId);
-                    } catch (IOException e) {
-                        throw new RuntimeException(e);
-                    }
-                });
+        RelationLookupMemo memo = new RelationLookupMemo();
+        return relationFanOut.anyMatch(getUserIds(), uid -> groupRelation(uid, unionId, memo));
     }
 
 
@@ -611,122 +452,41 @@ public class WechatworkServiceImpl implements WechatworkService {
     // ---------- 回调处理 ----------
 
     public String callBackGet(String msgSignature, String nonce, String timestamp, String echostr) throws AesException {
-        WXBizMsgCrypt wxcpt = new WXBizMsgCrypt(wechatworkProperties.getToken(), wechatworkProperties.getEncodingAESKey(), wechatworkProperties.getCorpID());
         try {
-            return wxcpt.VerifyURL(msgSignature, timestamp, nonce, echostr);
+            return msgCodec().verifyUrl(msgSignature, timestamp, nonce, echostr);
         } catch (Exception e) {
             log.error( e.getMessage());
             return null;
         }
     }
 
+    /**
+     * 回调只做验签、解密、解析与入队，落库由 {@link CallbackEventQueue} 的消费线程批量完成。
+     * 验签或解密失败抛出 {@link AesException}；入队失败抛出运行时异常，企业微信收到非 200 后会重试
+     */
     public void callBackPost(String msgSignature, String nonce, String timestamp, String xmlBody) throws AesException {
-        WXBizMsgCrypt wxcpt = new WXBizMsgCrypt(wechatworkProperties.getToken(), wechatworkProperties.getEncodingAESKey(), wechatworkProperties.getCorpID());
+        String sMsg = msgCodec().decryptMsg(msgSignature, timestamp, nonce, xmlBody);
+        CallbackEvent event;
         try {
-            String sMsg = wxcpt.DecryptMsg(msgSignature, timestamp, nonce, xmlBody);
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            factory.setIgnoringElementContentWhitespace(true);
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document document = builder.parse(new ByteArrayInputStream(sMsg.getBytes(StandardCharsets.UTF_8)));
-
-            // 2. 获取根元素
-            Element root = document.getDocumentElement();
-
-            String event = root.getElementsByTagName("Event").item(0).getTextContent();
-            String changeType = root.getElementsByTagName("ChangeType").item(0).getTextContent();
-
-
-            switch (event) {
-                case "change_external_chat":
-                    // 处理外部会话变更事件
-                    String groupId = root.getElementsByTagName("ChatId").item(0).getTextContent();
-                    String updateDetail = root.getElementsByTagName("UpdateDetail").item(0).getTextContent();
-                    WechatworkGroupJpa userGroup = new WechatworkGroupJpa();
-                    WechatworkGroupIdJpa userGroupId = new WechatworkGroupIdJpa();
-                    switch (updateDetail) {
-                        case "add_member":
-                            // 处理客户加入会话
-                            System.out.println("客户加入群聊");
-                            NodeList memChangeList = root.getElementsByTagName("MemChangeList");
-                            Node item = memChangeList.item(0);
-                            NodeList items = item.getChildNodes();
-                            String memberId = items.item(0).getTextContent();
-                            String memberUnionId = null;
-                            try {
-                                 memberUnionId = getExteralContactUnionId(memberId);
-                            } catch (Exception e) {
-                                log.error(e.getMessage());
-                            }
-//                            System.out.println("加入的成员ID: " + memberId + ", UnionId: " + memberUnionId);
-
-                            userGroupId.setWechatworkGroupId(groupId);
-                            userGroupId.setWechatworkExternalUserId(memberId);
-                            userGroup.setId(userGroupId);
-                            userGroup.setWechatworkExternalUnionId(memberUnionId);
-                            wechatworkGroupRepository.save(userGroup);
-
-                            // 在这里处理成员加入逻辑
-                            break;
-                        case "del_member":
-                            // 处理客户离开会话
-
-                            NodeList delMemChangeList = root.getElementsByTagName("MemChangeList");
-                            Node delItem = delMemChangeList.item(0);
-                            NodeList delItems = delItem.getChildNodes();
-                            String delMemberId = delItems.item(0).getTextContent();
-                            String delMemberUnionId = getExteralContactUnionId(delMemberId);
-                            userGroupId.setWechatworkGroupId(groupId);
-                            userGroupId.setWechatworkExternalUserId(delMemberUnionId);
-                            userGroup.setId(userGroupId);
-                            wechatworkGroupRepository.delete(userGroup);
-                            // 在这里处理成员离开逻辑
-                            break;
-                        default:
-                            System.out.println("未知的ChangeType: " + changeType);
-                            System.out.println(sMsg);
-                            break;
-                    }
-                    break;
-
-                case "change_external_contact":
-
-                    // 处理外部联系人变更事件
-                    String userId = root.getElementsByTagName("UserID").item(0).getTextContent();
-                    String externalUserID = root.getElementsByTagName("ExternalUserID").item(0).getTextContent();
-                    String unionId = getExteralContactUnionId(externalUserID);
-//                    UserWechat userWechat = new UserWechat();
-                    WechatworkExternalUserJpa userWechat = new WechatworkExternalUserJpa();
-                    WechatworkExternalUserIdJpa userWechatId = new WechatworkExternalUserIdJpa();
-                    userWechatId.setWechatworkUserId(userId);
-                    userWechatId.setWechatworkExternalUserid(externalUserID);
-                    userWechat.setId(userWechatId);
-                    userWechat.setWechatworkUnionId(unionId);
-
-
-                    switch (changeType) {
-                        case "add_external_contact":
-                            System.out.println("添加外部联系人");
-                            wechatworkExternalUserRepository.save(userWechat);
-                            break;
-                        case "del_external_contact":
-                            System.out.println("删除外部联系人");
-                            wechatworkExternalUserRepository.delete(userWechat);
-                            break;
-                        default:
-                            System.out.println("未知的ChangeType: " + changeType);
-                            break;
-                    }
-                    break;
-
-                default:
-                    System.out.println("未知的事件类型: " + event);
-                    break;
-            }
-
+            event = CallbackEventParser.parse(sMsg);
+        } catch (XMLStreamException e) {
+            // 明文格式错误重试也无法恢复，记录后直接应答
+            log.error("回调明文解析失败: {}", e.getMessage());
+            return;
+        }
+        callbackEventQueue.publish(event);
+    }
 
-        } catch (Exception e) {
-            log.error( e.getMessage());
+    /**
+     * 回调加解密实例不可变、线程安全，首次使用时创建后复用
+     */
+    private WecomMsgCodec msgCodec() throws AesException {
+        WecomMsgCodec codec = msgCodec;
+        if (codec == null) {
+            codec = new WecomMsgCodec(wechatworkProperties.getToken(), wechatworkProperties.getEncodingAESKey(), wechatworkProperties.getCorpID());
+            msgCodec = codec;
         }
+        return codec;
     }
 
 
@@ -736,8 +496,8 @@ public class WechatworkServiceImpl implements WechatworkService {
 
 
 
-    private String buildUrlWithToken(String endpoint) throws IOException {
-        return wechatworkProperties.getBaseUrl() + endpoint + "?access_token=" + getToken();
+    private String buildUrlWithToken(String endpoint, String token) {
+        return wechatworkProperties.getBaseUrl() + endpoint + "?access_token=" + token;
     }
 
     private long getTodayStartTimestamp() {
@@ -0,0 +1,132 @@
+package com.scccy.service.wechatwork.aes;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link WecomMsgCodec} 与企业微信官方 {@link WXBizMsgCrypt} 的互通测试
+ * <p>
+ * 双向加解密覆盖空消息、多字节字符、恰好填满一个 AES 分组与大消息，验证报文格式完全一致
+ *
+ * @author scccy
+ */
+class WecomMsgCodecTest {
+
+    private static final String TOKEN = "QDG6eK";
+    private static final String ENCODING_AES_KEY = "jWmYm7qr5nMoAUwZRjGtBxmz3KA1tkAj3ykkR6q2B2C";
+    private static final String RECEIVE_ID = "wx5823bf96d3bd56c7";
+    private static final String TIMESTAMP = "1409659813";
+    private static final String NONCE = "1372623149";
+
+    private static final Pattern ENCRYPT = Pattern.compile("<Encrypt><!\\[CDATA\\[(.*?)]]></Encrypt>");
+    private static final Pattern SIGNATURE = Pattern.compile("<MsgSignature><!\\[CDATA\\[(.*?)]]></MsgSignature>");
+
+    /**
+     * 明文 + 20 字节头部 + receiveId 恰好为 32 字节整数倍时，PKCS7 需补满一整个分组
+     */
+    private static final List<String> MESSAGES = List.of(
+            "",
+            "<xml><Content><![CDATA[你好，企业微信]]></Content></xml>",
+            "x".repeat(64 - 20 - RECEIVE_ID.length()),
+            "<xml>" + "y".repeat(64 * 1024) + "</xml>");
+
+    private final WXBizMsgCrypt reference = new WXBizMsgCrypt(TOKEN, ENCODING_AES_KEY, RECEIVE_ID);
+    private final WecomMsgCodec codec = new WecomMsgCodec(TOKEN, ENCODING_AES_KEY, RECEIVE_ID);
+
+    WecomMsgCodecTest() throws AesException {
+    }
+
+    @Test
+    void decryptsMessagesEncryptedByWxBizMsgCrypt() throws AesException {
+        for (String message : MESSAGES) {
+            String postData = reference.EncryptMsg(message, TIMESTAMP, NONCE);
+
+            assertThat(codec.decryptMsg(extract(SIGNATURE, postData), TIMESTAMP, NONCE, postData)).isEqualTo(message);
+        }
+    }
+
+    @Test
+    void encryptsMessagesWxBizMsgCryptCanDecrypt() throws AesException {
+        for (String message : MESSAGES) {
+            String reply = codec.encryptMsg(message, TIMESTAMP, NONCE);
+
+            assertThat(reference.DecryptMsg(extract(SIGNATURE, reply), TIMESTAMP, NONCE, reply)).isEqualTo(message);
+        }
+    }
+
+    @Test
+    void signaturesMatchWxBizMsgCrypt() throws AesException {
+        String reply = codec.encryptMsg(MESSAGES.get(1), TIMESTAMP, NONCE);
+        String encrypt = extract(ENCRYPT, reply);
+
+        assertThat(extract(SIGNATURE, reply)).isEqualTo(SHA1.getSHA1(TOKEN, TIMESTAMP, NONCE, encrypt));
+    }
+
+    @Test
+    void verifiesUrlLikeWxBizMsgCrypt() throws AesException {
+        String echoStr = extract(ENCRYPT, reference.EncryptMsg("echo-1234567890", TIMESTAMP, NONCE));
+        String signature = SHA1.getSHA1(TOKEN, TIMESTAMP, NONCE, echoStr);
+
+        assertThat(codec.verifyUrl(signature, TIMESTAMP, NONCE, echoStr))
+                .isEqualTo(reference.VerifyURL(signature, TIMESTAMP, NONCE, echoStr))
+                .isEqualTo("echo-1234567890");
+    }
+
+    @Test
+    void rejectsInvalidSignature() throws AesException {
+        String postData = reference.EncryptMsg(MESSAGES.get(1), TIMESTAMP, NONCE);
+
+        assertThatThrownBy(() -> codec.decryptMsg("0".repeat(40), TIMESTAMP, NONCE, postData))
+                .isInstanceOf(AesException.class)
+                .satisfies(e -> assertThat(((AesException) e).getCode()).isEqualTo(AesException.ValidateSignatureError));
+    }
+
+    @Test
+    void rejectsMessageForAnotherReceiver() throws AesException {
+        WXBizMsgCrypt otherCorp = new WXBizMsgCrypt(TOKEN, ENCODING_AES_KEY, "wx0000000000000000");
+        String postData = otherCorp.EncryptMsg(MESSAGES.get(1), TIMESTAMP, NONCE);
+
+        assertThatThrownBy(() -> codec.decryptMsg(extract(SIGNATURE, postData), TIMESTAMP, NONCE, postData))
+                .isInstanceOf(AesException.class)
+                .satisfies(e -> assertThat(((AesException) e).getCode()).isEqualTo(AesException.ValidateCorpidError));
+    }
+
+    @Test
+    void rejectsLengthPrefixThatOverflows() throws Exception {
+        // 长度前缀接近 Integer.MAX_VALUE，与头部长度相加会溢出为负数
+        byte[] receiveId = RECEIVE_ID.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer plain = ByteBuffer.allocate(64);
+        plain.put(new byte[16]).putInt(Integer.MAX_VALUE - 8).put((byte) 'x').put(receiveId);
+        byte pad = (byte) plain.remaining();
+        while (plain.hasRemaining()) {
+            plain.put(pad);
+        }
+        byte[] aesKey = Base64.getDecoder().decode(ENCODING_AES_KEY + "=");
+        Cipher cipher = Cipher.getInstance("AES/CBC/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(aesKey, "AES"), new IvParameterSpec(aesKey, 0, 16));
+        String echoStr = Base64.getEncoder().encodeToString(cipher.doFinal(plain.array()));
+        String signature = SHA1.getSHA1(TOKEN, TIMESTAMP, NONCE, echoStr);
+
+        assertThatThrownBy(() -> codec.verifyUrl(signature, TIMESTAMP, NONCE, echoStr))
+                .isInstanceOf(AesException.class)
+                .satisfies(e -> assertThat(((AesException) e).getCode()).isEqualTo(AesException.IllegalBuffer));
+    }
+
+    private static String extract(Pattern pattern, String xml) {
+        Matcher matcher = pattern.matcher(xml);
+        assertThat(matcher.find()).isTrue();
+        return matcher.group(1);
+    }
+}